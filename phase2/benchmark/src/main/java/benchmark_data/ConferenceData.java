@@ -0,0 +1,202 @@
+package benchmark_data;
+
+import event_system.EventService;
+import event_system.EventType;
+import message_system.MessageService;
+import message_system.MessageStatus;
+import room_system.RoomService;
+import user_system.UserService;
+import user_system.UserType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates a synthetic conference of a given size: accounts, rooms, a schedule of events with speakers and
+ * attendees, and a message history. The same size always generates the same data, so runs can be compared.
+ *
+ * Events fill the rooms in one-hour slots, one event per room per slot, and the speakers of a slot are all
+ * different, so the schedule never double-books a room or a speaker.
+ */
+public class ConferenceData {
+
+    /**
+     * Start of the first slot of the schedule
+     */
+    public static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2021, 1, 4, 9, 0);
+
+    private static final long SEED = 207;
+
+    private final int num_attendees;
+    private final int num_speakers;
+    private final int num_organizers;
+    private final int num_rooms;
+    private final int num_events;
+    private final int num_messages;
+    private final int room_capacity;
+
+    /**
+     * Creates the description of a conference
+     * @param attendees     int  number of attendee accounts
+     * @param speakers      int  number of speaker accounts, at least the number of rooms
+     * @param organizers    int  number of organizer accounts
+     * @param rooms         int  number of rooms
+     * @param events        int  number of events
+     * @param messages      int  number of messages in the history
+     * @param roomCapacity  int  capacity of every room and event
+     */
+    public ConferenceData(int attendees, int speakers, int organizers, int rooms, int events, int messages,
+                          int roomCapacity) {
+        if (speakers < rooms) throw new IllegalArgumentException("Need at least one speaker per room");
+        this.num_attendees = attendees;
+        this.num_speakers = speakers;
+        this.num_organizers = organizers;
+        this.num_rooms = rooms;
+        this.num_events = events;
+        this.num_messages = messages;
+        this.room_capacity = roomCapacity;
+    }
+
+    /**
+     * Returns a predefined conference size, for use as a JMH @Param
+     * @param size String "small" (a department workshop), "medium" (a conference) or "large" (a big conference
+     *             with a long message history)
+     * @return ConferenceData the conference of that size
+     */
+    public static ConferenceData ofSize(String size) {
+        switch (size) {
+            case "small":
+                return new ConferenceData(200, 20, 5, 10, 100, 5_000, 50);
+            case "medium":
+                return new ConferenceData(2_000, 100, 20, 40, 1_000, 50_000, 100);
+            case "large":
+                return new ConferenceData(10_000, 400, 50, 100, 10_000, 500_000, 200);
+            default:
+                throw new IllegalArgumentException("Unknown conference size: " + size);
+        }
+    }
+
+    public static String attendeeID(int i) { return "attendee" + i; }
+
+    public static String speakerID(int i) { return "speaker" + i; }
+
+    public static String organizerID(int i) { return "organizer" + i; }
+
+    public static String roomID(int i) { return "room" + i; }
+
+    public static String eventID(int i) { return "event" + i; }
+
+    public static String password(String userID) { return "pass" + userID; }
+
+    public int getNumAttendees() { return num_attendees; }
+
+    public int getNumSpeakers() { return num_speakers; }
+
+    public int getNumRooms() { return num_rooms; }
+
+    public int getNumEvents() { return num_events; }
+
+    public int getNumMessages() { return num_messages; }
+
+    /**
+     * Returns the start of the slot an event is scheduled in
+     * @param event int index of the event
+     * @return LocalDateTime start of the event
+     */
+    public LocalDateTime startOf(int event) {
+        return FIRST_SLOT.plusHours(event / num_rooms);
+    }
+
+    /**
+     * Returns the number of one-hour slots the schedule uses
+     * @return int number of slots
+     */
+    public int getNumSlots() {
+        return (num_events + num_rooms - 1) / num_rooms;
+    }
+
+    /**
+     * Adds every account
+     * @param userService UserService the service to fill
+     */
+    public void addUsers(UserService userService) {
+        for (int i = 0; i < num_attendees; i++) {
+            userService.addUser(attendeeID(i), password(attendeeID(i)), UserType.ATTENDEE);
+        }
+        for (int i = 0; i < num_speakers; i++) {
+            userService.addUser(speakerID(i), password(speakerID(i)), UserType.SPEAKER);
+        }
+        for (int i = 0; i < num_organizers; i++) {
+            userService.addUser(organizerID(i), password(organizerID(i)), UserType.ORGANIZER);
+        }
+    }
+
+    /**
+     * Adds every room
+     * @param roomService RoomService the service to fill
+     */
+    public void addRooms(RoomService roomService) {
+        for (int i = 0; i < num_rooms; i++) {
+            roomService.addRoom(roomID(i), room_capacity);
+        }
+    }
+
+    /**
+     * Adds every event with its speaker, each filled with attendees to between a quarter and three quarters of
+     * its capacity
+     * @param eventService EventService the service to fill
+     */
+    public void addEvents(EventService eventService) {
+        Random random = new Random(SEED);
+        for (int i = 0; i < num_events; i++) {
+            List<String> speakers = new ArrayList<>(1);
+            // the events of a slot are consecutive and there are at least as many speakers as rooms
+            speakers.add(speakerID(i % num_speakers));
+            int numAttendees = Math.min(num_attendees, room_capacity / 4 + random.nextInt(room_capacity / 2));
+            List<String> attendees = new ArrayList<>(numAttendees);
+            int first = random.nextInt(Math.max(1, num_attendees));
+            for (int a = 0; a < numAttendees; a++) {
+                attendees.add(attendeeID((first + a) % num_attendees));
+            }
+            eventService.addEvent(EventType.SINGLE_SPEAKER_EVENT, room_capacity, eventID(i), startOf(i),
+                    startOf(i).plusHours(1), roomID(i % num_rooms), speakers, attendees);
+        }
+    }
+
+    /**
+     * Adds the message history. Most messages go between an attendee and a small circle of contacts, so some
+     * conversations are long, and a few are sent by speakers to attendees.
+     * @param messageService MessageService the service to fill
+     */
+    public void addMessages(MessageService messageService) {
+        Random random = new Random(SEED);
+        for (int i = 0; i < num_messages; i++) {
+            String sender;
+            String receiver;
+            if (i % 10 == 0) {
+                sender = speakerID(random.nextInt(num_speakers));
+                receiver = attendeeID(random.nextInt(num_attendees));
+            } else {
+                int attendee = random.nextInt(num_attendees);
+                sender = attendeeID(attendee);
+                receiver = attendeeID(contactOf(attendee, random.nextInt(5)));
+            }
+            MessageStatus status = MessageStatus.values()[random.nextInt(MessageStatus.values().length)];
+            messageService.addMessage(new UUID(random.nextLong(), random.nextLong()), "message " + i, sender,
+                    receiver, FIRST_SLOT.plusSeconds(i), status);
+        }
+    }
+
+    /**
+     * Returns one of the few attendees an attendee regularly writes to
+     * @param attendee int index of the attendee
+     * @param contact  int which of their contacts, from 0 to 4
+     * @return int index of the contact
+     */
+    public int contactOf(int attendee, int contact) {
+        return (attendee + 1 + contact * 37) % num_attendees;
+    }
+}
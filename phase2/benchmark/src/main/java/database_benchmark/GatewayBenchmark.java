@@ -0,0 +1,118 @@
+package database_benchmark;
+
+import benchmark_data.ConferenceData;
+import database.ConnectionPool;
+import event_system.EventDatabaseReadWriter;
+import event_system.EventService;
+import event_system.EventServiceEngine;
+import message_system.MessageDatabaseReadWriter;
+import message_system.MessageService;
+import message_system.MessageServiceEngine;
+import org.openjdk.jmh.annotations.*;
+import room_system.RoomDatabaseReadWriter;
+import room_system.RoomService;
+import room_system.RoomServiceEngine;
+import user_system.UserDatabaseReadWriter;
+import user_system.UserService;
+import user_system.UserServiceEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full read and a full write of every DatabaseReadWriter against a temporary SQLite file holding a
+ * conference-sized dataset. A write goes through a new gateway each time, so it rewrites the whole table as the
+ * first save of a session does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private File db_file;
+    private String address;
+    private UserService userService;
+    private EventService eventService;
+    private MessageService messageService;
+    private RoomService roomService;
+
+    @Setup
+    public void setUp() throws IOException {
+        ConferenceData data = ConferenceData.ofSize(size);
+        userService = new UserServiceEngine();
+        eventService = new EventServiceEngine();
+        messageService = new MessageServiceEngine();
+        roomService = new RoomServiceEngine();
+        data.addUsers(userService);
+        data.addRooms(roomService);
+        data.addEvents(eventService);
+        data.addMessages(messageService);
+
+        db_file = File.createTempFile("gateway_benchmark", ".db");
+        address = "jdbc:sqlite:" + db_file.getPath();
+        if (!(writeUsers() && writeEvents() && writeMessages() && writeRooms())) {
+            throw new IllegalStateException("Could not write the benchmark database " + db_file);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConnectionPool.forAddress(address).close();
+        db_file.delete();
+    }
+
+    @Benchmark
+    public UserService readUsers() {
+        UserService service = new UserServiceEngine();
+        new UserDatabaseReadWriter(service, address).read();
+        return service;
+    }
+
+    @Benchmark
+    public boolean writeUsers() {
+        return new UserDatabaseReadWriter(userService, address).write();
+    }
+
+    @Benchmark
+    public EventService readEvents() {
+        EventService service = new EventServiceEngine();
+        new EventDatabaseReadWriter(service, address).read();
+        return service;
+    }
+
+    @Benchmark
+    public boolean writeEvents() {
+        return new EventDatabaseReadWriter(eventService, address).write();
+    }
+
+    @Benchmark
+    public MessageService readMessages() {
+        MessageService service = new MessageServiceEngine();
+        new MessageDatabaseReadWriter(service, address).read();
+        return service;
+    }
+
+    @Benchmark
+    public boolean writeMessages() {
+        return new MessageDatabaseReadWriter(messageService, address).write();
+    }
+
+    @Benchmark
+    public RoomService readRooms() {
+        RoomService service = new RoomServiceEngine();
+        new RoomDatabaseReadWriter(service, address).read();
+        return service;
+    }
+
+    @Benchmark
+    public boolean writeRooms() {
+        return new RoomDatabaseReadWriter(roomService, address).write();
+    }
+}
@@ -0,0 +1,94 @@
+package event_system_benchmark;
+
+import event_system.EventIndex;
+import event_system.EventService;
+import event_system.EventServiceEngine;
+import event_system.EventType;
+import event_system.EventView;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares listing every event the way the GUI does, through the nested lists of getListEvents and through the
+ * snapshots of getEventViews, both when no event changed since the last listing and after a single sign-up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventListingBenchmark {
+
+    private static final int ATTENDEES_PER_EVENT = 20;
+
+    @Param({"1000", "10000"})
+    public int eventCount;
+
+    private EventService eventService;
+    private int next_sign_up = 0;
+
+    @Setup
+    public void setUp() {
+        eventService = new EventServiceEngine();
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 9, 0);
+        for (int i = 0; i < eventCount; i++) {
+            List<String> attendees = new ArrayList<>();
+            for (int a = 0; a < ATTENDEES_PER_EVENT; a++) {
+                attendees.add("att" + a);
+            }
+            eventService.addEvent(EventType.SINGLE_SPEAKER_EVENT, ATTENDEES_PER_EVENT + 10, "event" + i,
+                    start.plusHours(i), start.plusHours(i + 1), "room" + (i % 20), List.of("speaker" + (i % 50)),
+                    attendees);
+        }
+    }
+
+    @Benchmark
+    public void listEvents(Blackhole blackhole) {
+        for (List<List<String>> event : eventService.getListEvents()) {
+            blackhole.consume(event.get(EventIndex.EVENT_ID.getValue()).get(0));
+            blackhole.consume(event.get(EventIndex.START_TIME.getValue()).get(0));
+            blackhole.consume(event.get(EventIndex.ATTENDEE_IDS.getValue()).size());
+        }
+    }
+
+    @Benchmark
+    public void eventViews(Blackhole blackhole) {
+        for (EventView event : eventService.getEventViews()) {
+            blackhole.consume(event.getEventID());
+            blackhole.consume(event.getFormattedStartTime());
+            blackhole.consume(event.getAttendeeIDs().size());
+        }
+    }
+
+    @Benchmark
+    public void listEventsAfterSignUp(Blackhole blackhole) {
+        signUpOnce();
+        listEvents(blackhole);
+    }
+
+    @Benchmark
+    public void eventViewsAfterSignUp(Blackhole blackhole) {
+        signUpOnce();
+        eventViews(blackhole);
+    }
+
+    /*
+     * Signs an attendee up for one event, or cancels the previous sign-up, so that event and the list of snapshots
+     * have to be rebuilt while the rosters keep their size
+     */
+    private void signUpOnce() {
+        int i = next_sign_up++;
+        String eventID = "event" + ((i / 2) % eventCount);
+        if (i % 2 == 0) {
+            eventService.addUserToEvent("late", eventID);
+        } else {
+            eventService.removeUserFromEvent("late", eventID);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package event_system_benchmark;
+
+import benchmark_data.ConferenceData;
+import event_system.EventController;
+import event_system.EventPrompt;
+import event_system.EventService;
+import event_system.EventServiceEngine;
+import event_system.EventType;
+import org.openjdk.jmh.annotations.*;
+import room_system.RoomService;
+import room_system.RoomServiceEngine;
+import user_system.UserService;
+import user_system.UserServiceEngine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the EventServiceEngine operations that grow with the size of the conference: adding events, signing
+ * up through EventController.signUp, and the room and speaker double-booking checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventServiceBenchmark {
+
+    private static final int ADDED_EVENTS = 1_000;
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private ConferenceData data;
+    private UserService userService;
+    private RoomService roomService;
+    private EventService eventService;
+    private EventController controller;
+    private int next_op = 0;
+    private int next_added_event = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = ConferenceData.ofSize(size);
+        userService = new UserServiceEngine();
+        roomService = new RoomServiceEngine();
+        data.addUsers(userService);
+        data.addRooms(roomService);
+        newSchedule();
+    }
+
+    /*
+     * A fresh schedule for every iteration of addEvent, so the events it adds do not pile up across iterations
+     */
+    @Setup(Level.Iteration)
+    public void resetSchedule() {
+        if (next_added_event > 0) newSchedule();
+    }
+
+    /**
+     * Adds ADDED_EVENTS events to a full schedule, in slots after the last one so they never conflict
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = ADDED_EVENTS)
+    @Measurement(iterations = 10, batchSize = ADDED_EVENTS)
+    public void addEvent() {
+        int i = data.getNumEvents() + next_added_event++;
+        LocalDateTime start = data.startOf(i);
+        eventService.addEvent(EventType.NO_SPEAKER_EVENT, 10, ConferenceData.eventID(i), start,
+                start.plusHours(1), ConferenceData.roomID(i % data.getNumRooms()), Collections.emptyList(),
+                new ArrayList<>());
+    }
+
+    /**
+     * Signs an attendee up for an event through the controller's checks. Every other call cancels the previous
+     * sign-up, so the rosters keep their size.
+     */
+    @Benchmark
+    public EventPrompt signUp() {
+        int i = next_op++;
+        int pair = i / 2;
+        String userID = ConferenceData.attendeeID((int) ((pair * 7919L) % data.getNumAttendees()));
+        String eventID = ConferenceData.eventID((int) ((pair * 104729L) % data.getNumEvents()));
+        return i % 2 == 0 ? controller.signUp(userID, eventID) : controller.cancelSignUp(userID, eventID);
+    }
+
+    @Benchmark
+    public boolean isDoubleBookingRoom() {
+        int i = next_op++;
+        LocalDateTime start = data.startOf((int) ((i * 7919L) % data.getNumEvents())).plusMinutes(30);
+        return eventService.isDoubleBookingRoom(ConferenceData.roomID(i % data.getNumRooms()), start,
+                start.plusHours(1));
+    }
+
+    @Benchmark
+    public boolean isDoubleBookingSpeaker() {
+        int i = next_op++;
+        LocalDateTime start = data.startOf((int) ((i * 7919L) % data.getNumEvents())).plusMinutes(30);
+        List<String> speakers = Collections.singletonList(ConferenceData.speakerID(i % data.getNumSpeakers()));
+        return eventService.isDoubleBookingSpeaker(speakers, start, start.plusHours(1));
+    }
+
+    private void newSchedule() {
+        eventService = new EventServiceEngine();
+        data.addEvents(eventService);
+        controller = new EventController("jdbc:sqlite::memory:", userService, eventService, roomService);
+        next_added_event = 0;
+    }
+}
@@ -0,0 +1,130 @@
+package event_system_benchmark;
+
+import benchmark_data.ConferenceData;
+import event_system.EventServiceEngine;
+import event_system.EventType;
+import event_system.ScheduleSolver;
+import event_system.Session;
+import org.openjdk.jmh.annotations.*;
+import room_system.RoomService;
+import room_system.RoomServiceEngine;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ScheduleSolver on a synthetic conference of SESSIONS sessions, ROOMS rooms of different sizes and
+ * SPEAKERS speakers over five days of nine hours: a solve from scratch, and a solve after a tenth of the sessions
+ * changed, which reuses the placements of the others. The number of sessions placed is printed after each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ScheduleSolverBenchmark {
+
+    private static final int SESSIONS = 1_000;
+    private static final int ROOMS = 60;
+    private static final int SPEAKERS = 300;
+    private static final int DAYS = 5;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private RoomService roomService;
+    private List<Session> sessions;
+    private List<Session> changedSessions;
+    private List<List<LocalDateTime>> horizon;
+    private ScheduleSolver solver;
+    private int placed = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        roomService = new RoomServiceEngine();
+        for (int i = 0; i < ROOMS; i++) {
+            roomService.addRoom(ConferenceData.roomID(i), 30 + (i % 10) * 30);
+        }
+        horizon = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            LocalDateTime start = ConferenceData.FIRST_SLOT.plusDays(day);
+            horizon.add(Arrays.asList(start, start.plusHours(9)));
+        }
+        Random random = new Random(207);
+        sessions = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(randomSession(ConferenceData.eventID(i), random));
+        }
+        // a tenth of the sessions are new, and another tenth have a new length
+        changedSessions = new ArrayList<>(sessions);
+        for (int i = 0; i < SESSIONS / 10; i++) {
+            Session session = changedSessions.get(i * 10);
+            changedSessions.set(i * 10, new Session(session.getEventID(), session.getEventType(),
+                    session.getEventCapacity(), session.getSpeakerIDs(), session.getLength().plusMinutes(30)));
+            changedSessions.add(randomSession(ConferenceData.eventID(SESSIONS + i), random));
+        }
+    }
+
+    /*
+     * A session of half an hour to an hour and a half; most have one speaker, and most are small
+     */
+    private Session randomSession(String eventID, Random random) {
+        int kind = random.nextInt(10);
+        int numSpeakers = kind < 2 ? 0 : kind < 9 ? 1 : 2 + random.nextInt(2);
+        List<String> speakers = new ArrayList<>(numSpeakers);
+        while (speakers.size() < numSpeakers) {
+            String speaker = ConferenceData.speakerID(random.nextInt(SPEAKERS));
+            if (!speakers.contains(speaker)) speakers.add(speaker);
+        }
+        EventType type = numSpeakers == 0 ? EventType.NO_SPEAKER_EVENT
+                : numSpeakers == 1 ? EventType.SINGLE_SPEAKER_EVENT : EventType.MULTI_SPEAKER_EVENT;
+        int capacity = 20 + random.nextInt(random.nextInt(280) + 1);
+        return new Session(eventID, type, capacity, speakers, Duration.ofMinutes(30L * (1 + random.nextInt(3))));
+    }
+
+    private ScheduleSolver newSolver() {
+        ScheduleSolver newSolver = new ScheduleSolver(new EventServiceEngine(), roomService);
+        newSolver.setThreads(threads);
+        newSolver.setDeadline(Duration.ofSeconds(30));
+        return newSolver;
+    }
+
+    @Setup(Level.Invocation)
+    public void planOnce() {
+        solver = newSolver();
+        solver.solve(sessions, horizon);
+    }
+
+    /**
+     * Places every session on an empty schedule
+     */
+    @Benchmark
+    public Map<String, ScheduleSolver.Placement> solve() {
+        Map<String, ScheduleSolver.Placement> placements = newSolver().solve(sessions, horizon);
+        placed = placements.size();
+        return placements;
+    }
+
+    /**
+     * Places the changed sessions around the unchanged placements of the previous solve
+     */
+    @Benchmark
+    public Map<String, ScheduleSolver.Placement> resolveAfterChanges() {
+        Map<String, ScheduleSolver.Placement> placements = solver.solve(changedSessions, horizon);
+        placed = placements.size();
+        return placements;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println();
+        System.out.println("sessions placed by the last solve: " + placed);
+    }
+}
@@ -0,0 +1,129 @@
+package message_system_benchmark;
+
+import benchmark_data.ConferenceData;
+import message_system.Message;
+import message_system.MessageServiceEngine;
+import message_system.MessageStatus;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Measures the heap retained per message, comparing the compact Message layout with the layout it replaced, in
+ * which every message held its own DateTimeFormatter, UUID and LocalDateTime objects and its own copies of the
+ * sender and receiver strings. Messages are generated the way a database read produces them: every row brings new
+ * strings for the user IDs. JMH measures time rather than retained heap, so this is run as a plain program:
+ *
+ * java -Xmx2g -cp benchmark/target/benchmarks.jar message_system_benchmark.MessageFootprint [messages]
+ */
+public class MessageFootprint {
+
+    private static final int DEFAULT_MESSAGES = 1_000_000;
+    private static final int USERS = 2_000;
+
+    /*
+     * The fields of a message before the compact layout, with the formatter every instance used to create
+     */
+    private static final class OriginalMessage {
+        private final UUID message_id;
+        private final String info;
+        private final String sender_id;
+        private final String receiver_id;
+        private final LocalDateTime time;
+        private MessageStatus status;
+        private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        OriginalMessage(UUID messageId, String info, String senderId, String receiverId, LocalDateTime time,
+                        MessageStatus status) {
+            this.message_id = messageId;
+            this.info = info;
+            this.sender_id = senderId;
+            this.receiver_id = receiverId;
+            this.time = time;
+            this.status = status;
+        }
+    }
+
+    public static void main(String[] args) {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MESSAGES;
+        // a first run of each warms up the code paths and the string table
+        measure(messages / 10, MessageFootprint::originalMessage);
+        measure(messages / 10, MessageFootprint::compactMessage);
+
+        double original = measure(messages, MessageFootprint::originalMessage);
+        double compact = measure(messages, MessageFootprint::compactMessage);
+        System.out.printf("original layout: %.1f bytes per message%n", original);
+        System.out.printf("compact layout:  %.1f bytes per message (%.0f%% smaller)%n", compact,
+                100 * (1 - compact / original));
+        System.out.printf("MessageServiceEngine, compact layout with its indexes: %.1f bytes per message%n",
+                measureService(messages));
+    }
+
+    private interface MessageFactory {
+        Object create(int i, Random random);
+    }
+
+    private static Object originalMessage(int i, Random random) {
+        return new OriginalMessage(new UUID(random.nextLong(), random.nextLong()), "message " + i,
+                ConferenceData.attendeeID(random.nextInt(USERS)), ConferenceData.attendeeID(random.nextInt(USERS)),
+                ConferenceData.FIRST_SLOT.plusSeconds(i), MessageStatus.UNREAD);
+    }
+
+    private static Object compactMessage(int i, Random random) {
+        return new Message(new UUID(random.nextLong(), random.nextLong()), "message " + i,
+                ConferenceData.attendeeID(random.nextInt(USERS)), ConferenceData.attendeeID(random.nextInt(USERS)),
+                ConferenceData.FIRST_SLOT.plusSeconds(i), MessageStatus.UNREAD);
+    }
+
+    /*
+     * Creates the messages into an array and returns the heap they retain, less the array itself
+     */
+    private static double measure(int messages, MessageFactory factory) {
+        Random random = new Random(207);
+        long before = usedHeap();
+        Object[] retained = new Object[messages];
+        long array = usedHeap() - before;
+        for (int i = 0; i < messages; i++) {
+            retained[i] = factory.create(i, random);
+        }
+        long after = usedHeap();
+        Reference.reachabilityFence(retained);
+        return (double) (after - before - array) / messages;
+    }
+
+    /*
+     * Loads the messages into a MessageServiceEngine, as a read of the Messages table does, and returns the heap
+     * retained by the engine
+     */
+    private static double measureService(int messages) {
+        ConferenceData data = new ConferenceData(USERS, 50, 5, 10, 100, messages, 100);
+        long before = usedHeap();
+        MessageServiceEngine service = new MessageServiceEngine();
+        data.addMessages(service);
+        // a read marks what it loaded as saved, so the engine no longer tracks it as changed
+        List<UUID> loaded = new ArrayList<>(messages);
+        for (List<String> record : service.getMessageRecords()) {
+            loaded.add(UUID.fromString(record.get(0)));
+        }
+        service.markMessagesSaved(loaded);
+        loaded = null;
+        long after = usedHeap();
+        Reference.reachabilityFence(service);
+        return (double) (after - before) / messages;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
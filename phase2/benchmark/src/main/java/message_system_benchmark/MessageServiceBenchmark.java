@@ -0,0 +1,81 @@
+package message_system_benchmark;
+
+import benchmark_data.ConferenceData;
+import message_system.MessageService;
+import message_system.MessageServiceEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures MessageServiceEngine.multiMessage and showConversation against a conference-sized message history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageServiceBenchmark {
+
+    private static final int MULTI_MESSAGES = 200;
+    private static final int RECEIVERS = 100;
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private ConferenceData data;
+    private MessageService messageService;
+    private List<String> receivers;
+    private int next_op = 0;
+    private boolean history_grown = false;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = ConferenceData.ofSize(size);
+        receivers = new ArrayList<>(RECEIVERS);
+        for (int i = 0; i < Math.min(RECEIVERS, data.getNumAttendees()); i++) {
+            receivers.add(ConferenceData.attendeeID(i));
+        }
+        newHistory();
+    }
+
+    /*
+     * A fresh history for every iteration of multiMessage, so the messages it sends do not pile up
+     */
+    @Setup(Level.Iteration)
+    public void resetHistory() {
+        if (history_grown) newHistory();
+    }
+
+    /**
+     * Sends MULTI_MESSAGES messages, each to RECEIVERS attendees
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = MULTI_MESSAGES)
+    @Measurement(iterations = 10, batchSize = MULTI_MESSAGES)
+    public void multiMessage() {
+        history_grown = true;
+        messageService.multiMessage("announcement " + next_op++, ConferenceData.speakerID(0), receivers);
+    }
+
+    /**
+     * Shows the conversation between an attendee and one of their regular contacts
+     */
+    @Benchmark
+    public List<List<String>> showConversation() {
+        int attendee = (int) ((next_op++ * 7919L) % data.getNumAttendees());
+        return messageService.showConversation(ConferenceData.attendeeID(attendee),
+                ConferenceData.attendeeID(data.contactOf(attendee, attendee % 5)));
+    }
+
+    private void newHistory() {
+        messageService = new MessageServiceEngine();
+        data.addMessages(messageService);
+        history_grown = false;
+    }
+}
@@ -0,0 +1,101 @@
+package message_system_benchmark;
+
+import database.ConnectionPool;
+import message_system.MessageDatabaseReadWriter;
+import message_system.MessageIndex;
+import message_system.MessageService;
+import message_system.MessageServiceEngine;
+import message_system.MessageStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares saving the Messages table one autocommitted statement per row (the previous write path, batchSize 0)
+ * with the batched, single-transaction MessageDatabaseReadWriter.write at several batch sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageWriteBenchmark {
+
+    private static final int NUM_USERS = 500;
+
+    @Param({"10000"})
+    public int numMessages;
+
+    // 0 stands for the per-row autocommit path
+    @Param({"0", "100", "1000", "10000"})
+    public int batchSize;
+
+    private MessageService messageService;
+    private File db_file;
+    private String address;
+
+    @Setup
+    public void setUp() throws IOException {
+        messageService = new MessageServiceEngine();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < numMessages; i++) {
+            messageService.addMessage(UUID.randomUUID(), "message body " + i, "user" + (i % NUM_USERS),
+                    "user" + ((i * 31) % NUM_USERS), now.minusSeconds(i), MessageStatus.UNREAD);
+        }
+        db_file = File.createTempFile("message_write_benchmark", ".db");
+        address = "jdbc:sqlite:" + db_file.getPath();
+        // creates the Messages table so neither path pays for it
+        new MessageDatabaseReadWriter(messageService, address).write();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConnectionPool.forAddress(address).close();
+        db_file.delete();
+    }
+
+    /**
+     * Rewrites the whole table through a new gateway, as the first save of a session does
+     */
+    @Benchmark
+    public boolean write() {
+        MessageDatabaseReadWriter gateway = new MessageDatabaseReadWriter(messageService, address);
+        if (batchSize == 0) return legacyWrite(gateway, messageService);
+        gateway.setBatchSize(batchSize);
+        return gateway.write();
+    }
+
+    /**
+     * The write path before batching: the table is cleared on its own connection, then every row is prepared
+     * and executed separately in autocommit mode.
+     */
+    private static boolean legacyWrite(MessageDatabaseReadWriter gateway, MessageService messageService) {
+        gateway.deleteAllData("Messages");
+        String sql = "INSERT INTO Messages(messageID,sender,receiver,message, time, status) VALUES(?,?,?,?,?,?) ";
+        try (Connection connection = gateway.makeConnection()) {
+            for (List<String> message : messageService.getMessageInfo()) {
+                PreparedStatement entry = connection.prepareStatement(sql);
+                entry.setString(1, message.get(MessageIndex.MESSAGE_ID.getValue()));
+                entry.setString(2, message.get(MessageIndex.SENDER.getValue()));
+                entry.setString(3, message.get(MessageIndex.RECEIVER.getValue()));
+                entry.setString(4, message.get(MessageIndex.MESSAGE_INFO.getValue()));
+                entry.setString(5, message.get(MessageIndex.TIME.getValue()));
+                entry.setString(6, message.get(MessageIndex.STATUS.getValue()));
+                entry.execute();
+            }
+            return true;
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package user_system_benchmark;
+
+import benchmark_data.ConferenceData;
+import org.openjdk.jmh.annotations.*;
+import user_system.UserService;
+import user_system.UserServiceEngine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures UserServiceEngine.validateCredentials, the check behind every login, with conference-sized account
+ * lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private ConferenceData data;
+    private UserService userService;
+    private int next_op = 0;
+
+    @Setup
+    public void setUp() {
+        data = ConferenceData.ofSize(size);
+        userService = new UserServiceEngine();
+        data.addUsers(userService);
+    }
+
+    @Benchmark
+    public boolean validateCredentials() {
+        String userID = ConferenceData.attendeeID((int) ((next_op++ * 7919L) % data.getNumAttendees()));
+        return userService.validateCredentials(userID, ConferenceData.password(userID));
+    }
+
+    @Benchmark
+    public boolean validateWrongPassword() {
+        String userID = ConferenceData.attendeeID((int) ((next_op++ * 7919L) % data.getNumAttendees()));
+        return userService.validateCredentials(userID, "wrong");
+    }
+}
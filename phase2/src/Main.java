@@ -1,3 +1,4 @@
+import database.ConnectionPool;
 import graphic_user_interface.*;
 import graphic_user_interface.login.LoginBuilder;
 import graphic_user_interface.menu.MenuBuilder;
@@ -36,7 +37,7 @@ public class Main extends Application {
 
     @Override
     public void init() throws Exception {
-        controllerBuilder = new ControllerBuilder();
+        controllerBuilder = new ControllerBuilder(Boolean.getBoolean("onDemand"));
         try {
             controllerBuilder.loadControllers();
         } catch (Exception e) {
@@ -45,6 +46,12 @@ public class Main extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        controllerBuilder.close();
+        ConnectionPool.closeAll();
+    }
+
     public static void main(String[] args) {
         Main.launch();
     }
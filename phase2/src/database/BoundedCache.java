@@ -0,0 +1,94 @@
+package database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache holding at most a fixed number of entries, used in front of the repositories so
+ * that frequently read rows are not queried again while memory stays bounded.
+ * @param <K> type of the keys
+ * @param <V> type of the cached values
+ */
+public class BoundedCache<K, V> {
+
+    private final int max_entries;
+    private final Map<K, V> entries;
+    private long hit_count = 0;
+    private long miss_count = 0;
+
+    /**
+     * Creates an empty cache
+     * @param maxEntries int largest number of entries kept, must be positive
+     */
+    public BoundedCache(int maxEntries) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("Cache size must be positive");
+        this.max_entries = maxEntries;
+        // access order makes iteration start at the least recently used entry
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > max_entries;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached value, marking it as recently used
+     * @param key K key of the value
+     * @return V the cached value, or null if it is not cached
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) miss_count++;
+        else hit_count++;
+        return value;
+    }
+
+    /**
+     * Caches a value, evicting the least recently used entry if the cache is full
+     * @param key K key of the value
+     * @param value V value to cache, not null
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Removes a value from the cache
+     * @param key K key of the value
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every value from the cache
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of cached values
+     * @return int number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups that found a cached value
+     * @return long number of hits
+     */
+    public synchronized long getHitCount() {
+        return hit_count;
+    }
+
+    /**
+     * Gets the number of lookups that found no cached value
+     * @return long number of misses
+     */
+    public synchronized long getMissCount() {
+        return miss_count;
+    }
+}
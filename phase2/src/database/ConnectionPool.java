@@ -0,0 +1,497 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small pool of long-lived JDBC connections to one database address, shared by every DatabaseReadWriter
+ * using that address. Borrowed connections are handles whose close() returns the underlying connection to the
+ * pool, so callers keep using the usual try/finally close pattern. Each connection also keeps the statements
+ * prepared on it: closing a statement from prepareStatement(String) returns it to a per-connection cache, and
+ * preparing the same SQL again on that connection reuses it instead of compiling it again.
+ */
+public class ConnectionPool {
+
+    /**
+     * Number of idle connections kept open for reuse
+     */
+    public static final int DEFAULT_MAX_IDLE = 4;
+
+    /**
+     * Milliseconds a connection may stay borrowed before it is reported as a possible leak
+     */
+    public static final long DEFAULT_LEAK_THRESHOLD_MILLIS = 30_000;
+
+    /**
+     * Number of closed prepared statements kept for reuse on each connection
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    private static final Map<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+
+    private final String address;
+    private final Deque<Connection> idle_connections = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed_connections = new LinkedHashSet<>();
+    // statements kept for reuse on each open physical connection
+    private final Map<Connection, StatementCache> statement_caches = new IdentityHashMap<>();
+    private int max_idle = DEFAULT_MAX_IDLE;
+    private long leak_threshold_millis = DEFAULT_LEAK_THRESHOLD_MILLIS;
+    // capturing a stack trace on every borrow is costly, so leaks only report where they were borrowed on request
+    private boolean record_borrow_sites = false;
+    private volatile int statement_cache_size = DEFAULT_STATEMENT_CACHE_SIZE;
+    private boolean closed = false;
+
+    // pool metrics
+    private long created_count = 0;
+    private long borrow_count = 0;
+    private long leak_count = 0;
+    private int peak_active_count = 0;
+    private final AtomicLong statement_cache_hits = new AtomicLong();
+    private final AtomicLong statement_cache_misses = new AtomicLong();
+
+    static {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            System.out.println(e + ": " + "Compilation Error with external Library. Bad Connection!");
+        }
+    }
+
+    /**
+     * Creates a pool of connections to the given address
+     * @param address String address for DB - i.e. "jdbc:sqlite: *filepath* "
+     */
+    public ConnectionPool(String address) {
+        this.address = address;
+    }
+
+    /**
+     * Returns the shared pool for the given address, creating it if there is none or the last one was closed
+     * @param address String address for DB - i.e. "jdbc:sqlite: *filepath* "
+     * @return ConnectionPool the open pool for address
+     */
+    public static ConnectionPool forAddress(String address) {
+        return pools.compute(address, (a, pool) -> pool == null || pool.isClosed() ? new ConnectionPool(a) : pool);
+    }
+
+    /**
+     * Closes every shared pool, e.g. when the program exits
+     */
+    public static void closeAll() {
+        for (ConnectionPool pool : pools.values()) {
+            pool.close();
+        }
+        pools.clear();
+    }
+
+    /**
+     * Borrows a connection, reusing an idle one when possible. The caller must close it to return it.
+     * @return Connection a connection handle to the DB
+     * @throws SQLException if the pool is closed or a new connection cannot be opened
+     */
+    public synchronized Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool for " + address + " is closed");
+        reportLeaks();
+
+        Connection physical = null;
+        while (physical == null && !idle_connections.isEmpty()) {
+            Connection candidate = idle_connections.pop();
+            if (!candidate.isClosed()) physical = candidate;
+            else closeQuietly(candidate);
+        }
+        if (physical == null) {
+            physical = DriverManager.getConnection(address);
+            statement_caches.put(physical, new StatementCache());
+            created_count++;
+        }
+
+        PooledConnection handle = new PooledConnection(physical, statement_caches.get(physical),
+                record_borrow_sites && leak_threshold_millis > 0);
+        borrowed_connections.add(handle);
+        borrow_count++;
+        peak_active_count = Math.max(peak_active_count, borrowed_connections.size());
+        return handle.proxy;
+    }
+
+    /**
+     * Reports every connection borrowed for longer than the leak threshold, with the place it was borrowed
+     * from if borrow sites are recorded, see setRecordBorrowSites. Each leak is reported once; this also runs on
+     * every borrow.
+     * @return int number of connections currently held longer than the threshold
+     */
+    public synchronized int reportLeaks() {
+        if (leak_threshold_millis <= 0) return 0;
+        int held = 0;
+        long now = System.currentTimeMillis();
+        for (PooledConnection handle : borrowed_connections) {
+            if (now - handle.borrowed_at < leak_threshold_millis) continue;
+            held++;
+            if (!handle.leak_reported) {
+                handle.leak_reported = true;
+                leak_count++;
+                System.out.println("Possible connection leak: connection to " + address + " borrowed "
+                        + (now - handle.borrowed_at) + " ms ago and not closed");
+                if (handle.borrow_site != null) handle.borrow_site.printStackTrace(System.out);
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Closes the idle connections and refuses further borrows. Connections still borrowed are closed when
+     * they are returned.
+     */
+    public synchronized void close() {
+        closed = true;
+        while (!idle_connections.isEmpty()) {
+            closeQuietly(idle_connections.pop());
+        }
+    }
+
+    /**
+     * Checks if the pool has been closed
+     * @return boolean true if close() has been called
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Sets how many idle connections are kept open; connections returned beyond this are closed
+     * @param maxIdle int number of idle connections, must not be negative
+     */
+    public synchronized void setMaxIdle(int maxIdle) {
+        if (maxIdle < 0) throw new IllegalArgumentException("Max idle connections must not be negative");
+        this.max_idle = maxIdle;
+        while (idle_connections.size() > max_idle) {
+            closeQuietly(idle_connections.pop());
+        }
+    }
+
+    /**
+     * Sets how long a connection may stay borrowed before it is reported as a possible leak
+     * @param thresholdMillis long milliseconds, or 0 to turn leak detection off
+     */
+    public synchronized void setLeakThresholdMillis(long thresholdMillis) {
+        if (thresholdMillis < 0) throw new IllegalArgumentException("Leak threshold must not be negative");
+        this.leak_threshold_millis = thresholdMillis;
+    }
+
+    /**
+     * Sets whether each borrow records the stack trace of its caller, which leak reports then print. Off by
+     * default, since it walks the stack on every borrow; turn it on to find where a reported leak comes from.
+     * @param record boolean true to record the place of each later borrow
+     */
+    public synchronized void setRecordBorrowSites(boolean record) {
+        this.record_borrow_sites = record;
+    }
+
+    /**
+     * Sets how many closed prepared statements are kept for reuse on each connection
+     * @param cacheSize int number of statements per connection, or 0 to prepare every statement again
+     */
+    public void setStatementCacheSize(int cacheSize) {
+        if (cacheSize < 0) throw new IllegalArgumentException("Statement cache size must not be negative");
+        this.statement_cache_size = cacheSize;
+    }
+
+    /**
+     * Gets the number of prepared statements that were reused from a connection's cache
+     * @return long number of cache hits
+     */
+    public long getStatementCacheHits() {
+        return statement_cache_hits.get();
+    }
+
+    /**
+     * Gets the number of prepared statements that had to be compiled because none was cached
+     * @return long number of cache misses
+     */
+    public long getStatementCacheMisses() {
+        return statement_cache_misses.get();
+    }
+
+    /**
+     * Gets the number of connections currently borrowed
+     * @return int number of borrowed connections
+     */
+    public synchronized int getActiveCount() {
+        return borrowed_connections.size();
+    }
+
+    /**
+     * Gets the number of open connections waiting to be reused
+     * @return int number of idle connections
+     */
+    public synchronized int getIdleCount() {
+        return idle_connections.size();
+    }
+
+    /**
+     * Gets the number of physical connections opened by this pool
+     * @return long number of connections created
+     */
+    public synchronized long getCreatedCount() {
+        return created_count;
+    }
+
+    /**
+     * Gets the number of times a connection was borrowed
+     * @return long number of borrows
+     */
+    public synchronized long getBorrowCount() {
+        return borrow_count;
+    }
+
+    /**
+     * Gets the number of connections reported as possible leaks
+     * @return long number of leaks reported
+     */
+    public synchronized long getLeakCount() {
+        return leak_count;
+    }
+
+    /**
+     * Gets the largest number of connections that were borrowed at the same time
+     * @return int peak number of borrowed connections
+     */
+    public synchronized int getPeakActiveCount() {
+        return peak_active_count;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ConnectionPool[" + address + ": active=" + borrowed_connections.size() + ", idle="
+                + idle_connections.size() + ", created=" + created_count + ", borrows=" + borrow_count
+                + ", leaks=" + leak_count + ", peakActive=" + peak_active_count + ", statementHits="
+                + statement_cache_hits + ", statementMisses=" + statement_cache_misses + "]";
+    }
+
+    /*
+     * Takes back a connection whose handle was closed, rolling back any open transaction. The connection is
+     * kept for reuse unless the pool is closed or already has max_idle idle connections.
+     */
+    private synchronized void release(PooledConnection handle) {
+        if (!borrowed_connections.remove(handle)) return;
+        Connection physical = handle.physical;
+        try {
+            if (physical.isClosed()) {
+                closeQuietly(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+            closeQuietly(physical);
+            return;
+        }
+        if (closed || idle_connections.size() >= max_idle) {
+            closeQuietly(physical);
+        } else {
+            idle_connections.push(physical);
+        }
+    }
+
+    /*
+     * Closes a physical connection together with the statements cached on it
+     */
+    private void closeQuietly(Connection connection) {
+        StatementCache cache = statement_caches.remove(connection);
+        if (cache != null) cache.closeAll();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+        }
+    }
+
+    /*
+     * One borrow of a physical connection. Its proxy forwards every call to the physical connection, except
+     * close(), which closes the statements created through this handle and returns the connection to the pool.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final StatementCache statement_cache;
+        private final Connection proxy;
+        private final List<Statement> statements = new ArrayList<>();
+        private final long borrowed_at = System.currentTimeMillis();
+        private final Throwable borrow_site;
+        private boolean returned = false;
+        private boolean leak_reported = false;
+
+        PooledConnection(Connection physical, StatementCache statementCache, boolean recordBorrowSite) {
+            this.physical = physical;
+            this.statement_cache = statementCache;
+            this.borrow_site = recordBorrowSite ? new Throwable("Connection borrowed here") : null;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    returnToPool();
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + address + "]";
+                default:
+                    break;
+            }
+            if (returned) throw new SQLException("Connection has already been returned to the pool");
+
+            if (method.getName().equals("prepareStatement") && args.length == 1 && statement_cache_size > 0) {
+                CachedStatement statement = new CachedStatement((String) args[0], this);
+                statements.add(statement.proxy);
+                return statement.proxy;
+            }
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) statements.add((Statement) result);
+            return result;
+        }
+
+        private void returnToPool() {
+            if (returned) return;
+            returned = true;
+            for (Statement statement : statements) {
+                try {
+                    if (!statement.isClosed()) statement.close();
+                } catch (SQLException e) {
+                    System.out.println(e.toString());
+                }
+            }
+            statements.clear();
+            release(this);
+        }
+    }
+
+    /*
+     * The closed prepared statements of one physical connection, by SQL, least recently used first. Only the
+     * borrower of the connection uses its cache, so it needs no locking of its own.
+     */
+    private static final class StatementCache {
+        private final LinkedHashMap<String, PreparedStatement> idle_statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PreparedStatement take(String sql) {
+            return idle_statements.remove(sql);
+        }
+
+        void giveBack(String sql, PreparedStatement statement, int cacheSize) throws SQLException {
+            if (statement.isClosed()) return;
+            statement.clearParameters();
+            statement.clearBatch();
+            PreparedStatement duplicate = idle_statements.put(sql, statement);
+            if (duplicate != null) duplicate.close();
+            Iterator<PreparedStatement> eldest = idle_statements.values().iterator();
+            while (idle_statements.size() > cacheSize) {
+                eldest.next().close();
+                eldest.remove();
+            }
+        }
+
+        void closeAll() {
+            for (PreparedStatement statement : idle_statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    System.out.println(e.toString());
+                }
+            }
+            idle_statements.clear();
+        }
+    }
+
+    /*
+     * A prepared statement borrowed from the cache of a connection. Its proxy forwards every call to the cached
+     * statement, except close(), which closes its result sets and puts the statement back in the cache.
+     */
+    private final class CachedStatement implements InvocationHandler {
+        private final String sql;
+        private final PooledConnection handle;
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private final List<ResultSet> results = new ArrayList<>();
+        private boolean closed = false;
+
+        CachedStatement(String sql, PooledConnection handle) throws SQLException {
+            this.sql = sql;
+            this.handle = handle;
+            PreparedStatement cached = handle.statement_cache.take(sql);
+            if (cached != null && !cached.isClosed()) {
+                statement_cache_hits.incrementAndGet();
+            } else {
+                cached = handle.physical.prepareStatement(sql);
+                statement_cache_misses.incrementAndGet();
+            }
+            this.statement = cached;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return handle.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + sql + "]";
+                default:
+                    break;
+            }
+            if (closed) throw new SQLException("Statement has already been closed");
+
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) results.add((ResultSet) result);
+            return result;
+        }
+
+        private void close() throws SQLException {
+            if (closed) return;
+            closed = true;
+            for (ResultSet result : results) {
+                if (!result.isClosed()) result.close();
+            }
+            results.clear();
+            try {
+                handle.statement_cache.giveBack(sql, statement, statement_cache_size);
+            } catch (SQLException e) {
+                statement.close();
+                throw e;
+            }
+        }
+    }
+}
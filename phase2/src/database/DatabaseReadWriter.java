@@ -1,7 +1,12 @@
 package database;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BooleanSupplier;
 
 /**
  * Gateway class containing operations for tables in the DB.
@@ -9,6 +14,51 @@ import java.util.List;
 public abstract class DatabaseReadWriter {
 
     private final String address;
+    private int batch_size = DEFAULT_BATCH_SIZE;
+    private int read_chunk_size = DEFAULT_READ_CHUNK_SIZE;
+    // true once a read or write has made the table match the service, so later saves only need its changes
+    private volatile boolean synced = false;
+
+    /**
+     * Number of rows sent to the DB in one JDBC batch when a table is rewritten
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Number of rows decoded together by one task when rows are mapped in parallel
+     */
+    public static final int DEFAULT_READ_CHUNK_SIZE = 2048;
+
+    /**
+     * Binds the values of one entity to the parameters of a prepared INSERT/REPLACE statement
+     * @param <T> type of the row being written
+     */
+    public interface RowWriter<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    /**
+     * Maps the current row of a ResultSet to an entity
+     * @param <T> type of the entity being read
+     */
+    public interface RowReader<T> {
+        T read(ResultSet row) throws SQLException;
+    }
+
+    /**
+     * Builds an entity from the text of the columns of one row, see mapRowsInParallel
+     * @param <T> type of the entity being built
+     */
+    public interface RowBuilder<T> {
+        T build(String[] columns) throws Exception;
+    }
+
+    /**
+     * Work done on one connection inside a transaction, see runInTransaction
+     */
+    public interface Transaction {
+        void run(Connection connection) throws SQLException;
+    }
 
     /**
      * Constructor to set file Path
@@ -20,22 +70,70 @@ public abstract class DatabaseReadWriter {
     }
 
     /**
-     * Connection method to establish a connection to DB, when
-     * doing any operations with tables inside the DB
+     * Connection method to borrow a connection to DB from the shared pool for its address, when
+     * doing any operations with tables inside the DB. Closing the connection returns it to the pool.
      */
     public Connection makeConnection() {
         Connection connection = null;
 
         try {
-            Class.forName("org.sqlite.JDBC");
-            //Address for DB file
-            connection = DriverManager.getConnection(address);
-        } catch (ClassNotFoundException | SQLException e) {
+            connection = getConnectionPool().borrow();
+        } catch (SQLException e) {
             System.out.println(e + ": " + "Compilation Error with external Library. Bad Connection!");
         }
         return connection;
     }
 
+    /**
+     * Gets the shared pool of connections to this DB, e.g. to read its metrics
+     * @return ConnectionPool the open pool for the address of this DB
+     */
+    public ConnectionPool getConnectionPool() {
+        return ConnectionPool.forAddress(address);
+    }
+
+    /**
+     * Gets the schema manager of this DB, which records the version its tables have been migrated to
+     * @return SchemaManager the schema manager for the address of this DB
+     */
+    public SchemaManager getSchemaManager() {
+        return SchemaManager.forAddress(address);
+    }
+
+    /**
+     * Sets how many rows are sent to the DB in one JDBC batch when a table is rewritten
+     * @param batchSize int number of rows per batch, must be positive
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive");
+        this.batch_size = batchSize;
+    }
+
+    /**
+     * Gets how many rows are sent to the DB in one JDBC batch when a table is rewritten
+     * @return int number of rows per batch
+     */
+    public int getBatchSize() {
+        return batch_size;
+    }
+
+    /**
+     * Sets how many rows are decoded together by one task when rows are mapped in parallel
+     * @param chunkSize int number of rows per task, must be positive
+     */
+    public void setReadChunkSize(int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Read chunk size must be positive");
+        this.read_chunk_size = chunkSize;
+    }
+
+    /**
+     * Gets how many rows are decoded together by one task when rows are mapped in parallel
+     * @return int number of rows per task
+     */
+    public int getReadChunkSize() {
+        return read_chunk_size;
+    }
+
     /**
      * Checks if table exists in the database
      * @param tableName String name of Table
@@ -46,8 +144,9 @@ public abstract class DatabaseReadWriter {
 
         try {
             DatabaseMetaData dmd = connection.getMetaData();
-            ResultSet allTables = dmd.getTables(null, null, tableName, null);
-            return allTables.next();
+            try (ResultSet allTables = dmd.getTables(null, null, tableName, null)) {
+                return allTables.next();
+            }
         } catch (SQLException e) {
             System.out.println(e.toString());
             return false;
@@ -86,7 +185,8 @@ public abstract class DatabaseReadWriter {
     }
 
     /**
-     * Creates a new Table in the DB based on SQL command passed through parameter
+     * Creates a new Table in the DB based on SQL command passed through parameter. Since the table is made outside
+     * of a schema migration, the schema versions of the DB are reset.
      * @param sql String SQL command for table being created
      */
     public void createNewTable(String sql) {
@@ -95,6 +195,7 @@ public abstract class DatabaseReadWriter {
         try {
             Statement action = connection.createStatement();
             action.execute(sql);
+            getSchemaManager().reset();
         } catch (SQLException e) {
             System.out.println(e.toString());
         } finally {
@@ -107,7 +208,8 @@ public abstract class DatabaseReadWriter {
     }
 
     /**
-     * Deletes table from the DB
+     * Deletes table from the DB. The schema versions of the DB are reset, so the tables of every schema are
+     * checked again the next time they are used.
      * @param tableName name of table being deleted
      * @return boolean true or false if table is deleted successfully
      */
@@ -118,6 +220,7 @@ public abstract class DatabaseReadWriter {
         try {
             Statement action = connection.createStatement();
             action.executeUpdate(sql+tableName);
+            getSchemaManager().reset();
             return true;
         } catch(Exception e) {
             System.out.println(e.toString());
@@ -192,6 +295,12 @@ public abstract class DatabaseReadWriter {
         } catch (SQLException throwable) {
             throwable.printStackTrace();
             return false;
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.out.println(e.toString());
+            }
         }
     }
 
@@ -215,9 +324,273 @@ public abstract class DatabaseReadWriter {
         } catch (SQLException throwable) {
             throwable.printStackTrace();
             return false;
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.out.println(e.toString());
+            }
+        }
+    }
+
+    /**
+     * Replaces every row of a table with the given rows in a single transaction. One prepared statement is
+     * reused for all rows, and rows are sent in batches of getBatchSize().
+     * @param tableName String name of the table being rewritten
+     * @param sql String INSERT/REPLACE statement with one parameter per column
+     * @param rows List of entities to write, one per row
+     * @param rowWriter RowWriter binding an entity to the parameters of sql
+     * @return boolean true or false if all rows were written; on failure the table is left unchanged
+     */
+    public <T> boolean replaceAllRows(String tableName, String sql, List<T> rows, RowWriter<T> rowWriter) {
+        return batchWrite(tableName, null, null, sql, rows, rowWriter);
+    }
+
+    /**
+     * Writes the given rows in a single transaction, keeping rows already in the table. One prepared statement
+     * is reused for all rows, and rows are sent in batches of getBatchSize().
+     * @param sql String INSERT/REPLACE statement with one parameter per column
+     * @param rows List of entities to write, one per row
+     * @param rowWriter RowWriter binding an entity to the parameters of sql
+     * @return boolean true or false if all rows were written; on failure the table is left unchanged
+     */
+    public <T> boolean writeRows(String sql, List<T> rows, RowWriter<T> rowWriter) {
+        return batchWrite(null, null, null, sql, rows, rowWriter);
+    }
+
+    /*
+     * Runs sql once per row as JDBC batches inside one transaction, after first clearing tableToClear if it is
+     * not null and running deleteSql once per deleted key if it is not null. Rolls back and returns false if any
+     * statement fails.
+     */
+    private <T> boolean batchWrite(String tableToClear, String deleteSql, List<String> deletedKeys, String sql,
+                                   List<T> rows, RowWriter<T> rowWriter) {
+        return runInTransaction(connection -> {
+            if (tableToClear != null) {
+                try (Statement clear = connection.createStatement()) {
+                    clear.executeUpdate("DELETE FROM " + tableToClear);
+                }
+            }
+            if (deleteSql != null) {
+                try (PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+                    executeBatches(delete, deletedKeys, (statement, key) -> statement.setString(1, key));
+                }
+            }
+            try (PreparedStatement entry = connection.prepareStatement(sql)) {
+                executeBatches(entry, rows, rowWriter);
+            }
+        });
+    }
+
+    /**
+     * Runs a query with the given parameters and maps every row of its result
+     * @param sql String SELECT statement with one ? per parameter
+     * @param rowReader RowReader mapping a row to an entity
+     * @param parameters Object values bound to the parameters of sql, in order
+     * @return List of the entities read, or an empty list if the query fails
+     */
+    public <T> List<T> queryRows(String sql, RowReader<T> rowReader, Object... parameters) {
+        Connection connection = makeConnection();
+        List<T> rows = new ArrayList<>();
+
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            for (int x = 0; x < parameters.length; x++) {
+                query.setObject(x + 1, parameters[x]);
+            }
+            try (ResultSet result = query.executeQuery()) {
+                while (result.next()) {
+                    rows.add(rowReader.read(result));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.out.println(e.toString());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Runs an INSERT/UPDATE/DELETE statement with the given parameters
+     * @param sql String statement with one ? per parameter
+     * @param parameters Object values bound to the parameters of sql, in order
+     * @return int number of rows changed, or -1 if the statement fails
+     */
+    public int updateRows(String sql, Object... parameters) {
+        Connection connection = makeConnection();
+
+        try (PreparedStatement update = connection.prepareStatement(sql)) {
+            for (int x = 0; x < parameters.length; x++) {
+                update.setObject(x + 1, parameters[x]);
+            }
+            return update.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+            return -1;
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.out.println(e.toString());
+            }
+        }
+    }
+
+    /**
+     * Runs work on one connection as a single transaction, committing if it completes
+     * @param work Transaction statements to run
+     * @return boolean true or false if the work was committed; on failure it is rolled back
+     */
+    public boolean runInTransaction(Transaction work) {
+        Connection connection = makeConnection();
+
+        try {
+            connection.setAutoCommit(false);
+            work.run(connection);
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+            try {
+                connection.rollback();
+            } catch (SQLException throwable) {
+                System.out.println(throwable.toString());
+            }
+            return false;
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.out.println(e.toString());
+            }
         }
     }
 
+    /**
+     * Applies the changes made since the last save in a single transaction: the rows of deletedKeys are deleted
+     * and every changed row is written with sql, which should be an UPSERT (INSERT ... ON CONFLICT DO UPDATE)
+     * so that updated rows keep their position in the table. Both are sent in
+     * batches of getBatchSize(), so the cost depends on the number of changes rather than the size of the table.
+     * @param tableName String name of the table being updated
+     * @param keyColumn String name of the unique column identifying a row
+     * @param sql String UPSERT statement with one parameter per column
+     * @param rows List of changed entities to write, one per row
+     * @param rowWriter RowWriter binding an entity to the parameters of sql
+     * @param deletedKeys List<String> values of keyColumn whose rows are deleted
+     * @return boolean true or false if all changes were applied; on failure the table is left unchanged
+     */
+    public <T> boolean writeChanges(String tableName, String keyColumn, String sql, List<T> rows,
+                                    RowWriter<T> rowWriter, List<String> deletedKeys) {
+        String deleteSql = "DELETE FROM " + tableName + " WHERE " + keyColumn + " = ?";
+        return batchWrite(null, deleteSql, deletedKeys, sql, rows, rowWriter);
+    }
+
+    /**
+     * Brings the tables of a schema up to date, see SchemaManager.ensure. After the first call in a program run
+     * this is answered from memory, so reads and writes can call it every time.
+     * @param schema String name of the schema, e.g. the name of its main table
+     * @param migrations Transaction steps creating and then altering the tables of the schema, oldest first
+     * @return boolean true or false if the tables are ready to be queried
+     */
+    protected boolean ensureSchema(String schema, Transaction... migrations) {
+        return getSchemaManager().ensure(schema, Arrays.asList(migrations));
+    }
+
+    /**
+     * Checks if the table matches the service after an earlier read or write, so only changes need writing
+     * @return boolean true if a read or write has succeeded through this gateway
+     */
+    protected boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Records whether the table matches the service
+     * @param synced boolean true after a successful read or write
+     */
+    protected void setSynced(boolean synced) {
+        this.synced = synced;
+    }
+
+    /**
+     * Streams the rows of a result and builds an entity from each of them. This thread only copies the text of
+     * each row; every getReadChunkSize() rows are handed to the common fork-join pool to be built while the next
+     * chunk is read, so parsing dates, IDs and enums runs on every core. A row the builder rejects is reported and
+     * skipped, like the single-threaded reads did.
+     * @param rows ResultSet the result to read to its end
+     * @param builder RowBuilder building an entity from the columns of one row, in the order they were selected
+     * @return List of the entities built, in the order of their rows
+     * @throws SQLException if the result cannot be read
+     */
+    protected <T> List<T> mapRowsInParallel(ResultSet rows, RowBuilder<T> builder) throws SQLException {
+        int columnCount = rows.getMetaData().getColumnCount();
+        List<ForkJoinTask<List<T>>> tasks = new ArrayList<>();
+        List<String[]> chunk = new ArrayList<>();
+        int firstRow = 1;
+        while (rows.next()) {
+            String[] columns = new String[columnCount];
+            for (int x = 0; x < columnCount; x++) {
+                columns[x] = rows.getString(x + 1);
+            }
+            chunk.add(columns);
+            if (chunk.size() == read_chunk_size) {
+                List<String[]> fullChunk = chunk;
+                int chunkStart = firstRow;
+                tasks.add(ForkJoinPool.commonPool().submit(() -> buildChunk(fullChunk, chunkStart, builder)));
+                firstRow += chunk.size();
+                chunk = new ArrayList<>();
+            }
+        }
+
+        List<T> lastEntities = buildChunk(chunk, firstRow, builder);
+        List<T> entities = new ArrayList<>(tasks.size() * read_chunk_size + lastEntities.size());
+        for (ForkJoinTask<List<T>> task : tasks) {
+            entities.addAll(task.join());
+        }
+        entities.addAll(lastEntities);
+        return entities;
+    }
+
+    /*
+     * Builds the entities of one chunk of rows, reporting the number of each row that cannot be built
+     */
+    private static <T> List<T> buildChunk(List<String[]> chunk, int firstRow, RowBuilder<T> builder) {
+        List<T> entities = new ArrayList<>(chunk.size());
+        for (int x = 0; x < chunk.size(); x++) {
+            try {
+                entities.add(builder.build(chunk.get(x)));
+            } catch (Exception e) {
+                System.out.println("Incorrect format of row " + (firstRow + x));
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Binds and adds every row to the statement, executing it each time getBatchSize() rows are pending
+     * @param statement PreparedStatement the statement run once per row
+     * @param rows List of entities, one per run of the statement
+     * @param rowWriter RowWriter binding an entity to the parameters of statement
+     * @throws SQLException if a batch fails
+     */
+    protected <T> void executeBatches(PreparedStatement statement, List<T> rows, RowWriter<T> rowWriter)
+            throws SQLException {
+        int pending = 0;
+        for (T row : rows) {
+            rowWriter.bind(statement, row);
+            statement.addBatch();
+            if (++pending == batch_size) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) statement.executeBatch();
+    }
+
     /**
      * Read DB
      * @return boolean true or false if reading successful
@@ -230,4 +603,16 @@ public abstract class DatabaseReadWriter {
      */
     public abstract boolean write();
 
+    /**
+     * Takes the changes made to the service since the last save and marks them saved, returning the write that
+     * stores them. Only the returned write uses the DB, and it does not read the service, so the service can be
+     * changed again while it runs. If it fails, the table no longer matches the service and the next write
+     * rewrites it. Writes should run in the order they were taken. By default nothing is taken up front and the
+     * returned write is write() itself.
+     * @return BooleanSupplier the write, returning true or false if writing successful
+     */
+    public BooleanSupplier takeChanges() {
+        return this::write;
+    }
+
 }
@@ -0,0 +1,152 @@
+package database;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Brings the tables of a database up to date once per program run. Each schema is a numbered list of migrations,
+ * and the version it has reached is stored in the SchemaVersions table, so a database is only migrated by the
+ * steps it is missing. Once a schema is at its latest version, later checks are answered from memory without
+ * touching the database.
+ */
+public class SchemaManager {
+
+    private static final Map<String, SchemaManager> managers = new ConcurrentHashMap<>();
+
+    private static final String sql_versions_table = "CREATE TABLE IF NOT EXISTS SchemaVersions (\n"
+            + "	name TEXT PRIMARY KEY,\n"
+            + "	version INTEGER\n"
+            + ");";
+
+    private final String address;
+    // latest version of each schema already checked against the database in this run
+    private final Map<String, Integer> ready_versions = new HashMap<>();
+    private long migration_count = 0;
+
+    /**
+     * Creates a schema manager for the given address
+     * @param address String address for DB - i.e. "jdbc:sqlite: *filepath* "
+     */
+    public SchemaManager(String address) {
+        this.address = address;
+    }
+
+    /**
+     * Returns the shared schema manager for the given address, creating it if there is none
+     * @param address String address for DB - i.e. "jdbc:sqlite: *filepath* "
+     * @return SchemaManager the schema manager for address
+     */
+    public static SchemaManager forAddress(String address) {
+        return managers.computeIfAbsent(address, SchemaManager::new);
+    }
+
+    /**
+     * Makes sure a schema is at its latest version. The version is the number of migrations; the steps after the
+     * stored version are run in order in one transaction, together with the new version number. Migrations should
+     * be safe to run again on tables that are already up to date, since a database from before schemas were
+     * versioned starts at version 0.
+     * @param schema String name of the schema, e.g. the name of its main table
+     * @param migrations List of steps creating and then altering the tables of the schema, oldest first
+     * @return boolean true or false if the schema is ready to be queried; on failure it is left unchanged
+     */
+    public synchronized boolean ensure(String schema, List<DatabaseReadWriter.Transaction> migrations) {
+        int latest = migrations.size();
+        if (ready_versions.getOrDefault(schema, -1) == latest) return true;
+
+        Connection connection = null;
+        try {
+            connection = ConnectionPool.forAddress(address).borrow();
+            connection.setAutoCommit(false);
+            int version = readVersion(connection, schema);
+            if (version > latest) {
+                throw new SQLException("Schema " + schema + " is at version " + version
+                        + ", newer than version " + latest + " of this program");
+            }
+            for (int step = version; step < latest; step++) {
+                migrations.get(step).run(connection);
+                migration_count++;
+            }
+            if (version < latest) {
+                try (PreparedStatement entry = connection.prepareStatement(
+                        "INSERT INTO SchemaVersions(name, version) VALUES(?,?) " +
+                        "ON CONFLICT(name) DO UPDATE SET version=excluded.version")) {
+                    entry.setString(1, schema);
+                    entry.setInt(2, latest);
+                    entry.executeUpdate();
+                }
+            }
+            connection.commit();
+            ready_versions.put(schema, latest);
+            return true;
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+            try {
+                if (connection != null) connection.rollback();
+            } catch (SQLException throwable) {
+                System.out.println(throwable.toString());
+            }
+            return false;
+        } finally {
+            try {
+                if (connection != null) connection.close();
+            } catch (SQLException e) {
+                System.out.println(e.toString());
+            }
+        }
+    }
+
+    /**
+     * Gets the version of a schema stored in the database
+     * @param schema String name of the schema
+     * @return int the stored version, 0 if the schema has never been migrated, or -1 if it cannot be read
+     */
+    public synchronized int getVersion(String schema) {
+        try (Connection connection = ConnectionPool.forAddress(address).borrow()) {
+            return readVersion(connection, schema);
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+            return -1;
+        }
+    }
+
+    /**
+     * Forgets every schema version, so the next check of each schema runs all of its migrations again. Used when
+     * tables are created or dropped outside of a migration.
+     */
+    public synchronized void reset() {
+        ready_versions.clear();
+        try (Connection connection = ConnectionPool.forAddress(address).borrow();
+             Statement action = connection.createStatement()) {
+            action.execute("DROP TABLE IF EXISTS SchemaVersions");
+        } catch (SQLException e) {
+            System.out.println(e.toString());
+        }
+    }
+
+    /**
+     * Gets the number of migration steps run by this manager
+     * @return long number of migrations run
+     */
+    public synchronized long getMigrationCount() {
+        return migration_count;
+    }
+
+    /*
+     * Reads the stored version of a schema, creating the SchemaVersions table if it does not exist
+     */
+    private int readVersion(Connection connection, String schema) throws SQLException {
+        try (Statement action = connection.createStatement()) {
+            action.execute(sql_versions_table);
+        }
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT version FROM SchemaVersions WHERE name = ?")) {
+            query.setString(1, schema);
+            try (ResultSet result = query.executeQuery()) {
+                return result.next() ? result.getInt("version") : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package database;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Write-behind persistence: callers record that something changed, and the changes are saved together on a
+ * background thread once an interval has passed since the first unsaved change, or sooner once enough changes
+ * are waiting. The save itself should only write what changed since it last ran, so one save covers every change
+ * recorded before it started. A failed save is retried after another interval.
+ */
+public class WriteBehindQueue {
+
+    /**
+     * Milliseconds an unsaved change waits before it is saved, by default
+     */
+    public static final long DEFAULT_INTERVAL_MILLIS = 2_000;
+
+    /**
+     * Number of unsaved changes that starts a save without waiting for the interval, by default
+     */
+    public static final int DEFAULT_MAX_PENDING = 20;
+
+    private final BooleanSupplier save;
+    private final long interval_millis;
+    private final int max_pending;
+    private final ScheduledExecutorService executor;
+    // the next background save, or null if none is scheduled
+    private ScheduledFuture<?> scheduled = null;
+    private boolean scheduled_now = false;
+    private boolean closed = false;
+
+    private int pending = 0;
+    private int max_pending_seen = 0;
+    private long save_count = 0;
+    private long failed_save_count = 0;
+    private long saved_change_count = 0;
+    private long last_save_nanos = 0;
+
+    /**
+     * Creates a queue saving with the default interval and threshold
+     * @param save BooleanSupplier writes every unsaved change, returning true or false if it succeeded
+     */
+    public WriteBehindQueue(BooleanSupplier save) {
+        this(save, DEFAULT_INTERVAL_MILLIS, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Creates a queue with its own background thread
+     * @param save BooleanSupplier writes every unsaved change, returning true or false if it succeeded
+     * @param intervalMillis long milliseconds an unsaved change waits before it is saved, must be positive
+     * @param maxPending int number of unsaved changes that starts a save without waiting, must be positive
+     */
+    public WriteBehindQueue(BooleanSupplier save, long intervalMillis, int maxPending) {
+        if (intervalMillis <= 0) throw new IllegalArgumentException("Interval must be positive");
+        if (maxPending <= 0) throw new IllegalArgumentException("Maximum pending changes must be positive");
+        this.save = save;
+        this.interval_millis = intervalMillis;
+        this.max_pending = maxPending;
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "write-behind");
+            // a save still waiting when the program exits is covered by the final flush, see close()
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records one change to be saved in the background. Returns without writing anything.
+     * @throws IllegalStateException if the queue has been closed
+     */
+    public synchronized void changed() {
+        if (closed) throw new IllegalStateException("Write-behind queue is closed");
+        pending++;
+        max_pending_seen = Math.max(max_pending_seen, pending);
+        if (pending >= max_pending) {
+            scheduleSave(0);
+        } else if (scheduled == null) {
+            scheduleSave(interval_millis);
+        }
+    }
+
+    /**
+     * Saves every change now and waits for the save to finish, after any save already running. Use before the
+     * program exits or whenever the changes must be durable.
+     * @return boolean true or false if the save succeeded
+     */
+    public boolean flush() {
+        Future<Boolean> result;
+        synchronized (this) {
+            if (closed) return save.getAsBoolean();
+            cancelScheduledSave();
+            result = executor.submit(() -> runSave(false));
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println(e.toString());
+            return false;
+        } catch (ExecutionException e) {
+            System.out.println(e.getCause().toString());
+            return false;
+        }
+    }
+
+    /**
+     * Saves every change now, then stops the background thread. Later changes are refused, and later flushes
+     * save on the calling thread.
+     * @return boolean true or false if the final save succeeded
+     */
+    public boolean close() {
+        boolean saved = flush();
+        synchronized (this) {
+            closed = true;
+            cancelScheduledSave();
+        }
+        executor.shutdown();
+        return saved;
+    }
+
+    /**
+     * Gets the number of changes recorded since the last save started, i.e. the depth of the queue
+     * @return int number of unsaved changes
+     */
+    public synchronized int getPendingChanges() {
+        return pending;
+    }
+
+    /**
+     * Gets the largest number of unsaved changes the queue has held
+     * @return int the highest queue depth so far
+     */
+    public synchronized int getMaxPendingChanges() {
+        return max_pending_seen;
+    }
+
+    /**
+     * Gets the number of saves run, in the background or by flush()
+     * @return long number of saves
+     */
+    public synchronized long getSaveCount() {
+        return save_count;
+    }
+
+    /**
+     * Gets the number of saves that failed and were left to be retried
+     * @return long number of failed saves
+     */
+    public synchronized long getFailedSaveCount() {
+        return failed_save_count;
+    }
+
+    /**
+     * Gets the number of recorded changes written by successful saves; compared with getSaveCount() this shows
+     * how many changes each save coalesced
+     * @return long number of saved changes
+     */
+    public synchronized long getSavedChangeCount() {
+        return saved_change_count;
+    }
+
+    /**
+     * Gets how long the last save took
+     * @return long milliseconds spent in the last save, or 0 if none has run
+     */
+    public synchronized long getLastSaveMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(last_save_nanos);
+    }
+
+    /*
+     * Runs one save on the background thread, covering every change recorded before it starts. scheduledSave is
+     * true for the save held in the scheduled field, and false for one submitted by flush().
+     */
+    private boolean runSave(boolean scheduledSave) {
+        int saving;
+        synchronized (this) {
+            saving = pending;
+            pending = 0;
+            if (scheduledSave) {
+                scheduled = null;
+                scheduled_now = false;
+            }
+        }
+        long start = System.nanoTime();
+        boolean saved;
+        try {
+            saved = save.getAsBoolean();
+        } catch (RuntimeException e) {
+            System.out.println(e.toString());
+            saved = false;
+        }
+        synchronized (this) {
+            save_count++;
+            last_save_nanos = System.nanoTime() - start;
+            if (saved) {
+                saved_change_count += saving;
+            } else {
+                failed_save_count++;
+                pending += saving;
+                if (scheduled == null && !closed) scheduleSave(interval_millis);
+            }
+        }
+        return saved;
+    }
+
+    /*
+     * Schedules the next background save after delayMillis, unless one is already due sooner
+     */
+    private void scheduleSave(long delayMillis) {
+        if (scheduled != null) {
+            if (scheduled_now || delayMillis > 0) return;
+            scheduled.cancel(false);
+        }
+        scheduled = executor.schedule(() -> runSave(true), delayMillis, TimeUnit.MILLISECONDS);
+        scheduled_now = delayMillis == 0;
+    }
+
+    /*
+     * Cancels the next background save, if it has not started
+     */
+    private void cancelScheduledSave() {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+            scheduled_now = false;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package event_system;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative ints stored the way roaring bitmaps store them: the numbers are grouped by their high 16
+ * bits, and each group keeps its low 16 bits either as a sorted array, while it holds at most 4096 numbers, or as
+ * a 65536-bit bitmap once it holds more. A bitmap becomes an array again when it drops below 2048 numbers. Small
+ * sets cost two bytes a number, and unions of large sets are done 64 numbers at a time with bitwise or.
+ */
+class CompressedBitmap {
+
+    // largest group kept as a sorted array; at this size the array and the bitmap both take 8 KB
+    private static final int MAX_ARRAY_SIZE = 4096;
+    // a bitmap only goes back to an array once it is well below MAX_ARRAY_SIZE, so a group whose size hovers
+    // around it is not converted back and forth on every add and remove
+    private static final int MIN_BITMAP_SIZE = MAX_ARRAY_SIZE / 2;
+    private static final int BITMAP_WORDS = 1024;
+
+    // high 16 bits of each group, ascending, and the groups themselves
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int group_count = 0;
+    private int cardinality = 0;
+
+    /*
+     * The low 16 bits of the numbers of one group, in exactly one of the two forms
+     */
+    private static final class Container {
+        private char[] values;
+        private long[] words;
+        private int size;
+
+        private Container(char[] values, long[] words, int size) {
+            this.values = values;
+            this.words = words;
+            this.size = size;
+        }
+
+        private boolean contains(char low) {
+            if (words != null) return (words[low >>> 6] & (1L << low)) != 0;
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        private boolean add(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                words[low >>> 6] = before | (1L << low);
+                if (before == words[low >>> 6]) return false;
+                size++;
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) return false;
+            if (size == MAX_ARRAY_SIZE) {
+                toBitmap();
+                return add(low);
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, size * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = low;
+            size++;
+            return true;
+        }
+
+        private boolean remove(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                words[low >>> 6] = before & ~(1L << low);
+                if (before == words[low >>> 6]) return false;
+                if (--size < MIN_BITMAP_SIZE) toArray();
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index < 0) return false;
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        /*
+         * Adds every number of other to this group, switching to a bitmap when the result is too large for an array
+         */
+        private void or(Container other) {
+            if (words == null && other.words == null && size + other.size <= MAX_ARRAY_SIZE) {
+                char[] merged = new char[size + other.size];
+                int x = 0, y = 0, count = 0;
+                while (x < size && y < other.size) {
+                    char a = values[x], b = other.values[y];
+                    if (a <= b) x++;
+                    if (b <= a) y++;
+                    merged[count++] = a <= b ? a : b;
+                }
+                while (x < size) merged[count++] = values[x++];
+                while (y < other.size) merged[count++] = other.values[y++];
+                values = merged;
+                size = count;
+                return;
+            }
+            if (words == null) toBitmap();
+            if (other.words != null) {
+                int count = 0;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] |= other.words[w];
+                    count += Long.bitCount(words[w]);
+                }
+                size = count;
+            } else {
+                for (int x = 0; x < other.size; x++) {
+                    add(other.values[x]);
+                }
+            }
+        }
+
+        private void toBitmap() {
+            words = new long[BITMAP_WORDS];
+            for (int x = 0; x < size; x++) {
+                words[values[x] >>> 6] |= 1L << values[x];
+            }
+            values = null;
+        }
+
+        private void toArray() {
+            values = new char[size];
+            int count = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    values[count++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                }
+            }
+            words = null;
+        }
+
+        private Container copy() {
+            return words != null ? new Container(null, words.clone(), size)
+                    : new Container(Arrays.copyOf(values, size), null, size);
+        }
+    }
+
+    /**
+     * Adds a number to the set
+     * @param number  int      A non-negative number
+     * @return        boolean  True if the number was not already in the set
+     */
+    boolean add(int number) {
+        int index = groupIndex(number >>> 16);
+        if (index < 0) {
+            index = -index - 1;
+            insertGroup(index, (char) (number >>> 16), new Container(new char[4], null, 0));
+        }
+        if (!containers[index].add((char) number)) return false;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Removes a number from the set
+     * @param number  int      A non-negative number
+     * @return        boolean  True if the number was in the set
+     */
+    boolean remove(int number) {
+        int index = groupIndex(number >>> 16);
+        if (index < 0 || !containers[index].remove((char) number)) return false;
+        cardinality--;
+        if (containers[index].size == 0) {
+            System.arraycopy(keys, index + 1, keys, index, group_count - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, group_count - index - 1);
+            containers[--group_count] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a number is in the set
+     * @param number  int      A non-negative number
+     * @return        boolean  True if the number is in the set
+     */
+    boolean contains(int number) {
+        int index = groupIndex(number >>> 16);
+        return index >= 0 && containers[index].contains((char) number);
+    }
+
+    /**
+     * Returns how many numbers are in the set
+     * @return  int  The number of numbers in the set
+     */
+    int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Adds every number of another set to this one
+     * @param other  CompressedBitmap  The set to add, which is left unchanged
+     */
+    void or(CompressedBitmap other) {
+        for (int x = 0; x < other.group_count; x++) {
+            int index = groupIndex(other.keys[x]);
+            if (index < 0) {
+                insertGroup(-index - 1, other.keys[x], other.containers[x].copy());
+                cardinality += other.containers[x].size;
+            } else {
+                cardinality -= containers[index].size;
+                containers[index].or(other.containers[x]);
+                cardinality += containers[index].size;
+            }
+        }
+    }
+
+    /**
+     * Returns the numbers in the set
+     * @return  int[]  The numbers in ascending order
+     */
+    int[] toArray() {
+        int[] numbers = new int[cardinality];
+        int count = 0;
+        for (int x = 0; x < group_count; x++) {
+            int high = keys[x] << 16;
+            Container container = containers[x];
+            if (container.words == null) {
+                for (int y = 0; y < container.size; y++) {
+                    numbers[count++] = high | container.values[y];
+                }
+            } else {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    for (long word = container.words[w]; word != 0; word &= word - 1) {
+                        numbers[count++] = high | (w * 64 + Long.numberOfTrailingZeros(word));
+                    }
+                }
+            }
+        }
+        return numbers;
+    }
+
+    private int groupIndex(int high) {
+        return Arrays.binarySearch(keys, 0, group_count, (char) high);
+    }
+
+    private void insertGroup(int index, char key, Container container) {
+        if (group_count == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(1, group_count * 2));
+            containers = Arrays.copyOf(containers, keys.length);
+        }
+        System.arraycopy(keys, index, keys, index + 1, group_count - index);
+        System.arraycopy(containers, index, containers, index + 1, group_count - index);
+        keys[index] = key;
+        containers[index] = container;
+        group_count++;
+    }
+}
@@ -0,0 +1,960 @@
+package event_system;
+
+import user_system.UserType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Use case class for storing and adding events that may be shared by many threads, e.g. several front ends signing
+ * people up at once. Adding and cancelling events take an exclusive lock; everything else shares a lock, so calls
+ * on different events run in parallel. Each event's roster is guarded by the event itself, and a sign-up checks the
+ * capacity and adds the attendee while holding it, so an event is never filled past its capacity.
+ */
+public class ConcurrentEventServiceEngine implements EventService {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // keyed by event ID in insertion order; the map and the schedules only change under the write lock
+    private final Map<String, Event> event_map = new LinkedHashMap<>();
+    private final EventIntervalIndex room_schedules = new EventIntervalIndex();
+    private final EventIntervalIndex speaker_schedules = new EventIntervalIndex();
+    // reverse indexes from a user ID to the IDs of their events; attendees change under the shared lock, so each
+    // entry is only replaced inside compute, and its set is guarded by the set itself
+    private final Map<String, Set<String>> attendee_events = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> speaker_events = new HashMap<>();
+    // changes since the last save, in the format of EventServiceEngine; guarded by dirty_lock
+    private final Object dirty_lock = new Object();
+    private final Set<String> changed_events = new LinkedHashSet<>();
+    private final Set<String> deleted_events = new LinkedHashSet<>();
+    private final Map<String, Set<String>> added_attendees = new LinkedHashMap<>();
+    private final Map<String, Set<String>> removed_attendees = new LinkedHashMap<>();
+    private final Map<String, Set<String>> added_waitlisted = new LinkedHashMap<>();
+    private final Map<String, Set<String>> removed_waitlisted = new LinkedHashMap<>();
+    // snapshots returned by getEventViews, and a count of changes so a list built during a change is not kept
+    private volatile List<EventView> event_views;
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Runs the action while no other thread can use the service, e.g. to save it: the changes it reads and then
+     * marks saved cannot be joined by a change that would be marked saved without being written.
+     * @param action  Supplier<T>  The action to run
+     * @return        T            The result of the action
+     */
+    public <T> T runExclusively(Supplier<T> action){
+        return write(action);
+    }
+
+    /**
+     * Method to get a nested List of events
+     * @return  List<List<List<String>>>  An List containing events Lists
+     */
+    @Override
+    public List<List<List<String>>> getListEvents(){
+        return read(() -> {
+            List<List<List<String>>> res = new ArrayList<>(event_map.size());
+            for (Event event: event_map.values()){
+                res.add(toEventArray(event));
+            }
+            return res;
+        });
+    }
+
+    /**
+     * Returns a read-only snapshot of every event, in the same order as getListEvents. The list is reused until an
+     * event changes, and each event reuses its snapshot until it changes itself.
+     * @return  List<EventView>  A read-only list of event snapshots
+     */
+    @Override
+    public List<EventView> getEventViews(){
+        List<EventView> cached = event_views;
+        if (cached != null) return cached;
+        return read(() -> {
+            long start = version.get();
+            List<EventView> views = new ArrayList<>(event_map.size());
+            for (Event event: event_map.values()){
+                synchronized (event){
+                    views.add(event.toView());
+                }
+            }
+            List<EventView> res = Collections.unmodifiableList(views);
+            event_views = res;
+            // a change made while the list was built may be missing from it, so it is not kept
+            if (version.get() != start) event_views = null;
+            return res;
+        });
+    }
+
+    /**
+     * Returns the events that were added or modified since they were last saved
+     * @return  List<List<List<String>>>  The changed events, in the format of getListEvents
+     */
+    @Override
+    public List<List<List<String>>> getChangedEvents(){
+        return read(() -> {
+            List<String> eventIDs;
+            synchronized (dirty_lock){
+                eventIDs = new ArrayList<>(changed_events);
+            }
+            List<List<List<String>>> res = new ArrayList<>(eventIDs.size());
+            for (String eventID: eventIDs){
+                Event event = event_map.get(eventID);
+                if (event != null) res.add(toEventArray(event));
+            }
+            return res;
+        });
+    }
+
+    /**
+     * Returns the IDs of the events that were cancelled since they were last saved, including those that were
+     * added again under the same ID
+     * @return  List<String>  The IDs of the cancelled events
+     */
+    @Override
+    public List<String> getDeletedEventIDs(){
+        synchronized (dirty_lock){
+            return new ArrayList<>(deleted_events);
+        }
+    }
+
+    /**
+     * Returns the attendees added to events since the events were last saved. A user who was removed and then
+     * added again is reported both here and by getRemovedAttendees.
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    @Override
+    public List<List<String>> getAddedAttendees(){
+        synchronized (dirty_lock){
+            return toPairs(added_attendees);
+        }
+    }
+
+    /**
+     * Returns the attendees removed from events since the events were last saved
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    @Override
+    public List<List<String>> getRemovedAttendees(){
+        synchronized (dirty_lock){
+            return toPairs(removed_attendees);
+        }
+    }
+
+    /**
+     * Returns the waitlist of every event
+     * @return  List<List<String>>  Pairs of [event ID, user ID], each waitlist front first
+     */
+    @Override
+    public List<List<String>> getWaitlists(){
+        return read(() -> {
+            List<List<String>> pairs = new ArrayList<>();
+            for (Event event: event_map.values()){
+                List<String> waitlist;
+                synchronized (event){
+                    waitlist = event.getWaitlist();
+                }
+                for (String userID: waitlist){
+                    pairs.add(Arrays.asList(event.getEventID(), userID));
+                }
+            }
+            return pairs;
+        });
+    }
+
+    /**
+     * Returns the users added to waitlists since the events were last saved. A user who was taken off a waitlist
+     * and then added again is reported both here and by getRemovedFromWaitlists.
+     * @return  List<List<String>>  Pairs of [event ID, user ID], each waitlist front first
+     */
+    @Override
+    public List<List<String>> getAddedToWaitlists(){
+        synchronized (dirty_lock){
+            return toPairs(added_waitlisted);
+        }
+    }
+
+    /**
+     * Returns the users taken off waitlists since the events were last saved
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    @Override
+    public List<List<String>> getRemovedFromWaitlists(){
+        synchronized (dirty_lock){
+            return toPairs(removed_waitlisted);
+        }
+    }
+
+    /**
+     * Marks the given events as saved, so they and their attendee and waitlist changes are no longer reported. To
+     * save while other threads make changes, read the changes and mark them saved inside runExclusively.
+     * @param eventIDs  List<String>  The IDs of the saved events
+     */
+    @Override
+    public void markEventsSaved(List<String> eventIDs){
+        synchronized (dirty_lock){
+            for (String eventID: eventIDs){
+                changed_events.remove(eventID);
+                deleted_events.remove(eventID);
+                added_attendees.remove(eventID);
+                removed_attendees.remove(eventID);
+                added_waitlisted.remove(eventID);
+                removed_waitlisted.remove(eventID);
+            }
+        }
+    }
+
+    /**
+     * Adds am event to event_service, with overloaded parameter attendeeIDs. If an event with the same ID already
+     * exists, the existing event is kept.
+     * @param eventType      EventType           Contains the type of the event
+     * @param eventCapacity  Int                 Contains the capacity of the event
+     * @param eventID        String              Contains the event ID
+     * @param startTime      LocalDateTime       Contains the start time of the event
+     * @param endTime        LocalDateTime       Contains the end time of the event
+     * @param roomID         String              Contains the room ID
+     * @param speakersID     List<String>        Contains a list of speaker IDs
+     * @param attendeeIDs    List<String>        Contains a list of attendee IDs
+     */
+    @Override
+    public void addEvent(EventType eventType, int eventCapacity, String eventID, LocalDateTime startTime,
+                         LocalDateTime endTime, String roomID, List<String> speakersID,
+                         List<String> attendeeIDs){
+        Event eventToAdd = new Event(eventType, eventCapacity, eventID, startTime, endTime, roomID, speakersID,
+                attendeeIDs);
+        write(() -> {
+            insertEvent(eventToAdd);
+            return null;
+        });
+    }
+
+    /**
+     * Adds events in one call under a single write lock, as if each was added with addEvent; an event whose ID
+     * is taken is ignored
+     * @param events  List<Event>  The events to add, e.g. as read from the database
+     */
+    @Override
+    public void addEvents(List<Event> events){
+        write(() -> {
+            for (Event event: events){
+                insertEvent(event);
+            }
+            return null;
+        });
+    }
+
+    /*
+     * Stores and indexes an event unless its ID is taken, recording it and its attendees as changed. Callers hold
+     * the write lock.
+     */
+    private void insertEvent(Event eventToAdd){
+        String eventID = eventToAdd.getEventID();
+        if (event_map.putIfAbsent(eventID, eventToAdd) == null){
+            indexEvent(eventToAdd);
+            markChanged(eventID);
+            for (String attendee: eventToAdd.getAttendeeIDs()){
+                recordAdded(added_attendees, eventID, attendee);
+            }
+        }
+    }
+
+    /**
+     * Cancels an event using the event ID
+     * @param eventID  String   Contains the event ID
+     * @return         boolean  True if the event has been successfully deleted, False if the event DNE
+     */
+    @Override
+    public boolean cancelEventByID(String eventID){
+        return write(() -> {
+            Event event = event_map.remove(eventID);
+            if (event != null){
+                unindexEvent(event);
+                markDeleted(eventID);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Cancels all events of a specific type
+     * @param eventType  Enum<EventType>  Contains the event type
+     * @return           boolean          True if at least 1 event of type eventType has been deleted
+     */
+    @Override
+    public boolean cancelEventsByType(EventType eventType){
+        return write(() -> removeEvents(event -> event.getEventType().equals(eventType)));
+    }
+
+    /**
+     * Cancels all events with the number of attendees == numAttendees or >= numAttendees
+     * @param numAttendees  int      Contains the maximum number of attendees all events are allowed to have
+     * @param atLeast       boolean  Whether the comparison should >= or ==.
+     * @return              boolean  True if at least 1 event with attendance > maxAttendees has been removed
+     */
+    @Override
+    public boolean cancelEventsBySize(int numAttendees, boolean atLeast){
+        if (numAttendees < 0) return false;
+        return write(() -> removeEvents(event -> (atLeast && event.getNumAttendees() >= numAttendees) ||
+                (!atLeast && event.getNumAttendees() == numAttendees)));
+    }
+
+    /**
+     * Adds user to the event only if there's space. The check and the addition happen together, so concurrent
+     * sign-ups never take more seats than the capacity allows.
+     * @param  userID  String   The User's ID.
+     * @param  eventID String   The Event's ID.
+     * @return         boolean  True if the user gets added; false if the event is full or DNE, or the user is
+     *                          already in it
+     */
+    @Override
+    public boolean addUserToEvent(String userID, String eventID){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return false;
+            synchronized (event){
+                return addAttendee(event, userID);
+            }
+        });
+    }
+
+    /**
+     * Removes given user from given event if they are signed up for it
+     * @param  userID  String  The User's ID.
+     * @param  eventID String  The Event's ID.
+     * @return         boolean True if the user gets removed
+     */
+    @Override
+    public boolean removeUserFromEvent(String userID, String eventID) {
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return false;
+            synchronized (event){
+                removeAttendee(event, userID);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Return the List of users that are in the given event
+     * @param eventID  String          The id of the given event
+     * @return         List<String>    A copy of the user ids in the given event id
+     */
+    @Override
+    public List<String> getUsersForEvent(String eventID) {
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return new ArrayList<>();
+            synchronized (event){
+                if (event.getNumAttendees() == 1 && event.hasAttendee("")){
+                    removeAttendee(event, "");
+                    return new ArrayList<>();
+                }
+                return new ArrayList<>(event.getAttendeeIDs());
+            }
+        });
+    }
+
+    /**
+     * Return the users that are in any of the given events, each of them once
+     * @param eventIDs  List<String>  The ids of the events; ids of events that do not exist are ignored
+     * @return          List<String>  The user ids, in the order the users were first seen by the program
+     */
+    @Override
+    public List<String> getUsersForEvents(List<String> eventIDs) {
+        return read(() -> {
+            CompressedBitmap members = new CompressedBitmap();
+            for (String eventID: eventIDs){
+                Event event = event_map.get(eventID);
+                if (event == null) continue;
+                synchronized (event){
+                    event.addAttendeesTo(members);
+                }
+            }
+            return Roster.namesOf(members);
+        });
+    }
+
+    /**
+     * Return the List of users that are in the given event
+     * @param userID  String                The id of the given user
+     * @return        List<String>          A list of event ids that the attendee id has signed up for
+     */
+    @Override
+    public List<String> getEventsForAttendee(String userID) {
+        Set<String> events = attendee_events.get(userID);
+        if (events == null) return new ArrayList<>();
+        synchronized (events){
+            return new ArrayList<>(events);
+        }
+    }
+
+    /**
+     * Return a list of events a speaker is part of
+     * @param speakerID  String              Contains the speaker's ID
+     * @return           List<String>        Contains all eventIDs which speakerID is in
+     */
+    @Override
+    public List<String> getEventsBySpeaker(String speakerID) {
+        return read(() -> new ArrayList<>(speaker_events.getOrDefault(speakerID, Collections.emptySet())));
+    }
+
+    /**
+     * Return a list of events the user is a part of
+     * @param userType  UserType        Contains the user type
+     * @param userID    String          Contains the user ID
+     * @return                          A list of events the user is a part of
+     */
+    @Override
+    public List<String> getEventsByUserType(UserType userType, String userID){
+        if ((UserType.ATTENDEE).equals(userType)) {
+            return getEventsForAttendee(userID);
+        }
+        else if ((UserType.SPEAKER).equals(userType)){
+            return getEventsBySpeaker(userID);
+        }
+        else{
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Returns true if the user has already signed up before for the given event
+     * @param eventId String    The eventId of the event.
+     * @param userId  String    The userId of the user.
+     */
+    @Override
+    public boolean isSignUpBefore(String eventId, String userId){
+        return read(() -> {
+            Event event = event_map.get(eventId);
+            if (event == null) return false;
+            synchronized (event){
+                return event.hasAttendee(userId);
+            }
+        });
+    }
+
+    /**
+     * Method to check if the event is full
+     * @param eventID  String  Contains the event ID
+     * @return         boolean True if the event is full, false otherwise or if the eventID is not valid
+     */
+    @Override
+    public boolean isEventFull(String eventID){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return false;
+            synchronized (event){
+                return event.getOccupancy() >= event.getEventCapacity();
+            }
+        });
+    }
+
+    /**
+     * Checks if a room is being booked more than once in a specific time period
+     * @param room_id  String         Contains the room id
+     * @param start    LocalDateTime  Contains the start time
+     * @param end      LocalDateTime  Contains the end time
+     * @return         Boolean        True if the room is being double booked
+     */
+    @Override
+    public boolean isDoubleBookingRoom(String room_id, LocalDateTime start, LocalDateTime end){
+        return read(() -> room_schedules.hasConflict(room_id, start, end));
+    }
+
+    /**
+     * Checks if a speaker is being booked in two separate events at the same time
+     * @param speakers   List<String>  Contains a list of speakers
+     * @param start      LocalDateTime      Contains the start time
+     * @param end        LocalDateTime      Contains the end time
+     * @return           Boolean            True if the speaker is being double booked
+     */
+    @Override
+    public boolean isDoubleBookingSpeaker(List<String> speakers, LocalDateTime start, LocalDateTime end){
+        return read(() -> {
+            for (String speaker: speakers){
+                if (speaker_schedules.hasConflict(speaker, start, end)){
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Returns, for each of the given rooms, the windows within [from, to] at least length long in which the room
+     * and every one of the speakers are free. An event of that length fits in a window if it starts no later than
+     * length before the window ends.
+     * @param roomIDs     List<String>   Contains the IDs of the rooms to search
+     * @param speakerIDs  List<String>   Contains the IDs of the speakers who must all be free
+     * @param from        LocalDateTime  Contains the start of the period to search
+     * @param to          LocalDateTime  Contains the end of the period to search
+     * @param length      Duration       Contains the length of the event to fit
+     * @return            Map<String, List<List<LocalDateTime>>>  The free windows [start, end] of each room that
+     *                    has any, in order of time, keyed by room ID in the order of roomIDs
+     */
+    @Override
+    public Map<String, List<List<LocalDateTime>>> getFreeTimes(List<String> roomIDs, List<String> speakerIDs,
+                                                               LocalDateTime from, LocalDateTime to,
+                                                               Duration length){
+        return read(() -> {
+            List<List<LocalDateTime>> speakersFree = Collections.singletonList(Arrays.asList(from, to));
+            for (String speaker: speakerIDs){
+                speakersFree = EventIntervalIndex.intersect(speakersFree,
+                        speaker_schedules.freeTimes(speaker, from, to));
+            }
+            Map<String, List<List<LocalDateTime>>> freeTimes = new LinkedHashMap<>();
+            for (String roomID: roomIDs){
+                List<List<LocalDateTime>> windows = longEnough(
+                        EventIntervalIndex.intersect(speakersFree, room_schedules.freeTimes(roomID, from, to)), length);
+                if (!windows.isEmpty()) freeTimes.put(roomID, windows);
+            }
+            return freeTimes;
+        });
+    }
+
+    /*
+     * Keeps the windows at least length long
+     */
+    private List<List<LocalDateTime>> longEnough(List<List<LocalDateTime>> windows, Duration length){
+        List<List<LocalDateTime>> kept = new ArrayList<>();
+        for (List<LocalDateTime> window: windows){
+            if (!window.get(0).plus(length).isAfter(window.get(1))) kept.add(window);
+        }
+        return kept;
+    }
+
+    /**
+     * Checks if the event exists
+     * @param eventID  String   Contains the event ID
+     * @return         boolean  True if the event exists
+     */
+    @Override
+    public boolean isEventExist(String eventID){
+        return read(() -> event_map.containsKey(eventID));
+    }
+
+    /**
+     * Checks if the start time is after the end time
+     * @param  t1      LocalDateTime  The start time
+     * @param  t2      LocalDateTime  The end time
+     * @return         boolean          True if the time is valid
+     */
+    @Override
+    public boolean areValidTimes(LocalDateTime t1, LocalDateTime t2){
+        return t1.isBefore(t2);
+    }
+
+    /**
+     * Changes the event capacity only if the event exists.
+     * @param newCapacity  int      Contains the new event capacity
+     * @param eventID      String   Contains the event ID of the event that's capacity must be changed
+     * @return             boolean  True if the event capacity has been changed successfully
+     */
+    @Override
+    public boolean changeEventCapacity(String eventID, int newCapacity){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return false;
+            synchronized (event){
+                event.setEventCapacity(newCapacity);
+                markChanged(eventID);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Adds a user to the end of an event's waitlist
+     * @param userID   String   The ID of the user
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the user was added; false if the event does not exist, or the user is
+     *                          already in the event or on its waitlist
+     */
+    @Override
+    public boolean addUserToWaitlist(String userID, String eventID){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return false;
+            synchronized (event){
+                if (!event.addToWaitlist(userID)) return false;
+                recordAdded(added_waitlisted, eventID, userID);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Removes a user from an event's waitlist
+     * @param userID   String   The ID of the user
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the user was on the waitlist
+     */
+    @Override
+    public boolean removeUserFromWaitlist(String userID, String eventID){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return false;
+            synchronized (event){
+                if (!event.removeFromWaitlist(userID)) return false;
+                recordRemoved(added_waitlisted, removed_waitlisted, eventID, userID);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Returns the waitlist of an event
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  A copy of the IDs of the waiting users, front first; empty if the event does
+     *                               not exist
+     */
+    @Override
+    public List<String> getWaitlist(String eventID){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return new ArrayList<>();
+            synchronized (event){
+                return event.getWaitlist();
+            }
+        });
+    }
+
+    /**
+     * Checks if anybody is waiting for a seat at an event
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the event's waitlist is not empty
+     */
+    @Override
+    public boolean hasWaitlist(String eventID){
+        return getWaitlistSize(eventID) > 0;
+    }
+
+    /**
+     * Returns the number of users waiting for a seat at an event
+     * @param eventID  String  The ID of the event
+     * @return         int     The length of the waitlist; 0 if the event does not exist
+     */
+    @Override
+    public int getWaitlistSize(String eventID){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return 0;
+            synchronized (event){
+                return event.getWaitlistSize();
+            }
+        });
+    }
+
+    /**
+     * Returns the place of a user on an event's waitlist
+     * @param userID   String  The ID of the user
+     * @param eventID  String  The ID of the event
+     * @return         int     1 for the front of the waitlist; 0 if the user is not on it
+     */
+    @Override
+    public int getWaitlistPosition(String userID, String eventID){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            if (event == null) return 0;
+            synchronized (event){
+                return event.getWaitlistPosition(userID);
+            }
+        });
+    }
+
+    /**
+     * Signs up users from the front of an event's waitlist while the event has free seats, and takes them off it.
+     * The event is held for the whole promotion, so two cancellations never promote the same user twice.
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  The IDs of the users signed up, in waitlist order
+     */
+    @Override
+    public List<String> promoteFromWaitlist(String eventID){
+        return read(() -> {
+            List<String> promoted = new ArrayList<>();
+            Event event = event_map.get(eventID);
+            if (event == null) return promoted;
+            synchronized (event){
+                String userID;
+                while (event.getOccupancy() < event.getEventCapacity()
+                        && (userID = event.nextOnWaitlist()) != null){
+                    if (addAttendee(event, userID)){
+                        promoted.add(userID);
+                    } else if (event.removeFromWaitlist(userID)){
+                        recordRemoved(added_waitlisted, removed_waitlisted, eventID, userID);
+                    }
+                }
+            }
+            return promoted;
+        });
+    }
+
+    /**
+     * Return the total number of attendees and speakers of a given event.
+     * @param eventID String The Id of the event.
+     */
+    @Override
+    public int getNumAttendance(String eventID){
+        return read(() -> {
+            Event event = event_map.get(eventID);
+            synchronized (event){
+                return event.getOccupancy();
+            }
+        });
+    }
+
+    /**
+     * Method to check if a speaker is being added twice to the same event
+     * @param speakerList  List<String>  Contains the speaker IDs for the event
+     * @return             boolean       True if the speakers are not distinct
+     */
+    @Override
+    public boolean isSpeakerDuplicate(List<String> speakerList){
+        return new HashSet<>(speakerList).size() != speakerList.size();
+    }
+
+    /**
+     * Runs the action holding the shared lock
+     * @param action  Supplier<T>  The action to run
+     * @return        T            The result of the action
+     */
+    private <T> T read(Supplier<T> action){
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the action holding the exclusive lock
+     * @param action  Supplier<T>  The action to run
+     * @return        T            The result of the action
+     */
+    private <T> T write(Supplier<T> action){
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cancels every event matching the filter; the caller holds the write lock
+     * @param filter  Predicate<Event>  Selects the events to cancel
+     * @return        boolean           True if at least 1 event has been cancelled
+     */
+    private boolean removeEvents(Predicate<Event> filter){
+        int count = 0;
+        Iterator<Event> iterator = event_map.values().iterator();
+        while (iterator.hasNext()){
+            Event event = iterator.next();
+            if (filter.test(event)){
+                iterator.remove();
+                unindexEvent(event);
+                markDeleted(event.getEventID());
+                count++;
+            }
+        }
+        return count > 0;
+    }
+
+    /**
+     * Adds the user to the event's roster if it has a free seat, takes them off its waitlist and records the
+     * changes; the caller holds the event's monitor
+     * @param event   Event    The event
+     * @param userID  String   The ID of the user
+     * @return        boolean  True if the user was added
+     */
+    private boolean addAttendee(Event event, String userID){
+        String eventID = event.getEventID();
+        if (event.getOccupancy() >= event.getEventCapacity() || !event.addAttendee(userID)){
+            return false;
+        }
+        linkUser(userID, eventID);
+        markChanged(eventID);
+        recordAdded(added_attendees, eventID, userID);
+        if (event.removeFromWaitlist(userID)){
+            recordRemoved(added_waitlisted, removed_waitlisted, eventID, userID);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the user from the event's roster and records the change; the caller holds the event's monitor
+     * @param event   Event   The event
+     * @param userID  String  The ID of the user
+     */
+    private void removeAttendee(Event event, String userID){
+        if (event.removeAttendee(userID)){
+            unlinkUser(userID, event.getEventID());
+            markChanged(event.getEventID());
+            recordRemoved(added_attendees, removed_attendees, event.getEventID(), userID);
+        }
+    }
+
+    /**
+     * Copies the event into the format of getListEvents, so later sign-ups do not show through its rosters
+     * @param event  Event               The event
+     * @return       List<List<String>>  The event as a nested list
+     */
+    private List<List<String>> toEventArray(Event event){
+        synchronized (event){
+            List<List<String>> array = event.toEventArray();
+            array.set(6, new ArrayList<>(array.get(6)));
+            array.set(7, new ArrayList<>(array.get(7)));
+            return array;
+        }
+    }
+
+    /**
+     * Adds the event to the room and speaker schedules and to the reverse user indexes; the caller holds the
+     * write lock
+     * @param event  Event  The event being added
+     */
+    private void indexEvent(Event event){
+        room_schedules.add(event.getRoomID(), event);
+        for (String speaker: event.getSpeakerIDs()){
+            speaker_schedules.add(speaker, event);
+            speaker_events.computeIfAbsent(speaker, u -> new LinkedHashSet<>()).add(event.getEventID());
+        }
+        for (String attendee: event.getAttendeeIDs()){
+            linkUser(attendee, event.getEventID());
+        }
+    }
+
+    /**
+     * Removes the event from the room and speaker schedules and from the reverse user indexes; the caller holds
+     * the write lock
+     * @param event  Event  The event being cancelled
+     */
+    private void unindexEvent(Event event){
+        room_schedules.remove(event.getRoomID(), event);
+        for (String speaker: event.getSpeakerIDs()){
+            speaker_schedules.remove(speaker, event);
+            Set<String> events = speaker_events.get(speaker);
+            if (events != null){
+                events.remove(event.getEventID());
+                if (events.isEmpty()) speaker_events.remove(speaker);
+            }
+        }
+        for (String attendee: event.getAttendeeIDs()){
+            unlinkUser(attendee, event.getEventID());
+        }
+    }
+
+    /**
+     * Records that the attendee is in the event
+     * @param userID   String  The ID of the user
+     * @param eventID  String  The ID of the event
+     */
+    private void linkUser(String userID, String eventID){
+        attendee_events.compute(userID, (user, events) -> {
+            if (events == null) events = new LinkedHashSet<>();
+            synchronized (events){
+                events.add(eventID);
+            }
+            return events;
+        });
+    }
+
+    /**
+     * Removes the event from the attendee's entry in the reverse index
+     * @param userID   String  The ID of the user
+     * @param eventID  String  The ID of the event
+     */
+    private void unlinkUser(String userID, String eventID){
+        attendee_events.computeIfPresent(userID, (user, events) -> {
+            synchronized (events){
+                events.remove(eventID);
+                return events.isEmpty() ? null : events;
+            }
+        });
+    }
+
+    /**
+     * Records that the event must be written on the next save
+     * @param eventID  String  The ID of the added or modified event
+     */
+    private void markChanged(String eventID){
+        version.incrementAndGet();
+        event_views = null;
+        synchronized (dirty_lock){
+            // an event cancelled and added again stays deleted too, so the save clears the old event's rows
+            changed_events.add(eventID);
+        }
+    }
+
+    /**
+     * Records that the event must be deleted on the next save
+     * @param eventID  String  The ID of the cancelled event
+     */
+    private void markDeleted(String eventID){
+        version.incrementAndGet();
+        event_views = null;
+        synchronized (dirty_lock){
+            changed_events.remove(eventID);
+            deleted_events.add(eventID);
+            // deleting the event deletes its whole roster and waitlist
+            added_attendees.remove(eventID);
+            removed_attendees.remove(eventID);
+            added_waitlisted.remove(eventID);
+            removed_waitlisted.remove(eventID);
+        }
+    }
+
+    /**
+     * Records that the user was added to the event's roster or waitlist since it was last saved
+     * @param added    Map<String, Set<String>>  The users added to each event's roster or waitlist
+     * @param eventID  String                    The ID of the event
+     * @param userID   String                    The ID of the added user
+     */
+    private void recordAdded(Map<String, Set<String>> added, String eventID, String userID){
+        synchronized (dirty_lock){
+            added.computeIfAbsent(eventID, e -> new LinkedHashSet<>()).add(userID);
+        }
+    }
+
+    /**
+     * Records that the user was removed from the event's roster or waitlist since it was last saved. Removing a
+     * user added since the last save cancels out the addition.
+     * @param added    Map<String, Set<String>>  The users added to each event's roster or waitlist
+     * @param removed  Map<String, Set<String>>  The users removed from each event's roster or waitlist
+     * @param eventID  String                    The ID of the event
+     * @param userID   String                    The ID of the removed user
+     */
+    private void recordRemoved(Map<String, Set<String>> added, Map<String, Set<String>> removed, String eventID,
+                               String userID){
+        synchronized (dirty_lock){
+            Set<String> addedUsers = added.get(eventID);
+            if (addedUsers != null && addedUsers.remove(userID)){
+                if (addedUsers.isEmpty()) added.remove(eventID);
+                return;
+            }
+            removed.computeIfAbsent(eventID, e -> new LinkedHashSet<>()).add(userID);
+        }
+    }
+
+    /**
+     * Flattens a map from event IDs to user IDs into [event ID, user ID] pairs
+     * @param usersByEvent  Map<String, Set<String>>  The user IDs of each event
+     * @return              List<List<String>>        Pairs of [event ID, user ID]
+     */
+    private List<List<String>> toPairs(Map<String, Set<String>> usersByEvent){
+        List<List<String>> pairs = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry: usersByEvent.entrySet()){
+            for (String userID: entry.getValue()){
+                pairs.add(Arrays.asList(entry.getKey(), userID));
+            }
+        }
+        return pairs;
+    }
+}
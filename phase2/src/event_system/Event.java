@@ -1,24 +1,33 @@
 package event_system;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
  * Entity for storing the Event's data.
  */
 public class Event {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private final EventType event_type;
     private int eventCapacity;
     private final String event_id;
-    private final LocalDateTime start_time;
-    private final LocalDateTime end_time;
+    // seconds since 1970-01-01T00:00, read as UTC; events are only ever saved and shown to the minute
+    private final long start_second;
+    private final long end_second;
     private final String room_id;
-    private final List<String> attendeeIDs;
-    private final List<String> speaker_ids;
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    // a user can only be in a roster once; rosters hold user numbers, so membership checks are bit lookups
+    private final Roster attendeeIDs;
+    private final Roster speaker_ids;
+    // users waiting for a seat, first come first; created by the first user to join it, since most events have none
+    private LinkedHashSet<String> waitlist;
+    // snapshot returned by toView, dropped whenever the event changes
+    private EventView view;
 
     /**
      * Creates a new instance of Event.
@@ -35,11 +44,11 @@ public class Event {
         event_type = eventType;
         this.eventCapacity = eventCapacity;
         event_id = eventID;
-        start_time = startTime;
-        end_time = endTime;
+        start_second = startTime.toEpochSecond(ZoneOffset.UTC);
+        end_second = endTime.toEpochSecond(ZoneOffset.UTC);
         room_id = roomID;
-        speaker_ids = speakerIDs;
-        this.attendeeIDs = attendeeIDs;
+        speaker_ids = new Roster(speakerIDs);
+        this.attendeeIDs = new Roster(attendeeIDs);
     }
 
     /**
@@ -63,7 +72,7 @@ public class Event {
      * @return DateTime Start of the event.
      */
     public LocalDateTime getStartTime() {
-        return start_time;
+        return LocalDateTime.ofEpochSecond(start_second, 0, ZoneOffset.UTC);
     }
 
     /**
@@ -71,7 +80,7 @@ public class Event {
      * @return DateTime End of the event.
      */
     public LocalDateTime getEndTime() {
-        return end_time;
+        return LocalDateTime.ofEpochSecond(end_second, 0, ZoneOffset.UTC);
     }
 
     /**
@@ -84,15 +93,121 @@ public class Event {
 
     /***
      * Return a list of attendee IDs
-     * @return ArrayList<String> A list of attendee IDs
+     * @return List<String> A read-only list of attendee IDs, in the order they joined the event
      */
-    public List<String> getAttendeeIDs() { return attendeeIDs; }
+    public List<String> getAttendeeIDs() { return attendeeIDs.asList(); }
 
     /**
      * Returns the Speaker IDs list.
-     * @return ArrayList<String> A list of Speaker IDs.
+     * @return List<String> A read-only list of Speaker IDs.
      */
-    public List<String> getSpeakerIDs() { return speaker_ids; }
+    public List<String> getSpeakerIDs() { return speaker_ids.asList(); }
+
+    /**
+     * Adds an attendee to the event
+     * @param attendeeID  String   The ID of the attendee
+     * @return            boolean  True if the attendee was not already in the event
+     */
+    public boolean addAttendee(String attendeeID) {
+        if (!attendeeIDs.add(attendeeID)) return false;
+        view = null;
+        return true;
+    }
+
+    /**
+     * Removes an attendee from the event
+     * @param attendeeID  String   The ID of the attendee
+     * @return            boolean  True if the attendee was in the event
+     */
+    public boolean removeAttendee(String attendeeID) {
+        if (!attendeeIDs.remove(attendeeID)) return false;
+        view = null;
+        return true;
+    }
+
+    /**
+     * Checks if the attendee is in the event
+     * @param attendeeID  String   The ID of the attendee
+     * @return            boolean  True if the attendee is in the event
+     */
+    public boolean hasAttendee(String attendeeID) { return attendeeIDs.contains(attendeeID); }
+
+    /**
+     * Returns the number of attendees in the event
+     * @return  int  The number of attendees
+     */
+    public int getNumAttendees() { return attendeeIDs.size(); }
+
+    /**
+     * Adds the numbers of the attendees of the event to a set of user numbers
+     * @param members  CompressedBitmap  The set to add to
+     */
+    void addAttendeesTo(CompressedBitmap members) { attendeeIDs.addTo(members); }
+
+    /**
+     * Adds a user to the end of the waitlist
+     * @param userID  String   The ID of the user
+     * @return        boolean  True if the user was neither in the event nor on the waitlist
+     */
+    public boolean addToWaitlist(String userID) {
+        if (attendeeIDs.contains(userID)) return false;
+        if (waitlist == null) waitlist = new LinkedHashSet<>();
+        return waitlist.add(userID);
+    }
+
+    /**
+     * Removes a user from the waitlist
+     * @param userID  String   The ID of the user
+     * @return        boolean  True if the user was on the waitlist
+     */
+    public boolean removeFromWaitlist(String userID) {
+        return waitlist != null && waitlist.remove(userID);
+    }
+
+    /**
+     * Returns the user at the front of the waitlist, who gets the next free seat
+     * @return  String  The ID of the user, or null if nobody is waiting
+     */
+    public String nextOnWaitlist() {
+        if (waitlist == null) return null;
+        Iterator<String> waiting = waitlist.iterator();
+        return waiting.hasNext() ? waiting.next() : null;
+    }
+
+    /**
+     * Returns the users on the waitlist
+     * @return  List<String>  A copy of the waitlist, front first
+     */
+    public List<String> getWaitlist() {
+        return waitlist == null ? new ArrayList<>() : new ArrayList<>(waitlist);
+    }
+
+    /**
+     * Returns the number of users on the waitlist
+     * @return  int  The length of the waitlist
+     */
+    public int getWaitlistSize() { return waitlist == null ? 0 : waitlist.size(); }
+
+    /**
+     * Returns the place of a user on the waitlist, counted from the front without copying the waitlist
+     * @param userID  String  The ID of the user
+     * @return        int     1 for the front of the waitlist; 0 if the user is not on it
+     */
+    public int getWaitlistPosition(String userID) {
+        if (waitlist == null || !waitlist.contains(userID)) return 0;
+        int position = 1;
+        for (String waiting: waitlist) {
+            if (waiting.equals(userID)) break;
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the total number of attendees and speakers in the event
+     * @return  int  The number of occupied seats
+     */
+    public int getOccupancy() { return attendeeIDs.size() + speaker_ids.size(); }
 
     /**
      * Returns the event capacity.
@@ -108,6 +223,18 @@ public class Event {
      */
     public void setEventCapacity(int newCapacity){
         this.eventCapacity = newCapacity;
+        view = null;
+    }
+
+    /**
+     * Returns a read-only snapshot of the event, reusing the previous one if the event has not changed since
+     * @return  EventView  The snapshot of the event
+     */
+    public EventView toView(){
+        if (view == null){
+            view = new EventView(this);
+        }
+        return view;
     }
 
     /**
@@ -118,8 +245,8 @@ public class Event {
     public List<List<String>> toEventArray(){
         String eventTypeString = event_type.toString();
         String eventCapacity = Integer.toString(this.eventCapacity);
-        String formatStartTime = start_time.format(formatter);
-        String formatEndTime = end_time.format(formatter);
+        String formatStartTime = getStartTime().format(formatter);
+        String formatEndTime = getEndTime().format(formatter);
 
 
         List<String> eventType = addStringToList(eventTypeString);
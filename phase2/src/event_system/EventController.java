@@ -1,35 +1,74 @@
 package event_system;
 
+import message_system.MessageService;
+import user_system.UserDatabaseReadWriter;
 import user_system.UserService;
 import user_system.UserType;
 import room_system.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
 /**
  * Controller class for adding events.
  */
 
 public class EventController implements IEventController{
 
+    /**
+     * Sender of the messages telling users they got a seat from a waitlist; not a valid username, so it cannot
+     * belong to an account
+     */
+    public static final String WAITLIST_SENDER = "#waitlist";
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private final EventService event_service;
     private final EventDatabaseReadWriter data_provider;
+    private final UserDatabaseReadWriter user_provider;
     private final UserService user_service;
     private final RoomService room_service;
+    private final MessageService message_service;
+    private ScheduleSolver schedule_solver;
 
     /**
-     * Initialize a EventController
+     * Initialize a EventController that does not notify users promoted from a waitlist
      * @param eventListFileName The file name of the event list.
      * @param userService       The userService.
      * @param eventService      The eventService.
      */
     public EventController(String eventListFileName, UserService userService,
                            EventService eventService, RoomService roomService){
+        this(eventListFileName, userService, eventService, roomService, null);
+    }
+
+    /**
+     * Initialize a EventController
+     * @param eventListFileName The file name of the event list.
+     * @param userService       The userService.
+     * @param eventService      The eventService.
+     * @param roomService       The roomService.
+     * @param messageService    The messageService sending the waitlist notifications, or null to send none.
+     */
+    public EventController(String eventListFileName, UserService userService,
+                           EventService eventService, RoomService roomService, MessageService messageService){
         event_service = eventService;
         data_provider = new EventDatabaseReadWriter(event_service, eventListFileName);
+        user_provider = new UserDatabaseReadWriter(userService, eventListFileName);
         this.user_service = userService;
         this.room_service = roomService;
+        this.message_service = messageService;
     }
 
     /**
@@ -47,13 +86,11 @@ public class EventController implements IEventController{
      */
     @Override
     public List<String> getEventsForUser(String userID) {
-        List<String> speakers = user_service.getListOfIDsByType(UserType.SPEAKER);
-        List<String> attendees = user_service.getListOfIDsByType(UserType.ATTENDEE);
         List<String> events = new ArrayList<>();
-        if (speakers.contains(userID)) {
+        if (user_service.isUserOfType(userID, UserType.SPEAKER)) {
             events = event_service.getEventsByUserType(UserType.SPEAKER, userID);
         }
-        else if (attendees.contains(userID)) {
+        else if (user_service.isUserOfType(userID, UserType.ATTENDEE)) {
             events = event_service.getEventsByUserType(UserType.ATTENDEE, userID);
         }
         return events;
@@ -107,13 +144,13 @@ public class EventController implements IEventController{
         else if (!event_service.areValidTimes(startTime, endTime)){
             return EventPrompt.INVALID_TIME_SELECTION; // the startTime and endTime combination chosen is invalid
         }
-        else if (!user_service.getListOfIDsByType(UserType.SPEAKER).containsAll(speakerIDs)){
+        else if (!areUsersOfType(speakerIDs, UserType.SPEAKER)){
             return EventPrompt.SPEAKER_DNE; // trying to book an event with non-existing speakers
         }
         else if (event_service.isDoubleBookingSpeaker(speakerIDs, startTime, endTime)){
             return EventPrompt.DOUBLE_BOOK_SPEAKER; // you are trying to double book a speaker
         }
-        else if (!user_service.getListOfIDsByType(UserType.ATTENDEE).containsAll(attendeeIDs)){
+        else if (!areUsersOfType(attendeeIDs, UserType.ATTENDEE)){
             return EventPrompt.ATTENDEE_DNE; // you are trying to add attendees that don't exist in the system
         }
         else if (room_service.isExceedingRoomCapacity(attendeeIDs.size(),trimRoomID)){
@@ -138,11 +175,99 @@ public class EventController implements IEventController{
 
 
     /**
-     * Sign up the userID for the given eventID.
+     * Finds the rooms and times in which an event could be booked. A candidate is a room that can hold
+     * eventCapacity people together with a window in which the room and every speaker are free for at least
+     * length; the event can start at any time from the window's start until length before its end. Rooms are
+     * tried in order of capacity, so the best-fitting rooms come first, and each room's windows in order of time.
+     * @param eventCapacity  int                 Contains the capacity of the event
+     * @param speakerIDs     List<String>        A list of speaker IDs
+     * @param from           LocalDateTime       Contains the earliest start of the event
+     * @param to             LocalDateTime       Contains the latest end of the event
+     * @param length         Duration            Contains the length of the event
+     * @param maxResults     int                 Contains the most candidates to return
+     * @return               List<List<String>>  A nested list of the form [roomID, roomCapacity, windowStart,
+     *                                           windowEnd], with times as yyyy-MM-dd HH:mm; empty if the speakers
+     *                                           are not distinct speakers or the period is too short
+     */
+    @Override
+    public List<List<String>> findAvailableSlots(int eventCapacity, List<String> speakerIDs, LocalDateTime from,
+                                                 LocalDateTime to, Duration length, int maxResults){
+        List<List<String>> candidates = new ArrayList<>();
+        if (length.isNegative() || length.isZero() || from.plus(length).isAfter(to) ||
+                !areUsersOfType(speakerIDs, UserType.SPEAKER) || event_service.isSpeakerDuplicate(speakerIDs)){
+            return candidates;
+        }
+        List<List<String>> rooms = room_service.getRoomsWithCapacity(eventCapacity);
+        List<String> roomIDs = new ArrayList<>(rooms.size());
+        for (List<String> room: rooms){
+            roomIDs.add(room.get(0));
+        }
+        Map<String, List<List<LocalDateTime>>> freeTimes = event_service.getFreeTimes(roomIDs, speakerIDs, from, to,
+                length);
+        for (List<String> room: rooms){
+            for (List<LocalDateTime> window: freeTimes.getOrDefault(room.get(0), Collections.emptyList())){
+                if (candidates.size() >= maxResults) return candidates;
+                candidates.add(Arrays.asList(room.get(0), room.get(1), window.get(0).format(formatter),
+                        window.get(1).format(formatter)));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Schedules a batch of sessions and adds them as events. The ScheduleSolver picks a room and time for each
+     * session that passes the checks of addEvent, keeping clear of the events already scheduled, so a later call
+     * only places its new sessions around the ones added before.
+     * @param sessions  List<Session>              The sessions to schedule
+     * @param horizon   List<List<LocalDateTime>>  The windows [start, end] sessions may be placed in, e.g. the
+     *                                             hours of each day of the conference
+     * @return          List<EventPrompt>          The result for each session, in the order of sessions:
+     *                                             EVENT_ADDED if it was scheduled, NO_AVAILABLE_SLOT if no room
+     *                                             large enough was free in time, or the check it failed
+     */
+    @Override
+    public List<EventPrompt> scheduleSessions(List<Session> sessions, List<List<LocalDateTime>> horizon){
+        List<EventPrompt> prompts = new ArrayList<>(sessions.size());
+        List<Session> valid = new ArrayList<>();
+        Set<String> batchIDs = new HashSet<>();
+        for (Session session: sessions){
+            Session trimmed = new Session(session.getEventID().trim(), session.getEventType(),
+                    session.getEventCapacity(), session.getSpeakerIDs(), session.getLength());
+            EventPrompt prompt = checkSession(trimmed, batchIDs);
+            if (prompt == null) valid.add(trimmed);
+            prompts.add(prompt);
+        }
+        Map<String, ScheduleSolver.Placement> placements = getScheduleSolver().solve(valid, horizon);
+        int next = 0;
+        for (int x = 0; x < prompts.size(); x++){
+            if (prompts.get(x) != null) continue;
+            Session session = valid.get(next++);
+            ScheduleSolver.Placement placement = placements.get(session.getEventID());
+            prompts.set(x, placement == null ? EventPrompt.NO_AVAILABLE_SLOT : addEvent(session.getEventType(),
+                    session.getEventCapacity(), session.getEventID(), placement.getStartTime(),
+                    placement.getEndTime(), placement.getRoomID(), session.getSpeakerIDs(), new ArrayList<>()));
+        }
+        return prompts;
+    }
+
+    /**
+     * Returns the solver used by scheduleSessions, e.g. to set its deadline
+     * @return  ScheduleSolver  The solver, which remembers its last plan
+     */
+    public ScheduleSolver getScheduleSolver(){
+        if (schedule_solver == null){
+            schedule_solver = new ScheduleSolver(event_service, room_service);
+        }
+        return schedule_solver;
+    }
+
+    /**
+     * Sign up the userID for the given eventID. While users are waiting for the event, its free seats are held
+     * for them, so the event counts as full; see joinWaitlist to queue for a full event.
      * @param   userID       The id of the user who is signing up.
      * @param   eventID      The id of the event.
      * @return  EventPrompt  USER_DOUBLE_SIGNUP: if the user has already sign up before for the event
-     *                       EVENT_FULL: if the event is already full
+     *                       EVENT_FULL: if the event is already full, or users are waiting for it
      *                       EVENT_DNE: if the event is invalid(i.e does not exist)
      *                       ATTENDEE_DNE: if the user is invalid(i.e does not exist)
      *                       SIGNUP_SUCCESS: if sign up successful
@@ -152,19 +277,28 @@ public class EventController implements IEventController{
         if (event_service.isSignUpBefore(eventID,userID)){
             return EventPrompt.USER_DOUBLE_SIGNUP; // the user has already sign up before for the event
         }
-        else if (event_service.isEventFull(eventID)){
-            return EventPrompt.EVENT_FULL; // the event is already full
+        else if (event_service.isEventFull(eventID) || event_service.hasWaitlist(eventID)){
+            return EventPrompt.EVENT_FULL; // the event is already full, or its free seats are held for the waitlist
         }
         else if (!event_service.isEventExist(eventID)){
             return EventPrompt.EVENT_DNE; // the event does not exist
         }
-        else if(!user_service.getListOfIDsByType(UserType.ATTENDEE).contains(userID)){
+        else if(!user_service.isUserOfType(userID, UserType.ATTENDEE)){
             return EventPrompt.ATTENDEE_DNE; // the attendee is invalid(i.e doesn't exist)
         }
-        else{
-            event_service.addUserToEvent(userID,eventID);
+        else if (event_service.addUserToEvent(userID,eventID)){
             return EventPrompt.SIGNUP_SUCCESS; // successful sign up!
         }
+        // another sign-up or a cancellation got in between the checks above and the sign-up itself
+        else if (event_service.isSignUpBefore(eventID,userID)){
+            return EventPrompt.USER_DOUBLE_SIGNUP;
+        }
+        else if (!event_service.isEventExist(eventID)){
+            return EventPrompt.EVENT_DNE;
+        }
+        else{
+            return EventPrompt.EVENT_FULL;
+        }
     }
 
     /**
@@ -192,6 +326,15 @@ public class EventController implements IEventController{
         return event_service.getListEvents();
     }
 
+    /**
+     * Method to get a read-only snapshot of every event, without converting them to nested lists
+     * @return  List<EventView>  A read-only list of event snapshots
+     */
+    @Override
+    public List<EventView> getEventViews(){
+        return event_service.getEventViews();
+    }
+
     /**
      * Changes the event capacity to a new value if the following three things are satisfied:
      * 1.The event exists
@@ -208,13 +351,15 @@ public class EventController implements IEventController{
                 room_service.isValidEventCapacity(newCapacity,roomID) &&
                 newCapacity>=event_service.getNumAttendance(eventID)){
             event_service.changeEventCapacity(eventID,newCapacity);
+            promoteWaitlist(eventID);
             return true;
         }
         return false;
     }
 
     /**
-     * Removed the userID for the given eventID if they are signed up
+     * Removed the userID for the given eventID if they are signed up. The freed seat goes to the front of the
+     * event's waitlist.
      * @param   userID         The id of the user who is signing up.
      * @param   eventID        The id of the event.
      * @return  EventPrompt    EVENT_DNE if the event does not exist
@@ -227,14 +372,15 @@ public class EventController implements IEventController{
         if(!event_service.isEventExist(eventID)){
             return EventPrompt.EVENT_DNE;
         }
-        else if (!user_service.getListOfIDsByType(UserType.ATTENDEE).contains(userID)){
+        else if (!user_service.isUserOfType(userID, UserType.ATTENDEE)){
             return EventPrompt.ATTENDEE_DNE;
         }
-        else if(!event_service.getUsersForEvent(eventID).contains(userID)){
+        else if(!event_service.isSignUpBefore(eventID, userID)){
             return EventPrompt.ATTENDEE_NOT_IN_EVENT;
         }
         else{
             event_service.removeUserFromEvent(userID,eventID);
+            promoteWaitlist(eventID);
             return EventPrompt.CANCEL_SUCCESS;
         }
     }
@@ -251,6 +397,148 @@ public class EventController implements IEventController{
         return cancelSignUp(user_service.getCurrentUserID(), eventID);
     }
 
+    /**
+     * Puts the userID at the back of the waitlist of a full event, or signs them up if it has a free seat. Waiting
+     * users are signed up in turn as seats free up, and sent a message when they are. Seats that were freed without
+     * being given to the waitlist, e.g. by a change made directly to the event service, are given out first.
+     * @param   userID       The id of the user who is waiting.
+     * @param   eventID      The id of the event.
+     * @return  EventPrompt  USER_DOUBLE_SIGNUP: if the user has already sign up before for the event
+     *                       EVENT_DNE: if the event is invalid(i.e does not exist)
+     *                       ATTENDEE_DNE: if the user is invalid(i.e does not exist)
+     *                       SIGNUP_SUCCESS: if the event had a free seat for the user
+     *                       ADDED_TO_WAITLIST: if the user is now at the back of the waitlist
+     *                       ALREADY_ON_WAITLIST: if the user was already on the waitlist
+     */
+    @Override
+    public EventPrompt joinWaitlist(String userID, String eventID) {
+        if (event_service.isSignUpBefore(eventID,userID)){
+            return EventPrompt.USER_DOUBLE_SIGNUP;
+        }
+        else if (!event_service.isEventExist(eventID)){
+            return EventPrompt.EVENT_DNE;
+        }
+        else if(!user_service.isUserOfType(userID, UserType.ATTENDEE)){
+            return EventPrompt.ATTENDEE_DNE;
+        }
+        if (!event_service.isEventFull(eventID)){
+            EventPrompt result = signUp(userID, eventID);
+            if (result != EventPrompt.EVENT_FULL) return result;
+        }
+        boolean added = event_service.addUserToWaitlist(userID, eventID);
+        // free seats go to the front of the waitlist, which may be this user
+        promoteWaitlist(eventID);
+        if (event_service.isSignUpBefore(eventID,userID)){
+            return EventPrompt.SIGNUP_SUCCESS;
+        }
+        else if (added){
+            return EventPrompt.ADDED_TO_WAITLIST;
+        }
+        // a cancellation got in between the checks above and joining the waitlist
+        else if (!event_service.isEventExist(eventID)){
+            return EventPrompt.EVENT_DNE;
+        }
+        else{
+            return EventPrompt.ALREADY_ON_WAITLIST;
+        }
+    }
+
+    /**
+     * Puts the currently login user on the waitlist of a full event, or signs them up if it has a free seat.
+     * @param   eventID      The id of the event.
+     * @return  EventPrompt  See joinWaitlist(userID, eventID)
+     */
+    @Override
+    public EventPrompt joinWaitlist(String eventID){
+        return joinWaitlist(user_service.getCurrentUserID(), eventID);
+    }
+
+    /**
+     * Takes the userID off the waitlist of an event.
+     * @param   userID       The id of the user who is leaving.
+     * @param   eventID      The id of the event.
+     * @return  EventPrompt  EVENT_DNE if the event does not exist
+     *                       ATTENDEE_NOT_IN_EVENT if the user is not on the waitlist
+     *                       CANCEL_SUCCESS if the user has been taken off the waitlist
+     */
+    @Override
+    public EventPrompt leaveWaitlist(String userID, String eventID) {
+        if (!event_service.isEventExist(eventID)){
+            return EventPrompt.EVENT_DNE;
+        }
+        else if (!event_service.removeUserFromWaitlist(userID, eventID)){
+            return EventPrompt.ATTENDEE_NOT_IN_EVENT;
+        }
+        else{
+            return EventPrompt.CANCEL_SUCCESS;
+        }
+    }
+
+    /**
+     * Takes the currently login user off the waitlist of an event.
+     * @param   eventID      The id of the event.
+     * @return  EventPrompt  See leaveWaitlist(userID, eventID)
+     */
+    @Override
+    public EventPrompt leaveWaitlist(String eventID){
+        return leaveWaitlist(user_service.getCurrentUserID(), eventID);
+    }
+
+    /**
+     * Returns the waitlist of an event.
+     * @param   eventID       The id of the event.
+     * @return  List<String>  The ids of the waiting users, the next to get a seat first
+     */
+    @Override
+    public List<String> getWaitlist(String eventID){
+        return event_service.getWaitlist(eventID);
+    }
+
+    /**
+     * Returns the number of users on the waitlist of an event.
+     * @param   eventID  The id of the event.
+     * @return  int      The number of waiting users; 0 if the event does not exist
+     */
+    @Override
+    public int getWaitlistSize(String eventID){
+        return event_service.getWaitlistSize(eventID);
+    }
+
+    /**
+     * Returns the place of the userID on the waitlist of an event.
+     * @param   userID   The id of the user.
+     * @param   eventID  The id of the event.
+     * @return  int      1 for the next user to get a seat, 2 for the one after, and so on; 0 if the user is not
+     *                   waiting
+     */
+    @Override
+    public int getWaitlistPosition(String userID, String eventID){
+        return event_service.getWaitlistPosition(userID, eventID);
+    }
+
+    /**
+     * Returns the place of the currently login user on the waitlist of an event.
+     * @param   eventID  The id of the event.
+     * @return  int      See getWaitlistPosition(userID, eventID)
+     */
+    @Override
+    public int getWaitlistPosition(String eventID){
+        return getWaitlistPosition(user_service.getCurrentUserID(), eventID);
+    }
+
+    /**
+     * Gives the free seats of an event to the front of its waitlist, and sends everyone who got one the same
+     * message in a single broadcast
+     * @param eventID  String  The ID of the event
+     */
+    private void promoteWaitlist(String eventID){
+        List<String> promoted = event_service.promoteFromWaitlist(eventID);
+        if (!promoted.isEmpty() && message_service != null){
+            message_service.multiMessage("A seat opened up in " + eventID + ", and you have been signed up for it " +
+                    "from the waitlist.", WAITLIST_SENDER, promoted);
+        }
+    }
+
     /**
      * Deletes all events with the given event ID
      * @param eventID  String   Contains the event ID
@@ -288,6 +576,165 @@ public class EventController implements IEventController{
     @Override
     public boolean save(){ return data_provider.write(); }
 
+    /**
+     * Takes the changes made since the last save and returns the write that stores them
+     * @return BooleanSupplier  Writes the changes, returning true if they were written successfully
+     */
+    @Override
+    public BooleanSupplier takeChanges(){
+        return data_provider.takeChanges();
+    }
+
+    /**
+     * Imports accounts and sign-ups from CSV text with one record per line, either
+     * "user,username,password,userType" or "signup,username,eventID". Each row is checked the way
+     * UserController.addUser and signUp check it, against the accounts and events in the system and the rows
+     * accepted before it, so one file can create attendees and then sign them up. Rejected rows are skipped and
+     * reported. The accepted rows are written to the database in a single transaction, and if reading the text or
+     * writing fails, none of them are kept.
+     * @param  csv  Reader        The CSV text, read one line at a time
+     * @return      ImportReport  The number of rows accepted and the reason each other row was rejected
+     */
+    @Override
+    public ImportReport importAttendees(Reader csv) {
+        ImportReport report = new ImportReport();
+        List<List<String>> users = new ArrayList<>();
+        List<List<String>> signUps = new ArrayList<>();
+        boolean read = true;
+        try (BufferedReader lines = new BufferedReader(csv)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (!line.trim().isEmpty()) {
+                    importRow(line.split(",", -1), lineNumber, report, users, signUps);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println(e.toString());
+            read = false;
+        }
+
+        if (read && data_provider.writeImport(connection -> user_provider.writeAccounts(connection, users),
+                signUps)) {
+            List<String> usernames = new ArrayList<>();
+            for (List<String> user : users) {
+                usernames.add(user.get(0));
+            }
+            // the sign-ups stay marked as changed, and are skipped as already stored when events are next saved
+            user_service.markUsersSaved(usernames);
+            report.setCommitted(true);
+        } else {
+            Set<String> freedEvents = new LinkedHashSet<>();
+            for (List<String> signUp : signUps) {
+                event_service.removeUserFromEvent(signUp.get(1), signUp.get(0));
+                freedEvents.add(signUp.get(0));
+            }
+            // users who joined a waitlist during the import get the seats it gave back
+            for (String eventID : freedEvents) {
+                promoteWaitlist(eventID);
+            }
+            for (List<String> user : users) {
+                user_service.removeUser(user.get(0));
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Checks one row of an import and applies it if it is valid
+     * @param fields   String[]            The comma-separated fields of the row.
+     * @param line     int                 The line number of the row.
+     * @param report   ImportReport        The report recording the outcome.
+     * @param users    List<List<String>>  Accepted accounts as [username, password, user type].
+     * @param signUps  List<List<String>>  Accepted sign-ups as [event ID, user ID].
+     */
+    private void importRow(String[] fields, int line, ImportReport report, List<List<String>> users,
+                           List<List<String>> signUps){
+        String kind = fields[0].trim().toLowerCase();
+        if (kind.equals("user") && fields.length == 4){
+            String username = fields[1].trim();
+            String password = fields[2].trim();
+            UserType userType = toUserType(fields[3].trim());
+            if (!isAlphanumeric(username) || !isAlphanumeric(password) || userType == null){
+                report.reject(line, EventPrompt.INVALID_IMPORT_ROW);
+            }
+            else if (user_service.userExists(username)){
+                report.reject(line, EventPrompt.USER_ALREADY_EXISTS);
+            }
+            else{
+                user_service.addUser(username, password, userType);
+                users.add(Arrays.asList(username, password, userType.toString()));
+                report.userAdded();
+            }
+        }
+        else if (kind.equals("signup") && fields.length == 3){
+            String userID = fields[1].trim();
+            String eventID = fields[2].trim();
+            EventPrompt result = signUp(userID, eventID);
+            if (result == EventPrompt.SIGNUP_SUCCESS){
+                signUps.add(Arrays.asList(eventID, userID));
+                report.signUpAdded();
+            }
+            else{
+                report.reject(line, result);
+            }
+        }
+        else{
+            report.reject(line, EventPrompt.INVALID_IMPORT_ROW);
+        }
+    }
+
+    /**
+     * Reads a user type, ignoring case
+     * @param userType String The name of the user type.
+     * @return UserType The user type, or null if there is none with that name.
+     */
+    private UserType toUserType(String userType){
+        for (UserType type : UserType.values()){
+            if (type.toString().equalsIgnoreCase(userType)){
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a username or password is valid, i.e. alphanumerical
+     * @param input String The username or password.
+     */
+    private boolean isAlphanumeric(String input){
+        return input.matches("[A-Za-z0-9]+");
+    }
+
+    /**
+     * Checks a session the way addEvent checks an event, before it has a room and a time
+     * @param session   Session      The session, with a trimmed event ID
+     * @param batchIDs  Set<String>  The event IDs of the batch checked so far; the session's ID is added
+     * @return          EventPrompt  The check the session failed, or null if it can be scheduled
+     */
+    private EventPrompt checkSession(Session session, Set<String> batchIDs){
+        if (event_service.isEventExist(session.getEventID()) || !batchIDs.add(session.getEventID())){
+            return EventPrompt.EVENT_ALREADY_EXIST;
+        }
+        else if (session.getLength().isNegative() || session.getLength().isZero()){
+            return EventPrompt.INVALID_TIME_SELECTION;
+        }
+        else if (!areUsersOfType(session.getSpeakerIDs(), UserType.SPEAKER)){
+            return EventPrompt.SPEAKER_DNE;
+        }
+        else if (session.getSpeakerIDs().size() > session.getEventCapacity()){
+            return EventPrompt.INVALID_EVENT_CAPACITY;
+        }
+        else if (!isValidNumSpeakers(session.getEventType(), session.getSpeakerIDs())){
+            return EventPrompt.NUM_SPEAKERS_MISMATCH;
+        }
+        else if (event_service.isSpeakerDuplicate(session.getSpeakerIDs())){
+            return EventPrompt.SAME_SPEAKER_ADDED;
+        }
+        return null;
+    }
+
     /**
      * Checks if the number of speakers are matching the eventType
      * @param eventType   EventType    The type pf the event.
@@ -306,4 +753,18 @@ public class EventController implements IEventController{
         return false;
     }
 
+    /**
+     * Checks if every user in a list has an account of the given type
+     * @param userIDs  List<String> The user IDs to check.
+     * @param userType UserType     The type every user must have.
+     */
+    private boolean areUsersOfType(List<String> userIDs, UserType userType){
+        for (String userID : userIDs){
+            if (!user_service.isUserOfType(userID, userType)){
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
\ No newline at end of file
@@ -6,8 +6,11 @@ import java.sql.ResultSet;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
 import database.DatabaseReadWriter;
 
 import java.sql.*;
@@ -17,16 +20,22 @@ public class EventDatabaseReadWriter extends DatabaseReadWriter {
     private final EventService event_service;
     private final DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private final String table_name = "Events";
+    private final String speakers_table = "EventSpeakers";
+    private final String attendees_table = "EventAttendees";
+    private final String waitlist_table = "EventWaitlist";
     private final String sql_table = "CREATE TABLE IF NOT EXISTS " + table_name + " (\n"
             + "    eventID TEXT UNIQUE,\n"
             + "    eventType TEXT,\n"
             + "    eventCapacity TEXT,\n"
             + "    startTime TEXT,\n"
             + "    endTime TEXT,\n"
-            + "    roomID TEXT,\n"
-            + "    speakerIDs TEXT,\n"
-            + "    attendeeIDs TEXT\n"
+            + "    roomID TEXT\n"
             + ");";
+    // one row per user of an event; the id column keeps each roster in the order users were added
+    private final String sql_speakers_table = rosterTable(speakers_table);
+    private final String sql_attendees_table = rosterTable(attendees_table);
+    // the waitlists have the same layout, so the id column is each user's place in the queue
+    private final String sql_waitlist_table = rosterTable(waitlist_table);
 
 
     /**
@@ -40,85 +49,193 @@ public class EventDatabaseReadWriter extends DatabaseReadWriter {
     }
 
     /**
-     * Insert the information of an event by writing to a database
+     * Insert the information of an event by writing to a database. Speakers, attendees and waitlists are stored one
+     * row per user in the EventSpeakers, EventAttendees and EventWaitlist tables. The first write replaces all four
+     * tables; once they match the event service, only the events, sign-ups and waitlist changes since the last
+     * save are written.
      * @return true if the file was successfully written to.
      */
-    public boolean write(){
-        if (!tableExists(table_name)) createNewTable(sql_table);
-        deleteAllData(table_name);
+    @Override
+    public synchronized boolean write(){
+        return takeChanges().getAsBoolean();
+    }
 
-        String sql = "REPLACE INTO Events(eventID,eventType,eventCapacity,startTime," +
-                "endTime,roomID,speakerIDs,attendeeIDs) VALUES(?,?,?,?,?,?,?,?) ";
-        Connection connection = makeConnection();
+    /**
+     * Takes the changes to write from the event service and marks them saved, returning the write that stores
+     * them, see DatabaseReadWriter.takeChanges. A ConcurrentEventServiceEngine is held only while the changes are
+     * taken, so a change made meanwhile is not marked saved without being written.
+     * @return BooleanSupplier  The write, returning true if the file was successfully written to
+     */
+    @Override
+    public BooleanSupplier takeChanges(){
+        if (event_service instanceof ConcurrentEventServiceEngine) {
+            return ((ConcurrentEventServiceEngine) event_service).runExclusively(this::takeSnapshot);
+        }
+        return takeSnapshot();
+    }
 
-        try {
-            for (List<List<String>> event:event_service.getListEvents()){
-                PreparedStatement entry;
-                entry = connection.prepareStatement(sql);
-                entry.setString(2,event.get(EventIndex.EVENT_TYPE.getValue()).get(0)); //eventType
-                entry.setInt(3, Integer.parseInt(event.get(EventIndex.EVENT_CAPACITY.getValue()).get(0))); //eventCapacity
-                entry.setString(1, event.get(EventIndex.EVENT_ID.getValue()).get(0)); //eventID
-                entry.setString(4, event.get(EventIndex.START_TIME.getValue()).get(0)); //startTime
-                entry.setString(5, event.get(EventIndex.END_TIME.getValue()).get(0));//endTime
-                entry.setString(6, event.get(EventIndex.ROOM_ID.getValue()).get(0));//roomID
-                entry.setObject(7, listToString(event.get(EventIndex.SPEAKER_IDS.getValue()))); //speakerIds
-                entry.setObject(8, listToString(event.get(EventIndex.ATTENDEE_IDS.getValue()))); //attendeeIds
-
-                entry.execute();
-            }
-            return true;
-        } catch (SQLException e) {
-            System.out.println(e.toString());
-            return false;
-        } finally {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                System.out.println(e.toString());
+    /**
+     * Reads the changes from the event service and marks them saved. Nothing may change the service in between:
+     * a change made after the read would be marked saved without being written.
+     * @return BooleanSupplier  The write, returning true if the file was successfully written to
+     */
+    private BooleanSupplier takeSnapshot(){
+        // an upsert updates a changed row in place, so events keep the order they are read back in
+        String sql = "INSERT INTO Events(eventID,eventType,eventCapacity,startTime," +
+                "endTime,roomID) VALUES(?,?,?,?,?,?) " +
+                "ON CONFLICT(eventID) DO UPDATE SET eventType=excluded.eventType, " +
+                "eventCapacity=excluded.eventCapacity, startTime=excluded.startTime, endTime=excluded.endTime, " +
+                "roomID=excluded.roomID";
+        RowWriter<List<List<String>>> eventWriter = (entry, event) -> {
+            entry.setString(2,event.get(EventIndex.EVENT_TYPE.getValue()).get(0)); //eventType
+            entry.setInt(3, Integer.parseInt(event.get(EventIndex.EVENT_CAPACITY.getValue()).get(0))); //eventCapacity
+            entry.setString(1, event.get(EventIndex.EVENT_ID.getValue()).get(0)); //eventID
+            entry.setString(4, event.get(EventIndex.START_TIME.getValue()).get(0)); //startTime
+            entry.setString(5, event.get(EventIndex.END_TIME.getValue()).get(0));//endTime
+            entry.setString(6, event.get(EventIndex.ROOM_ID.getValue()).get(0));//roomID
+        };
+
+        boolean fullWrite = !isSynced();
+        List<String> deletedIDs = event_service.getDeletedEventIDs();
+        List<List<List<String>>> events = fullWrite ? event_service.getListEvents() : event_service.getChangedEvents();
+        List<List<String>> speakers = rosterPairs(events, EventIndex.SPEAKER_IDS);
+        // a full write stores every roster; otherwise only the sign-ups and cancellations are applied
+        List<List<String>> addedAttendees = fullWrite ? rosterPairs(events, EventIndex.ATTENDEE_IDS)
+                : withoutEmptyIDs(event_service.getAddedAttendees());
+        List<List<String>> removedAttendees = fullWrite ? new ArrayList<>() : event_service.getRemovedAttendees();
+        List<List<String>> addedWaitlisted = fullWrite ? event_service.getWaitlists()
+                : event_service.getAddedToWaitlists();
+        List<List<String>> removedWaitlisted = fullWrite ? new ArrayList<>()
+                : event_service.getRemovedFromWaitlists();
+
+        List<String> savedIDs = new ArrayList<>(deletedIDs);
+        for (List<List<String>> event: events) {
+            savedIDs.add(event.get(EventIndex.EVENT_ID.getValue()).get(0));
+        }
+        for (List<List<String>> pairs: Arrays.asList(removedAttendees, addedWaitlisted, removedWaitlisted)) {
+            for (List<String> pair: pairs) {
+                savedIDs.add(pair.get(0));
             }
         }
+        event_service.markEventsSaved(savedIDs);
+
+        return () -> {
+            boolean written = prepareSchema() && runInTransaction(connection -> {
+                try (Statement action = connection.createStatement()) {
+                    if (fullWrite) {
+                        action.executeUpdate("DELETE FROM " + table_name);
+                        action.executeUpdate("DELETE FROM " + speakers_table);
+                        action.executeUpdate("DELETE FROM " + attendees_table);
+                        action.executeUpdate("DELETE FROM " + waitlist_table);
+                    }
+                }
+                for (String table: Arrays.asList(table_name, speakers_table, attendees_table, waitlist_table)) {
+                    try (PreparedStatement delete = connection.prepareStatement(
+                            "DELETE FROM " + table + " WHERE eventID = ?")) {
+                        executeBatches(delete, deletedIDs, (statement, eventID) -> statement.setString(1, eventID));
+                    }
+                }
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM " + attendees_table + " WHERE eventID = ? AND userID = ?")) {
+                    executeBatches(delete, removedAttendees, this::bindPair);
+                }
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM " + waitlist_table + " WHERE eventID = ? AND userID = ?")) {
+                    executeBatches(delete, removedWaitlisted, this::bindPair);
+                }
+                try (PreparedStatement entry = connection.prepareStatement(sql)) {
+                    executeBatches(entry, events, eventWriter);
+                }
+                try (PreparedStatement entry = connection.prepareStatement(
+                        "INSERT OR IGNORE INTO " + speakers_table + "(eventID, userID) VALUES(?,?)")) {
+                    executeBatches(entry, speakers, this::bindPair);
+                }
+                try (PreparedStatement entry = connection.prepareStatement(
+                        "INSERT OR IGNORE INTO " + attendees_table + "(eventID, userID) VALUES(?,?)")) {
+                    executeBatches(entry, addedAttendees, this::bindPair);
+                }
+                // a user taken off a waitlist and added again was deleted above, so they go to the back of the queue
+                try (PreparedStatement entry = connection.prepareStatement(
+                        "INSERT OR IGNORE INTO " + waitlist_table + "(eventID, userID) VALUES(?,?)")) {
+                    executeBatches(entry, addedWaitlisted, this::bindPair);
+                }
+            });
+            // the changes were marked saved when they were taken, so after a failure the next write rewrites all
+            setSynced(written);
+            return written;
+        };
+    }
+
+    /**
+     * Writes the sign-ups accepted by a bulk import in a single transaction, together with any other rows the
+     * import writes in that transaction, such as its new accounts
+     * @param  otherRows  Transaction         Statements run on the same connection before the sign-ups
+     * @param  signUps    List<List<String>>  Sign-ups as [event ID, user ID]
+     * @return            boolean             True if every row was written; on failure none of them are
+     */
+    boolean writeImport(Transaction otherRows, List<List<String>> signUps){
+        if (!prepareSchema()) return false;
+        return runInTransaction(connection -> {
+            otherRows.run(connection);
+            try (PreparedStatement entry = connection.prepareStatement(
+                    "INSERT OR IGNORE INTO " + attendees_table + "(eventID, userID) VALUES(?,?)")) {
+                executeBatches(entry, signUps, this::bindPair);
+            }
+        });
     }
 
     /**
-     * Read the list of events from the .csv file
+     * Read the list of events, with their speakers, attendees and waitlists, from the database. The rows are decoded in
+     * parallel, see mapRowsInParallel, and added to the event service together.
      * @return true if the file was successfully read.
      */
     public boolean read(){
+        if (!prepareSchema()) return false;
+
         Connection connection = makeConnection();
         PreparedStatement entry = null;
         ResultSet resultEntry = null;
 
-        if (!tableExists(table_name)) createNewTable(sql_table);
-
-        String sql = "SELECT * FROM Events";
+        String sql = "SELECT eventID, eventType, eventCapacity, startTime, endTime, roomID FROM Events";
 
         try {
+            Map<String, List<String>> speakers = readRosters(connection, speakers_table);
+            Map<String, List<String>> attendees = readRosters(connection, attendees_table);
+            Map<String, List<String>> waitlists = readRosters(connection, waitlist_table);
+
             entry = connection.prepareStatement(sql);   //DB connection to be queried
             resultEntry = entry.executeQuery();     //executes the SQL query
-            while (resultEntry.next()) {    //iterating through all rows of the table
-                String eventID = resultEntry.getString("eventID");
-                int eventCapacity = resultEntry.getInt("eventCapacity");
-                LocalDateTime startTime = LocalDateTime.parse(resultEntry.getString("startTime"),format);
-                LocalDateTime endTime = LocalDateTime.parse(resultEntry.getString("endTime"),format);
-                String roomID = resultEntry.getString("roomID");
-
-                List<String> speakerIDs = stringToList(resultEntry.getObject("speakerIDs").toString());
-                List<String> attendeeIDs = stringToList(resultEntry.getObject("attendeeIDs").toString());
-
-                EventType eventType = EventType.valueOf(resultEntry.getString("eventType"));
+            List<Event> events = mapRowsInParallel(resultEntry, columns -> {
+                String eventID = columns[0];
+                List<String> speakerIDs = speakers.getOrDefault(eventID, new ArrayList<>());
+                List<String> attendeeIDs = attendees.getOrDefault(eventID, new ArrayList<>());
+                return new Event(EventType.valueOf(columns[1]), Integer.parseInt(columns[2]), eventID,
+                        LocalDateTime.parse(columns[3], format), LocalDateTime.parse(columns[4], format), columns[5],
+                        speakerIDs, attendeeIDs);
+            });
+            event_service.addEvents(events);
+            for (Map.Entry<String, List<String>> waitlist: waitlists.entrySet()) {
+                for (String userID: waitlist.getValue()) {
+                    event_service.addUserToWaitlist(userID, waitlist.getKey());
+                }
+            }
 
-                event_service.addEvent(eventType,eventCapacity, eventID,startTime,endTime,roomID,speakerIDs,
-                                        attendeeIDs);
+            // events loaded from the table are already saved
+            List<String> readIDs = new ArrayList<>(events.size());
+            for (Event event: events) {
+                readIDs.add(event.getEventID());
             }
+            event_service.markEventsSaved(readIDs);
+            setSynced(true);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         } finally {
             try {
-                assert resultEntry != null;     //closes all connections and queries before returning boolean
-                resultEntry.close();
-                entry.close();
+                //closes all connections and queries before returning boolean
+                if (resultEntry != null) resultEntry.close();
+                if (entry != null) entry.close();
                 connection.close();
             } catch (SQLException e) {
                 System.out.println(e.toString());
@@ -127,23 +244,181 @@ public class EventDatabaseReadWriter extends DatabaseReadWriter {
 
     }
 
+    /**
+     * Creates and migrates the event tables through the schema manager, see prepareTables and prepareWaitlists.
+     * The database is only checked the first time in a program run.
+     * @return true if the tables are ready to be queried.
+     */
+    boolean prepareSchema(){
+        return ensureSchema(table_name, this::prepareTables, this::prepareWaitlists);
+    }
 
     /**
-     * Converts a a list into a string without list brackets
-     * @param  target  List<String>  A list containing the string to be converted
-     * @return         String        A string representation of the list
+     * Creates the Events, EventSpeakers and EventAttendees tables and their indexes if they do not exist, and
+     * migrates an Events table that still stores speakers and attendees as text lists
+     * @param  connection  Connection    The connection of the current transaction
+     * @throws SQLException if a table cannot be created or migrated
      */
-    private String listToString(List<String> target){
-        StringBuilder res = new StringBuilder();
-        res.append("[");
-        for (String item: target){
-            res.append(item).append(",");
+    private void prepareTables(Connection connection) throws SQLException {
+        boolean eventsExist;
+        boolean hasListColumns;
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet tables = metaData.getTables(null, null, table_name, null)) {
+            eventsExist = tables.next();
+        }
+        try (ResultSet columns = metaData.getColumns(null, null, table_name, "attendeeIDs")) {
+            hasListColumns = columns.next();
+        }
+
+        try (Statement action = connection.createStatement()) {
+            action.execute(sql_speakers_table);
+            action.execute(sql_attendees_table);
+            for (String table: Arrays.asList(speakers_table, attendees_table)) {
+                action.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_user ON " + table + "(userID)");
+                action.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_event ON " + table + "(eventID)");
+            }
+            if (!eventsExist) {
+                action.execute(sql_table);
+                // rosters left behind by a dropped Events table belong to no event
+                action.executeUpdate("DELETE FROM " + speakers_table);
+                action.executeUpdate("DELETE FROM " + attendees_table);
+            }
         }
-        if (res.length() > 1) {
-            res.deleteCharAt(res.length() - 1);
+        if (eventsExist && hasListColumns) migrateListColumns(connection);
+        try (Statement action = connection.createStatement()) {
+            action.execute("CREATE INDEX IF NOT EXISTS idx_Events_room ON " + table_name + "(roomID, startTime)");
         }
-        res.append("]");
-        return res.toString();
+    }
+
+    /**
+     * Creates the EventWaitlist table and its indexes if they do not exist; waitlist rows left behind by a dropped
+     * Events table are removed with the other rosters' rows
+     * @param  connection  Connection    The connection of the current transaction
+     * @throws SQLException if the table cannot be created
+     */
+    private void prepareWaitlists(Connection connection) throws SQLException {
+        try (Statement action = connection.createStatement()) {
+            action.execute(sql_waitlist_table);
+            // the event index also orders each waitlist by id, so the front of a queue is found without sorting
+            action.execute("CREATE INDEX IF NOT EXISTS idx_" + waitlist_table + "_event ON " + waitlist_table
+                    + "(eventID)");
+            action.executeUpdate("DELETE FROM " + waitlist_table + " WHERE eventID NOT IN (SELECT eventID FROM "
+                    + table_name + ")");
+        }
+    }
+
+    /**
+     * One-time migration of an Events table from the format that stored speakers and attendees as bracketed,
+     * comma-joined text: the lists are moved into the roster tables, and Events is rebuilt without them
+     * @param  connection  Connection    The connection of the current transaction
+     * @throws SQLException if the migration fails, in which case the transaction is rolled back
+     */
+    private void migrateListColumns(Connection connection) throws SQLException {
+        List<List<String>> speakers = new ArrayList<>();
+        List<List<String>> attendees = new ArrayList<>();
+        try (Statement action = connection.createStatement();
+             ResultSet rows = action.executeQuery("SELECT eventID, speakerIDs, attendeeIDs FROM " + table_name)) {
+            while (rows.next()) {
+                String eventID = rows.getString("eventID");
+                String speakerIDs = rows.getString("speakerIDs");
+                String attendeeIDs = rows.getString("attendeeIDs");
+                for (String speaker: stringToList(speakerIDs == null ? "" : speakerIDs)) {
+                    speakers.add(Arrays.asList(eventID, speaker));
+                }
+                for (String attendee: stringToList(attendeeIDs == null ? "" : attendeeIDs)) {
+                    attendees.add(Arrays.asList(eventID, attendee));
+                }
+            }
+        }
+
+        try (Statement action = connection.createStatement()) {
+            action.executeUpdate("DELETE FROM " + speakers_table);
+            action.executeUpdate("DELETE FROM " + attendees_table);
+            action.execute(sql_table.replace(" " + table_name + " (", " Events_migrated ("));
+            action.executeUpdate("INSERT INTO Events_migrated(eventID,eventType,eventCapacity,startTime,endTime," +
+                    "roomID) SELECT eventID,eventType,eventCapacity,startTime,endTime,roomID FROM " + table_name);
+            action.execute("DROP TABLE " + table_name);
+            action.execute("ALTER TABLE Events_migrated RENAME TO " + table_name);
+        }
+        try (PreparedStatement entry = connection.prepareStatement(
+                "INSERT OR IGNORE INTO " + speakers_table + "(eventID, userID) VALUES(?,?)")) {
+            executeBatches(entry, withoutEmptyIDs(speakers), this::bindPair);
+        }
+        try (PreparedStatement entry = connection.prepareStatement(
+                "INSERT OR IGNORE INTO " + attendees_table + "(eventID, userID) VALUES(?,?)")) {
+            executeBatches(entry, withoutEmptyIDs(attendees), this::bindPair);
+        }
+    }
+
+    /**
+     * Reads every row of a roster table, grouped by event in the order the users were added
+     * @param  connection  Connection                 The connection to read with
+     * @param  table       String                     EventSpeakers, EventAttendees or EventWaitlist
+     * @return             Map<String, List<String>>  The user IDs of each event ID
+     * @throws SQLException if the table cannot be read
+     */
+    private Map<String, List<String>> readRosters(Connection connection, String table) throws SQLException {
+        Map<String, List<String>> rosters = new HashMap<>();
+        try (Statement action = connection.createStatement();
+             ResultSet rows = action.executeQuery("SELECT eventID, userID FROM " + table + " ORDER BY id")) {
+            while (rows.next()) {
+                rosters.computeIfAbsent(rows.getString("eventID"), e -> new ArrayList<>())
+                        .add(rows.getString("userID"));
+            }
+        }
+        return rosters;
+    }
+
+    /**
+     * Lists the [event ID, user ID] pairs of one roster of each event
+     * @param  events  List<List<List<String>>>  Events in the format of EventService.getListEvents
+     * @param  roster  EventIndex                SPEAKER_IDS or ATTENDEE_IDS
+     * @return         List<List<String>>        Pairs of [event ID, user ID]
+     */
+    private List<List<String>> rosterPairs(List<List<List<String>>> events, EventIndex roster) {
+        List<List<String>> pairs = new ArrayList<>();
+        for (List<List<String>> event: events) {
+            String eventID = event.get(EventIndex.EVENT_ID.getValue()).get(0);
+            for (String userID: event.get(roster.getValue())) {
+                pairs.add(Arrays.asList(eventID, userID));
+            }
+        }
+        return withoutEmptyIDs(pairs);
+    }
+
+    /**
+     * Drops the pairs with an empty user ID, which the text list format could not store either
+     * @param  pairs  List<List<String>>  Pairs of [event ID, user ID]
+     * @return        List<List<String>>  The pairs with a non-empty user ID
+     */
+    private List<List<String>> withoutEmptyIDs(List<List<String>> pairs) {
+        List<List<String>> res = new ArrayList<>(pairs.size());
+        for (List<String> pair: pairs) {
+            if (!pair.get(1).isEmpty()) res.add(pair);
+        }
+        return res;
+    }
+
+    /**
+     * Binds an [event ID, user ID] pair to the two parameters of a roster statement
+     */
+    private void bindPair(PreparedStatement statement, List<String> pair) throws SQLException {
+        statement.setString(1, pair.get(0));
+        statement.setString(2, pair.get(1));
+    }
+
+    /**
+     * Builds the statement creating a roster table
+     * @param  table  String  EventSpeakers, EventAttendees or EventWaitlist
+     * @return        String  The CREATE TABLE statement
+     */
+    private static String rosterTable(String table) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " (\n"
+                + "    id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
+                + "    eventID TEXT NOT NULL,\n"
+                + "    userID TEXT NOT NULL,\n"
+                + "    UNIQUE (eventID, userID)\n"
+                + ");";
     }
 
     /**
@@ -0,0 +1,152 @@
+package event_system;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Index of events by a key (a room ID or a speaker ID), where each key's events are sorted by start time so
+ * that a time conflict can be found without scanning every event.
+ */
+class EventIntervalIndex {
+
+    private final Map<String, TreeMap<LocalDateTime, List<Event>>> schedules = new HashMap<>();
+    // the longest event ever indexed under a key, bounding how far back an overlapping event can start
+    private final Map<String, Duration> longest_events = new HashMap<>();
+
+    /**
+     * Adds an event to the schedule of the given key
+     * @param key    String  Contains the room ID or speaker ID
+     * @param event  Event   The event to add
+     */
+    void add(String key, Event event){
+        schedules.computeIfAbsent(key, k -> new TreeMap<>())
+                .computeIfAbsent(event.getStartTime(), t -> new ArrayList<>(1))
+                .add(event);
+        Duration length = Duration.between(event.getStartTime(), event.getEndTime());
+        if (length.isNegative()) length = Duration.ZERO;
+        longest_events.merge(key, length, (d1, d2) -> d1.compareTo(d2) >= 0 ? d1 : d2);
+    }
+
+    /**
+     * Removes an event from the schedule of the given key
+     * @param key    String  Contains the room ID or speaker ID
+     * @param event  Event   The event to remove
+     */
+    void remove(String key, Event event){
+        TreeMap<LocalDateTime, List<Event>> schedule = schedules.get(key);
+        if (schedule == null) return;
+        List<Event> startingEvents = schedule.get(event.getStartTime());
+        if (startingEvents == null) return;
+        startingEvents.removeIf(indexed -> indexed == event);
+        if (startingEvents.isEmpty()){
+            schedule.remove(event.getStartTime());
+        }
+        if (schedule.isEmpty()){
+            schedules.remove(key);
+            longest_events.remove(key);
+        }
+    }
+
+    /**
+     * Checks if any event of the given key overlaps with the time period [start, end]
+     * @param key    String         Contains the room ID or speaker ID
+     * @param start  LocalDateTime  Contains the start time
+     * @param end    LocalDateTime  Contains the end time
+     * @return       boolean        True if there is a time conflict
+     */
+    boolean hasConflict(String key, LocalDateTime start, LocalDateTime end){
+        TreeMap<LocalDateTime, List<Event>> schedule = schedules.get(key);
+        if (schedule == null) return false;
+        // only events starting in [start - longest event, end] can overlap with [start, end]
+        LocalDateTime earliest = start.minus(longest_events.get(key));
+        LocalDateTime latest = end.isAfter(start) ? end : start;
+        for (List<Event> startingEvents: schedule.subMap(earliest, true, latest, true).values()){
+            for (Event event: startingEvents){
+                if (isTimeConflict(event.getStartTime(), event.getEndTime(), start, end)){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the times within [from, to] in which the given key has no event
+     * @param key   String         Contains the room ID or speaker ID
+     * @param from  LocalDateTime  Contains the start of the period to search
+     * @param to    LocalDateTime  Contains the end of the period to search
+     * @return      List<List<LocalDateTime>>  The free windows [start, end], in order of time
+     */
+    List<List<LocalDateTime>> freeTimes(String key, LocalDateTime from, LocalDateTime to){
+        List<List<LocalDateTime>> busy = new ArrayList<>();
+        TreeMap<LocalDateTime, List<Event>> schedule = schedules.get(key);
+        if (schedule != null && from.isBefore(to)){
+            LocalDateTime earliest = from.minus(longest_events.get(key));
+            for (List<Event> startingEvents: schedule.subMap(earliest, true, to, false).values()){
+                for (Event event: startingEvents){
+                    busy.add(Arrays.asList(event.getStartTime(), event.getEndTime()));
+                }
+            }
+        }
+        return freeTimes(busy, from, to);
+    }
+
+    /**
+     * Returns the times within [from, to] not covered by any of the given busy periods. An event ending when a
+     * window starts, or starting when it ends, does not take time from the window.
+     * @param busy  List<List<LocalDateTime>>  The busy periods [start, end], sorted by start time
+     * @param from  LocalDateTime              Contains the start of the period to search
+     * @param to    LocalDateTime              Contains the end of the period to search
+     * @return      List<List<LocalDateTime>>  The free windows [start, end], in order of time
+     */
+    static List<List<LocalDateTime>> freeTimes(List<List<LocalDateTime>> busy, LocalDateTime from,
+                                               LocalDateTime to){
+        List<List<LocalDateTime>> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (List<LocalDateTime> period: busy){
+            if (!cursor.isBefore(to)) break;
+            if (period.get(0).isAfter(cursor)){
+                free.add(Arrays.asList(cursor, period.get(0).isBefore(to) ? period.get(0) : to));
+            }
+            if (period.get(1).isAfter(cursor)) cursor = period.get(1);
+        }
+        if (cursor.isBefore(to)) free.add(Arrays.asList(cursor, to));
+        return free;
+    }
+
+    /**
+     * Returns the times that are free in both lists of free windows
+     * @param first   List<List<LocalDateTime>>  Free windows [start, end], in order of time and not overlapping
+     * @param second  List<List<LocalDateTime>>  Free windows [start, end], in order of time and not overlapping
+     * @return        List<List<LocalDateTime>>  The windows within both, in order of time
+     */
+    static List<List<LocalDateTime>> intersect(List<List<LocalDateTime>> first, List<List<LocalDateTime>> second){
+        List<List<LocalDateTime>> both = new ArrayList<>();
+        int x = 0, y = 0;
+        while (x < first.size() && y < second.size()){
+            List<LocalDateTime> a = first.get(x), b = second.get(y);
+            LocalDateTime start = a.get(0).isAfter(b.get(0)) ? a.get(0) : b.get(0);
+            LocalDateTime end = a.get(1).isBefore(b.get(1)) ? a.get(1) : b.get(1);
+            if (start.isBefore(end)) both.add(Arrays.asList(start, end));
+            // the window ending first cannot overlap anything later in the other list
+            if (a.get(1).isBefore(b.get(1))) x++;
+            else y++;
+        }
+        return both;
+    }
+
+    /**
+     * Checks if there is a time conflict between the periods [start1, end1] and [start2, end2]
+     * @return  boolean  True if there is a time conflict
+     */
+    private boolean isTimeConflict(LocalDateTime start1, LocalDateTime end1, LocalDateTime start2,
+                                   LocalDateTime end2){
+        // the starting time of the first event is before starting time of the second event
+        if (start1.isBefore(start2)){
+            return start2.isBefore(end1);
+        }
+        // the starting time of the first event is after starting time of the second event
+        return start1.isBefore(end2);
+    }
+}
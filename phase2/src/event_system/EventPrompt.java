@@ -25,5 +25,10 @@ public enum EventPrompt {
     NUM_SPEAKERS_MISMATCH,
     SAME_SPEAKER_ADDED,
     ROOM_ALREADY_EXISTS,
-    ROOM_ADDED
+    ROOM_ADDED,
+    INVALID_IMPORT_ROW,
+    USER_ALREADY_EXISTS,
+    NO_AVAILABLE_SLOT,
+    ADDED_TO_WAITLIST,
+    ALREADY_ON_WAITLIST
 }
\ No newline at end of file
@@ -0,0 +1,745 @@
+package event_system;
+
+import database.BoundedCache;
+import user_system.UserType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * An EventService that answers every call with indexed queries on the event tables instead of loading all events
+ * at startup. Changes are written to the database immediately, and recently used events are kept in a bounded
+ * cache.
+ */
+public class EventRepository implements EventService {
+
+    /**
+     * Number of events kept in the cache by default
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private final EventDatabaseReadWriter database;
+    private final BoundedCache<String, Event> event_cache;
+    private final DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    // matches the events overlapping [start, end], the same test as the interval index of EventServiceEngine
+    private final String overlaps = "((e.startTime < ? AND ? < e.endTime) OR (e.startTime >= ? AND e.startTime < ?))";
+
+    /**
+     * Creates a repository over the event tables of a database, with a cache of DEFAULT_CACHE_SIZE events
+     * @param address  String  The address of the database.
+     */
+    public EventRepository(String address){
+        this(address, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a repository over the event tables of a database
+     * @param address    String  The address of the database.
+     * @param cacheSize  int     The number of events kept in the cache
+     */
+    public EventRepository(String address, int cacheSize){
+        database = new EventDatabaseReadWriter(this, address);
+        event_cache = new BoundedCache<>(cacheSize);
+    }
+
+    /**
+     * Creates, migrates and indexes the event tables; call once before using the repository
+     * @return  boolean  True if the tables are ready to be queried
+     */
+    public boolean prepare(){
+        return database.prepareSchema();
+    }
+
+    /**
+     * Method to get a nested List of events
+     * @return  List<List<List<String>>>  An List containing events Lists
+     */
+    @Override
+    public List<List<List<String>>> getListEvents(){
+        Map<String, List<String>> speakers = readRosters("EventSpeakers");
+        Map<String, List<String>> attendees = readRosters("EventAttendees");
+        return database.queryRows("SELECT * FROM Events",
+                row -> toEvent(row, speakers.getOrDefault(row.getString("eventID"), new ArrayList<>()),
+                        attendees.getOrDefault(row.getString("eventID"), new ArrayList<>())).toEventArray());
+    }
+
+    /**
+     * Returns a read-only snapshot of every event, in the same order as getListEvents
+     * @return  List<EventView>  A list of event snapshots
+     */
+    @Override
+    public List<EventView> getEventViews(){
+        Map<String, List<String>> speakers = readRosters("EventSpeakers");
+        Map<String, List<String>> attendees = readRosters("EventAttendees");
+        return database.queryRows("SELECT * FROM Events",
+                row -> toEvent(row, speakers.getOrDefault(row.getString("eventID"), new ArrayList<>()),
+                        attendees.getOrDefault(row.getString("eventID"), new ArrayList<>())).toView());
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved events
+     * @return  List<List<List<String>>>  An empty list
+     */
+    @Override
+    public List<List<List<String>>> getChangedEvents(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved cancellations
+     * @return  List<String>  An empty list
+     */
+    @Override
+    public List<String> getDeletedEventIDs(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved sign-ups
+     * @return  List<List<String>>  An empty list
+     */
+    @Override
+    public List<List<String>> getAddedAttendees(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved cancelled sign-ups
+     * @return  List<List<String>>  An empty list
+     */
+    @Override
+    public List<List<String>> getRemovedAttendees(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Returns the waitlist of every event
+     * @return  List<List<String>>  Pairs of [event ID, user ID], each waitlist front first
+     */
+    @Override
+    public List<List<String>> getWaitlists(){
+        return database.queryRows("SELECT eventID, userID FROM EventWaitlist ORDER BY id",
+                row -> Arrays.asList(row.getString("eventID"), row.getString("userID")));
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved waitlist entries
+     * @return  List<List<String>>  An empty list
+     */
+    @Override
+    public List<List<String>> getAddedToWaitlists(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved waitlist removals
+     * @return  List<List<String>>  An empty list
+     */
+    @Override
+    public List<List<String>> getRemovedFromWaitlists(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Does nothing, since changes are written immediately
+     * @param eventIDs  List<String>  The IDs of the saved events
+     */
+    @Override
+    public void markEventsSaved(List<String> eventIDs){
+    }
+
+    /**
+     * Adds an event with its speakers and attendees. If an event with the same ID already exists, the existing
+     * event is kept.
+     * @param eventType      EventType           Contains the type of the event
+     * @param eventCapacity  Int                 Contains the capacity of the event
+     * @param eventID        String              Contains the event ID
+     * @param startTime      LocalDateTime       Contains the start time of the event
+     * @param endTime        LocalDateTime       Contains the end time of the event
+     * @param roomID         String              Contains the room ID
+     * @param speakerIDs     List<String>        Contains a list of speaker IDs
+     * @param attendeeIDs    List<String>        Contains a list of attendee IDs
+     */
+    @Override
+    public void addEvent(EventType eventType, int eventCapacity, String eventID, LocalDateTime startTime,
+                         LocalDateTime endTime, String roomID, List<String> speakerIDs, List<String> attendeeIDs){
+        addEvents(Collections.singletonList(new Event(eventType, eventCapacity, eventID, startTime, endTime, roomID,
+                withoutEmptyIDs(speakerIDs), withoutEmptyIDs(attendeeIDs))));
+    }
+
+    /**
+     * Adds events with their speakers and attendees in one transaction. An event whose ID already exists is
+     * ignored, and the existing event is kept.
+     * @param events  List<Event>  The events to add
+     */
+    @Override
+    public void addEvents(List<Event> events){
+        List<Event> inserted = new ArrayList<>();
+        boolean written = database.runInTransaction(connection -> {
+            inserted.clear();
+            try (PreparedStatement entry = connection.prepareStatement("INSERT OR IGNORE INTO Events(eventID," +
+                    "eventType,eventCapacity,startTime,endTime,roomID) VALUES(?,?,?,?,?,?)")) {
+                for (Event event: events) {
+                    entry.setString(1, event.getEventID());
+                    entry.setString(2, event.getEventType().toString());
+                    entry.setInt(3, event.getEventCapacity());
+                    entry.setString(4, event.getStartTime().format(format));
+                    entry.setString(5, event.getEndTime().format(format));
+                    entry.setString(6, event.getRoomID());
+                    if (entry.executeUpdate() == 1) inserted.add(event);
+                }
+            }
+            for (Event event: inserted) {
+                insertRoster(connection, "EventSpeakers", event.getEventID(), event.getSpeakerIDs());
+                insertRoster(connection, "EventAttendees", event.getEventID(), event.getAttendeeIDs());
+            }
+        });
+        if (written) {
+            for (Event event: inserted) {
+                event_cache.put(event.getEventID(), event);
+            }
+        }
+    }
+
+    /**
+     * Adds user to the event if the event exists and the user has not signed up for it yet. A user on the event's
+     * waitlist is taken off it.
+     * @param  userID  String   The User's ID.
+     * @param  eventID String   The Event's ID.
+     * @return         boolean  True if the user gets added.
+     */
+    @Override
+    public boolean addUserToEvent(String userID, String eventID){
+        Event event = searchEvent(eventID);
+        if (event == null || event.hasAttendee(userID)) return false;
+        if (!database.runInTransaction(connection -> signUpWaiting(connection, eventID, userID))) return false;
+        event.addAttendee(userID);
+        return true;
+    }
+
+    /**
+     * Removes given user from given event if they are signed up for it
+     * @param  userID  String  The User's ID.
+     * @param  eventID String  The Event's ID.
+     * @return         boolean True if the event exists
+     */
+    @Override
+    public boolean removeUserFromEvent(String userID, String eventID){
+        Event event = searchEvent(eventID);
+        if (event == null) return false;
+        if (database.updateRows("DELETE FROM EventAttendees WHERE eventID = ? AND userID = ?",
+                eventID, userID) < 0) return false;
+        event.removeAttendee(userID);
+        return true;
+    }
+
+    /**
+     * Return the List of users that are in the given event
+     * @param eventID  String          The id of the given event
+     * @return         List<String>    A list of user ids in the given event id
+     */
+    @Override
+    public List<String> getUsersForEvent(String eventID){
+        Event event = searchEvent(eventID);
+        return event == null ? new ArrayList<>() : new ArrayList<>(event.getAttendeeIDs());
+    }
+
+    /**
+     * Return the users that are in any of the given events, each of them once
+     * @param eventIDs  List<String>  The ids of the events; ids of events that do not exist are ignored
+     * @return          List<String>  The user ids, in the order the users were first seen by the program
+     */
+    @Override
+    public List<String> getUsersForEvents(List<String> eventIDs){
+        CompressedBitmap members = new CompressedBitmap();
+        for (String eventID: eventIDs){
+            Event event = searchEvent(eventID);
+            if (event != null) event.addAttendeesTo(members);
+        }
+        return Roster.namesOf(members);
+    }
+
+    /**
+     * Return the List of events the given attendee has signed up for, in the order they signed up
+     * @param userID  String          The id of the given user
+     * @return        List<String>    A list of event ids that the attendee id has signed up for
+     */
+    @Override
+    public List<String> getEventsForAttendee(String userID){
+        return database.queryRows("SELECT eventID FROM EventAttendees WHERE userID = ? ORDER BY id",
+                row -> row.getString("eventID"), userID);
+    }
+
+    /**
+     * Return a list of events a speaker is part of
+     * @param speakerID  String              Contains the speaker's ID
+     * @return           List<String>        Contains all eventIDs which speakerID is in
+     */
+    @Override
+    public List<String> getEventsBySpeaker(String speakerID){
+        return database.queryRows("SELECT eventID FROM EventSpeakers WHERE userID = ? ORDER BY id",
+                row -> row.getString("eventID"), speakerID);
+    }
+
+    /**
+     * Return a list of events the user is a part of
+     * @param userType  UserType        Contains the user type
+     * @param userID    String          Contains the user ID
+     * @return                          A list of events the user is a part of
+     */
+    @Override
+    public List<String> getEventsByUserType(UserType userType, String userID){
+        if ((UserType.ATTENDEE).equals(userType)) {
+            return getEventsForAttendee(userID);
+        }
+        else if ((UserType.SPEAKER).equals(userType)){
+            return getEventsBySpeaker(userID);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Checks if a room is being booked more than once in a specific time period
+     * @param room_id  String         Contains the room id
+     * @param start    LocalDateTime  Contains the start time
+     * @param end      LocalDateTime  Contains the end time
+     * @return         Boolean        True if the room is being double booked
+     */
+    @Override
+    public boolean isDoubleBookingRoom(String room_id, LocalDateTime start, LocalDateTime end){
+        String startTime = start.format(format);
+        return !database.queryRows("SELECT 1 FROM Events e WHERE e.roomID = ? AND " + overlaps + " LIMIT 1",
+                row -> true, room_id, startTime, startTime, startTime, end.format(format)).isEmpty();
+    }
+
+    /**
+     * Checks if a speaker is being booked in two separate events at the same time
+     * @param speakers   List<String>       Contains a list of speakers
+     * @param start      LocalDateTime      Contains the start time
+     * @param end        LocalDateTime      Contains the end time
+     * @return           Boolean            True if the speaker is being double booked
+     */
+    @Override
+    public boolean isDoubleBookingSpeaker(List<String> speakers, LocalDateTime start, LocalDateTime end){
+        String startTime = start.format(format);
+        for (String speaker: speakers){
+            if (!database.queryRows("SELECT 1 FROM EventSpeakers s JOIN Events e ON e.eventID = s.eventID " +
+                    "WHERE s.userID = ? AND " + overlaps + " LIMIT 1", row -> true, speaker, startTime, startTime,
+                    startTime, end.format(format)).isEmpty()){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns, for each of the given rooms, the windows within [from, to] at least length long in which the room
+     * and every one of the speakers are free. An event of that length fits in a window if it starts no later than
+     * length before the window ends.
+     * @param roomIDs     List<String>   Contains the IDs of the rooms to search
+     * @param speakerIDs  List<String>   Contains the IDs of the speakers who must all be free
+     * @param from        LocalDateTime  Contains the start of the period to search
+     * @param to          LocalDateTime  Contains the end of the period to search
+     * @param length      Duration       Contains the length of the event to fit
+     * @return            Map<String, List<List<LocalDateTime>>>  The free windows [start, end] of each room that
+     *                    has any, in order of time, keyed by room ID in the order of roomIDs
+     */
+    @Override
+    public Map<String, List<List<LocalDateTime>>> getFreeTimes(List<String> roomIDs, List<String> speakerIDs,
+                                                               LocalDateTime from, LocalDateTime to,
+                                                               Duration length){
+        String fromTime = from.format(format);
+        String toTime = to.format(format);
+        List<List<LocalDateTime>> speakersFree = Collections.singletonList(Arrays.asList(from, to));
+        for (String speaker: speakerIDs){
+            speakersFree = EventIntervalIndex.intersect(speakersFree, EventIntervalIndex.freeTimes(
+                    database.queryRows("SELECT e.startTime, e.endTime FROM EventSpeakers s JOIN Events e " +
+                            "ON e.eventID = s.eventID WHERE s.userID = ? AND " + overlaps + " ORDER BY e.startTime",
+                            this::toPeriod, speaker, fromTime, fromTime, fromTime, toTime), from, to));
+        }
+        Map<String, List<List<LocalDateTime>>> freeTimes = new LinkedHashMap<>();
+        for (String roomID: roomIDs){
+            List<List<LocalDateTime>> roomFree = EventIntervalIndex.freeTimes(database.queryRows(
+                    "SELECT e.startTime, e.endTime FROM Events e WHERE e.roomID = ? AND " + overlaps +
+                    " ORDER BY e.startTime", this::toPeriod, roomID, fromTime, fromTime, fromTime, toTime), from, to);
+            List<List<LocalDateTime>> windows = new ArrayList<>();
+            for (List<LocalDateTime> window: EventIntervalIndex.intersect(speakersFree, roomFree)){
+                if (!window.get(0).plus(length).isAfter(window.get(1))) windows.add(window);
+            }
+            if (!windows.isEmpty()) freeTimes.put(roomID, windows);
+        }
+        return freeTimes;
+    }
+
+    /*
+     * Reads the start and end time of an event row
+     */
+    private List<LocalDateTime> toPeriod(ResultSet row) throws SQLException {
+        return Arrays.asList(LocalDateTime.parse(row.getString("startTime"), format),
+                LocalDateTime.parse(row.getString("endTime"), format));
+    }
+
+    /**
+     * Returns true if the user has already signed up before for the given event
+     * @param eventId String    The eventId of the event.
+     * @param userId  String    The userId of the user.
+     */
+    @Override
+    public boolean isSignUpBefore(String eventId, String userId){
+        Event event = searchEvent(eventId);
+        return event != null && event.hasAttendee(userId);
+    }
+
+    /**
+     * Method to check if the event is full
+     * @param eventId  String  Contains the event ID
+     * @return         boolean True if the event is full, false otherwise or if the eventID is not valid
+     */
+    @Override
+    public boolean isEventFull(String eventId){
+        Event event = searchEvent(eventId);
+        return event != null && event.getOccupancy() >= event.getEventCapacity();
+    }
+
+    /**
+     * Checks if the event exists
+     * @param eventId  String   Contains the event ID
+     * @return         boolean  True if the event exists
+     */
+    @Override
+    public boolean isEventExist(String eventId){
+        return searchEvent(eventId) != null;
+    }
+
+    /**
+     * Checks if the start time is after the end time
+     * @param  t1      LocalDateTime  The start time
+     * @param  t2      LocalDateTime  The end time
+     * @return         boolean          True if the time is valid
+     */
+    @Override
+    public boolean areValidTimes(LocalDateTime t1, LocalDateTime t2){
+        return t1.isBefore(t2);
+    }
+
+    /**
+     * Cancels an event using the event ID
+     * @param eventID  String   Contains the event ID
+     * @return         boolean  True if the event has been successfully deleted, False if the event DNE
+     */
+    @Override
+    public boolean cancelEventByID(String eventID){
+        return isEventExist(eventID) && cancelEvents(Collections.singletonList(eventID));
+    }
+
+    /**
+     * Cancels all events of a specific type
+     * @param eventType  EventType  Contains the event type
+     * @return           boolean    True if at least 1 event of type eventType has been deleted
+     */
+    @Override
+    public boolean cancelEventsByType(EventType eventType){
+        List<String> eventIDs = database.queryRows("SELECT eventID FROM Events WHERE eventType = ?",
+                row -> row.getString("eventID"), eventType.toString());
+        return !eventIDs.isEmpty() && cancelEvents(eventIDs);
+    }
+
+    /**
+     * Cancels all events with the number of attendees == numAttendees or >= numAttendees
+     * @param numAttendees  int      Contains the maximum number of attendees all events are allowed to have
+     * @param atLeast       boolean  Whether the comparison should >= or ==.
+     * @return              boolean  True if at least 1 event with attendance > maxAttendees has been removed
+     */
+    @Override
+    public boolean cancelEventsBySize(int numAttendees, boolean atLeast){
+        if (numAttendees < 0) return false;
+        List<String> eventIDs = database.queryRows("SELECT e.eventID FROM Events e WHERE (SELECT COUNT(*) FROM " +
+                "EventAttendees a WHERE a.eventID = e.eventID) " + (atLeast ? ">=" : "=") + " ?",
+                row -> row.getString("eventID"), numAttendees);
+        return !eventIDs.isEmpty() && cancelEvents(eventIDs);
+    }
+
+    /**
+     * Changes the event capacity only if the event exists.
+     * @param newCapacity  int      Contains the new event capacity
+     * @param eventID      String   Contains the event ID of the event that's capacity must be changed
+     * @return             boolean  True if the event capacity has been changed successfully
+     */
+    @Override
+    public boolean changeEventCapacity(String eventID, int newCapacity){
+        Event event = searchEvent(eventID);
+        if (event == null || database.updateRows("UPDATE Events SET eventCapacity = ? WHERE eventID = ?",
+                newCapacity, eventID) != 1) return false;
+        event.setEventCapacity(newCapacity);
+        return true;
+    }
+
+    /**
+     * Adds a user to the end of an event's waitlist
+     * @param userID   String   The ID of the user
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the user was added; false if the event does not exist, or the user is
+     *                          already in the event or on its waitlist
+     */
+    @Override
+    public boolean addUserToWaitlist(String userID, String eventID){
+        Event event = searchEvent(eventID);
+        return event != null && !event.hasAttendee(userID) && database.updateRows(
+                "INSERT OR IGNORE INTO EventWaitlist(eventID, userID) VALUES(?,?)", eventID, userID) == 1;
+    }
+
+    /**
+     * Removes a user from an event's waitlist
+     * @param userID   String   The ID of the user
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the user was on the waitlist
+     */
+    @Override
+    public boolean removeUserFromWaitlist(String userID, String eventID){
+        return database.updateRows("DELETE FROM EventWaitlist WHERE eventID = ? AND userID = ?",
+                eventID, userID) == 1;
+    }
+
+    /**
+     * Returns the waitlist of an event
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  The IDs of the waiting users, front first; empty if the event does not exist
+     */
+    @Override
+    public List<String> getWaitlist(String eventID){
+        return readRoster("EventWaitlist", eventID);
+    }
+
+    /**
+     * Checks if anybody is waiting for a seat at an event, reading at most one row
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the event's waitlist is not empty
+     */
+    @Override
+    public boolean hasWaitlist(String eventID){
+        return !database.queryRows("SELECT 1 FROM EventWaitlist WHERE eventID = ? LIMIT 1", row -> true,
+                eventID).isEmpty();
+    }
+
+    /**
+     * Returns the number of users waiting for a seat at an event, counted by the database
+     * @param eventID  String  The ID of the event
+     * @return         int     The length of the waitlist; 0 if the event does not exist
+     */
+    @Override
+    public int getWaitlistSize(String eventID){
+        return count("SELECT COUNT(*) FROM EventWaitlist WHERE eventID = ?", eventID);
+    }
+
+    /**
+     * Returns the place of a user on an event's waitlist, counted by the database
+     * @param userID   String  The ID of the user
+     * @param eventID  String  The ID of the event
+     * @return         int     1 for the front of the waitlist; 0 if the user is not on it
+     */
+    @Override
+    public int getWaitlistPosition(String userID, String eventID){
+        return count("SELECT COUNT(*) FROM EventWaitlist WHERE eventID = ? AND id <= " +
+                "(SELECT id FROM EventWaitlist WHERE eventID = ? AND userID = ?)", eventID, eventID, userID);
+    }
+
+    /**
+     * Signs up users from the front of an event's waitlist while the event has free seats, and takes them off it.
+     * Only as many rows as there are free seats are read, and they are moved in one transaction.
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  The IDs of the users signed up, in waitlist order
+     */
+    @Override
+    public List<String> promoteFromWaitlist(String eventID){
+        Event event = searchEvent(eventID);
+        if (event == null || event.getOccupancy() >= event.getEventCapacity()) return new ArrayList<>();
+        List<String> waiting = database.queryRows("SELECT userID FROM EventWaitlist WHERE eventID = ? " +
+                "ORDER BY id LIMIT ?", row -> row.getString("userID"), eventID,
+                event.getEventCapacity() - event.getOccupancy());
+        boolean moved = !waiting.isEmpty() && database.runInTransaction(connection -> {
+            for (String userID: waiting) {
+                signUpWaiting(connection, eventID, userID);
+            }
+        });
+        if (!moved) return new ArrayList<>();
+        for (String userID: waiting) {
+            event.addAttendee(userID);
+        }
+        return waiting;
+    }
+
+    /**
+     * Return the total number of attendees and speakers of a given event.
+     * @param eventID String The Id of the event.
+     */
+    @Override
+    public int getNumAttendance(String eventID){
+        Event event = searchEvent(eventID);
+        return event == null ? 0 : event.getOccupancy();
+    }
+
+    /**
+     * Method to check if a speaker is being added twice to the same event
+     * @param speakerList  List<String>  Contains the speaker IDs for the event
+     * @return             boolean       True if the speakers are not distinct
+     */
+    @Override
+    public boolean isSpeakerDuplicate(List<String> speakerList){
+        return new HashSet<>(speakerList).size() != speakerList.size();
+    }
+
+    /**
+     * Return the event by its ID from the cache, or from the database on a cache miss. If event DNE, then return
+     * null.
+     * @param eventID   String    The ID of the event.
+     */
+    private Event searchEvent(String eventID){
+        Event event = event_cache.get(eventID);
+        if (event != null) return event;
+
+        List<String> speakers = readRoster("EventSpeakers", eventID);
+        List<String> attendees = readRoster("EventAttendees", eventID);
+        List<Event> events = database.queryRows("SELECT * FROM Events WHERE eventID = ?",
+                row -> toEvent(row, speakers, attendees), eventID);
+        if (events.isEmpty()) return null;
+        event_cache.put(eventID, events.get(0));
+        return events.get(0);
+    }
+
+    /**
+     * Deletes the given events and their rosters in one transaction
+     * @param eventIDs  List<String>  The IDs of the events to delete
+     * @return          boolean       True if the events were deleted
+     */
+    private boolean cancelEvents(List<String> eventIDs){
+        boolean deleted = database.runInTransaction(connection -> {
+            for (String table: Arrays.asList("Events", "EventSpeakers", "EventAttendees", "EventWaitlist")) {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM " + table + " WHERE eventID = ?")) {
+                    for (String eventID: eventIDs) {
+                        delete.setString(1, eventID);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+        });
+        if (deleted) {
+            for (String eventID: eventIDs) {
+                event_cache.remove(eventID);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Signs a user up for an event and takes them off its waitlist
+     * @param connection  Connection  The connection of the current transaction
+     * @param eventID     String      The ID of the event
+     * @param userID      String      The ID of the user
+     * @throws SQLException if the user is already signed up, or a statement fails
+     */
+    private void signUpWaiting(Connection connection, String eventID, String userID) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT OR IGNORE INTO EventAttendees(eventID, userID) VALUES(?,?)");
+             PreparedStatement delete = connection.prepareStatement(
+                     "DELETE FROM EventWaitlist WHERE eventID = ? AND userID = ?")) {
+            insert.setString(1, eventID);
+            insert.setString(2, userID);
+            if (insert.executeUpdate() != 1) throw new SQLException(userID + " is already in " + eventID);
+            delete.setString(1, eventID);
+            delete.setString(2, userID);
+            delete.executeUpdate();
+        }
+    }
+
+    /**
+     * Inserts one roster row per user of an event
+     * @param connection  Connection    The connection of the current transaction
+     * @param table       String        EventSpeakers or EventAttendees
+     * @param eventID     String        The ID of the event
+     * @param userIDs     List<String>  The users of the roster, in order
+     * @throws SQLException if a row cannot be inserted
+     */
+    private void insertRoster(Connection connection, String table, String eventID, List<String> userIDs)
+            throws SQLException {
+        try (PreparedStatement entry = connection.prepareStatement(
+                "INSERT OR IGNORE INTO " + table + "(eventID, userID) VALUES(?,?)")) {
+            for (String userID: userIDs) {
+                entry.setString(1, eventID);
+                entry.setString(2, userID);
+                entry.addBatch();
+            }
+            entry.executeBatch();
+        }
+    }
+
+    /**
+     * Runs a query counting rows
+     * @param sql         String    SELECT COUNT(*) statement with one ? per parameter
+     * @param parameters  Object    Values bound to the parameters of sql, in order
+     * @return            int       The count; 0 if the query fails
+     */
+    private int count(String sql, Object... parameters){
+        List<Integer> counts = database.queryRows(sql, row -> row.getInt(1), parameters);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    /**
+     * Reads the roster or waitlist of one event
+     * @param table    String        EventSpeakers, EventAttendees or EventWaitlist
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  The user IDs in the order they were added
+     */
+    private List<String> readRoster(String table, String eventID){
+        return database.queryRows("SELECT userID FROM " + table + " WHERE eventID = ? ORDER BY id",
+                row -> row.getString("userID"), eventID);
+    }
+
+    /**
+     * Reads the rosters of every event
+     * @param table  String                     EventSpeakers or EventAttendees
+     * @return       Map<String, List<String>>  The user IDs of each event ID, in the order they were added
+     */
+    private Map<String, List<String>> readRosters(String table){
+        Map<String, List<String>> rosters = new HashMap<>();
+        database.queryRows("SELECT eventID, userID FROM " + table + " ORDER BY id",
+                row -> rosters.computeIfAbsent(row.getString("eventID"), e -> new ArrayList<>())
+                        .add(row.getString("userID")));
+        return rosters;
+    }
+
+    /**
+     * Creates an event from the current row of the Events table
+     * @param row        ResultSet     A row of the Events table
+     * @param speakers   List<String>  The speakers of the event
+     * @param attendees  List<String>  The attendees of the event
+     * @return           Event         The event of the row
+     * @throws SQLException if a column cannot be read
+     */
+    private Event toEvent(ResultSet row, List<String> speakers, List<String> attendees) throws SQLException {
+        return new Event(EventType.valueOf(row.getString("eventType")), row.getInt("eventCapacity"),
+                row.getString("eventID"), LocalDateTime.parse(row.getString("startTime"), format),
+                LocalDateTime.parse(row.getString("endTime"), format), row.getString("roomID"), speakers,
+                attendees);
+    }
+
+    /**
+     * Drops empty user IDs, which the roster tables do not store
+     * @param userIDs  List<String>  User IDs
+     * @return         List<String>  The non-empty user IDs
+     */
+    private List<String> withoutEmptyIDs(List<String> userIDs){
+        List<String> res = new ArrayList<>(userIDs.size());
+        for (String userID: userIDs){
+            if (!userID.isEmpty()) res.add(userID);
+        }
+        return res;
+    }
+}
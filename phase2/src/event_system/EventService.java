@@ -2,8 +2,10 @@ package event_system;
 
 import user_system.UserType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface EventService {
     /**
@@ -20,6 +22,12 @@ public interface EventService {
     void addEvent(EventType eventType, int eventCapacity, String eventID, LocalDateTime startTime,
                   LocalDateTime endTime, String roomID, List<String> speakerIDs, List<String> attendeeIDs);
 
+    /**
+     * Adds events in one call, as if each was added with addEvent; an event whose ID is taken is ignored
+     * @param events  List<Event>  The events to add, e.g. as read from the database
+     */
+    void addEvents(List<Event> events);
+
 
     /**
      * Adds user to the event only if there's space.
@@ -43,6 +51,43 @@ public interface EventService {
      */
     List<List<List<String>>> getListEvents();
 
+    /**
+     * Returns a read-only snapshot of every event, in the same order as getListEvents
+     * @return  List<EventView>  A read-only list of event snapshots
+     */
+    List<EventView> getEventViews();
+
+    /**
+     * Returns the events that were added or modified since they were last saved
+     * @return  List<List<List<String>>>  The changed events, in the format of getListEvents
+     */
+    List<List<List<String>>> getChangedEvents();
+
+    /**
+     * Returns the IDs of the events that were cancelled since they were last saved, including those that were
+     * added again under the same ID; their old rows are deleted before the new event is written
+     * @return  List<String>  The IDs of the cancelled events
+     */
+    List<String> getDeletedEventIDs();
+
+    /**
+     * Returns the attendees added to events since the events were last saved
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    List<List<String>> getAddedAttendees();
+
+    /**
+     * Returns the attendees removed from events since the events were last saved
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    List<List<String>> getRemovedAttendees();
+
+    /**
+     * Marks the given events as saved, so they and their attendee and waitlist changes are no longer reported
+     * @param eventIDs  List<String>  The IDs of the saved events
+     */
+    void markEventsSaved(List<String> eventIDs);
+
     /**
      * Return the List of users that are in the given event
      * @param eventID  String               The id of the given event
@@ -50,6 +95,13 @@ public interface EventService {
      */
     List<String> getUsersForEvent(String eventID);
 
+    /**
+     * Return the users that are in any of the given events, each of them once
+     * @param eventIDs  List<String>  The ids of the events; ids of events that do not exist are ignored
+     * @return          List<String>  The user ids, in the order the users were first seen by the program
+     */
+    List<String> getUsersForEvents(List<String> eventIDs);
+
     /**
      * Return the List of users that are in the given event
      * @param userID  String               The id of the given user
@@ -90,6 +142,21 @@ public interface EventService {
      */
     boolean isDoubleBookingSpeaker(List<String> speakers, LocalDateTime start, LocalDateTime end);
 
+    /**
+     * Returns, for each of the given rooms, the windows within [from, to] at least length long in which the room
+     * and every one of the speakers are free. An event of that length fits in a window if it starts no later than
+     * length before the window ends.
+     * @param roomIDs     List<String>   Contains the IDs of the rooms to search
+     * @param speakerIDs  List<String>   Contains the IDs of the speakers who must all be free
+     * @param from        LocalDateTime  Contains the start of the period to search
+     * @param to          LocalDateTime  Contains the end of the period to search
+     * @param length      Duration       Contains the length of the event to fit
+     * @return            Map<String, List<List<LocalDateTime>>>  The free windows [start, end] of each room that
+     *                    has any, in order of time, keyed by room ID in the order of roomIDs
+     */
+    Map<String, List<List<LocalDateTime>>> getFreeTimes(List<String> roomIDs, List<String> speakerIDs,
+                                                        LocalDateTime from, LocalDateTime to, Duration length);
+
     /**
      * Returns true if the user has already signed up before for the given event
      * @param eventId String The eventId of the event.
@@ -150,6 +217,77 @@ public interface EventService {
      */
     boolean changeEventCapacity(String eventID, int newCapacity);
 
+    /**
+     * Adds a user to the end of an event's waitlist
+     * @param userID   String   The ID of the user
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the user was added; false if the event does not exist, or the user is
+     *                          already in the event or on its waitlist
+     */
+    boolean addUserToWaitlist(String userID, String eventID);
+
+    /**
+     * Removes a user from an event's waitlist
+     * @param userID   String   The ID of the user
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the user was on the waitlist
+     */
+    boolean removeUserFromWaitlist(String userID, String eventID);
+
+    /**
+     * Returns the waitlist of an event
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  The IDs of the waiting users, front first; empty if the event does not exist
+     */
+    List<String> getWaitlist(String eventID);
+
+    /**
+     * Checks if anybody is waiting for a seat at an event, without reading the waitlist
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the event's waitlist is not empty
+     */
+    boolean hasWaitlist(String eventID);
+
+    /**
+     * Returns the number of users waiting for a seat at an event, without reading the waitlist
+     * @param eventID  String  The ID of the event
+     * @return         int     The length of the waitlist; 0 if the event does not exist
+     */
+    int getWaitlistSize(String eventID);
+
+    /**
+     * Returns the place of a user on an event's waitlist
+     * @param userID   String  The ID of the user
+     * @param eventID  String  The ID of the event
+     * @return         int     1 for the front of the waitlist; 0 if the user is not on it
+     */
+    int getWaitlistPosition(String userID, String eventID);
+
+    /**
+     * Signs up users from the front of an event's waitlist while the event has free seats, and takes them off it
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  The IDs of the users signed up, in waitlist order
+     */
+    List<String> promoteFromWaitlist(String eventID);
+
+    /**
+     * Returns the waitlist of every event
+     * @return  List<List<String>>  Pairs of [event ID, user ID], each waitlist front first
+     */
+    List<List<String>> getWaitlists();
+
+    /**
+     * Returns the users added to waitlists since the events were last saved
+     * @return  List<List<String>>  Pairs of [event ID, user ID], each waitlist front first
+     */
+    List<List<String>> getAddedToWaitlists();
+
+    /**
+     * Returns the users taken off waitlists since the events were last saved
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    List<List<String>> getRemovedFromWaitlists();
+
     /**
      * Returns the total number of attendees and speakers.
      * @param eventID     String    The Id of the event.
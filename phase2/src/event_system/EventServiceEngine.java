@@ -2,6 +2,7 @@ package event_system;
 
 import user_system.UserType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.List;
@@ -11,7 +12,24 @@ import java.util.List;
  */
 public class EventServiceEngine implements EventService {
 
-    private final List<Event> event_list = new ArrayList<>();
+    // keyed by event ID; a LinkedHashMap keeps getListEvents in insertion order
+    private final Map<String, Event> event_map = new LinkedHashMap<>();
+    private final EventIntervalIndex room_schedules = new EventIntervalIndex();
+    private final EventIntervalIndex speaker_schedules = new EventIntervalIndex();
+    // reverse indexes from a user ID to the IDs of their events, in the order the user joined them
+    private final Map<String, Set<String>> attendee_events = new HashMap<>();
+    private final Map<String, Set<String>> speaker_events = new HashMap<>();
+    // IDs of the events added or modified, and of the events cancelled, since they were last saved
+    private final Set<String> changed_events = new LinkedHashSet<>();
+    private final Set<String> deleted_events = new LinkedHashSet<>();
+    // attendees added to and removed from each event since it was last saved
+    private final Map<String, Set<String>> added_attendees = new LinkedHashMap<>();
+    private final Map<String, Set<String>> removed_attendees = new LinkedHashMap<>();
+    // users added to and taken off each event's waitlist since it was last saved
+    private final Map<String, Set<String>> added_waitlisted = new LinkedHashMap<>();
+    private final Map<String, Set<String>> removed_waitlisted = new LinkedHashMap<>();
+    // snapshots returned by getEventViews, dropped whenever an event is added, modified or cancelled
+    private List<EventView> event_views;
 
     /**
      * Method to get a nested List of events
@@ -20,15 +38,125 @@ public class EventServiceEngine implements EventService {
     @Override
     public List<List<List<String>>> getListEvents(){
         List<List<List<String>>> res = new ArrayList<>();
-        for (Event event: event_list){
+        for (Event event: event_map.values()){
             res.add(event.toEventArray());
         }
         return res;
     }
 
+    /**
+     * Returns a read-only snapshot of every event, in the same order as getListEvents. The list is reused until an
+     * event changes, and each event reuses its snapshot until it changes itself.
+     * @return  List<EventView>  A read-only list of event snapshots
+     */
+    @Override
+    public List<EventView> getEventViews(){
+        if (event_views == null){
+            List<EventView> views = new ArrayList<>(event_map.size());
+            for (Event event: event_map.values()){
+                views.add(event.toView());
+            }
+            event_views = Collections.unmodifiableList(views);
+        }
+        return event_views;
+    }
+
+    /**
+     * Returns the events that were added or modified since they were last saved
+     * @return  List<List<List<String>>>  The changed events, in the format of getListEvents
+     */
+    @Override
+    public List<List<List<String>>> getChangedEvents(){
+        List<List<List<String>>> res = new ArrayList<>();
+        for (String eventID: changed_events){
+            res.add(event_map.get(eventID).toEventArray());
+        }
+        return res;
+    }
+
+    /**
+     * Returns the IDs of the events that were cancelled since they were last saved, including those that were
+     * added again under the same ID
+     * @return  List<String>  The IDs of the cancelled events
+     */
+    @Override
+    public List<String> getDeletedEventIDs(){
+        return new ArrayList<>(deleted_events);
+    }
+
+    /**
+     * Returns the attendees added to events since the events were last saved. A user who was removed and then
+     * added again is reported both here and by getRemovedAttendees.
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    @Override
+    public List<List<String>> getAddedAttendees(){
+        return toPairs(added_attendees);
+    }
 
     /**
-     * Adds am event to event_service, with overloaded parameter attendeeIDs
+     * Returns the attendees removed from events since the events were last saved
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    @Override
+    public List<List<String>> getRemovedAttendees(){
+        return toPairs(removed_attendees);
+    }
+
+    /**
+     * Returns the waitlist of every event
+     * @return  List<List<String>>  Pairs of [event ID, user ID], each waitlist front first
+     */
+    @Override
+    public List<List<String>> getWaitlists(){
+        List<List<String>> pairs = new ArrayList<>();
+        for (Event event: event_map.values()){
+            for (String userID: event.getWaitlist()){
+                pairs.add(Arrays.asList(event.getEventID(), userID));
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Returns the users added to waitlists since the events were last saved. A user who was taken off a waitlist
+     * and then added again is reported both here and by getRemovedFromWaitlists.
+     * @return  List<List<String>>  Pairs of [event ID, user ID], each waitlist front first
+     */
+    @Override
+    public List<List<String>> getAddedToWaitlists(){
+        return toPairs(added_waitlisted);
+    }
+
+    /**
+     * Returns the users taken off waitlists since the events were last saved
+     * @return  List<List<String>>  Pairs of [event ID, user ID]
+     */
+    @Override
+    public List<List<String>> getRemovedFromWaitlists(){
+        return toPairs(removed_waitlisted);
+    }
+
+    /**
+     * Marks the given events as saved, so they and their attendee and waitlist changes are no longer reported
+     * @param eventIDs  List<String>  The IDs of the saved events
+     */
+    @Override
+    public void markEventsSaved(List<String> eventIDs){
+        for (String eventID: eventIDs){
+            changed_events.remove(eventID);
+            deleted_events.remove(eventID);
+            added_attendees.remove(eventID);
+            removed_attendees.remove(eventID);
+            added_waitlisted.remove(eventID);
+            removed_waitlisted.remove(eventID);
+        }
+    }
+
+
+    /**
+     * Adds am event to event_service, with overloaded parameter attendeeIDs. If an event with the same ID already
+     * exists, the existing event is kept.
      * @param eventType      EventType           Contains the type of the event
      * @param eventCapacity  Int                 Contains the capacity of the event
      * @param eventID        String              Contains the event ID
@@ -42,9 +170,33 @@ public class EventServiceEngine implements EventService {
     public void addEvent(EventType eventType, int eventCapacity, String eventID, LocalDateTime startTime,
                          LocalDateTime endTime, String roomID, List<String> speakersID,
                          List<String> attendeeIDs){
-        Event eventToAdd = new Event(eventType, eventCapacity, eventID, startTime, endTime, roomID, speakersID,
-                attendeeIDs);
-        event_list.add(eventToAdd);
+        insertEvent(new Event(eventType, eventCapacity, eventID, startTime, endTime, roomID, speakersID,
+                attendeeIDs));
+    }
+
+    /**
+     * Adds events in one call, as if each was added with addEvent; an event whose ID is taken is ignored
+     * @param events  List<Event>  The events to add, e.g. as read from the database
+     */
+    @Override
+    public void addEvents(List<Event> events){
+        for (Event event: events){
+            insertEvent(event);
+        }
+    }
+
+    /*
+     * Stores and indexes an event unless its ID is taken, recording it and its attendees as changed
+     */
+    private void insertEvent(Event eventToAdd){
+        String eventID = eventToAdd.getEventID();
+        if (event_map.putIfAbsent(eventID, eventToAdd) == null){
+            indexEvent(eventToAdd);
+            markChanged(eventID);
+            for (String attendee: eventToAdd.getAttendeeIDs()){
+                recordAdded(added_attendees, eventID, attendee);
+            }
+        }
     }
 
     /**
@@ -53,9 +205,10 @@ public class EventServiceEngine implements EventService {
      * @return         boolean  True if the event has been successfully deleted, False if the event DNE
      */
     public boolean cancelEventByID(String eventID){
-        Event event = searchEvent(eventID);
-        if (event!=null){
-            event_list.remove(event);
+        Event event = event_map.remove(eventID);
+        if (event != null){
+            unindexEvent(event);
+            markDeleted(eventID);
             return true;
         }
         return false;
@@ -68,11 +221,13 @@ public class EventServiceEngine implements EventService {
      */
     public boolean cancelEventsByType(EventType eventType){
         int count = 0;
-        Iterator<Event> iterator = event_list.iterator();
+        Iterator<Event> iterator = event_map.values().iterator();
         while (iterator.hasNext()){
             Event event = iterator.next();
             if (event.getEventType().equals(eventType)){
                 iterator.remove();
+                unindexEvent(event);
+                markDeleted(event.getEventID());
                 count++;
             }
         }
@@ -88,12 +243,14 @@ public class EventServiceEngine implements EventService {
     public boolean cancelEventsBySize(int numAttendees, boolean atLeast){
         int count = 0;
         if (numAttendees < 0) return false;
-        Iterator<Event> iterator = event_list.iterator();
+        Iterator<Event> iterator = event_map.values().iterator();
         while (iterator.hasNext()) {
             Event event = iterator.next();
-            if ((atLeast && event.getAttendeeIDs().size() >= numAttendees) ||
-                    (!atLeast && event.getAttendeeIDs().size() == numAttendees)) {
+            if ((atLeast && event.getNumAttendees() >= numAttendees) ||
+                    (!atLeast && event.getNumAttendees() == numAttendees)) {
                 iterator.remove();
+                unindexEvent(event);
+                markDeleted(event.getEventID());
                 count++;
             }
         }
@@ -101,7 +258,7 @@ public class EventServiceEngine implements EventService {
     }
 
     /**
-     * Adds user to the event only if there's space.
+     * Adds user to the event only if there's space. A user on the event's waitlist is taken off it.
      * @param  userID  String   The User's ID.
      * @param  eventID String   The Event's ID.
      * @return         boolean  True if the user gets added.
@@ -109,8 +266,11 @@ public class EventServiceEngine implements EventService {
     @Override
     public boolean addUserToEvent(String userID, String eventID){
         Event event = searchEvent(eventID);
-        if (event!=null){
-            event.getAttendeeIDs().add(userID);
+        if (event!=null && event.addAttendee(userID)){
+            linkUser(attendee_events, userID, eventID);
+            markChanged(eventID);
+            recordAdded(added_attendees, eventID, userID);
+            removeUserFromWaitlist(userID, eventID);
             return true;
         }
         return false;
@@ -126,7 +286,11 @@ public class EventServiceEngine implements EventService {
     public boolean removeUserFromEvent(String userID, String eventID) {
         Event event =searchEvent(eventID);
         if (event!=null){
-            event.getAttendeeIDs().remove(userID);
+            if (event.removeAttendee(userID)){
+                unlinkUser(attendee_events, userID, eventID);
+                markChanged(eventID);
+                recordRemoved(added_attendees, removed_attendees, eventID, userID);
+            }
             return true;
         }
         return false;
@@ -143,15 +307,33 @@ public class EventServiceEngine implements EventService {
         List<String> users = new ArrayList<>();
         Event event = searchEvent(eventID);
         if (event!=null){
-            users = event.getAttendeeIDs();
-            if (users.size() == 1 && users.contains("")){
-                users.clear();
+            if (event.getNumAttendees() == 1 && event.hasAttendee("")){
+                event.removeAttendee("");
+                unlinkUser(attendee_events, "", eventID);
+                markChanged(eventID);
+                recordRemoved(added_attendees, removed_attendees, eventID, "");
                 return users;
             }
+            users = event.getAttendeeIDs();
         }
         return users;
     }
 
+    /**
+     * Return the users that are in any of the given events, each of them once
+     * @param eventIDs  List<String>  The ids of the events; ids of events that do not exist are ignored
+     * @return          List<String>  The user ids, in the order the users were first seen by the program
+     */
+    @Override
+    public List<String> getUsersForEvents(List<String> eventIDs) {
+        CompressedBitmap members = new CompressedBitmap();
+        for (String eventID: eventIDs){
+            Event event = searchEvent(eventID);
+            if (event != null) event.addAttendeesTo(members);
+        }
+        return Roster.namesOf(members);
+    }
+
     /**
      * Return the List of users that are in the given event
      * @param userID  String                The id of the given user
@@ -159,13 +341,7 @@ public class EventServiceEngine implements EventService {
      */
     @Override
     public List<String> getEventsForAttendee(String userID) {
-        List<String> events = new ArrayList<>();
-        for (Event event: event_list) {
-            if (event.getAttendeeIDs().contains(userID)) {
-                events.add(event.getEventID());
-            }
-        }
-        return events;
+        return new ArrayList<>(attendee_events.getOrDefault(userID, Collections.emptySet()));
     }
 
 
@@ -176,13 +352,7 @@ public class EventServiceEngine implements EventService {
      */
     @Override
     public List<String> getEventsBySpeaker(String speakerID) {
-        List<String> events_by_speaker = new ArrayList<>();
-        for (Event event: event_list) {
-            if (event.getSpeakerIDs().contains(speakerID)) {
-                events_by_speaker.add(event.getEventID());
-            }
-        }
-        return events_by_speaker;
+        return new ArrayList<>(speaker_events.getOrDefault(speakerID, Collections.emptySet()));
     }
 
     /**
@@ -192,25 +362,14 @@ public class EventServiceEngine implements EventService {
      * @return                          A list of events the user is a part of
      */
     public List<String> getEventsByUserType(UserType userType, String userID){
-        List<String> events = new ArrayList<>();
         if ((UserType.ATTENDEE).equals(userType)) {
-            for (Event event : event_list) {
-                if (event.getAttendeeIDs().contains(userID)) {
-                    events.add(event.getEventID());
-                }
-            }
-            return events;
+            return getEventsForAttendee(userID);
         }
         else if ((UserType.SPEAKER).equals(userType)){
-            for (Event event: event_list) {
-                if (event.getSpeakerIDs().contains(userID)) {
-                    events.add(event.getEventID());
-                }
-            }
-            return events;
+            return getEventsBySpeaker(userID);
         }
         else{
-            return events;
+            return new ArrayList<>();
         }
     }
 
@@ -222,16 +381,8 @@ public class EventServiceEngine implements EventService {
      */
     @Override
     public boolean isSignUpBefore(String eventId,String userId){
-        boolean result=false;
-        List<String> userIdList=new ArrayList<>();
         Event event = searchEvent(eventId);
-        if (event!=null){
-            userIdList = event.getAttendeeIDs();
-        }
-        if (userIdList.contains(userId)) {
-            result = true;
-        }
-        return result;
+        return event != null && event.hasAttendee(userId);
     }
 
     /**
@@ -243,9 +394,7 @@ public class EventServiceEngine implements EventService {
     public boolean isEventFull(String eventID){
         Event event = searchEvent(eventID);
         if(event!=null){
-            int numAttendees = event.getAttendeeIDs().size();
-            int numSpeakers = event.getSpeakerIDs().size();
-            return numAttendees + numSpeakers >= event.getEventCapacity();
+            return event.getOccupancy() >= event.getEventCapacity();
         }
         return false;
     }
@@ -258,14 +407,7 @@ public class EventServiceEngine implements EventService {
      * @return         Boolean        True if the room is being double booked
      */
     public boolean isDoubleBookingRoom(String room_id, LocalDateTime start, LocalDateTime end){
-        LocalDateTime[] eventToVerifyTimes = {start, end};
-        for (Event event: event_list){
-            LocalDateTime[] eventTimes = {event.getStartTime(),event.getEndTime()};
-            if (event.getRoomID().equals(room_id) && isTimeConflict(eventTimes,eventToVerifyTimes)){
-                return true;
-            }
-        }
-        return false;
+        return room_schedules.hasConflict(room_id, start, end);
     }
 
     /**
@@ -276,18 +418,54 @@ public class EventServiceEngine implements EventService {
      * @return           Boolean            True if the speaker is being double booked
      */
     public boolean isDoubleBookingSpeaker(List<String> speakers, LocalDateTime start, LocalDateTime end){
-        LocalDateTime[] eventToVerifyTimes = {start, end};
-        for (Event event: event_list){
-            LocalDateTime[] eventTimes = {event.getStartTime(),event.getEndTime()};
-            for (String speaker: speakers){
-                if (event.getSpeakerIDs().contains(speaker) && isTimeConflict(eventTimes,eventToVerifyTimes)){
-                        return true; // you are trying to double book a speaker in the speakers list
-                }
+        for (String speaker: speakers){
+            if (speaker_schedules.hasConflict(speaker, start, end)){
+                return true; // you are trying to double book a speaker in the speakers list
             }
         }
         return false; // you can book these speakers for your event
     }
 
+    /**
+     * Returns, for each of the given rooms, the windows within [from, to] at least length long in which the room
+     * and every one of the speakers are free. An event of that length fits in a window if it starts no later than
+     * length before the window ends.
+     * @param roomIDs     List<String>   Contains the IDs of the rooms to search
+     * @param speakerIDs  List<String>   Contains the IDs of the speakers who must all be free
+     * @param from        LocalDateTime  Contains the start of the period to search
+     * @param to          LocalDateTime  Contains the end of the period to search
+     * @param length      Duration       Contains the length of the event to fit
+     * @return            Map<String, List<List<LocalDateTime>>>  The free windows [start, end] of each room that
+     *                    has any, in order of time, keyed by room ID in the order of roomIDs
+     */
+    @Override
+    public Map<String, List<List<LocalDateTime>>> getFreeTimes(List<String> roomIDs, List<String> speakerIDs,
+                                                               LocalDateTime from, LocalDateTime to,
+                                                               Duration length){
+        List<List<LocalDateTime>> speakersFree = Collections.singletonList(Arrays.asList(from, to));
+        for (String speaker: speakerIDs){
+            speakersFree = EventIntervalIndex.intersect(speakersFree, speaker_schedules.freeTimes(speaker, from, to));
+        }
+        Map<String, List<List<LocalDateTime>>> freeTimes = new LinkedHashMap<>();
+        for (String roomID: roomIDs){
+            List<List<LocalDateTime>> windows = longEnough(
+                    EventIntervalIndex.intersect(speakersFree, room_schedules.freeTimes(roomID, from, to)), length);
+            if (!windows.isEmpty()) freeTimes.put(roomID, windows);
+        }
+        return freeTimes;
+    }
+
+    /*
+     * Keeps the windows at least length long
+     */
+    private List<List<LocalDateTime>> longEnough(List<List<LocalDateTime>> windows, Duration length){
+        List<List<LocalDateTime>> kept = new ArrayList<>();
+        for (List<LocalDateTime> window: windows){
+            if (!window.get(0).plus(length).isAfter(window.get(1))) kept.add(window);
+        }
+        return kept;
+    }
+
     /**
      * Checks if the event exists
      * @param eventID  String   Contains the event ID
@@ -319,11 +497,107 @@ public class EventServiceEngine implements EventService {
         Event event = searchEvent(eventID);
         if (event != null){
             event.setEventCapacity(newCapacity);
+            markChanged(eventID);
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Adds a user to the end of an event's waitlist
+     * @param userID   String   The ID of the user
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the user was added; false if the event does not exist, or the user is
+     *                          already in the event or on its waitlist
+     */
+    @Override
+    public boolean addUserToWaitlist(String userID, String eventID){
+        Event event = searchEvent(eventID);
+        if (event != null && event.addToWaitlist(userID)){
+            recordAdded(added_waitlisted, eventID, userID);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a user from an event's waitlist
+     * @param userID   String   The ID of the user
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the user was on the waitlist
+     */
+    @Override
+    public boolean removeUserFromWaitlist(String userID, String eventID){
+        Event event = searchEvent(eventID);
+        if (event != null && event.removeFromWaitlist(userID)){
+            recordRemoved(added_waitlisted, removed_waitlisted, eventID, userID);
             return true;
         }
         return false;
     }
 
+    /**
+     * Returns the waitlist of an event
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  The IDs of the waiting users, front first; empty if the event does not exist
+     */
+    @Override
+    public List<String> getWaitlist(String eventID){
+        Event event = searchEvent(eventID);
+        return event == null ? new ArrayList<>() : event.getWaitlist();
+    }
+
+    /**
+     * Checks if anybody is waiting for a seat at an event
+     * @param eventID  String   The ID of the event
+     * @return         boolean  True if the event's waitlist is not empty
+     */
+    @Override
+    public boolean hasWaitlist(String eventID){
+        return getWaitlistSize(eventID) > 0;
+    }
+
+    /**
+     * Returns the number of users waiting for a seat at an event
+     * @param eventID  String  The ID of the event
+     * @return         int     The length of the waitlist; 0 if the event does not exist
+     */
+    @Override
+    public int getWaitlistSize(String eventID){
+        Event event = searchEvent(eventID);
+        return event == null ? 0 : event.getWaitlistSize();
+    }
+
+    /**
+     * Returns the place of a user on an event's waitlist
+     * @param userID   String  The ID of the user
+     * @param eventID  String  The ID of the event
+     * @return         int     1 for the front of the waitlist; 0 if the user is not on it
+     */
+    @Override
+    public int getWaitlistPosition(String userID, String eventID){
+        Event event = searchEvent(eventID);
+        return event == null ? 0 : event.getWaitlistPosition(userID);
+    }
+
+    /**
+     * Signs up users from the front of an event's waitlist while the event has free seats, and takes them off it
+     * @param eventID  String        The ID of the event
+     * @return         List<String>  The IDs of the users signed up, in waitlist order
+     */
+    @Override
+    public List<String> promoteFromWaitlist(String eventID){
+        List<String> promoted = new ArrayList<>();
+        Event event = searchEvent(eventID);
+        if (event == null) return promoted;
+        String userID;
+        while (event.getOccupancy() < event.getEventCapacity() && (userID = event.nextOnWaitlist()) != null){
+            removeUserFromWaitlist(userID, eventID);
+            if (addUserToEvent(userID, eventID)) promoted.add(userID);
+        }
+        return promoted;
+    }
 
     /**
      * Return the total number of attendees and speakers of a given event.
@@ -332,9 +606,7 @@ public class EventServiceEngine implements EventService {
     @Override
     public int getNumAttendance(String eventID){
         Event event = searchEvent(eventID);
-        int numOfAttendee = event.getAttendeeIDs().size();
-        int numOfSpeakers = event.getSpeakerIDs().size();
-        return numOfAttendee+numOfSpeakers;
+        return event.getOccupancy();
     }
 
     /**
@@ -354,22 +626,125 @@ public class EventServiceEngine implements EventService {
     }
 
     /**
-     * Checks if there is a time conflict between 2 LocalDateTime variables
-     * @param  t1      LocalDateTime[]  An array of LocalDateTime variables
-     * @param  t2      LocalDateTime[]  An array of LocalDateTime variables
-     * @return         boolean          True if there is a time conflict
+     * Adds the event to the room and speaker schedules and to the reverse user indexes
+     * @param event  Event  The event being added
      */
-    private boolean isTimeConflict(LocalDateTime[] t1, LocalDateTime[] t2){
-        boolean result;
-        // the starting time of the first event is before starting time of the second event
-        if(t1[0].isBefore(t2[0])){
-            result=t2[0].isBefore(t1[1]);
+    private void indexEvent(Event event){
+        room_schedules.add(event.getRoomID(), event);
+        for (String speaker: event.getSpeakerIDs()){
+            speaker_schedules.add(speaker, event);
+            linkUser(speaker_events, speaker, event.getEventID());
         }
-        // the starting time of the first event is after starting time of the second event
-        else{
-            result=t1[0].isBefore(t2[1]);
+        for (String attendee: event.getAttendeeIDs()){
+            linkUser(attendee_events, attendee, event.getEventID());
+        }
+    }
+
+    /**
+     * Removes the event from the room and speaker schedules and from the reverse user indexes
+     * @param event  Event  The event being cancelled
+     */
+    private void unindexEvent(Event event){
+        room_schedules.remove(event.getRoomID(), event);
+        for (String speaker: event.getSpeakerIDs()){
+            speaker_schedules.remove(speaker, event);
+            unlinkUser(speaker_events, speaker, event.getEventID());
+        }
+        for (String attendee: event.getAttendeeIDs()){
+            unlinkUser(attendee_events, attendee, event.getEventID());
+        }
+    }
+
+    /**
+     * Records that the user is part of the event in the given reverse index
+     * @param index    Map<String, Set<String>>  The reverse index from user IDs to event IDs
+     * @param userID   String                    The ID of the user
+     * @param eventID  String                    The ID of the event
+     */
+    private void linkUser(Map<String, Set<String>> index, String userID, String eventID){
+        index.computeIfAbsent(userID, u -> new LinkedHashSet<>()).add(eventID);
+    }
+
+    /**
+     * Removes the event from the user's entry in the given reverse index
+     * @param index    Map<String, Set<String>>  The reverse index from user IDs to event IDs
+     * @param userID   String                    The ID of the user
+     * @param eventID  String                    The ID of the event
+     */
+    private void unlinkUser(Map<String, Set<String>> index, String userID, String eventID){
+        Set<String> events = index.get(userID);
+        if (events != null){
+            events.remove(eventID);
+            if (events.isEmpty()) index.remove(userID);
         }
-        return result;
+    }
+
+    /**
+     * Records that the event must be written on the next save
+     * @param eventID  String  The ID of the added or modified event
+     */
+    private void markChanged(String eventID){
+        event_views = null;
+        // an event cancelled and added again stays deleted too, so the save clears the old event's rows
+        changed_events.add(eventID);
+    }
+
+    /**
+     * Records that the event must be deleted on the next save
+     * @param eventID  String  The ID of the cancelled event
+     */
+    private void markDeleted(String eventID){
+        event_views = null;
+        changed_events.remove(eventID);
+        deleted_events.add(eventID);
+        // deleting the event deletes its whole roster and waitlist
+        added_attendees.remove(eventID);
+        removed_attendees.remove(eventID);
+        added_waitlisted.remove(eventID);
+        removed_waitlisted.remove(eventID);
+    }
+
+    /**
+     * Records that the user was added to the event's roster or waitlist since it was last saved
+     * @param added    Map<String, Set<String>>  The users added to each event's roster or waitlist
+     * @param eventID  String                    The ID of the event
+     * @param userID   String                    The ID of the added user
+     */
+    private void recordAdded(Map<String, Set<String>> added, String eventID, String userID){
+        added.computeIfAbsent(eventID, e -> new LinkedHashSet<>()).add(userID);
+    }
+
+    /**
+     * Records that the user was removed from the event's roster or waitlist since it was last saved. Removing a
+     * user added since the last save cancels out the addition.
+     * @param added    Map<String, Set<String>>  The users added to each event's roster or waitlist
+     * @param removed  Map<String, Set<String>>  The users removed from each event's roster or waitlist
+     * @param eventID  String                    The ID of the event
+     * @param userID   String                    The ID of the removed user
+     */
+    private void recordRemoved(Map<String, Set<String>> added, Map<String, Set<String>> removed, String eventID,
+                               String userID){
+        Set<String> addedUsers = added.get(eventID);
+        if (addedUsers != null && addedUsers.remove(userID)){
+            if (addedUsers.isEmpty()) added.remove(eventID);
+            return;
+        }
+        removed.computeIfAbsent(eventID, e -> new LinkedHashSet<>()).add(userID);
+    }
+
+    /**
+     * Flattens a map from event IDs to user IDs into [event ID, user ID] pairs
+     * @param usersByEvent  Map<String, Set<String>>  The user IDs of each event
+     * @return              List<List<String>>        Pairs of [event ID, user ID]
+     */
+    private List<List<String>> toPairs(Map<String, Set<String>> usersByEvent){
+        List<List<String>> pairs = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry: usersByEvent.entrySet()){
+            for (String userID: entry.getValue()){
+                pairs.add(Arrays.asList(entry.getKey(), userID));
+            }
+        }
+        return pairs;
     }
 
     /**
@@ -377,12 +752,7 @@ public class EventServiceEngine implements EventService {
      * @param eventID   String    The ID of the event.
      */
     private Event searchEvent(String eventID){
-        for (Event event:event_list){
-            if (event.getEventID().equals(eventID)){
-                return event;
-            }
-        }
-        return null;
+        return event_map.get(eventID);
     }
 
 }
\ No newline at end of file
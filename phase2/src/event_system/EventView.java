@@ -0,0 +1,140 @@
+package event_system;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only snapshot of an Event, handed out to callers that list events. A snapshot never changes after it is
+ * taken, so an Event keeps reusing the same one until the event itself is modified, and the start and end times
+ * are only formatted the first time they are asked for.
+ */
+public final class EventView {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final EventType event_type;
+    private final int event_capacity;
+    private final String event_id;
+    private final LocalDateTime start_time;
+    private final LocalDateTime end_time;
+    private final String room_id;
+    private final List<String> speaker_ids;
+    private final List<String> attendee_ids;
+    private final int occupied_seats;
+    private String formatted_start_time;
+    private String formatted_end_time;
+
+    /**
+     * Takes a snapshot of an event
+     * @param event  Event  The event to copy
+     */
+    EventView(Event event){
+        event_type = event.getEventType();
+        event_capacity = event.getEventCapacity();
+        event_id = event.getEventID();
+        start_time = event.getStartTime();
+        end_time = event.getEndTime();
+        room_id = event.getRoomID();
+        speaker_ids = Collections.unmodifiableList(new ArrayList<>(event.getSpeakerIDs()));
+        attendee_ids = Collections.unmodifiableList(new ArrayList<>(event.getAttendeeIDs()));
+        // an empty ID is a placeholder loaded from an empty roster, not a person
+        occupied_seats = speaker_ids.size() - Collections.frequency(speaker_ids, "") + attendee_ids.size()
+                - Collections.frequency(attendee_ids, "");
+    }
+
+    /**
+     * Returns the event type
+     * @return  EventType  The event type
+     */
+    public EventType getEventType(){
+        return event_type;
+    }
+
+    /**
+     * Returns the event capacity
+     * @return  int  The maximum number of people that can attend the event
+     */
+    public int getEventCapacity(){
+        return event_capacity;
+    }
+
+    /**
+     * Returns the event ID
+     * @return  String  The event ID
+     */
+    public String getEventID(){
+        return event_id;
+    }
+
+    /**
+     * Returns the start of the event
+     * @return  LocalDateTime  The start of the event
+     */
+    public LocalDateTime getStartTime(){
+        return start_time;
+    }
+
+    /**
+     * Returns the end of the event
+     * @return  LocalDateTime  The end of the event
+     */
+    public LocalDateTime getEndTime(){
+        return end_time;
+    }
+
+    /**
+     * Returns the start of the event in the "yyyy-MM-dd HH:mm" format used by getListEvents
+     * @return  String  The formatted start time
+     */
+    public String getFormattedStartTime(){
+        if (formatted_start_time == null){
+            formatted_start_time = start_time.format(formatter);
+        }
+        return formatted_start_time;
+    }
+
+    /**
+     * Returns the end of the event in the "yyyy-MM-dd HH:mm" format used by getListEvents
+     * @return  String  The formatted end time
+     */
+    public String getFormattedEndTime(){
+        if (formatted_end_time == null){
+            formatted_end_time = end_time.format(formatter);
+        }
+        return formatted_end_time;
+    }
+
+    /**
+     * Returns the room ID
+     * @return  String  The ID of the room the event is held in
+     */
+    public String getRoomID(){
+        return room_id;
+    }
+
+    /**
+     * Returns the speakers of the event
+     * @return  List<String>  A read-only list of speaker IDs
+     */
+    public List<String> getSpeakerIDs(){
+        return speaker_ids;
+    }
+
+    /**
+     * Returns the attendees of the event
+     * @return  List<String>  A read-only list of attendee IDs, in the order they joined the event
+     */
+    public List<String> getAttendeeIDs(){
+        return attendee_ids;
+    }
+
+    /**
+     * Returns the number of seats not taken by a speaker or an attendee
+     * @return  int  The number of remaining seats
+     */
+    public int getRemainingSeats(){
+        return event_capacity - occupied_seats;
+    }
+}
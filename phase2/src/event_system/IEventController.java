@@ -1,8 +1,11 @@
 package event_system;
 
 
+import java.io.Reader;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 public interface IEventController {
 
@@ -23,12 +26,50 @@ public interface IEventController {
                                LocalDateTime endTime, String roomID, List<String> speakerIDs,
                                List<String> attendeeIDs);
 
+    /**
+     * Finds the rooms and times in which an event could be booked. A candidate is a room that can hold
+     * eventCapacity people together with a window in which the room and every speaker are free for at least
+     * length; the event can start at any time from the window's start until length before its end. Rooms are
+     * tried in order of capacity, so the best-fitting rooms come first, and each room's windows in order of time.
+     * @param eventCapacity  int                 Contains the capacity of the event
+     * @param speakerIDs     List<String>        A list of speaker IDs
+     * @param from           LocalDateTime       Contains the earliest start of the event
+     * @param to             LocalDateTime       Contains the latest end of the event
+     * @param length         Duration            Contains the length of the event
+     * @param maxResults     int                 Contains the most candidates to return
+     * @return               List<List<String>>  A nested list of the form [roomID, roomCapacity, windowStart,
+     *                                           windowEnd], with times as yyyy-MM-dd HH:mm; empty if the speakers
+     *                                           are not distinct speakers or the period is too short
+     */
+    List<List<String>> findAvailableSlots(int eventCapacity, List<String> speakerIDs, LocalDateTime from,
+                                          LocalDateTime to, Duration length, int maxResults);
+
+    /**
+     * Schedules a batch of sessions and adds them as events. The ScheduleSolver picks a room and time for each
+     * session that passes the checks of addEvent, keeping clear of the events already scheduled, so a later call
+     * only places its new sessions around the ones added before.
+     * @param sessions  List<Session>              The sessions to schedule
+     * @param horizon   List<List<LocalDateTime>>  The windows [start, end] sessions may be placed in, e.g. the
+     *                                             hours of each day of the conference
+     * @return          List<EventPrompt>          The result for each session, in the order of sessions:
+     *                                             EVENT_ADDED if it was scheduled, NO_AVAILABLE_SLOT if no room
+     *                                             large enough was free in time, or the check it failed
+     */
+    List<EventPrompt> scheduleSessions(List<Session> sessions, List<List<LocalDateTime>> horizon);
+
     /**
      * Updates the csv file for event list.
      * @return true if the file has been successfully saved
      */
     boolean save();
 
+    /**
+     * Takes the changes made since the last save and returns the write that stores them, so the write can run
+     * while the controller is used again, see DatabaseReadWriter.takeChanges
+     * @return BooleanSupplier  Writes the changes, returning true if they were written successfully
+     */
+    BooleanSupplier takeChanges();
+
     /**
      * Method to read events from the database
      * @return  boolean  True if the events have successfully been read from the database
@@ -77,6 +118,12 @@ public interface IEventController {
      */
     List<List<List<String>>> getListEvents();
 
+    /**
+     * Method to get a read-only snapshot of every event, without converting them to nested lists
+     * @return  List<EventView>  A read-only list of event snapshots
+     */
+    List<EventView> getEventViews();
+
     /**
      * Changes the event capacity to a new value if the following three things are satisfied:
      * 1.The event exists
@@ -113,4 +160,60 @@ public interface IEventController {
     // Overload with currently login User
     EventPrompt cancelSignUp(String eventID);
 
+    /**
+     * Puts the userID on the waitlist of a full event, or signs them up if it has a free seat.
+     * @param   userID       The id of the user who is waiting.
+     * @param   eventID      The id of the event.
+     * @return  EventPrompt  ADDED_TO_WAITLIST: if the user is now at the back of the waitlist
+     *                       ALREADY_ON_WAITLIST: if the user was already on the waitlist
+     *                       any prompt of signUp: if the event was not full
+     */
+    EventPrompt joinWaitlist(String userID, String eventID);
+    // Overload with currently login User
+    EventPrompt joinWaitlist(String eventID);
+
+    /**
+     * Takes the userID off the waitlist of an event.
+     * @param   userID       The id of the user who is leaving.
+     * @param   eventID      The id of the event.
+     * @return  EventPrompt  CANCEL_SUCCESS if the user was on the waitlist, ATTENDEE_NOT_IN_EVENT otherwise
+     */
+    EventPrompt leaveWaitlist(String userID, String eventID);
+    // Overload with currently login User
+    EventPrompt leaveWaitlist(String eventID);
+
+    /**
+     * Returns the waitlist of an event.
+     * @param   eventID       The id of the event.
+     * @return  List<String>  The ids of the waiting users, the next to get a seat first
+     */
+    List<String> getWaitlist(String eventID);
+
+    /**
+     * Returns the number of users on the waitlist of an event.
+     * @param   eventID  The id of the event.
+     * @return  int      The number of waiting users; 0 if the event does not exist
+     */
+    int getWaitlistSize(String eventID);
+
+    /**
+     * Returns the place of the userID on the waitlist of an event.
+     * @param   userID   The id of the user.
+     * @param   eventID  The id of the event.
+     * @return  int      1 for the next user to get a seat, 2 for the one after, and so on; 0 if the user is not
+     *                   waiting
+     */
+    int getWaitlistPosition(String userID, String eventID);
+    // Overload with currently login User
+    int getWaitlistPosition(String eventID);
+
+    /**
+     * Imports accounts and sign-ups from CSV text with one record per line, either
+     * "user,username,password,userType" or "signup,username,eventID". Rejected rows are skipped and reported;
+     * the accepted rows are written to the database in a single transaction.
+     * @param  csv  Reader        The CSV text, read one line at a time
+     * @return      ImportReport  The number of rows accepted and the reason each other row was rejected
+     */
+    ImportReport importAttendees(Reader csv);
+
 }
@@ -0,0 +1,71 @@
+package event_system;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outcome of a bulk import of users and sign-ups: how many rows were accepted, why each other row was
+ * rejected, and whether the accepted rows were committed to the database.
+ */
+public class ImportReport {
+    private final Map<Integer, EventPrompt> rejections = new LinkedHashMap<>();
+    private int users_added = 0;
+    private int sign_ups_added = 0;
+    private boolean committed = false;
+
+    /**
+     * Creates an empty report
+     */
+    ImportReport() {
+    }
+
+    /**
+     * Returns the number of accounts created by the import
+     * @return  int  The number of accepted user rows
+     */
+    public int getUsersAdded() {
+        return users_added;
+    }
+
+    /**
+     * Returns the number of sign-ups made by the import
+     * @return  int  The number of accepted sign-up rows
+     */
+    public int getSignUpsAdded() {
+        return sign_ups_added;
+    }
+
+    /**
+     * Returns the rows that were not imported
+     * @return  Map<Integer, EventPrompt>  The reason each rejected row was skipped, by line number starting at 1,
+     *                                     in the order of the lines
+     */
+    public Map<Integer, EventPrompt> getRejections() {
+        return Collections.unmodifiableMap(rejections);
+    }
+
+    /**
+     * Checks if the accepted rows were committed to the database
+     * @return  boolean  True if they were; otherwise none of them were kept
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    void userAdded() {
+        users_added++;
+    }
+
+    void signUpAdded() {
+        sign_ups_added++;
+    }
+
+    void reject(int line, EventPrompt reason) {
+        rejections.put(line, reason);
+    }
+
+    void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+}
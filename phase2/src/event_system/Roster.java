@@ -0,0 +1,146 @@
+package event_system;
+
+import user_system.UserIDDictionary;
+
+import java.util.*;
+
+/**
+ * An insertion-ordered set of user IDs, used for the attendees and speakers of an Event. Users are kept as their
+ * numbers in the shared UserIDDictionary: the join order as an int array, and membership as a CompressedBitmap, so
+ * membership checks and unions of rosters work on bits instead of strings. A removed user's slot in the array is
+ * only marked, found through an index of slots, and the array is compacted when the roster is next read in order,
+ * so removals take constant time however large the roster is.
+ */
+class Roster {
+
+    private static final UserIDDictionary dictionary = UserIDDictionary.shared();
+    // marks the slot of a removed user until the array is compacted
+    private static final int REMOVED = -1;
+
+    private int[] ordered_ids;
+    // slots in use in ordered_ids, including those of removed users
+    private int used = 0;
+    private int count = 0;
+    private final CompressedBitmap member_ids = new CompressedBitmap();
+    // the slot of each user in ordered_ids
+    private final Map<Integer, Integer> slots = new HashMap<>();
+    private final List<String> view = new AbstractList<String>() {
+        @Override
+        public String get(int index) {
+            Objects.checkIndex(index, count);
+            if (used != count) compact();
+            return dictionary.nameOf(ordered_ids[index]);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    };
+
+    /**
+     * Creates a roster containing the given user IDs, ignoring repeated IDs
+     * @param userIDs  List<String>  The initial user IDs
+     */
+    Roster(List<String> userIDs){
+        ordered_ids = new int[Math.max(4, userIDs.size())];
+        for (String userID: userIDs){
+            add(userID);
+        }
+    }
+
+    /**
+     * Adds a user to the roster
+     * @param userID  String   The ID of the user
+     * @return        boolean  True if the user was not already in the roster
+     */
+    boolean add(String userID){
+        int id = dictionary.idOf(userID);
+        if (!member_ids.add(id)) return false;
+        if (used == ordered_ids.length){
+            // reuse the slots of removed users before growing, if they free at least half the array
+            if (used - count >= used / 2) compact();
+            else ordered_ids = Arrays.copyOf(ordered_ids, used * 2);
+        }
+        slots.put(id, used);
+        ordered_ids[used++] = id;
+        count++;
+        return true;
+    }
+
+    /**
+     * Removes a user from the roster
+     * @param userID  String   The ID of the user
+     * @return        boolean  True if the user was in the roster
+     */
+    boolean remove(String userID){
+        int id = dictionary.find(userID);
+        if (id < 0 || !member_ids.remove(id)) return false;
+        ordered_ids[slots.remove(id)] = REMOVED;
+        count--;
+        return true;
+    }
+
+    /**
+     * Moves the remaining users to the front of the array, in order, dropping the slots of removed users
+     */
+    private void compact(){
+        int next = 0;
+        for (int x = 0; x < used; x++){
+            int id = ordered_ids[x];
+            if (id != REMOVED){
+                slots.put(id, next);
+                ordered_ids[next++] = id;
+            }
+        }
+        used = next;
+    }
+
+    /**
+     * Checks if the user is in the roster
+     * @param userID  String   The ID of the user
+     * @return        boolean  True if the user is in the roster
+     */
+    boolean contains(String userID){
+        int id = dictionary.find(userID);
+        return id >= 0 && member_ids.contains(id);
+    }
+
+    /**
+     * Returns the number of users in the roster
+     * @return  int  The number of users
+     */
+    int size(){
+        return count;
+    }
+
+    /**
+     * Returns a read-only view of the roster that reflects later changes
+     * @return  List<String>  The user IDs in the order they were added
+     */
+    List<String> asList(){
+        return view;
+    }
+
+    /**
+     * Adds the users of this roster to a set of user numbers
+     * @param members  CompressedBitmap  The set to add to
+     */
+    void addTo(CompressedBitmap members){
+        members.or(member_ids);
+    }
+
+    /**
+     * Returns the user IDs of a set of user numbers, leaving out the empty placeholder ID
+     * @param members  CompressedBitmap  The user numbers
+     * @return         List<String>      The user IDs, in the order the users were first seen by the program
+     */
+    static List<String> namesOf(CompressedBitmap members){
+        List<String> names = new ArrayList<>(members.cardinality());
+        for (int id: members.toArray()){
+            String name = dictionary.nameOf(id);
+            if (!name.isEmpty()) names.add(name);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,464 @@
+package event_system;
+
+import room_system.RoomService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places a batch of sessions into rooms and times without conflicts. A session only goes in a room that holds its
+ * capacity, at a time when neither the room nor any of its speakers is busy with an existing event or another
+ * session, inside one of the windows of the horizon.
+ *
+ * Each attempt places the sessions one by one, at the earliest time that fits, in the smallest room free then. The
+ * first attempt takes the hardest sessions first (most speakers, then largest, then longest); the others shuffle
+ * that order a little. Attempts run in parallel until one places every session, the attempts run out or the
+ * deadline passes, and the attempt placing the most sessions, then starting them earliest, is kept. A session
+ * planned by the previous solve keeps its room and time if it is unchanged and they are still free.
+ */
+public class ScheduleSolver {
+
+    /**
+     * Time a solve may take by default
+     */
+    public static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(2);
+
+    /**
+     * Number of attempts made by default
+     */
+    public static final int DEFAULT_ATTEMPTS = 16;
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final EventService event_service;
+    private final RoomService room_service;
+    private Duration deadline = DEFAULT_DEADLINE;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int max_attempts = DEFAULT_ATTEMPTS;
+    // the sessions of the last solve and their placements, reused by the next one
+    private final Map<String, Session> planned_sessions = new HashMap<>();
+    private final Map<String, Placement> planned = new HashMap<>();
+    private int reused_count = 0;
+    private int attempt_count = 0;
+
+    /**
+     * Where and when a session was placed
+     */
+    public static final class Placement {
+        private final String event_id;
+        private final String room_id;
+        private final LocalDateTime start_time;
+        private final LocalDateTime end_time;
+
+        private Placement(String eventID, String roomID, LocalDateTime startTime, LocalDateTime endTime){
+            event_id = eventID;
+            room_id = roomID;
+            start_time = startTime;
+            end_time = endTime;
+        }
+
+        /**
+         * Returns the event ID
+         * @return  String  The event ID of the session
+         */
+        public String getEventID() { return event_id; }
+
+        /**
+         * Returns the room ID
+         * @return  String  The room the session was placed in
+         */
+        public String getRoomID() { return room_id; }
+
+        /**
+         * Returns the start time
+         * @return  LocalDateTime  The time the session starts
+         */
+        public LocalDateTime getStartTime() { return start_time; }
+
+        /**
+         * Returns the end time
+         * @return  LocalDateTime  The time the session ends
+         */
+        public LocalDateTime getEndTime() { return end_time; }
+
+        /**
+         * Returns the placement as a list of strings
+         * @return  List<String>  A list of the form [eventID, roomID, startTime, endTime], with times as
+         *                        yyyy-MM-dd HH:mm
+         */
+        public List<String> toList(){
+            return Arrays.asList(event_id, room_id, start_time.format(formatter), end_time.format(formatter));
+        }
+    }
+
+    /*
+     * The busy periods of each room or speaker, merged so that they never overlap or touch
+     */
+    private static final class Calendar {
+        private final Map<String, TreeMap<LocalDateTime, LocalDateTime>> busy = new HashMap<>();
+
+        private Calendar(){
+        }
+
+        private Calendar(Calendar other){
+            for (Map.Entry<String, TreeMap<LocalDateTime, LocalDateTime>> entry: other.busy.entrySet()){
+                busy.put(entry.getKey(), new TreeMap<>(entry.getValue()));
+            }
+        }
+
+        private void book(String key, LocalDateTime start, LocalDateTime end){
+            TreeMap<LocalDateTime, LocalDateTime> periods = busy.computeIfAbsent(key, k -> new TreeMap<>());
+            Map.Entry<LocalDateTime, LocalDateTime> before = periods.floorEntry(start);
+            if (before != null && !before.getValue().isBefore(start)){
+                start = before.getKey();
+            }
+            Iterator<Map.Entry<LocalDateTime, LocalDateTime>> merged = periods.tailMap(start, true).entrySet()
+                    .iterator();
+            while (merged.hasNext()){
+                Map.Entry<LocalDateTime, LocalDateTime> period = merged.next();
+                if (period.getKey().isAfter(end)) break;
+                if (period.getValue().isAfter(end)) end = period.getValue();
+                merged.remove();
+            }
+            periods.put(start, end);
+        }
+
+        /*
+         * Returns the end of the busy period overlapping [start, end], or null if there is none; since periods
+         * never overlap, only the last one starting before end can
+         */
+        private LocalDateTime busyUntil(String key, LocalDateTime start, LocalDateTime end){
+            TreeMap<LocalDateTime, LocalDateTime> periods = busy.get(key);
+            if (periods == null) return null;
+            Map.Entry<LocalDateTime, LocalDateTime> period = periods.lowerEntry(end);
+            return period != null && period.getValue().isAfter(start) ? period.getValue() : null;
+        }
+    }
+
+    /*
+     * The placements made by one attempt
+     */
+    private static final class Attempt {
+        private final int number;
+        private final Map<String, Placement> placements = new HashMap<>();
+        private long total_start = 0;
+
+        private Attempt(int number){
+            this.number = number;
+        }
+
+        private boolean isBetterThan(Attempt other){
+            if (placements.size() != other.placements.size()) return placements.size() > other.placements.size();
+            if (total_start != other.total_start) return total_start < other.total_start;
+            return number < other.number;
+        }
+    }
+
+    /**
+     * Creates a solver placing sessions around the events of eventService, in the rooms of roomService
+     * @param eventService  EventService  The events already scheduled
+     * @param roomService   RoomService   The rooms sessions can be placed in
+     */
+    public ScheduleSolver(EventService eventService, RoomService roomService){
+        event_service = eventService;
+        room_service = roomService;
+    }
+
+    /**
+     * Sets how long a solve may take; attempts stop placing sessions when it has passed
+     * @param deadline  Duration  The time a solve may take
+     */
+    public synchronized void setDeadline(Duration deadline){
+        this.deadline = deadline;
+    }
+
+    /**
+     * Sets the number of attempts run at the same time
+     * @param threads  int  The number of threads, at least 1
+     */
+    public synchronized void setThreads(int threads){
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Sets the number of attempts a solve makes at most
+     * @param maxAttempts  int  The number of attempts, at least 1
+     */
+    public synchronized void setMaxAttempts(int maxAttempts){
+        max_attempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Gets the number of placements the last solve kept from the one before
+     * @return  int  The number of placements reused
+     */
+    public synchronized int getReusedCount(){
+        return reused_count;
+    }
+
+    /**
+     * Gets the number of attempts the last solve made
+     * @return  int  The number of attempts
+     */
+    public synchronized int getAttemptCount(){
+        return attempt_count;
+    }
+
+    /**
+     * Places the sessions in rooms and times. Nothing is added to the EventService; the placements are remembered
+     * so that the next solve can keep them. If the calling thread is interrupted, the best placements collected so
+     * far are returned and the thread stays interrupted.
+     * @param sessions  List<Session>              The sessions to place, with distinct event IDs
+     * @param horizon   List<List<LocalDateTime>>  The windows [start, end] sessions may be placed in
+     * @return          Map<String, Placement>     The placement of each session that could be placed, keyed by
+     *                                             event ID in the order of sessions
+     */
+    public synchronized Map<String, Placement> solve(List<Session> sessions, List<List<LocalDateTime>> horizon){
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        List<List<LocalDateTime>> windows = new ArrayList<>();
+        for (List<LocalDateTime> window: horizon){
+            if (window.get(0).isBefore(window.get(1))) windows.add(window);
+        }
+        windows.sort(Comparator.comparing(window -> window.get(0)));
+
+        List<List<String>> rooms = room_service.getRoomsWithCapacity(0);
+        String[] roomIDs = new String[rooms.size()];
+        int[] capacities = new int[rooms.size()];
+        Map<String, Integer> capacityOf = new HashMap<>();
+        for (int r = 0; r < roomIDs.length; r++){
+            roomIDs[r] = rooms.get(r).get(0);
+            capacities[r] = Integer.parseInt(rooms.get(r).get(1));
+            capacityOf.put(roomIDs[r], capacities[r]);
+        }
+
+        Calendar roomCalendar = new Calendar();
+        Calendar speakerCalendar = new Calendar();
+        if (!windows.isEmpty()){
+            bookEvents(roomCalendar, speakerCalendar, windows.get(0).get(0), latestEnd(windows));
+        }
+
+        // sessions unchanged since the last solve keep their placement while it is still free
+        Map<String, Placement> pinned = new HashMap<>();
+        List<Session> remaining = new ArrayList<>();
+        for (Session session: sessions){
+            Placement previous = planned.get(session.getEventID());
+            if (previous != null && session.equals(planned_sessions.get(session.getEventID()))
+                    && capacityOf.getOrDefault(previous.room_id, -1) >= session.getEventCapacity()
+                    && isInHorizon(windows, previous.start_time, previous.end_time)
+                    && isFree(roomCalendar, previous.room_id, speakerCalendar, session.getSpeakerIDs(),
+                    previous.start_time, previous.end_time)){
+                book(roomCalendar, speakerCalendar, session, previous);
+                pinned.put(session.getEventID(), previous);
+            } else {
+                remaining.add(session);
+            }
+        }
+        reused_count = pinned.size();
+
+        List<Session> hardestFirst = new ArrayList<>(remaining);
+        hardestFirst.sort(Comparator.comparingInt((Session session) -> -session.getSpeakerIDs().size())
+                .thenComparingInt(session -> -session.getEventCapacity())
+                .thenComparing(Session::getLength, Comparator.reverseOrder()));
+        Attempt best = runAttempts(hardestFirst, windows, roomIDs, capacities, roomCalendar, speakerCalendar,
+                deadlineNanos);
+
+        Map<String, Placement> placements = new LinkedHashMap<>();
+        planned_sessions.clear();
+        planned.clear();
+        for (Session session: sessions){
+            Placement placement = pinned.containsKey(session.getEventID()) ? pinned.get(session.getEventID())
+                    : best.placements.get(session.getEventID());
+            planned_sessions.put(session.getEventID(), session);
+            if (placement != null){
+                placements.put(session.getEventID(), placement);
+                planned.put(session.getEventID(), placement);
+            }
+        }
+        return placements;
+    }
+
+    /*
+     * Runs attempts on the pool until one places every session, max_attempts have run or the deadline passes.
+     * The first attempt always runs.
+     */
+    private Attempt runAttempts(List<Session> hardestFirst, List<List<LocalDateTime>> windows, String[] roomIDs,
+                                int[] capacities, Calendar roomCalendar, Calendar speakerCalendar,
+                                long deadlineNanos){
+        AtomicInteger nextAttempt = new AtomicInteger();
+        AtomicBoolean complete = new AtomicBoolean(hardestFirst.isEmpty());
+        Callable<List<Attempt>> worker = () -> {
+            List<Attempt> attempts = new ArrayList<>();
+            int number;
+            while ((number = nextAttempt.getAndIncrement()) < max_attempts
+                    && (number == 0 || (!complete.get() && System.nanoTime() < deadlineNanos))){
+                Attempt attempt = place(number, shuffled(hardestFirst, number), windows, roomIDs, capacities,
+                        new Calendar(roomCalendar), new Calendar(speakerCalendar), deadlineNanos, complete);
+                attempts.add(attempt);
+                if (attempt.placements.size() == hardestFirst.size()) complete.set(true);
+            }
+            return attempts;
+        };
+
+        Attempt best = new Attempt(Integer.MAX_VALUE);
+        attempt_count = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Attempt>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++){
+                results.add(pool.submit(worker));
+            }
+            for (Future<List<Attempt>> result: results){
+                for (Attempt attempt: result.get()){
+                    attempt_count++;
+                    if (attempt.isBetterThan(best)) best = attempt;
+                }
+            }
+        } catch (InterruptedException e) {
+            // keep the interrupt for the caller, which gets the best attempt collected so far
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println(e.toString());
+        } finally {
+            pool.shutdownNow();
+        }
+        return best;
+    }
+
+    /*
+     * Places the sessions in the given order, each at the earliest time it fits and then in the smallest room.
+     * Stops early once another attempt has placed every session, since this one can then no longer win.
+     */
+    private Attempt place(int number, List<Session> order, List<List<LocalDateTime>> windows, String[] roomIDs,
+                          int[] capacities, Calendar roomCalendar, Calendar speakerCalendar, long deadlineNanos,
+                          AtomicBoolean complete){
+        Attempt attempt = new Attempt(number);
+        for (Session session: order){
+            if (System.nanoTime() >= deadlineNanos || complete.get()) break;
+            if (session.getLength().isNegative() || session.getLength().isZero()) continue;
+            int firstRoom = firstRoomHolding(capacities, session.getEventCapacity());
+            for (List<LocalDateTime> window: windows){
+                // no room can beat the first time all the speakers are free
+                LocalDateTime earliest = earliestStart(roomCalendar, null, speakerCalendar, session,
+                        window.get(0), window.get(1));
+                if (earliest == null) continue;
+                String bestRoom = null;
+                LocalDateTime bestStart = null;
+                for (int r = firstRoom; r < roomIDs.length; r++){
+                    LocalDateTime start = earliestStart(roomCalendar, roomIDs[r], speakerCalendar, session, earliest,
+                            window.get(1));
+                    if (start != null && (bestStart == null || start.isBefore(bestStart))){
+                        bestRoom = roomIDs[r];
+                        bestStart = start;
+                        if (start.equals(earliest)) break;
+                    }
+                }
+                if (bestRoom != null){
+                    Placement placement = new Placement(session.getEventID(), bestRoom, bestStart,
+                            bestStart.plus(session.getLength()));
+                    book(roomCalendar, speakerCalendar, session, placement);
+                    attempt.placements.put(session.getEventID(), placement);
+                    attempt.total_start += bestStart.toEpochSecond(ZoneOffset.UTC);
+                    break;
+                }
+            }
+        }
+        return attempt;
+    }
+
+    /*
+     * Returns the earliest start in [from, until - length] at which the room, if any, and the speakers of the
+     * session are all free, or null if there is none. Each conflict moves the start to the end of the busy period,
+     * so the search never steps over a free time.
+     */
+    private LocalDateTime earliestStart(Calendar roomCalendar, String roomID, Calendar speakerCalendar,
+                                        Session session, LocalDateTime from, LocalDateTime until){
+        LocalDateTime start = from;
+        while (!start.plus(session.getLength()).isAfter(until)){
+            LocalDateTime end = start.plus(session.getLength());
+            LocalDateTime busyUntil = roomID == null ? null : roomCalendar.busyUntil(roomID, start, end);
+            for (int s = 0; busyUntil == null && s < session.getSpeakerIDs().size(); s++){
+                busyUntil = speakerCalendar.busyUntil(session.getSpeakerIDs().get(s), start, end);
+            }
+            if (busyUntil == null) return start;
+            start = busyUntil;
+        }
+        return null;
+    }
+
+    private boolean isFree(Calendar roomCalendar, String roomID, Calendar speakerCalendar, List<String> speakerIDs,
+                           LocalDateTime start, LocalDateTime end){
+        if (roomCalendar.busyUntil(roomID, start, end) != null) return false;
+        for (String speakerID: speakerIDs){
+            if (speakerCalendar.busyUntil(speakerID, start, end) != null) return false;
+        }
+        return true;
+    }
+
+    private void book(Calendar roomCalendar, Calendar speakerCalendar, Session session, Placement placement){
+        roomCalendar.book(placement.room_id, placement.start_time, placement.end_time);
+        for (String speakerID: session.getSpeakerIDs()){
+            speakerCalendar.book(speakerID, placement.start_time, placement.end_time);
+        }
+    }
+
+    /*
+     * Books the rooms and speakers of the scheduled events overlapping [from, to]
+     */
+    private void bookEvents(Calendar roomCalendar, Calendar speakerCalendar, LocalDateTime from, LocalDateTime to){
+        for (EventView event: event_service.getEventViews()){
+            if (!event.getStartTime().isBefore(to) || !event.getEndTime().isAfter(from)) continue;
+            roomCalendar.book(event.getRoomID(), event.getStartTime(), event.getEndTime());
+            for (String speakerID: event.getSpeakerIDs()){
+                // an empty ID is a placeholder loaded from an empty roster, not a person
+                if (!speakerID.isEmpty()) speakerCalendar.book(speakerID, event.getStartTime(), event.getEndTime());
+            }
+        }
+    }
+
+    /*
+     * The attempt's order: the first attempt keeps the hardest-first order, the others swap some sessions with one
+     * a few places later
+     */
+    private List<Session> shuffled(List<Session> hardestFirst, int number){
+        List<Session> order = new ArrayList<>(hardestFirst);
+        if (number == 0) return order;
+        Random random = new Random(number);
+        for (int x = 0; x < order.size() - 1; x++){
+            if (random.nextInt(4) == 0){
+                Collections.swap(order, x, x + 1 + random.nextInt(Math.min(8, order.size() - x - 1)));
+            }
+        }
+        return order;
+    }
+
+    private int firstRoomHolding(int[] capacities, int capacity){
+        int low = 0, high = capacities.length;
+        while (low < high){
+            int middle = (low + high) >>> 1;
+            if (capacities[middle] < capacity) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private boolean isInHorizon(List<List<LocalDateTime>> windows, LocalDateTime start, LocalDateTime end){
+        for (List<LocalDateTime> window: windows){
+            if (!start.isBefore(window.get(0)) && !end.isAfter(window.get(1))) return true;
+        }
+        return false;
+    }
+
+    private LocalDateTime latestEnd(List<List<LocalDateTime>> windows){
+        LocalDateTime latest = windows.get(0).get(1);
+        for (List<LocalDateTime> window: windows){
+            if (window.get(1).isAfter(latest)) latest = window.get(1);
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,80 @@
+package event_system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An event that still has to be given a room and a time, as handed to the ScheduleSolver.
+ */
+public final class Session {
+    private final String event_id;
+    private final EventType event_type;
+    private final int event_capacity;
+    private final List<String> speaker_ids;
+    private final Duration length;
+
+    /**
+     * Creates a new unscheduled session.
+     * @param eventID        String        Contains the Event ID.
+     * @param eventType      EventType     Contains the event type.
+     * @param eventCapacity  int           Contains the capacity of the event.
+     * @param speakerIDs     List<String>  List of speakers at the event.
+     * @param length         Duration      How long the event lasts.
+     */
+    public Session(String eventID, EventType eventType, int eventCapacity, List<String> speakerIDs,
+                   Duration length){
+        event_id = eventID;
+        event_type = eventType;
+        event_capacity = eventCapacity;
+        speaker_ids = Collections.unmodifiableList(new ArrayList<>(speakerIDs));
+        this.length = length;
+    }
+
+    /**
+     * Returns the event ID
+     * @return  String  The event ID
+     */
+    public String getEventID() { return event_id; }
+
+    /**
+     * Returns the event type
+     * @return  EventType  The event type
+     */
+    public EventType getEventType() { return event_type; }
+
+    /**
+     * Returns the event capacity
+     * @return  int  The maximum number of people that can attend the event
+     */
+    public int getEventCapacity() { return event_capacity; }
+
+    /**
+     * Returns the speaker IDs
+     * @return  List<String>  A read-only list of speaker IDs
+     */
+    public List<String> getSpeakerIDs() { return speaker_ids; }
+
+    /**
+     * Returns the length of the event
+     * @return  Duration  How long the event lasts
+     */
+    public Duration getLength() { return length; }
+
+    @Override
+    public boolean equals(Object other){
+        if (this == other) return true;
+        if (!(other instanceof Session)) return false;
+        Session session = (Session) other;
+        return event_capacity == session.event_capacity && event_id.equals(session.event_id)
+                && event_type == session.event_type && speaker_ids.equals(session.speaker_ids)
+                && length.equals(session.length);
+    }
+
+    @Override
+    public int hashCode(){
+        return Objects.hash(event_id, event_type, event_capacity, speaker_ids, length);
+    }
+}
@@ -1,41 +1,100 @@
 package graphic_user_interface;
 
+import database.WriteBehindQueue;
 import event_system.*;
 import room_system.IRoomController;
 import room_system.RoomController;
+import room_system.RoomRepository;
 import room_system.RoomService;
 import room_system.RoomServiceEngine;
 import user_system.*;
 import message_system.*;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
 public class ControllerBuilder implements IControllerBuilder {
     private final IEventController event_controller;
     private final IUserController user_controller;
     private final IMessageController message_controller;
     private final IRoomController room_controller;
 
+    // repositories used in on-demand mode, or null when everything is loaded into memory
+    private final UserRepository user_repository;
+    private final EventRepository event_repository;
+    private final MessageRepository message_repository;
+    private final RoomRepository room_repository;
+
     private final String database_filename = "jdbc:sqlite:assets/UserData.db";
 
+    // held by every call to a controller and while a save takes the changes, so saves never see half-made changes
+    private final Object lock = new Object();
+    private final WriteBehindQueue save_queue = new WriteBehindQueue(this::writeControllers);
+
     public ControllerBuilder(){
+        this(false);
+    }
+
+    // With onDemand, the services query the database when asked instead of loading every row at startup,
+    // and write each change immediately.
+    public ControllerBuilder(boolean onDemand){
 
         // create new services
-        UserService userService = new UserServiceEngine();
-        MessageService messageService = new MessageServiceEngine();
-        EventService eventService = new EventServiceEngine();
-        RoomService roomService = new RoomServiceEngine();
+        UserService userService;
+        MessageService messageService;
+        EventService eventService;
+        RoomService roomService;
+        if (onDemand) {
+            user_repository = new UserRepository(database_filename);
+            event_repository = new EventRepository(database_filename);
+            message_repository = new MessageRepository(database_filename);
+            room_repository = new RoomRepository(database_filename);
+            userService = user_repository;
+            eventService = event_repository;
+            messageService = message_repository;
+            roomService = room_repository;
+        } else {
+            user_repository = null;
+            event_repository = null;
+            message_repository = null;
+            room_repository = null;
+            userService = new UserServiceEngine();
+            messageService = new MessageServiceEngine();
+            eventService = new EventServiceEngine();
+            roomService = new RoomServiceEngine();
+        }
 
         // create new controllers
-        user_controller = new UserController(database_filename, userService);
-        event_controller = new EventController(database_filename, userService, eventService,roomService);
-        message_controller = new MessageController(database_filename, userService, eventService, messageService);
-        room_controller = new RoomController(database_filename, roomService);
+        user_controller = guarded(IUserController.class, new UserController(database_filename, userService));
+        event_controller = guarded(IEventController.class,
+                new EventController(database_filename, userService, eventService, roomService, messageService));
+        message_controller = guarded(IMessageController.class,
+                new MessageController(database_filename, userService, eventService, messageService));
+        room_controller = guarded(IRoomController.class, new RoomController(database_filename, roomService));
 
     }
 
     // Returns true iff all loaders do not run into issues.
     @Override
     public boolean loadControllers(){
+        synchronized (lock) {
+            return readControllers();
+        }
+    }
+
+    private boolean readControllers(){
         boolean status;
+        if (user_repository != null) {
+            // nothing to load; only make sure the tables and indexes exist
+            status = user_repository.prepare();
+            status = status && event_repository.prepare();
+            status = status && message_repository.prepare();
+            status = status && room_repository.prepare();
+            return status;
+        }
         status = user_controller.load();
         status = status && event_controller.load();
         status = status && message_controller.load();
@@ -43,17 +102,64 @@ public class ControllerBuilder implements IControllerBuilder {
         return status;
     }
 
+    // Saves every change now, waiting for any save already running in the background.
     // Returns true iff all savers do not run into issues.
     @Override
     public boolean saveControllers(){
-        boolean status;
-        status = user_controller.save();
-        status = status && event_controller.save();
-        status = status && message_controller.save();
-        status = status && room_controller.save();
+        return save_queue.flush();
+    }
+
+    // Saves the changes on a background thread shortly, together with any other changes made meanwhile.
+    @Override
+    public void requestSave(){
+        save_queue.changed();
+    }
+
+    // Saves every change and stops the background saves.
+    @Override
+    public boolean close(){
+        return save_queue.close();
+    }
+
+    // Returns the queue of background saves, e.g. to read how many changes are waiting.
+    public WriteBehindQueue getSaveQueue(){
+        return save_queue;
+    }
+
+    // Returns true iff all savers do not run into issues. Runs on the thread of the save queue.
+    // Only taking the changes holds the lock; the controllers can be used while they are written.
+    private boolean writeControllers(){
+        List<BooleanSupplier> writes;
+        synchronized (lock) {
+            if (user_repository != null) {
+                // the repositories have already written every change
+                return true;
+            }
+            writes = Arrays.asList(user_controller.takeChanges(), event_controller.takeChanges(),
+                    message_controller.takeChanges(), room_controller.takeChanges());
+        }
+        // every write runs, since the changes it took are no longer reported as unsaved
+        boolean status = true;
+        for (BooleanSupplier write : writes) {
+            status = write.getAsBoolean() && status;
+        }
         return status;
     }
 
+    // Wraps a controller so that each of its calls holds the lock.
+    @SuppressWarnings("unchecked")
+    private <T> T guarded(Class<T> type, T controller){
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            synchronized (lock) {
+                try {
+                    return method.invoke(controller, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
     @Override
     public IEventController getEventController() {
         return event_controller;
@@ -8,6 +8,8 @@ import user_system.IUserController;
 public interface IControllerBuilder {
     boolean loadControllers();
     boolean saveControllers();
+    void requestSave();
+    boolean close();
     IEventController getEventController();
     IUserController getUserController();
     IMessageController getMessageController();
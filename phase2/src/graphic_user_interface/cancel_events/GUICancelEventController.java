@@ -1,7 +1,7 @@
 package graphic_user_interface.cancel_events;
 
-import event_system.EventIndex;
 import event_system.EventType;
+import event_system.EventView;
 import event_system.IEventController;
 import graphic_user_interface.IControllerBuilder;
 import graphic_user_interface.ComponentController;
@@ -10,7 +10,6 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 
 import java.net.URL;
-import java.util.List;
 import java.util.ResourceBundle;
 
 public class GUICancelEventController implements Initializable, ComponentController {
@@ -34,7 +33,7 @@ public class GUICancelEventController implements Initializable, ComponentControl
         try {int cap = Integer.parseInt(capF.getText());
             if(eventController.cancelEventsBySize(cap, true)){
                 capF.clear();
-                model.saveControllers();
+                model.requestSave();
                 showAlert("Cancel successfully");
             }else {
                 showAlert("Fail to cancel");
@@ -48,7 +47,7 @@ public class GUICancelEventController implements Initializable, ComponentControl
     @FXML
     void clickName() {
         if(eventController.cancelEventByID(eventNameF.getValue())){
-            model.saveControllers();
+            model.requestSave();
             showAlert("Cancel successfully");
         }else {
             showAlert("Failed to cancel event. Please enter an existing event name");
@@ -60,7 +59,7 @@ public class GUICancelEventController implements Initializable, ComponentControl
         try{
         EventType type = EventType.valueOf(typeCB.getValue());
         if(eventController.cancelEventsByType(type)){
-            model.saveControllers();
+            model.requestSave();
             typeCB.getSelectionModel().clearSelection();
             showAlert("Cancel successfully");
         }else {
@@ -74,7 +73,7 @@ public class GUICancelEventController implements Initializable, ComponentControl
     private void clickEmpty() {
         if(eventController.cancelEventsBySize(0, false)){
             showAlert("Cancel successfully");
-            model.saveControllers();
+            model.requestSave();
         }else {
             showAlert("Fail to cancel");}
     }
@@ -99,8 +98,8 @@ public class GUICancelEventController implements Initializable, ComponentControl
         this.eventController = model.getEventController();
         eventNameF.setOnMouseClicked(event -> {
             eventNameF.getItems().clear();
-            for(List<List<String>> events: model.getEventController().getListEvents()){
-                eventNameF.getItems().add(events.get(EventIndex.EVENT_ID.getValue()).get(0));
+            for(EventView events: model.getEventController().getEventViews()){
+                eventNameF.getItems().add(events.getEventID());
             }
         });
     }
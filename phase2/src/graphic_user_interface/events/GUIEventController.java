@@ -1,7 +1,7 @@
 package graphic_user_interface.events;
 
-import event_system.EventIndex;
 import event_system.EventPrompt;
+import event_system.EventView;
 import event_system.IEventController;
 import graphic_user_interface.IControllerBuilder;
 import graphic_user_interface.ComponentController;
@@ -11,6 +11,7 @@ import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.HBox;
@@ -87,24 +88,16 @@ public class GUIEventController implements Initializable, ComponentController {
         }
     }
 
-    private void addEvent(List<List<String>> eventInfo){
-        Label eventType = setUpLabel(100, eventInfo.get(EventIndex.EVENT_TYPE.getValue()).get(0));
-        Label eventCap = setUpLabel(60,eventInfo.get(EventIndex.EVENT_CAPACITY.getValue()).get(0));
-        Label eventName = setUpLabel(100, eventInfo.get(EventIndex.EVENT_ID.getValue()).get(0));
-        Label eventTime = setUpLabel(120, eventInfo.get(EventIndex.START_TIME.getValue()).get(0) +" - "+
-                                        eventInfo.get(EventIndex.END_TIME.getValue()).get(0));
-        Label eventLocation = setUpLabel(100, eventInfo.get(EventIndex.ROOM_ID.getValue()).get(0));
-        Label eventSpeaker = setUpLabel(100, listToString(eventInfo.get(EventIndex.SPEAKER_IDS.getValue())));
+    private void addEvent(EventView eventInfo){
+        Label eventType = setUpLabel(100, eventInfo.getEventType().toString());
+        Label eventCap = setUpLabel(60, Integer.toString(eventInfo.getEventCapacity()));
+        Label eventName = setUpLabel(100, eventInfo.getEventID());
+        Label eventTime = setUpLabel(120, eventInfo.getFormattedStartTime() +" - "+
+                                        eventInfo.getFormattedEndTime());
+        Label eventLocation = setUpLabel(100, eventInfo.getRoomID());
+        Label eventSpeaker = setUpLabel(100, listToString(eventInfo.getSpeakerIDs()));
 
-        int remaining = Integer.parseInt(eventInfo.get(EventIndex.EVENT_CAPACITY.getValue()).get(0)) -
-                eventInfo.get(EventIndex.SPEAKER_IDS.getValue()).size() - eventInfo.get(EventIndex.ATTENDEE_IDS.getValue()).size();
-        if(eventInfo.get(EventIndex.SPEAKER_IDS.getValue()).contains("")){
-            remaining += 1;
-        }
-        if(eventInfo.get(EventIndex.ATTENDEE_IDS.getValue()).contains("")){
-            remaining += 1;
-        }
-        Label spotsRemaining = setUpLabel(100,Integer.toString(remaining));
+        Label spotsRemaining = setUpLabel(100,Integer.toString(eventInfo.getRemainingSeats()));
         HBox newEvent = new HBox();
         newEvent.setPrefHeight(60);
         newEvent.setMinHeight(60);
@@ -117,12 +110,23 @@ public class GUIEventController implements Initializable, ComponentController {
             button.setFont(Font.font(10));
             button.setMinWidth(55);
             newEvent.getChildren().add(button);
+            int position = eventController.getWaitlistPosition(eventInfo.getEventID());
+            if (position > 0){
+                button.setText("Leave waitlist (#" + position + ")");
+                button.setOnAction(event -> {
+                    leaveWaitlist(eventInfo.getEventID());
+                    model.requestSave();
+                    refresh();
+                });
+            }
+            else {
                 button.setText("Sign up");
                 button.setOnAction(event -> {
-                    signUp(eventInfo.get(2).get(0));
-                    model.saveControllers();
+                    signUp(eventInfo.getEventID());
+                    model.requestSave();
                     refresh();
-            });
+                });
+            }
         }
     }
 
@@ -139,7 +143,7 @@ public class GUIEventController implements Initializable, ComponentController {
             button.setOnAction(event -> {
                 cancelSignUp(model.getUserController().getCurrentUserID(), name);
                 eventArea.getChildren().remove(newEvent);
-                model.saveControllers();
+                model.requestSave();
                 refresh(); });
             newEvent.getChildren().add(button);
         }
@@ -164,7 +168,7 @@ public class GUIEventController implements Initializable, ComponentController {
                 }
             break;
             case ALL_EVENT:
-                for(List<List<String>> x :eventController.getListEvents()){
+                for(EventView x :eventController.getEventViews()){
                     addEvent(x);
                 }
                 break;
@@ -180,7 +184,7 @@ public class GUIEventController implements Initializable, ComponentController {
                 }
                 break;
             case ALL_EVENT:
-                for(List<List<String>> x : eventController.getListEvents()){
+                for(EventView x : eventController.getEventViews()){
                    addEvent(x);
                 }
                 break;
@@ -230,6 +234,45 @@ public class GUIEventController implements Initializable, ComponentController {
         node.setManaged(false);
     }
 
+    private boolean askToJoinWaitlist(String eventID){
+        int waiting = eventController.getWaitlistSize(eventID);
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setHeaderText(null);
+        alert.setContentText("The event is full, and " + waiting + (waiting == 1 ? " person is" : " people are") +
+                " waiting for a seat. Join the waitlist?");
+        return alert.showAndWait().filter(ButtonType.OK::equals).isPresent();
+    }
+
+    private void joinWaitlist(String eventID){
+        EventPrompt e = model.getEventController().joinWaitlist(eventID);
+        switch (e) {
+            case ADDED_TO_WAITLIST:
+                showAlert("You are number " + eventController.getWaitlistPosition(eventID) +
+                        " on the waitlist, and will get a message when you get a seat.");
+                break;
+            case ALREADY_ON_WAITLIST:
+                showAlert("You are already number " + eventController.getWaitlistPosition(eventID) +
+                        " on the waitlist.");
+                break;
+            case SIGNUP_SUCCESS:
+                showAlert("Signup successfully");
+                break;
+            default:
+                showAlert("The event is full.");
+        }
+    }
+
+    private void leaveWaitlist(String eventID){
+        EventPrompt e = model.getEventController().leaveWaitlist(eventID);
+        switch (e) {
+            case CANCEL_SUCCESS:
+                showAlert("Left the waitlist");
+                break;
+            default:
+                showAlert("Not on the waitlist");
+        }
+    }
+
     private void signUp(String eventID){
         EventPrompt e = model.getEventController().signUp(eventID);
         switch (e) {
@@ -237,7 +280,9 @@ public class GUIEventController implements Initializable, ComponentController {
                 showAlert("Already in the event.");
                 break;
             case EVENT_FULL:
-                showAlert("The event is full.");
+                if (askToJoinWaitlist(eventID)){
+                    joinWaitlist(eventID);
+                }
                 break;
             case EVENT_DNE:
                 showAlert("Event does not exist");
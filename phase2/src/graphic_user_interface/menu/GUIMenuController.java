@@ -1,6 +1,6 @@
 package graphic_user_interface.menu;
 
-import event_system.EventIndex;
+import event_system.EventView;
 import graphic_user_interface.ComponentType;
 import graphic_user_interface.IControllerBuilder;
 import graphic_user_interface.ComponentController;
@@ -89,7 +89,7 @@ public class GUIMenuController implements Initializable, ComponentController {
             }else {
                 showAlert("Failed to modify.");
             }
-            model.saveControllers();
+            model.requestSave();
         }catch (NumberFormatException e){
             showAlert("Invalid event capacity");
         }catch (NullPointerException e){
@@ -101,8 +101,8 @@ public class GUIMenuController implements Initializable, ComponentController {
     private void clickM(){
         mEventCapPane.toFront();
         mEventIdF.getItems().clear();
-        for(List<List<String>> events: model.getEventController().getListEvents()){
-            mEventIdF.getItems().add(events.get(EventIndex.EVENT_ID.getValue()).get(0));
+        for(EventView events: model.getEventController().getEventViews()){
+            mEventIdF.getItems().add(events.getEventID());
         }
 
     }
@@ -166,9 +166,9 @@ public class GUIMenuController implements Initializable, ComponentController {
         }
         this.model = model;
         mEventIdF.valueProperty().addListener(((observable, oldValue, newValue) -> {
-            for(List<List<String>> events: model.getEventController().getListEvents()){
-                if(events.get(EventIndex.EVENT_ID.getValue()).get(0).equals(newValue)){
-                    mRoomIdF.setText(events.get(EventIndex.ROOM_ID.getValue()).get(0));
+            for(EventView events: model.getEventController().getEventViews()){
+                if(events.getEventID().equals(newValue)){
+                    mRoomIdF.setText(events.getRoomID());
                 }
             }
             for(List<String> room: model.getRoomController().getRoomInfo()){
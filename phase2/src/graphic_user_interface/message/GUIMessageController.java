@@ -6,6 +6,7 @@ import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
@@ -13,12 +14,15 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import message_system.IMessageController;
 import message_system.MessageIndex;
+import message_system.MessagePage;
 import message_system.MessagePrompt;
 import message_system.MessageStatus;
 import org.controlsfx.control.CheckComboBox;
 import user_system.UserType;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 
@@ -51,6 +55,13 @@ public class GUIMessageController implements ComponentController {
     @FXML
     private Text message_info, message_log, archive_log;
 
+    @FXML
+    private ScrollPane message_scroll, archive_scroll;
+
+    // logs are loaded one page at a time as they are scrolled, keyed by the log with the cursor of its next page
+    private static final int LOG_PAGE_SIZE = 50;
+    private final Map<Text, String> log_cursors = new HashMap<>();
+
     /**
      * Initializes the the model within this presenter
      * @param model IModel              given model with all information to the backend
@@ -70,6 +81,16 @@ public class GUIMessageController implements ComponentController {
 
         updateAllMessagesToDelete();
 
+        message_scroll.vvalueProperty().addListener((observable, oldValue, newValue) ->
+                loadMoreLog(message_log, message_scroll, "DMS"));
+        archive_scroll.vvalueProperty().addListener((observable, oldValue, newValue) ->
+                loadMoreLog(archive_log, archive_scroll, "ARCHIVE"));
+        // a log shorter than its pane cannot be scrolled, so it is filled whenever the pane is laid out again
+        message_scroll.viewportBoundsProperty().addListener((observable, oldValue, newValue) ->
+                fillLog(message_log, message_scroll, "DMS"));
+        archive_scroll.viewportBoundsProperty().addListener((observable, oldValue, newValue) ->
+                fillLog(archive_log, archive_scroll, "ARCHIVE"));
+
         direct_message.managedProperty().bind(direct_message.visibleProperty());
         event_message.managedProperty().bind(event_message.visibleProperty());
         multi_message.managedProperty().bind(multi_message.visibleProperty());
@@ -199,7 +220,7 @@ public class GUIMessageController implements ComponentController {
      */
     @FXML
     private void toggleMessageLog() {
-        toggleLog(message_log, messageLog_btn, "DMS");
+        toggleLog(message_log, message_scroll, messageLog_btn, "DMS");
     }
 
     /**
@@ -207,7 +228,7 @@ public class GUIMessageController implements ComponentController {
      */
     @FXML
     private void toggleArchiveLog() {
-        toggleLog(archive_log, messageArchive_btn, "ARCHIVE");
+        toggleLog(archive_log, archive_scroll, messageArchive_btn, "ARCHIVE");
     }
 
     /**
@@ -486,44 +507,83 @@ public class GUIMessageController implements ComponentController {
         showMessageWarnings(output, warning);
     }
 
-    private void toggleLog(Text log, Button toggle_btn, String log_type) {
+    private void toggleLog(Text log, ScrollPane scroll, Button toggle_btn, String log_type) {
         hideAllWarnings();
         if (log.getText().length() == 0) {
-            List<List<String>> messages = null;
-            boolean status = false;
-            StringBuilder formatted_message = new StringBuilder();
+            MessagePage page = getLogPage(log_type, null);
+            String formatted_messages = formatLogPage(page, log_type);
 
-            if (log_type.equals("DMS")) {
-                messages = controller.showMessage();
-                status = true;
-            }
-            else if (log_type.equals("ARCHIVE")) {
-                messages = controller.getGivenStatusMessagesByUser(MessageStatus.ARCHIVE);
-                status = false;
+            if (formatted_messages.length() == 0) {
+                formatted_messages = "No messages :(";
             }
-
-            if (messages == null) {
-                throw new IllegalArgumentException("Given log type is invalid");
-            }
-
-            for (String message : buildMessage(messages, true, status, false)) {
-                formatted_message.append(message);
-            }
-
-            if (formatted_message.length() > 0) {
-                formatted_message.deleteCharAt(formatted_message.length() - 1);
-            }
-            else {
-                formatted_message.append("No messages :(");
-            }
-            log.setText(formatted_message.toString());
+            log.setText(formatted_messages);
+            log_cursors.put(log, page.getNextCursor());
+            fillLog(log, scroll, log_type);
 
             toggle_btn.setText("Hide Messages");
         }
         else {
             log.setText("");
+            log_cursors.remove(log);
             toggle_btn.setText("Show Messages");
         }
     }
 
+    /*
+     * Appends the next page of a shown log, once it has been scrolled to the bottom
+     */
+    private void loadMoreLog(Text log, ScrollPane scroll, String log_type) {
+        if (log_cursors.get(log) == null || scroll.getVvalue() < scroll.getVmax()) {
+            return;
+        }
+        appendLogPage(log, log_type);
+    }
+
+    /*
+     * Appends pages to a shown log until it overflows its scroll pane, so scrolling can reach the remaining pages
+     */
+    private void fillLog(Text log, ScrollPane scroll, String log_type) {
+        while (log_cursors.get(log) != null
+                && log.getLayoutBounds().getHeight() <= scroll.getViewportBounds().getHeight()) {
+            if (!appendLogPage(log, log_type)) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * Appends the next page of a shown log, returning false if the page was empty
+     */
+    private boolean appendLogPage(Text log, String log_type) {
+        MessagePage page = getLogPage(log_type, log_cursors.get(log));
+        log_cursors.put(log, page.getNextCursor());
+        if (page.getMessages().isEmpty()) {
+            return false;
+        }
+        log.setText(log.getText() + "\n" + formatLogPage(page, log_type));
+        return true;
+    }
+
+    private MessagePage getLogPage(String log_type, String cursor) {
+        if (log_type.equals("DMS")) {
+            return controller.showMessagePage(cursor, LOG_PAGE_SIZE);
+        }
+        else if (log_type.equals("ARCHIVE")) {
+            return controller.getGivenStatusMessagesByUserPage(MessageStatus.ARCHIVE, cursor, LOG_PAGE_SIZE);
+        }
+        throw new IllegalArgumentException("Given log type is invalid");
+    }
+
+    private String formatLogPage(MessagePage page, String log_type) {
+        StringBuilder formatted_message = new StringBuilder();
+        for (String message : buildMessage(page.getMessages(), true, log_type.equals("DMS"), false)) {
+            formatted_message.append(message);
+        }
+
+        if (formatted_message.length() > 0) {
+            formatted_message.deleteCharAt(formatted_message.length() - 1);
+        }
+        return formatted_message.toString();
+    }
+
 }
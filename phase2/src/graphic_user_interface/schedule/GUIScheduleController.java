@@ -18,6 +18,7 @@ import user_system.UserType;
 
 import java.io.IOException;
 import java.net.URL;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -137,7 +138,7 @@ public class GUIScheduleController implements Initializable, ComponentController
             LocalDateTime startTime = getTime(startDay, startHourCB, startMinCB);
             LocalDateTime endTime = getTime(endDay, endHourCB, endMinCB);
             createEvent(eventT, eventCapacity, eventID, startTime, endTime, roomID,speakerIDs,attendeeIDs);
-            model.saveControllers();
+            model.requestSave();
             refresh();
             cleanUp();
         }catch (IOException e1){
@@ -287,7 +288,8 @@ public class GUIScheduleController implements Initializable, ComponentController
         EventPrompt e = eventController.addEvent(eventType,eventCapacity,eventID,startTime,endTime,roomID,speakerIDs,attendeeIDs);
         switch (e){
             case DOUBLE_BOOK_ROOM:
-                showAlert("This room has already been booked for this time.");
+                showAlert("This room has already been booked for this time."
+                        + suggestSlots(eventCapacity, speakerIDs, startTime, endTime));
                 break;
             case EVENT_ALREADY_EXIST:
                 showAlert("An event with this name already exists.");
@@ -299,7 +301,7 @@ public class GUIScheduleController implements Initializable, ComponentController
                 showAlert("The number of speakers and attendees exceeds the room size");
                 break;
             case INVALID_EVENT_CAPACITY:
-                showAlert("Invalid event capacity");
+                showAlert("Invalid event capacity" + suggestSlots(eventCapacity, speakerIDs, startTime, endTime));
                 break;
             case INVALID_TIME_SELECTION:
                 showAlert("Invalid time selection");
@@ -308,7 +310,8 @@ public class GUIScheduleController implements Initializable, ComponentController
                 showAlert("Speakers do not exist.");
                 break;
             case DOUBLE_BOOK_SPEAKER:
-                showAlert("The speaker(s) have already been booked for another event at this time");
+                showAlert("The speaker(s) have already been booked for another event at this time"
+                        + suggestSlots(eventCapacity, speakerIDs, startTime, endTime));
                 break;
             case ATTENDEE_DNE:
                 showAlert("Attendees do not exist.");
@@ -330,6 +333,23 @@ public class GUIScheduleController implements Initializable, ComponentController
         }
     }
 
+    /*
+     * Lists a few rooms and times on the same day in which the event would fit, best-fitting rooms first
+     */
+    private String suggestSlots(int eventCapacity, List<String> speakerIDs, LocalDateTime startTime,
+                                LocalDateTime endTime){
+        LocalDateTime day = startTime.toLocalDate().atStartOfDay();
+        List<List<String>> slots = eventController.findAvailableSlots(eventCapacity, speakerIDs, day,
+                day.plusDays(1), Duration.between(startTime, endTime), 3);
+        StringBuilder suggestion = new StringBuilder();
+        if (!slots.isEmpty()) suggestion.append("\n\nAvailable that day:");
+        for (List<String> slot: slots){
+            suggestion.append("\n").append(slot.get(0)).append(" (").append(slot.get(1)).append(" seats) from ")
+                    .append(slot.get(2)).append(" to ").append(slot.get(3));
+        }
+        return suggestion.toString();
+    }
+
     private String getIfNotEmpty(TextField textField) throws IOException {
         String text = textField.getText();
         if(text == null || text.equals("")){
@@ -4,6 +4,7 @@ import user_system.UserType;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 
 /**
  A Controller interfaces for MessageController.
@@ -82,12 +83,31 @@ public interface IMessageController {
     // Overload for user who login
     List<List<String>> showMessage();
 
+    /**
+     * Show one page of the messages that are related to a user, in the order they were sent. Pass null as the
+     * cursor for the first page, then the cursor of the previous page until it has no next page.
+     * @param userID    the related user
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param pageSize  the largest number of messages on the page
+     * @return a page of messages that are related to the user, and the cursor of the next page
+     */
+    MessagePage showMessagePage(String userID, String cursor, int pageSize);
+    // Overload for user who login
+    MessagePage showMessagePage(String cursor, int pageSize);
+
     /**
      * Save all the messages the user has sent to persistent on disk
      * @return boolean  whether or not the saving process is successful.
      */
     boolean save();
 
+    /**
+     * Takes the changes made since the last save and returns the write that stores them, so the write can run
+     * while the controller is used again, see DatabaseReadWriter.takeChanges
+     * @return BooleanSupplier  Writes the changes, returning true if they were written successfully
+     */
+    BooleanSupplier takeChanges();
+
     /**
      * Load all the messages that the user has from disk.
      * @return boolean  whether or not the loading process is successful.
@@ -144,4 +164,24 @@ public interface IMessageController {
     List<List<String>> getGivenStatusMessagesByUser(MessageStatus status, String userID);
     // Overload
     List<List<String>> getGivenStatusMessagesByUser(MessageStatus status);
+
+    /**
+     * Get one page of all messages in the system (for ADMIN user), in the order they were sent
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param pageSize  the largest number of messages on the page
+     * @return MessagePage  a page of messages in the system, and the cursor of the next page
+     */
+    MessagePage getAllMessagesInSystemPage(String cursor, int pageSize);
+
+    /**
+     * Get one page of the messages that has a certain status for a user, in the order they were sent
+     * @param status    the status of messages
+     * @param userID    the userID related to the messages
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param pageSize  the largest number of messages on the page
+     * @return MessagePage  a page of the user's messages with the status, and the cursor of the next page
+     */
+    MessagePage getGivenStatusMessagesByUserPage(MessageStatus status, String userID, String cursor, int pageSize);
+    // Overload
+    MessagePage getGivenStatusMessagesByUserPage(MessageStatus status, String cursor, int pageSize);
 }
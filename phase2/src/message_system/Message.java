@@ -1,22 +1,21 @@
 package message_system;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 /**
- A entity class that stores the information of a message
+ A entity class that stores the delivery of a message to one receiver and its status for them. The text, sender and
+ time are kept in a MessageBody, shared with the other receivers when the message is part of a broadcast. The id
+ is kept as the two halves of its UUID rather than as a UUID object, and the receiver id is interned.
  */
 public class Message {
-    private final UUID message_id;
-    private final String info;
-    private final String sender_id;
+    private final long id_most_bits;
+    private final long id_least_bits;
+    private final MessageBody body;
     private final String receiver_id;
     private MessageStatus status;
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private final LocalDateTime time;
 
     /**
      * Creates a new instance of message.
@@ -28,13 +27,23 @@ public class Message {
      */
     public Message(UUID message_id, String info, String sender_id, String receiver_id,
                    LocalDateTime timestamp, MessageStatus status) {
-        this.message_id = message_id;
-        this.info = info;
-        this.sender_id = sender_id;
-        this.receiver_id = receiver_id;
         // From String to Date (cited source):
         // https://www.java67.com/2016/04/how-to-convert-string-to-localdatetime-in-java8-example.html
-        this.time = timestamp;
+        this(message_id, new MessageBody(null, info, sender_id, timestamp), receiver_id, status);
+    }
+
+    /**
+     * Creates the delivery of a message body to one receiver.
+     * @param message_id     UUID            the id of the message
+     * @param body          MessageBody     the text, sender and time, shared by every receiver of a broadcast
+     * @param receiver_id    String          the userid of the receiver
+     * @param status        MessageStatus   the status of the message for the receiver
+     */
+    public Message(UUID message_id, MessageBody body, String receiver_id, MessageStatus status) {
+        this.id_most_bits = message_id.getMostSignificantBits();
+        this.id_least_bits = message_id.getLeastSignificantBits();
+        this.body = body;
+        this.receiver_id = receiver_id == null ? null : receiver_id.intern();
         this.status = status;
     }
 
@@ -43,7 +52,7 @@ public class Message {
      * @return String   text information of the message
      */
     public String getInfo() {
-        return info;
+        return body.getInfo();
     }
 
     /**
@@ -51,7 +60,7 @@ public class Message {
      * @return String   userid of the message sender
      */
     public String getSenderID() {
-        return sender_id;
+        return body.getSenderID();
     }
 
     /**
@@ -83,7 +92,7 @@ public class Message {
      * @return UUID     the id of the message  
      */
     public UUID getMessageID() {
-        return message_id;
+        return new UUID(id_most_bits, id_least_bits);
     }
 
     /**
@@ -91,15 +100,23 @@ public class Message {
      * @return LocalDateTime    the time of the message
      */
     public LocalDateTime getTime() {
-        return time;
+        return body.getTime();
     }
 
     /**
-     * Return a String form of the private variable time.
-     * @return String   value of the private variable timeString
+     * Return a String form of the time of the message.
+     * @return String   the time in the format yyyy-MM-dd HH:mm:ss
      */
     public String getTimeString() {
-        return formatter.format(time);
+        return body.getTimeString();
+    }
+
+    /**
+     * Returns the text, sender and time of the message.
+     * @return MessageBody  the body, shared by every receiver if the message is part of a broadcast
+     */
+    public MessageBody getBody() {
+        return body;
     }
 
     /**
@@ -115,12 +132,24 @@ public class Message {
     public List<String> toStrings() {
         List<String> res = new ArrayList<>();
         res.add(getMessageID().toString());
-        res.add(sender_id);
+        res.add(getSenderID());
         res.add(receiver_id);
-        res.add(info);
+        res.add(getInfo());
         res.add(getTimeString());
         res.add(getStatus().toString());
         return res;
     }
 
+    /**
+     * Return the representation of Message object used to save it: the list of toStrings followed by
+     * 6: String    id of the broadcast the message is part of, or "" for a direct message
+     * @return List<String> representation of Message object with its broadcast id
+     */
+    public List<String> toRecord() {
+        List<String> res = toStrings();
+        UUID broadcastId = body.getBroadcastID();
+        res.add(broadcastId == null ? "" : broadcastId.toString());
+        return res;
+    }
+
 }
@@ -0,0 +1,75 @@
+package message_system;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ A entity class that stores the text, sender and time of a message. A broadcast stores its body once, and the
+ message delivered to each recipient refers to it; a direct message has a body of its own without a broadcast id.
+ The time is kept as seconds since the epoch, and the sender id is interned so the messages of one user share a
+ single string.
+ */
+public class MessageBody {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final UUID broadcast_id;
+    private final String info;
+    private final String sender_id;
+    // seconds since 1970-01-01T00:00, read as UTC; the time is only ever saved and shown to the second
+    private final long epoch_second;
+
+    /**
+     * Creates a new message body.
+     * @param broadcast_id   UUID            the id of the broadcast, or null for the body of a direct message
+     * @param info          String          the text info of the message
+     * @param sender_id      String          the userid of the sender
+     * @param time          LocalDateTime   the time when the message is sent
+     */
+    public MessageBody(UUID broadcast_id, String info, String sender_id, LocalDateTime time) {
+        this.broadcast_id = broadcast_id;
+        this.info = info;
+        this.sender_id = sender_id == null ? null : sender_id.intern();
+        this.epoch_second = time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the id of the broadcast this body belongs to.
+     * @return UUID     the id of the broadcast, or null if the body belongs to a direct message
+     */
+    public UUID getBroadcastID() {
+        return broadcast_id;
+    }
+
+    /**
+     * Returns the text information of the message.
+     * @return String   text information of the message
+     */
+    public String getInfo() {
+        return info;
+    }
+
+    /**
+     * Returns the userid of the message sender.
+     * @return String   userid of the message sender
+     */
+    public String getSenderID() {
+        return sender_id;
+    }
+
+    /**
+     * Returns the creation time of the message, to the second.
+     * @return LocalDateTime    the time of the message
+     */
+    public LocalDateTime getTime() {
+        return LocalDateTime.ofEpochSecond(epoch_second, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Return a String form of the time.
+     * @return String   the time in the format yyyy-MM-dd HH:mm:ss
+     */
+    public String getTimeString() {
+        return formatter.format(getTime());
+    }
+}
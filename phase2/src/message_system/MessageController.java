@@ -7,6 +7,7 @@ import user_system.UserType;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 
 /**
  A Controller class for sending, multicasting, and receiving messages
@@ -46,6 +47,15 @@ public class MessageController implements IMessageController {
         return this.message_db_read_writer.write();
     }
 
+    /**
+     * Takes the changes made since the last save and returns the write that stores them
+     * @return BooleanSupplier  Writes the changes, returning true if they were written successfully
+     */
+    @Override
+    public BooleanSupplier takeChanges() {
+        return this.message_db_read_writer.takeChanges();
+    }
+
     /**
      * Returns a list of userIDs of users the given userType can message
      *
@@ -271,6 +281,20 @@ public class MessageController implements IMessageController {
         return showMessage(user_service.getCurrentUserID());
     }
 
+    /**
+     * Get one page of the messages that this userId has association with, in the order they were sent
+     *
+     * @return MessagePage  the messages after the cursor, and the cursor of the next page
+     */
+    @Override
+    public MessagePage showMessagePage(String userId, String cursor, int pageSize) {
+        return this.message_service.showMessagePage(userId, cursor, pageSize);
+    }
+    // Overload
+    public MessagePage showMessagePage(String cursor, int pageSize) {
+        return showMessagePage(user_service.getCurrentUserID(), cursor, pageSize);
+    }
+
 
     /**
      * Get a list of messages this userId received from another userId, excluding archived messages.
@@ -280,7 +304,7 @@ public class MessageController implements IMessageController {
      */
     public List<List<String>> showReceivedMessage(String userId, String senderId) {
         List<List<String>> receivedMessage = new ArrayList<>();
-        List<List<String>> messages = this.message_service.showMessage(userId);
+        List<List<String>> messages = this.message_service.showConversation(userId, senderId);
         for (List<String> m : messages) {
             if (m.get(MessageIndex.RECEIVER.getValue()).equals(userId) &&
                     m.get(MessageIndex.SENDER.getValue()).equals(senderId) &&
@@ -332,20 +356,40 @@ public class MessageController implements IMessageController {
      * @return List<List<String>>   a list of all messages in the system
      */
     public List<List<String>> getGivenStatusMessagesByUser(MessageStatus status, String userID){
-        List<List<String>> allGivenStatusMessages = this.message_service.getGivenStatusMessages(status);
-        List<List<String>> res = new ArrayList<>();
-        for (List<String> m: allGivenStatusMessages) {
-            if (m.get(MessageIndex.SENDER.getValue()).equals(userID) || m.get(MessageIndex.RECEIVER.getValue()).equals(userID)) {
-                res.add(m);
-            }
-        }
-        return res;
+        return this.message_service.getGivenStatusMessages(status, userID);
     }
     // Overload
     public List<List<String>> getGivenStatusMessagesByUser(MessageStatus status){
         return getGivenStatusMessagesByUser(status, user_service.getCurrentUserID());
     }
 
+    /**
+     * Get one page of all messages in the system (for ADMIN user), in the order they were sent
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param pageSize  the largest number of messages on the page
+     * @return MessagePage  the messages after the cursor, and the cursor of the next page
+     */
+    public MessagePage getAllMessagesInSystemPage(String cursor, int pageSize){
+        return this.message_service.getMessageInfoPage(cursor, pageSize);
+    }
+
+    /**
+     * Get one page of the messages that has a certain status for a user, in the order they were sent
+     * @param status    the status of messages
+     * @param userID    the userID related to the messages
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param pageSize  the largest number of messages on the page
+     * @return MessagePage  the messages after the cursor, and the cursor of the next page
+     */
+    public MessagePage getGivenStatusMessagesByUserPage(MessageStatus status, String userID, String cursor,
+                                                        int pageSize){
+        return this.message_service.getGivenStatusMessagesPage(status, userID, cursor, pageSize);
+    }
+    // Overload
+    public MessagePage getGivenStatusMessagesByUserPage(MessageStatus status, String cursor, int pageSize){
+        return getGivenStatusMessagesByUserPage(status, user_service.getCurrentUserID(), cursor, pageSize);
+    }
+
     /*
      * Check whether the user is allowed to send message
      * @param receiverId    String              the id for the message receiver
@@ -3,27 +3,45 @@ package message_system;
 import database.DatabaseReadWriter;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 
 public class MessageDatabaseReadWriter extends DatabaseReadWriter {
 
     private final MessageService message_service;
     private final DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final String table_name = "Messages";
+    private final String broadcasts_table = "Broadcasts";
+    // the message column is null for the messages of a broadcast, whose text is stored once in Broadcasts
     String sql_table = "CREATE TABLE IF NOT EXISTS "+ table_name + " (\n"
             + "	messageID TEXT UNIQUE,\n"
             + "	sender TEXT,\n"
             + "	receiver TEXT,\n"
             + "	message TEXT,\n"
             + "	time TEXT,\n"
-            + "	status TEXT\n"
+            + "	status TEXT,\n"
+            + "	broadcastID TEXT\n"
             + ");";
+    private final String sql_broadcasts_table = "CREATE TABLE IF NOT EXISTS " + broadcasts_table + " (\n"
+            + "	broadcastID TEXT UNIQUE,\n"
+            + "	message TEXT\n"
+            + ");";
+    // selects the columns of Message.toRecord, with the text of broadcast messages filled in; seq is the rowid
+    final String sql_select = "SELECT Messages.rowid AS seq, messageID, sender, receiver, " +
+            "COALESCE(Messages.message, Broadcasts.message) AS message, time, status, " +
+            "Messages.broadcastID AS broadcastID FROM Messages LEFT JOIN Broadcasts " +
+            "ON Broadcasts.broadcastID = Messages.broadcastID";
 
     /**
      * Initialize MessageReadWriter
@@ -36,45 +54,100 @@ public class MessageDatabaseReadWriter extends DatabaseReadWriter {
     }
 
     /**
-     * Read the list of events from the database table "Messages" (table_name)
+     * Creates the Messages and Broadcasts tables if they do not exist, with indexes for looking messages up by
+     * sender, receiver, status and broadcast. Since SQLite orders the rows of an index by rowid after its columns,
+     * the single-user and user-and-status indexes also let a page of a user's history start at a cursor without
+     * scanning earlier rows.
+     * @return true if the tables are ready to be queried
+     */
+    boolean prepareSchema(){
+        if (!prepareTables()) return false;
+        return runInTransaction(connection -> {
+            String[][] indexes = {
+                    {"idx_Messages_sender", "sender, receiver"},
+                    {"idx_Messages_receiver", "receiver"},
+                    {"idx_Messages_status", "status"},
+                    {"idx_Messages_outbox", "sender"},
+                    {"idx_Messages_sender_status", "sender, status"},
+                    {"idx_Messages_receiver_status", "receiver, status"}};
+            try (Statement action = connection.createStatement()) {
+                for (String[] index : indexes) {
+                    action.execute("CREATE INDEX IF NOT EXISTS " + index[0] + " ON " + table_name + "(" + index[1] +
+                            ")");
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates and migrates the Messages and Broadcasts tables through the schema manager, which only checks the
+     * database once per run. Version 1 is the Messages table; version 2 stores the text of broadcasts once.
+     * @return true if the tables are ready to be queried
+     */
+    private boolean prepareTables(){
+        return ensureSchema(table_name, connection -> {
+            try (Statement action = connection.createStatement()) {
+                action.execute(sql_table);
+            }
+        }, this::addBroadcasts);
+    }
+
+    /**
+     * Creates the Broadcasts table if it does not exist, and adds the broadcastID column to a Messages table from
+     * before broadcasts were stored once
+     * @param  connection  Connection    The connection of the current transaction
+     * @throws SQLException if a table cannot be created or migrated
+     */
+    private void addBroadcasts(Connection connection) throws SQLException {
+        boolean hasBroadcastColumn;
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (Statement action = connection.createStatement()) {
+            action.execute(sql_broadcasts_table);
+            try (ResultSet columns = metaData.getColumns(null, null, table_name, "broadcastID")) {
+                hasBroadcastColumn = columns.next();
+            }
+            if (!hasBroadcastColumn) {
+                action.execute("ALTER TABLE " + table_name + " ADD COLUMN broadcastID TEXT");
+            }
+            // finds the remaining messages of a broadcast when one is deleted
+            action.execute("CREATE INDEX IF NOT EXISTS idx_Messages_broadcast ON " + table_name + "(broadcastID)");
+        }
+    }
+
+    /**
+     * Read the list of messages from the database table "Messages" (table_name), with the text of broadcast
+     * messages from "Broadcasts". The rows are decoded in parallel, see mapRowsInParallel, and added to the
+     * message service together.
      * @return true if the messages was successfully read in.
      */
     public boolean read(){
+        if (!prepareTables()) return false;
         Connection connection = makeConnection();
-        PreparedStatement entry = null;
-        ResultSet resultEntry = null;
-
-        if (!tableExists(table_name)) createNewTable(sql_table);
-
-        String sql = "SELECT * FROM Messages";
-
-        try {
-            entry = connection.prepareStatement(sql);   //DB connection to be queried
-            resultEntry = entry.executeQuery();     //executes the SQL query
-            while (resultEntry.next()) {    //iterating through all rows of the table
-                UUID messageId = UUID.fromString(resultEntry.getString("messageID"));
-                String senderId = resultEntry.getString("sender");
-                String receiverId = resultEntry.getString("receiver");
-                String info = resultEntry.getString("message");
-                LocalDateTime time = LocalDateTime.parse(resultEntry.getString("time"),format);
-                MessageStatus messageStatus = MessageStatus.valueOf(resultEntry.getString("status"));
-
-                //     public void addMessage(UUID messageId, String info, String senderId, String receiverId, LocalDateTime time, MessageStatus status) {
-                try{
-                    message_service.addMessage(messageId, info, senderId, receiverId, time, messageStatus);
-                } catch (Exception e){
-                    System.out.println("Incorrect format of row" + resultEntry.getRow());
-                }
+
+        try (PreparedStatement entry = connection.prepareStatement(sql_select + " ORDER BY Messages.rowid");
+             ResultSet resultEntry = entry.executeQuery()) {
+            // columns of sql_select: seq, messageID, sender, receiver, message, time, status, broadcastID
+            List<Message> messages = mapRowsInParallel(resultEntry, columns -> {
+                String broadcastId = columns[7];
+                MessageBody body = new MessageBody(broadcastId == null ? null : UUID.fromString(broadcastId),
+                        columns[4], columns[2], LocalDateTime.parse(columns[5], format));
+                return new Message(UUID.fromString(columns[1]), body, columns[3], MessageStatus.valueOf(columns[6]));
+            });
+            message_service.addMessages(messages);
+
+            // messages loaded from the table are already saved
+            List<UUID> readIds = new ArrayList<>(messages.size());
+            for (Message message : messages) {
+                readIds.add(message.getMessageID());
             }
+            message_service.markMessagesSaved(readIds);
+            setSynced(true);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         } finally {
             try {
-                assert resultEntry != null;     //closes all connections and queries before returning boolean
-                resultEntry.close();
-                entry.close();
                 connection.close();
             } catch (SQLException e) {
                 System.out.println(e.toString());
@@ -84,42 +157,107 @@ public class MessageDatabaseReadWriter extends DatabaseReadWriter {
     }
 
     /**
-     * Insert the information of messages to a database table "Messages" (table_name)
+     * Insert the information of messages to a database table "Messages" (table_name), storing the text of each
+     * broadcast once in "Broadcasts". The first write replaces both tables; once they match the message service,
+     * only the messages changed or deleted since the last save are written.
      * @return true if the messages were successfully written
      */
-    public boolean write(){
-        if (!tableExists(table_name)) createNewTable(sql_table);
-        deleteAllData(table_name);
+    @Override
+    public synchronized boolean write(){
+        return takeChanges().getAsBoolean();
+    }
 
-        String sql = "INSERT INTO Messages(messageID,sender,receiver,message, time, status) VALUES(?,?,?,?,?,?) ";
-        Connection connection = makeConnection();
+    /**
+     * Takes the messages changed or deleted since the last save, or every message if the tables do not match the
+     * message service, and marks them saved, returning the write that stores them, see
+     * DatabaseReadWriter.takeChanges
+     * @return BooleanSupplier  The write, returning true if the messages were successfully written
+     */
+    @Override
+    public BooleanSupplier takeChanges(){
+        // an upsert updates a changed row in place, so messages keep the order they are read back in
+        String sql = "INSERT INTO Messages(messageID,sender,receiver,message,time,status,broadcastID) " +
+                "VALUES(?,?,?,?,?,?,?) ON CONFLICT(messageID) DO UPDATE SET sender=excluded.sender, " +
+                "receiver=excluded.receiver, message=excluded.message, time=excluded.time, status=excluded.status, " +
+                "broadcastID=excluded.broadcastID";
+        RowWriter<List<String>> messageWriter = (entry, message) -> {
+            String broadcastId = message.get(MessageIndex.BROADCAST_ID.getValue());
+            boolean broadcast = !broadcastId.isEmpty();
+            entry.setString(1, message.get(MessageIndex.MESSAGE_ID.getValue())); // messageId
+            entry.setString(2, message.get(MessageIndex.SENDER.getValue())); //senderId
+            entry.setString(3, message.get(MessageIndex.RECEIVER.getValue())); // receiverId
+            entry.setString(4, broadcast ? null : message.get(MessageIndex.MESSAGE_INFO.getValue())); // messageInfo
+            entry.setString(5, message.get(MessageIndex.TIME.getValue())); // messageTime
+            entry.setString(6, message.get(MessageIndex.STATUS.getValue())); // messageStatus
+            entry.setString(7, broadcast ? broadcastId : null); // broadcastId
+        };
 
-        try {
-            for (List<String> message: message_service.getMessageInfo()){
-                PreparedStatement entry;    //Prepared Statement object for non static entries
-
-                entry = connection.prepareStatement(sql);   // creates the preparedStatement Object
-                entry.setString(1, message.get(MessageIndex.MESSAGE_ID.getValue())); // messageId
-                entry.setString(2, message.get(MessageIndex.SENDER.getValue())); //senderId
-                entry.setString(3, message.get(MessageIndex.RECEIVER.getValue())); // receiverId
-                entry.setString(4, message.get(MessageIndex.MESSAGE_INFO.getValue())); // messageInfo
-                entry.setString(5, message.get(MessageIndex.TIME.getValue())); // messageTime
-                entry.setString(6, message.get(MessageIndex.STATUS.getValue())); // messageStatus
-                entry.execute();    //preparedStatement is entered into table, executes the query
-            }
-            return true;
-        } catch (SQLException e) {
-            System.out.println(e.toString());
-            return false;
-        } finally {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                System.out.println(e.toString());
-            }
+        boolean fullWrite = !isSynced();
+        List<UUID> deletedIds = message_service.getDeletedMessageIDs();
+        List<List<String>> messages = fullWrite ? message_service.getMessageRecords()
+                : message_service.getChangedMessages();
+        List<UUID> savedIds = new ArrayList<>(deletedIds);
+        for (List<String> message : messages) {
+            savedIds.add(UUID.fromString(message.get(MessageIndex.MESSAGE_ID.getValue())));
         }
-    }
+        message_service.markMessagesSaved(savedIds);
 
+        return () -> {
+            boolean written = prepareTables() && runInTransaction(connection -> {
+                try (Statement action = connection.createStatement()) {
+                    if (fullWrite) {
+                        action.executeUpdate("DELETE FROM " + table_name);
+                        action.executeUpdate("DELETE FROM " + broadcasts_table);
+                    }
+                }
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM " + table_name + " WHERE messageID = ?")) {
+                    executeBatches(delete, deletedIds, (statement, messageId) ->
+                            statement.setString(1, messageId.toString()));
+                }
+                try (PreparedStatement entry = connection.prepareStatement(
+                        "INSERT OR IGNORE INTO " + broadcasts_table + "(broadcastID, message) VALUES(?,?)")) {
+                    executeBatches(entry, broadcastBodies(messages), (statement, body) -> {
+                        statement.setString(1, body.get(0));
+                        statement.setString(2, body.get(1));
+                    });
+                }
+                try (PreparedStatement entry = connection.prepareStatement(sql)) {
+                    executeBatches(entry, messages, messageWriter);
+                }
+                if (!fullWrite && !deletedIds.isEmpty()) {
+                    try (Statement action = connection.createStatement()) {
+                        // a broadcast is kept until the message of its last receiver is deleted
+                        action.executeUpdate("DELETE FROM " + broadcasts_table + " WHERE NOT EXISTS (SELECT 1 FROM " +
+                                table_name + " WHERE Messages.broadcastID = Broadcasts.broadcastID)");
+                    }
+                }
+            });
+            setSynced(written);
+            return written;
+        };
+    }
 
+    /**
+     * Collects the text of every broadcast among the messages, once per broadcast
+     * @param  messages  List<List<String>>  Messages in the representation of Message.toRecord
+     * @return           List<List<String>>  Pairs of [broadcast ID, text]
+     */
+    private List<List<String>> broadcastBodies(List<List<String>> messages) {
+        Map<String, String> bodies = new LinkedHashMap<>();
+        for (List<String> message : messages) {
+            String broadcastId = message.get(MessageIndex.BROADCAST_ID.getValue());
+            if (!broadcastId.isEmpty()) {
+                bodies.putIfAbsent(broadcastId, message.get(MessageIndex.MESSAGE_INFO.getValue()));
+            }
+        }
+        List<List<String>> res = new ArrayList<>(bodies.size());
+        for (Map.Entry<String, String> body : bodies.entrySet()) {
+            List<String> pair = new ArrayList<>(2);
+            pair.add(body.getKey());
+            pair.add(body.getValue());
+            res.add(pair);
+        }
+        return res;
+    }
 }
-
@@ -1,7 +1,8 @@
 package message_system;
 
 /**
- * Enum Class for the indexes of message representation
+ * Enum Class for the indexes of message representation. BROADCAST_ID is only in the representation used to save
+ * messages, see Message.toRecord.
  */
 public enum MessageIndex {
     MESSAGE_ID(0),
@@ -9,7 +10,8 @@ public enum MessageIndex {
     RECEIVER(2),
     MESSAGE_INFO(3),
     TIME(4),
-    STATUS(5);
+    STATUS(5),
+    BROADCAST_ID(6);
 
     int value;
 
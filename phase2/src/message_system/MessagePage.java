@@ -0,0 +1,77 @@
+package message_system;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a message history, in the order the messages were sent, together with the cursor of the next page.
+ * A cursor marks the position of the last message of a page; the next page starts right after it, so pages stay
+ * consistent while new messages are sent.
+ */
+public class MessagePage {
+    private final List<List<String>> messages;
+    private final String next_cursor;
+
+    /**
+     * Creates a page of messages
+     * @param messages      List<List<String>>  the messages of the page, in string representation
+     * @param nextCursor    String              the cursor of the next page, or null if this is the last page
+     */
+    MessagePage(List<List<String>> messages, String nextCursor) {
+        this.messages = Collections.unmodifiableList(messages);
+        this.next_cursor = nextCursor;
+    }
+
+    /**
+     * Returns the messages of this page
+     * @return List<List<String>>   the messages in string representation, oldest first
+     */
+    public List<List<String>> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Returns the cursor to pass to get the page after this one
+     * @return String   the cursor of the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return next_cursor;
+    }
+
+    /**
+     * Checks if there are messages after this page
+     * @return boolean  True if there is a next page
+     */
+    public boolean hasNextPage() {
+        return next_cursor != null;
+    }
+
+    /*
+     * Helper function:
+     * Convert a cursor to the position of the message it marks, or -1 for the first page (a null cursor)
+     */
+    static long toPosition(String cursor) {
+        if (cursor == null) return -1;
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid message page cursor: " + cursor);
+        }
+    }
+
+    /*
+     * Helper function:
+     * Convert the position of the last message of a page to the cursor of the next page
+     */
+    static String toCursor(long position) {
+        return Long.toString(position);
+    }
+
+    /*
+     * Helper function:
+     * Check that a page size is positive
+     */
+    static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive");
+    }
+}
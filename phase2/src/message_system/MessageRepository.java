@@ -0,0 +1,445 @@
+package message_system;
+
+import database.BoundedCache;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A MessageService that answers every call with indexed queries on the Messages table instead of loading the
+ * whole message history at startup. Changes are written to the database immediately, and recently used messages
+ * are kept in a bounded cache.
+ */
+public class MessageRepository implements MessageService {
+
+    /**
+     * Number of messages kept in the cache by default
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private final MessageDatabaseReadWriter database;
+    private final BoundedCache<UUID, Message> message_cache;
+    private final DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final String insert_sql = "INSERT OR IGNORE INTO Messages(messageID,sender,receiver,message,time,status," +
+            "broadcastID) VALUES(?,?,?,?,?,?,?)";
+    private final String insert_broadcast_sql = "INSERT OR IGNORE INTO Broadcasts(broadcastID,message) VALUES(?,?)";
+
+    /**
+     * Creates a repository over the Messages table of a database, with a cache of DEFAULT_CACHE_SIZE messages
+     * @param address  String  The address of the database.
+     */
+    public MessageRepository(String address) {
+        this(address, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a repository over the Messages table of a database
+     * @param address    String  The address of the database.
+     * @param cacheSize  int     The number of messages kept in the cache
+     */
+    public MessageRepository(String address, int cacheSize) {
+        database = new MessageDatabaseReadWriter(this, address);
+        message_cache = new BoundedCache<>(cacheSize);
+    }
+
+    /**
+     * Creates, migrates and indexes the Messages and Broadcasts tables; call once before using the repository
+     * @return boolean  True if the tables are ready to be queried
+     */
+    public boolean prepare() {
+        return database.prepareSchema();
+    }
+
+    /**
+     * Add existing message into the system. A message whose ID is already stored is ignored.
+     *
+     * @param messageId  UUID            the id of the message
+     * @param info       String          the information of the message
+     * @param senderId   String          the id name of the sender
+     * @param receiverId String          the id name of the receiver
+     * @param time       LocalDateTime   the time recorded on the external file
+     * @param status     MessageStatus   the status of the message
+     */
+    public void addMessage(UUID messageId, String info, String senderId, String receiverId, LocalDateTime time,
+                           MessageStatus status) {
+        insert(new Message(messageId, info, senderId, receiverId, time, status));
+    }
+
+    /**
+     * Add an existing message that is part of a broadcast into the system. A message whose ID is already stored is
+     * ignored, and so is the information of a broadcast already stored.
+     *
+     * @param messageId   UUID            the id of the message
+     * @param broadcastId UUID            the id of the broadcast, or null for a direct message
+     * @param info        String          the information of the message
+     * @param senderId    String          the id name of the sender
+     * @param receiverId  String          the id name of the receiver
+     * @param time        LocalDateTime   the time recorded on the external file
+     * @param status      MessageStatus   the status of the message
+     */
+    public void addMessage(UUID messageId, UUID broadcastId, String info, String senderId, String receiverId,
+                           LocalDateTime time, MessageStatus status) {
+        if (broadcastId == null) {
+            addMessage(messageId, info, senderId, receiverId, time, status);
+        } else {
+            MessageBody body = new MessageBody(broadcastId, info, senderId, time);
+            insertAll(Collections.singletonList(new Message(messageId, body, receiverId, status)));
+        }
+    }
+
+    /**
+     * Send a message
+     *
+     * @param info       String         the information of the message
+     * @param senderId   String         the id name of the sender
+     * @param receiverId String         the id name of the receiver
+     */
+    public void addMessage(String info, String senderId, String receiverId) {
+        insert(new Message(UUID.randomUUID(), info, senderId, receiverId, LocalDateTime.now(), MessageStatus.UNREAD));
+    }
+
+    /**
+     * Send multiple messages to a number of people in the system as one broadcast, in one transaction: the
+     * information is stored once in the Broadcasts table, and each receiver gets a row with its own id and status
+     *
+     * @param info        String      the information of the message
+     * @param senderId    String      the id name of the sender
+     * @param receiverIds String      a list of id name of the receivers
+     */
+    public void multiMessage(String info, String senderId, List<String> receiverIds) {
+        if (receiverIds.isEmpty()) return;
+        MessageBody body = new MessageBody(UUID.randomUUID(), info, senderId, LocalDateTime.now());
+        List<Message> messages = new ArrayList<>();
+        for (String receiver : receiverIds) {
+            messages.add(new Message(UUID.randomUUID(), body, receiver, MessageStatus.UNREAD));
+        }
+        insertAll(messages);
+    }
+
+    /**
+     * Add existing messages into the system in one transaction. A message whose ID is already stored is ignored,
+     * and so is the information of a broadcast already stored.
+     *
+     * @param messages  List<Message>   the messages to add, in the order they were sent
+     */
+    public void addMessages(List<Message> messages) {
+        insertAll(messages);
+    }
+
+    /**
+     * Get a list of messages information that this userId has association with (a history log of messages)
+     * @param  userId   String    the related userId whose messages are shown
+     * @return List<List<String>> a list of messages with its information such as the id of the sender, time, etc.
+     */
+    public List<List<String>> showMessage(String userId) {
+        return database.queryRows(database.sql_select + " WHERE sender = ? OR receiver = ? ORDER BY Messages.rowid",
+                this::toStrings, userId, userId);
+    }
+
+    /**
+     * Get one page of the messages this userId has association with, in the order they were sent
+     * @param userId    String  the related userId whose messages are shown
+     * @param cursor    String  the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int     the largest number of messages on the page
+     * @return MessagePage      the messages after the cursor, and the cursor of the next page
+     */
+    public MessagePage showMessagePage(String userId, String cursor, int pageSize) {
+        MessagePage.checkPageSize(pageSize);
+        long last = MessagePage.toPosition(cursor);
+        return page("Messages.rowid IN (SELECT rowid FROM Messages WHERE sender = ? AND rowid > ? ORDER BY rowid " +
+                "LIMIT ?) OR Messages.rowid IN (SELECT rowid FROM Messages WHERE receiver = ? AND rowid > ? " +
+                "ORDER BY rowid LIMIT ?)",
+                pageSize, userId, last, pageSize + 1, userId, last, pageSize + 1);
+    }
+
+    /**
+     * Get a list of messages information that has the status
+     * @param status    MessageStatus   the status of the message
+     * @return List<List<String>> a list of messages with its information such as the id of the sender, time, etc.
+     */
+    public List<List<String>> getGivenStatusMessages(MessageStatus status) {
+        return database.queryRows(database.sql_select + " WHERE status = ? ORDER BY Messages.rowid",
+                this::toStrings, status.toString());
+    }
+
+    /**
+     * Get a list of messages information that has the status and that this userId has association with
+     * @param status    MessageStatus   the status of the message
+     * @param userId    String          the related userId whose messages are shown
+     * @return List<List<String>> a list of messages with its information such as the id of the sender, time, etc.
+     */
+    public List<List<String>> getGivenStatusMessages(MessageStatus status, String userId) {
+        return database.queryRows(database.sql_select + " WHERE (sender = ? OR receiver = ?) AND status = ? " +
+                "ORDER BY Messages.rowid", this::toStrings, userId, userId, status.toString());
+    }
+
+    /**
+     * Get one page of the messages that has the status and that this userId has association with, in the order
+     * they were sent
+     * @param status    MessageStatus   the status of the message
+     * @param userId    String          the related userId whose messages are shown
+     * @param cursor    String          the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int             the largest number of messages on the page
+     * @return MessagePage              the messages after the cursor, and the cursor of the next page
+     */
+    public MessagePage getGivenStatusMessagesPage(MessageStatus status, String userId, String cursor,
+                                                  int pageSize) {
+        MessagePage.checkPageSize(pageSize);
+        long last = MessagePage.toPosition(cursor);
+        return page("Messages.rowid IN (SELECT rowid FROM Messages WHERE sender = ? AND status = ? AND rowid > ? " +
+                "ORDER BY rowid LIMIT ?) OR Messages.rowid IN (SELECT rowid FROM Messages WHERE receiver = ? AND " +
+                "status = ? AND rowid > ? ORDER BY rowid LIMIT ?)", pageSize, userId, status.toString(), last,
+                pageSize + 1, userId, status.toString(), last, pageSize + 1);
+    }
+
+    /**
+     * Return the conversation between user1 and user2
+     * @param userId1   String  the username of user1
+     * @param userId2   String  the username of user2
+     * @return List<String> a list of messages between two users, user1 and user2, with its information
+     * such as the id of the sender and receiver, content, and time.
+     */
+    public List<List<String>> showConversation(String userId1, String userId2) {
+        return database.queryRows(database.sql_select + " WHERE (sender = ? AND receiver = ?) OR " +
+                "(sender = ? AND receiver = ?) ORDER BY Messages.rowid", this::toStrings, userId1, userId2, userId2,
+                userId1);
+    }
+
+    /**
+     * Check if this message exists in the system with its id.
+     *
+     * @param messageId     UUID        the Id of the message
+     * @return              boolean     True if this message id exists, else False
+     */
+    public boolean messageIdExists(UUID messageId) {
+        return searchMessage(messageId) != null;
+    }
+
+    /**
+     * Update the status of a message.
+     *
+     * @param messageId     UUID            the Id of the message
+     * @param newStatus     MessageStatus   the new status of the message, could be UNREAD, READ, or ARCHIVE
+     */
+    public void changeMessageStatus(UUID messageId, MessageStatus newStatus) {
+        if (database.updateRows("UPDATE Messages SET status = ? WHERE messageID = ?", newStatus.toString(),
+                messageId.toString()) > 0) {
+            Message cached = message_cache.get(messageId);
+            if (cached != null) cached.setStatus(newStatus);
+        }
+    }
+
+    /**
+     * Delete a message, and the information of its broadcast once no other receiver has a message of it
+     * @param messageId     UUID            the Id of the message
+     */
+    public void deleteMessage(UUID messageId) {
+        Message m = searchMessage(messageId);
+        if (m == null) return;
+        UUID broadcastId = m.getBody().getBroadcastID();
+        boolean deleted = database.runInTransaction(connection -> {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM Messages WHERE messageID = ?")) {
+                delete.setString(1, messageId.toString());
+                delete.executeUpdate();
+            }
+            if (broadcastId != null) {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM Broadcasts WHERE " +
+                        "broadcastID = ? AND NOT EXISTS (SELECT 1 FROM Messages WHERE broadcastID = ?)")) {
+                    delete.setString(1, broadcastId.toString());
+                    delete.setString(2, broadcastId.toString());
+                    delete.executeUpdate();
+                }
+            }
+        });
+        if (deleted) {
+            message_cache.remove(messageId);
+        }
+    }
+
+    /**
+     * Get a list of all messages (in list of string representation)
+     * @return List<List<String>>   a list of messages in string representation
+     */
+    public List<List<String>> getMessageInfo() {
+        return database.queryRows(database.sql_select + " ORDER BY Messages.rowid", this::toStrings);
+    }
+
+    /**
+     * Get every message in the representation used to save it, see Message.toRecord
+     * @return List<List<String>>   all messages with their broadcast ids, in the order they were sent
+     */
+    public List<List<String>> getMessageRecords() {
+        return database.queryRows(database.sql_select + " ORDER BY Messages.rowid", row -> {
+            List<String> res = toStrings(row);
+            String broadcastId = row.getString("broadcastID");
+            res.add(broadcastId == null ? "" : broadcastId);
+            return res;
+        });
+    }
+
+    /**
+     * Get one page of all messages, in the order they were sent
+     * @param cursor    String  the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int     the largest number of messages on the page
+     * @return MessagePage      the messages after the cursor, and the cursor of the next page
+     */
+    public MessagePage getMessageInfoPage(String cursor, int pageSize) {
+        MessagePage.checkPageSize(pageSize);
+        return page("Messages.rowid > ?", pageSize, MessagePage.toPosition(cursor));
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved messages
+     * @return List<List<String>>   an empty list
+     */
+    public List<List<String>> getChangedMessages() {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved deletions
+     * @return List<UUID>   an empty list
+     */
+    public List<UUID> getDeletedMessageIDs() {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Does nothing, since changes are written immediately
+     * @param messageIds    List<UUID>      the IDs of the saved messages
+     */
+    public void markMessagesSaved(List<UUID> messageIds) {
+    }
+
+    /*
+     * Helper function:
+     * Return the message with the given ID from the cache, or from the database on a cache miss, or null
+     */
+    private Message searchMessage(UUID messageId) {
+        Message m = message_cache.get(messageId);
+        if (m != null) return m;
+        List<Message> messages = database.queryRows(database.sql_select + " WHERE messageID = ?", this::toMessage,
+                messageId.toString());
+        if (messages.isEmpty()) return null;
+        message_cache.put(messageId, messages.get(0));
+        return messages.get(0);
+    }
+
+    /*
+     * Helper function:
+     * Return up to pageSize messages matching the filter, in rowid order. Each subquery of the filter seeks its
+     * index to the cursor and reads at most one row more than the page, so a page costs the same wherever it is.
+     */
+    private MessagePage page(String filter, int pageSize, Object... parameters) {
+        Object[] bound = Arrays.copyOf(parameters, parameters.length + 1);
+        bound[parameters.length] = pageSize + 1;
+        List<Long> positions = new ArrayList<>();
+        List<List<String>> rows = database.queryRows(database.sql_select + " WHERE " + filter +
+                " ORDER BY Messages.rowid LIMIT ?", row -> {
+                    positions.add(row.getLong("seq"));
+                    return toStrings(row);
+                }, bound);
+        if (rows.size() <= pageSize) return new MessagePage(rows, null);
+        rows.remove(pageSize);
+        return new MessagePage(rows, MessagePage.toCursor(positions.get(pageSize - 1)));
+    }
+
+    /*
+     * Helper function:
+     * Store a new direct message and cache it
+     */
+    private void insert(Message m) {
+        if (database.updateRows(insert_sql, m.getMessageID().toString(), m.getSenderID(), m.getReceiverID(),
+                m.getInfo(), m.getTimeString(), m.getStatus().toString(), null) == 1) {
+            message_cache.put(m.getMessageID(), m);
+        }
+    }
+
+    /*
+     * Helper function:
+     * Store the information of each broadcast once and the messages in one transaction, and cache the messages
+     */
+    private void insertAll(List<Message> messages) {
+        Map<UUID, MessageBody> bodies = new LinkedHashMap<>();
+        for (Message m : messages) {
+            UUID broadcastId = m.getBody().getBroadcastID();
+            if (broadcastId != null) bodies.putIfAbsent(broadcastId, m.getBody());
+        }
+        boolean written = database.runInTransaction(connection -> {
+            try (PreparedStatement entry = connection.prepareStatement(insert_broadcast_sql)) {
+                for (MessageBody body : bodies.values()) {
+                    entry.setString(1, body.getBroadcastID().toString());
+                    entry.setString(2, body.getInfo());
+                    entry.addBatch();
+                }
+                entry.executeBatch();
+            }
+            try (PreparedStatement entry = connection.prepareStatement(insert_sql)) {
+                for (Message m : messages) {
+                    bind(entry, m);
+                    entry.addBatch();
+                }
+                entry.executeBatch();
+            }
+        });
+        if (written) {
+            for (Message m : messages) {
+                message_cache.put(m.getMessageID(), m);
+            }
+        }
+    }
+
+    /*
+     * Helper function:
+     * Bind a message to the parameters of insert_sql, leaving the information of a broadcast to the Broadcasts table
+     */
+    private void bind(PreparedStatement entry, Message m) throws SQLException {
+        UUID broadcastId = m.getBody().getBroadcastID();
+        entry.setString(1, m.getMessageID().toString());
+        entry.setString(2, m.getSenderID());
+        entry.setString(3, m.getReceiverID());
+        entry.setString(4, broadcastId == null ? m.getInfo() : null);
+        entry.setString(5, m.getTimeString());
+        entry.setString(6, m.getStatus().toString());
+        entry.setString(7, broadcastId == null ? null : broadcastId.toString());
+    }
+
+    /*
+     * Helper function:
+     * Convert a row of database.sql_select to a message
+     */
+    private Message toMessage(ResultSet row) throws SQLException {
+        String broadcastId = row.getString("broadcastID");
+        MessageBody body = new MessageBody(broadcastId == null ? null : UUID.fromString(broadcastId),
+                row.getString("message"), row.getString("sender"),
+                LocalDateTime.parse(row.getString("time"), format));
+        return new Message(UUID.fromString(row.getString("messageID")), body, row.getString("receiver"),
+                MessageStatus.valueOf(row.getString("status")));
+    }
+
+    /*
+     * Helper function:
+     * Convert a row of database.sql_select to the list of strings representation of Message.toStrings
+     */
+    private List<String> toStrings(ResultSet row) throws SQLException {
+        List<String> res = new ArrayList<>(6);
+        res.add(row.getString("messageID"));
+        res.add(row.getString("sender"));
+        res.add(row.getString("receiver"));
+        res.add(row.getString("message"));
+        res.add(row.getString("time"));
+        res.add(row.getString("status"));
+        return res;
+    }
+}
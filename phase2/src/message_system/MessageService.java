@@ -14,7 +14,8 @@ public interface MessageService {
     void addMessage(String info, String senderId, String receiverId);
 
     /**
-     * Send multiple messages to a number of people in the system
+     * Send multiple messages to a number of people in the system, as one broadcast: the information is stored
+     * once, and each receiver gets a message of their own, with its own id and status
      * @param info          String      the information of the message
      * @param senderId      String      the id name of the sender
      * @param receiverIds   String      a list of id name of the receivers
@@ -32,6 +33,27 @@ public interface MessageService {
      */
     void addMessage(UUID messageId, String info, String senderId, String receiverId, LocalDateTime time, MessageStatus status);
 
+    /**
+     * Add an existing message that is part of a broadcast into the system from the file; the messages of the same
+     * broadcast share the information of the first one added
+     * @param messageId     UUID            the id of the message
+     * @param broadcastId   UUID            the id of the broadcast, or null for a direct message
+     * @param info          String          the information of the message
+     * @param senderId      String          the id name of the sender
+     * @param receiverId    String          the id name of the receiver
+     * @param time          LocalDateTime   the time recorded on the external file
+     * @param status        MessageStatus   the status of the message
+     */
+    void addMessage(UUID messageId, UUID broadcastId, String info, String senderId, String receiverId,
+                    LocalDateTime time, MessageStatus status);
+
+    /**
+     * Add existing messages into the system from the file in one call, as if each was added with addMessage; the
+     * messages of the same broadcast share the body of the first one added
+     * @param messages      List<Message>   the messages read from the file, in the order they were sent
+     */
+    void addMessages(List<Message> messages);
+
     /**
      * Get a list of messages information that this userId has association with (a history log of messages)
      * @param userId  the related userId whose messages are shown
@@ -39,6 +61,15 @@ public interface MessageService {
      */
     List<List<String>> showMessage(String userId);
 
+    /**
+     * Get one page of the messages this userId has association with, in the order they were sent
+     * @param userId    String  the related userId whose messages are shown
+     * @param cursor    String  the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int     the largest number of messages on the page
+     * @return MessagePage      the messages after the cursor, and the cursor of the next page
+     */
+    MessagePage showMessagePage(String userId, String cursor, int pageSize);
+
     /**
      * Return the conversation between user1 and user2
      * @param userId1   String  the username of user1
@@ -62,6 +93,25 @@ public interface MessageService {
      */
     List<List<String>> getGivenStatusMessages(MessageStatus status);
 
+    /**
+     * Get a list of messages information that has the status and that this userId has association with
+     * @param status    MessageStatus   the status of the message
+     * @param userId    String          the related userId whose messages are shown
+     * @return List<List<String>> a list of messages with its information such as the id of the sender, time, etc.
+     */
+    List<List<String>> getGivenStatusMessages(MessageStatus status, String userId);
+
+    /**
+     * Get one page of the messages that has the status and that this userId has association with, in the order
+     * they were sent
+     * @param status    MessageStatus   the status of the message
+     * @param userId    String          the related userId whose messages are shown
+     * @param cursor    String          the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int             the largest number of messages on the page
+     * @return MessagePage              the messages after the cursor, and the cursor of the next page
+     */
+    MessagePage getGivenStatusMessagesPage(MessageStatus status, String userId, String cursor, int pageSize);
+
     /**
      * Check if this message exists in the system with its id.
      *
@@ -81,4 +131,36 @@ public interface MessageService {
      * @return List<List<String>>   a list of messages in string representation in messageList
      */
     List<List<String>> getMessageInfo();
+
+    /**
+     * Get one page of all messages, in the order they were sent
+     * @param cursor    String  the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int     the largest number of messages on the page
+     * @return MessagePage      the messages after the cursor, and the cursor of the next page
+     */
+    MessagePage getMessageInfoPage(String cursor, int pageSize);
+
+    /**
+     * Get every message in the representation used to save it, see Message.toRecord
+     * @return List<List<String>>   all messages with their broadcast ids, in the order they were sent
+     */
+    List<List<String>> getMessageRecords();
+
+    /**
+     * Get the messages that were added or modified since they were last saved
+     * @return List<List<String>>   the changed messages in the representation of Message.toRecord
+     */
+    List<List<String>> getChangedMessages();
+
+    /**
+     * Get the IDs of the messages that were deleted since they were last saved
+     * @return List<UUID>   the IDs of the deleted messages
+     */
+    List<UUID> getDeletedMessageIDs();
+
+    /**
+     * Mark the given messages as saved, so they are no longer reported as changed or deleted
+     * @param messageIds    List<UUID>      the IDs of the saved messages
+     */
+    void markMessagesSaved(List<UUID> messageIds);
 }
@@ -1,16 +1,28 @@
 package message_system;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 /**
  * Use case class for sending messages to other users
  * Empty constructor
  */
 public class MessageServiceEngine implements MessageService {
-    private List<Message> messageList = new ArrayList<>();
+    // every message is keyed by the order it was added in, since the same ID can be loaded more than once;
+    // the order is also the position used by the cursors of MessagePage
+    private final TreeMap<Long, Message> message_map = new TreeMap<>();
+    private long next_order = 0;
+    // indexes kept in sync by addMessage, multiMessage, changeMessageStatus and deleteMessage
+    private final Map<UUID, List<Long>> id_index = new HashMap<>();
+    private final Map<String, TreeMap<Long, Message>> user_messages = new HashMap<>();
+    private final Map<List<String>, Map<Long, Message>> conversation_messages = new HashMap<>();
+    private final Map<MessageStatus, TreeMap<Long, Message>> status_messages = new EnumMap<>(MessageStatus.class);
+    // the body of each broadcast, and how many of its messages are left, so loaded messages share one body
+    private final Map<UUID, MessageBody> broadcasts = new HashMap<>();
+    private final Map<UUID, Integer> broadcast_receivers = new HashMap<>();
+    // IDs of the messages added or modified, and of the messages deleted, since they were last saved
+    private final Set<UUID> changed_messages = new LinkedHashSet<>();
+    private final Set<UUID> deleted_messages = new LinkedHashSet<>();
 
     /**
      * Add existing message into the system from the file
@@ -24,7 +36,47 @@ public class MessageServiceEngine implements MessageService {
      */
     public void addMessage(UUID messageId, String info, String senderId, String receiverId, LocalDateTime time, MessageStatus status) {
         Message messageToAdd = new Message(messageId, info, senderId, receiverId, time, status);
-        messageList.add(messageToAdd);
+        indexMessage(messageToAdd);
+    }
+
+    /**
+     * Add an existing message that is part of a broadcast into the system from the file; the messages of the same
+     * broadcast share the information of the first one added
+     *
+     * @param messageId   UUID            the id of the message
+     * @param broadcastId UUID            the id of the broadcast, or null for a direct message
+     * @param info        String          the information of the message
+     * @param senderId    String          the id name of the sender
+     * @param receiverId  String          the id name of the receiver
+     * @param time        LocalDateTime   the time recorded on the external file
+     * @param status      MessageStatus   the status of the message
+     */
+    public void addMessage(UUID messageId, UUID broadcastId, String info, String senderId, String receiverId,
+                           LocalDateTime time, MessageStatus status) {
+        if (broadcastId == null) {
+            addMessage(messageId, info, senderId, receiverId, time, status);
+            return;
+        }
+        MessageBody body = broadcasts.get(broadcastId);
+        if (body == null) body = new MessageBody(broadcastId, info, senderId, time);
+        indexMessage(new Message(messageId, body, receiverId, status));
+    }
+
+    /**
+     * Add existing messages into the system from the file in one call, as if each was added with addMessage; the
+     * messages of the same broadcast share the body of the first one added
+     *
+     * @param messages  List<Message>   the messages read from the file, in the order they were sent
+     */
+    public void addMessages(List<Message> messages) {
+        for (Message m : messages) {
+            UUID broadcastId = m.getBody().getBroadcastID();
+            MessageBody body = broadcastId == null ? null : broadcasts.get(broadcastId);
+            if (body != null && body != m.getBody()) {
+                m = new Message(m.getMessageID(), body, m.getReceiverID(), m.getStatus());
+            }
+            indexMessage(m);
+        }
     }
 
     /**
@@ -36,20 +88,22 @@ public class MessageServiceEngine implements MessageService {
      */
     public void addMessage(String info, String senderId, String receiverId) {
         Message messageToSend = new Message(UUID.randomUUID(), info, senderId, receiverId, LocalDateTime.now(), MessageStatus.UNREAD);
-        messageList.add(messageToSend);
+        indexMessage(messageToSend);
     }
 
     /**
-     * Send multiple messages to a number of people in the system
+     * Send multiple messages to a number of people in the system, as one broadcast: every receiver's message
+     * shares one body, and only has its own id and status
      *
      * @param info        String      the information of the message
      * @param senderId    String      the id name of the sender
      * @param receiverIds String      a list of id name of the receivers
      */
     public void multiMessage(String info, String senderId, List<String> receiverIds) {
+        if (receiverIds.isEmpty()) return;
+        MessageBody body = new MessageBody(UUID.randomUUID(), info, senderId, LocalDateTime.now());
         for (String receiver : receiverIds) {
-            Message messageToMulticast = new Message(UUID.randomUUID(), info, senderId, receiver, LocalDateTime.now(), MessageStatus.UNREAD);
-            messageList.add(messageToMulticast);
+            indexMessage(new Message(UUID.randomUUID(), body, receiver, MessageStatus.UNREAD));
         }
     }
 
@@ -59,14 +113,18 @@ public class MessageServiceEngine implements MessageService {
      * @return List<List<String>> a list of messages with its information such as the id of the sender, time, etc.
      */
     public List<List<String>> showMessage(String userId) {
-        List<List<String>> res = new ArrayList<>();
-        for (Message m : this.messageList) {
-            // dictionary might be better per message?
-            if (m.getSenderID().equals(userId) || m.getReceiverID().equals(userId)) {
-                res.add(m.toStrings());
-            }
-        }
-        return res;
+        return toStrings(user_messages.getOrDefault(userId, new TreeMap<>()).values());
+    }
+
+    /**
+     * Get one page of the messages this userId has association with, in the order they were sent
+     * @param userId    String  the related userId whose messages are shown
+     * @param cursor    String  the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int     the largest number of messages on the page
+     * @return MessagePage      the messages after the cursor, and the cursor of the next page
+     */
+    public MessagePage showMessagePage(String userId, String cursor, int pageSize) {
+        return page(user_messages.getOrDefault(userId, new TreeMap<>()), null, cursor, pageSize);
     }
 
     /**
@@ -75,13 +133,37 @@ public class MessageServiceEngine implements MessageService {
      * @return List<List<String>> a list of messages with its information such as the id of the sender, time, etc.
      */
     public List<List<String>> getGivenStatusMessages(MessageStatus status) {
+        return toStrings(status_messages.getOrDefault(status, new TreeMap<>()).values());
+    }
+
+    /**
+     * Get a list of messages information that has the status and that this userId has association with
+     * @param status    MessageStatus   the status of the message
+     * @param userId    String          the related userId whose messages are shown
+     * @return List<List<String>> a list of messages with its information such as the id of the sender, time, etc.
+     */
+    public List<List<String>> getGivenStatusMessages(MessageStatus status, String userId) {
         List<List<String>> res = new ArrayList<>();
-        for (Message m : this.messageList) {
+        for (Message m : user_messages.getOrDefault(userId, new TreeMap<>()).values()) {
             if (m.getStatus().equals(status))
                 res.add(m.toStrings());}
         return res;
     }
 
+    /**
+     * Get one page of the messages that has the status and that this userId has association with, in the order
+     * they were sent
+     * @param status    MessageStatus   the status of the message
+     * @param userId    String          the related userId whose messages are shown
+     * @param cursor    String          the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int             the largest number of messages on the page
+     * @return MessagePage              the messages after the cursor, and the cursor of the next page
+     */
+    public MessagePage getGivenStatusMessagesPage(MessageStatus status, String userId, String cursor,
+                                                  int pageSize) {
+        return page(user_messages.getOrDefault(userId, new TreeMap<>()), status, cursor, pageSize);
+    }
+
     /**
      * Return the conversation between user1 and user2
      * @param userId1   String  the username of user1
@@ -90,14 +172,8 @@ public class MessageServiceEngine implements MessageService {
      * such as the id of the sender and receiver, content, and time.
      */
     public List<List<String>>showConversation(String userId1, String userId2) {
-        List<List<String>> res = new ArrayList<>();
-        for (Message m : this.messageList) {
-            if ((m.getReceiverID().equals(userId1) && m.getSenderID().equals(userId2))
-                    || m.getSenderID().equals(userId1) && m.getReceiverID().equals(userId2)) {
-                res.add(m.toStrings());
-            }
-        }
-        return res;
+        Map<Long, Message> conversation = conversation_messages.get(conversationKey(userId1, userId2));
+        return toStrings(conversation == null ? Collections.emptyList() : conversation.values());
     }
 
     /**
@@ -107,7 +183,7 @@ public class MessageServiceEngine implements MessageService {
      * @return              boolean     True if this message id exists, else False
      */
     public boolean messageIdExists(UUID messageId){
-        return (getMessage(messageId) != null);
+        return id_index.containsKey(messageId);
     }
 
     /**
@@ -117,9 +193,15 @@ public class MessageServiceEngine implements MessageService {
      * @param newStatus     MessageStatus   the new status of the message, could be UNREAD, READ, or ARCHIVE
      */
     public void changeMessageStatus(UUID messageId, MessageStatus newStatus){
-        Message m = getMessage(messageId);
-        if (m != null){
+        List<Long> orders = id_index.get(messageId);
+        if (orders != null){
+            // the status bucket keeps the order the message was added in, not when its status changed
+            Long order = orders.get(0);
+            Message m = message_map.get(order);
+            status_messages.get(m.getStatus()).remove(order);
             m.setStatus(newStatus);
+            status_messages.computeIfAbsent(newStatus, s -> new TreeMap<>()).put(order, m);
+            markChanged(messageId);
         }
     }
 
@@ -128,7 +210,18 @@ public class MessageServiceEngine implements MessageService {
      * @param messageId     UUID            the Id of the message
      */
     public void deleteMessage(UUID messageId){
-        this.messageList.removeIf(m -> m.getMessageID().equals(messageId));
+        List<Long> orders = id_index.remove(messageId);
+        if (orders == null) return;
+        for (Long order : orders){
+            Message m = message_map.remove(order);
+            removeFromIndex(user_messages, m.getSenderID(), order);
+            removeFromIndex(user_messages, m.getReceiverID(), order);
+            removeFromIndex(conversation_messages, conversationKey(m.getSenderID(), m.getReceiverID()), order);
+            status_messages.get(m.getStatus()).remove(order);
+            releaseBroadcast(m.getBody().getBroadcastID());
+        }
+        changed_messages.remove(messageId);
+        deleted_messages.add(messageId);
     }
 
     /**
@@ -136,25 +229,159 @@ public class MessageServiceEngine implements MessageService {
      * @return List<List<String>>   a list of messages in string representation in messageList
      */
     public List<List<String>> getMessageInfo(){
-        List<List<String>> res = new ArrayList<>();
-        for (Message m: messageList){
-            res.add(m.toStrings());
+        return toStrings(message_map.values());
+    }
+
+    /**
+     * Get one page of all messages, in the order they were sent
+     * @param cursor    String  the cursor returned with the previous page, or null for the first page
+     * @param pageSize  int     the largest number of messages on the page
+     * @return MessagePage      the messages after the cursor, and the cursor of the next page
+     */
+    public MessagePage getMessageInfoPage(String cursor, int pageSize) {
+        return page(message_map, null, cursor, pageSize);
+    }
+
+    /**
+     * Get every message in the representation used to save it, see Message.toRecord
+     * @return List<List<String>>   all messages with their broadcast ids, in the order they were sent
+     */
+    public List<List<String>> getMessageRecords(){
+        List<List<String>> res = new ArrayList<>(message_map.size());
+        for (Message m : message_map.values()){
+            res.add(m.toRecord());
         }
         return res;
     }
 
+    /**
+     * Get the messages that were added or modified since they were last saved. When an ID was added more than
+     * once, only its first message is returned.
+     * @return List<List<String>>   the changed messages in the representation of Message.toRecord
+     */
+    public List<List<String>> getChangedMessages(){
+        List<List<String>> res = new ArrayList<>(changed_messages.size());
+        for (UUID messageId : changed_messages){
+            res.add(message_map.get(id_index.get(messageId).get(0)).toRecord());
+        }
+        return res;
+    }
+
+    /**
+     * Get the IDs of the messages that were deleted since they were last saved
+     * @return List<UUID>   the IDs of the deleted messages
+     */
+    public List<UUID> getDeletedMessageIDs(){
+        return new ArrayList<>(deleted_messages);
+    }
+
+    /**
+     * Mark the given messages as saved, so they are no longer reported as changed or deleted
+     * @param messageIds    List<UUID>      the IDs of the saved messages
+     */
+    public void markMessagesSaved(List<UUID> messageIds){
+        for (UUID messageId : messageIds){
+            changed_messages.remove(messageId);
+            deleted_messages.remove(messageId);
+        }
+    }
+
+    /*
+     * Helper function:
+     * Store a new message and add it to the ID, user, conversation and status indexes
+     * @para Message    the message to store
+     */
+    private void indexMessage(Message m){
+        // boxed once, so every index shares the same key object
+        Long order = next_order++;
+        message_map.put(order, m);
+        // one UUID per message, shared by the ID index and the changed set
+        UUID messageId = m.getMessageID();
+        id_index.computeIfAbsent(messageId, id -> new ArrayList<>(1)).add(order);
+        user_messages.computeIfAbsent(m.getSenderID(), u -> new TreeMap<>()).put(order, m);
+        user_messages.computeIfAbsent(m.getReceiverID(), u -> new TreeMap<>()).put(order, m);
+        conversation_messages.computeIfAbsent(conversationKey(m.getSenderID(), m.getReceiverID()),
+                c -> new LinkedHashMap<>()).put(order, m);
+        status_messages.computeIfAbsent(m.getStatus(), s -> new TreeMap<>()).put(order, m);
+        UUID broadcastId = m.getBody().getBroadcastID();
+        if (broadcastId != null){
+            broadcasts.putIfAbsent(broadcastId, m.getBody());
+            broadcast_receivers.merge(broadcastId, 1, Integer::sum);
+        }
+        markChanged(messageId);
+    }
+
+    /*
+     * Helper function:
+     * Forget the body of a broadcast once its last message has been deleted
+     */
+    private void releaseBroadcast(UUID broadcastId){
+        if (broadcastId != null && broadcast_receivers.merge(broadcastId, -1, Integer::sum) == 0){
+            broadcast_receivers.remove(broadcastId);
+            broadcasts.remove(broadcastId);
+        }
+    }
+
+    /*
+     * Helper function:
+     * Record that the message must be written on the next save
+     */
+    private void markChanged(UUID messageId){
+        deleted_messages.remove(messageId);
+        changed_messages.add(messageId);
+    }
+
     /*
-    * Helper function:
-    * Locate the message in the messageList based on the messageID
-    * @para UUID    the id of the message
-     */
-    private Message getMessage(UUID messageID){
-        for (Message m : this.messageList) {
-            if (m.getMessageID().equals(messageID)) {
-                return m;
+     * Helper function:
+     * Remove a message from one entry of a user or conversation index
+     */
+    private <K> void removeFromIndex(Map<K, ? extends Map<Long, Message>> index, K key, Long order){
+        Map<Long, Message> messages = index.get(key);
+        if (messages != null){
+            messages.remove(order);
+            if (messages.isEmpty()) index.remove(key);
+        }
+    }
+
+    /*
+     * Helper function:
+     * The key of the conversation between two users, the same whichever of them is the sender
+     */
+    private List<String> conversationKey(String userId1, String userId2){
+        return userId1.compareTo(userId2) <= 0 ? Arrays.asList(userId1, userId2) : Arrays.asList(userId2, userId1);
+    }
+
+    /*
+     * Helper function:
+     * Return the messages after the cursor, skipping those without the given status unless it is null. Seeking
+     * to the cursor in the ordered map keeps the cost independent of how many messages come before it.
+     */
+    private MessagePage page(NavigableMap<Long, Message> messages, MessageStatus status, String cursor,
+                             int pageSize){
+        MessagePage.checkPageSize(pageSize);
+        List<List<String>> res = new ArrayList<>(Math.min(pageSize, messages.size()));
+        long last = MessagePage.toPosition(cursor);
+        for (Map.Entry<Long, Message> entry : messages.tailMap(last, false).entrySet()){
+            if (status != null && entry.getValue().getStatus() != status) continue;
+            if (res.size() == pageSize){
+                return new MessagePage(res, MessagePage.toCursor(last));
             }
+            res.add(entry.getValue().toStrings());
+            last = entry.getKey();
         }
-        return null;
+        return new MessagePage(res, null);
+    }
+
+    /*
+     * Helper function:
+     * Convert messages to their list of strings representation
+     */
+    private List<List<String>> toStrings(Collection<Message> messages){
+        List<List<String>> res = new ArrayList<>(messages.size());
+        for (Message m : messages){
+            res.add(m.toStrings());
+        }
+        return res;
     }
 
 }
\ No newline at end of file
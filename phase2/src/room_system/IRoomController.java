@@ -3,6 +3,7 @@ package room_system;
 import event_system.EventPrompt;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 public interface IRoomController {
 
@@ -34,4 +35,11 @@ public interface IRoomController {
      * @return  boolean  True if the the data has been written to the DB successfully
      */
     boolean save();
+
+    /**
+     * Takes the changes made since the last save and returns the write that stores them, so the write can run
+     * while the controller is used again, see DatabaseReadWriter.takeChanges
+     * @return BooleanSupplier  Writes the changes, returning true if they were written successfully
+     */
+    BooleanSupplier takeChanges();
 }
@@ -3,6 +3,7 @@ package room_system;
 import event_system.EventPrompt;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 public class RoomController implements IRoomController {
 
@@ -67,4 +68,13 @@ public class RoomController implements IRoomController {
     public boolean save() {
         return data_provider.write();
     }
+
+    /**
+     * Takes the changes made since the last save and returns the write that stores them
+     * @return BooleanSupplier  Writes the changes, returning true if they were written successfully
+     */
+    @Override
+    public BooleanSupplier takeChanges() {
+        return data_provider.takeChanges();
+    }
 }
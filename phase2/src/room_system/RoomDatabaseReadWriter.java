@@ -3,7 +3,10 @@ package room_system;
 import database.DatabaseReadWriter;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 public class RoomDatabaseReadWriter extends DatabaseReadWriter {
     private final RoomService room_service;
@@ -24,18 +27,36 @@ public class RoomDatabaseReadWriter extends DatabaseReadWriter {
         this.room_service =roomService;
     }
 
+    /**
+     * Creates the Rooms table and its capacity index if they do not exist
+     * @return boolean True if the table is ready to be queried.
+     */
+    boolean prepareSchema(){
+        return ensureSchema(table_name, connection -> {
+            try (Statement action = connection.createStatement()) {
+                action.execute(sqlCreate);
+            }
+        }, connection -> {
+            // finds the rooms large enough for an event in capacity order, see RoomRepository
+            try (Statement action = connection.createStatement()) {
+                action.execute("CREATE INDEX IF NOT EXISTS idx_Rooms_capacity ON " + table_name + "(roomCapacity)");
+            }
+        });
+    }
+
     /**
      * Reads from SQL database and stores info locally.
      * @return boolean True if all entries read are correct.
      */
     public boolean read(){
+        if (!prepareSchema()) return false;
+
         Connection connection = makeConnection();
         PreparedStatement entry = null;
         ResultSet resultEntry = null;
 
-        if (!tableExists(table_name)) createNewTable(sqlCreate);
-
         String sql = "SELECT * FROM Rooms";
+        List<String> readIDs = new ArrayList<>();
 
         try {
             entry = connection.prepareStatement(sql);   //DB connection to be queried
@@ -46,11 +67,15 @@ public class RoomDatabaseReadWriter extends DatabaseReadWriter {
 
                 try {
                     room_service.addRoom(roomID,roomCapacity);
+                    readIDs.add(roomID);
                 } catch (Exception e){
                     System.out.println("Incorrect format of rows in Room" + resultEntry.getRow());
                 }
 
             }
+            // rooms loaded from the table are already saved
+            room_service.markRoomsSaved(readIDs);
+            setSynced(true);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -69,39 +94,43 @@ public class RoomDatabaseReadWriter extends DatabaseReadWriter {
     }
 
     /**
-     * Writes updated data to database
+     * Writes updated data to database. The first write replaces the whole table; once the table matches the room
+     * service, only the rooms added since the last save are written.
      * @return boolean Returns true if writing to the database is successful.
      */
-    public boolean write(){
-
-        if (!tableExists(table_name)) createNewTable(sqlCreate);
-        deleteAllData(table_name);
-
-        String sql = "REPLACE INTO Rooms(roomID, roomCapacity) VALUES(?,?) ";
-        Connection connection = makeConnection();
-
-        try {
-            for (List<String> room: room_service.getAllRooms()){
-                String roomID = room.get(0);
-                int roomCapacity = Integer.parseInt(room.get(1));
-                PreparedStatement entry;
-
-                entry = connection.prepareStatement(sql);
-                entry.setString(1,roomID);
-                entry.setInt(2,roomCapacity);
-                entry.execute();
+    @Override
+    public synchronized boolean write(){
+        return takeChanges().getAsBoolean();
+    }
 
-            }
-            return true;
-        } catch (SQLException e) {
-            System.out.println(e.toString());
-            return false;
-        } finally {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                System.out.println(e.toString());
-            }
+    /**
+     * Takes the rooms added since the last save, or every room if the table does not match the room service, and
+     * marks them saved, returning the write that stores them, see DatabaseReadWriter.takeChanges
+     * @return BooleanSupplier The write, returning true if writing to the database is successful
+     */
+    @Override
+    public BooleanSupplier takeChanges(){
+        String sql = "INSERT INTO Rooms(roomID, roomCapacity) VALUES(?,?) " +
+                "ON CONFLICT(roomID) DO UPDATE SET roomCapacity=excluded.roomCapacity";
+
+        RowWriter<List<String>> roomWriter = (entry, room) -> {
+            entry.setString(1, room.get(0));
+            entry.setInt(2, Integer.parseInt(room.get(1)));
+        };
+
+        boolean fullWrite = !isSynced();
+        List<List<String>> rooms = fullWrite ? room_service.getAllRooms() : room_service.getChangedRooms();
+        List<String> savedIDs = new ArrayList<>();
+        for (List<String> room : rooms) {
+            savedIDs.add(room.get(0));
         }
+        room_service.markRoomsSaved(savedIDs);
+
+        return () -> {
+            boolean written = prepareSchema() && (fullWrite ? replaceAllRows(table_name, sql, rooms, roomWriter)
+                    : writeChanges(table_name, "roomID", sql, rooms, roomWriter, Collections.emptyList()));
+            setSynced(written);
+            return written;
+        };
     }
 }
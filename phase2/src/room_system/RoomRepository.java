@@ -0,0 +1,175 @@
+package room_system;
+
+import database.BoundedCache;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A RoomService that looks rooms up in the Rooms table when asked, instead of loading every room at startup.
+ * Changes are written to the database immediately, and recently used rooms are kept in a bounded cache.
+ */
+public class RoomRepository implements RoomService {
+
+    /**
+     * Number of rooms kept in the cache by default
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private final RoomDatabaseReadWriter database;
+    private final BoundedCache<String, Room> room_cache;
+
+    /**
+     * Creates a repository over the Rooms table of a database, with a cache of DEFAULT_CACHE_SIZE rooms
+     * @param address  String  The address of the database.
+     */
+    public RoomRepository(String address){
+        this(address, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a repository over the Rooms table of a database
+     * @param address    String  The address of the database.
+     * @param cacheSize  int     The number of rooms kept in the cache
+     */
+    public RoomRepository(String address, int cacheSize){
+        database = new RoomDatabaseReadWriter(this, address);
+        room_cache = new BoundedCache<>(cacheSize);
+    }
+
+    /**
+     * Creates the Rooms table; call once before using the repository
+     * @return  boolean  True if the table is ready to be queried
+     */
+    public boolean prepare(){
+        return database.prepareSchema();
+    }
+
+    /**
+     * Adds a room, overwriting a room with the same ID
+     * @param roomID         String   Contains the room ID
+     * @param roomCapacity   int      Contains the room capacity
+     */
+    @Override
+    public void addRoom(String roomID, int roomCapacity){
+        if (database.updateRows("INSERT INTO Rooms(roomID, roomCapacity) VALUES(?,?) " +
+                "ON CONFLICT(roomID) DO UPDATE SET roomCapacity=excluded.roomCapacity", roomID, roomCapacity) == 1){
+            room_cache.put(roomID, new Room(roomID, roomCapacity));
+        }
+    }
+
+    /**
+     * Returns true if room exists.
+     * @param roomID String The room ID.
+     */
+    @Override
+    public boolean isRoomExist(String roomID){
+        return searchRoom(roomID) != null;
+    }
+
+    /**
+     * Return true if the size of the attendeeList is exceeding the room capacity.
+     * @param attendeeSize int    The list of the attendee.
+     * @param roomID       String The id of the room.
+     */
+    @Override
+    public boolean isExceedingRoomCapacity(int attendeeSize, String roomID){
+        Room room = searchRoom(roomID);
+        return room != null && attendeeSize > room.getRoomCapacity();
+    }
+
+    /**
+     * Checks if the event capacity is valid based on the room size
+     * @param eventCapacity   int      Contains the event capacity
+     * @param roomID          String   Contains the room ID
+     * @return                boolean  True if the event capacity is valid for an event happening in the room "roomID"
+     */
+    @Override
+    public boolean isValidEventCapacity(int eventCapacity, String roomID){
+        Room room = searchRoom(roomID);
+        return room != null && eventCapacity <= room.getRoomCapacity();
+    }
+
+    /**
+     * Checks if the room capacity is a positive number
+     * @param roomCapacity  int      Contains a potential room capacity
+     * @return              boolean  True if the room capacity is > 0
+     */
+    @Override
+    public boolean isValidRoomCapacity(int roomCapacity){
+        return roomCapacity >= 0;
+    }
+
+    /**
+     * Returns a nested list containing all rooms.
+     * @return  List<List<String>>  A nested list of the form [[roomID1, 10], [roomID2, 23], .... , [roomID12, 45]]
+     */
+    @Override
+    public List<List<String>> getAllRooms(){
+        return database.queryRows("SELECT * FROM Rooms", row -> toRoom(row).toList());
+    }
+
+    /**
+     * Returns the rooms that can hold at least the given number of people, the best fit first
+     * @param minCapacity  int                 Contains the number of people the room must hold
+     * @return             List<List<String>>  A nested list in the format of getAllRooms, by ascending capacity
+     */
+    @Override
+    public List<List<String>> getRoomsWithCapacity(int minCapacity){
+        return database.queryRows("SELECT * FROM Rooms WHERE roomCapacity >= ? ORDER BY roomCapacity, roomID",
+                row -> toRoom(row).toList(), minCapacity);
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved rooms
+     * @return  List<List<String>>  An empty list
+     */
+    @Override
+    public List<List<String>> getChangedRooms(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Does nothing, since changes are written immediately
+     * @param roomIDs  List<String>  The IDs of the saved rooms
+     */
+    @Override
+    public void markRoomsSaved(List<String> roomIDs){
+    }
+
+    /**
+     * Returns a list of string room IDs
+     * @return List<String>  A list containing a room ID in each entry
+     */
+    @Override
+    public List<String> getRoomIDs(){
+        return database.queryRows("SELECT roomID FROM Rooms", row -> row.getString("roomID"));
+    }
+
+    /**
+     * Return a room by the roomID given from the cache, or from the database on a cache miss. If the room not
+     * found, return null.
+     * @param    roomID  String ID of the room.
+     * @return   Room    A room variable that has the same room ID as roomID
+     */
+    private Room searchRoom(String roomID){
+        Room room = room_cache.get(roomID);
+        if (room != null) return room;
+        List<Room> rooms = database.queryRows("SELECT * FROM Rooms WHERE roomID = ?", this::toRoom, roomID);
+        if (rooms.isEmpty()) return null;
+        room_cache.put(roomID, rooms.get(0));
+        return rooms.get(0);
+    }
+
+    /**
+     * Creates a room from the current row of the Rooms table
+     * @param row  ResultSet  A row of the Rooms table
+     * @return     Room       The room of the row
+     * @throws SQLException if a column cannot be read
+     */
+    private Room toRoom(ResultSet row) throws SQLException {
+        return new Room(row.getString("roomID"), row.getInt("roomCapacity"));
+    }
+}
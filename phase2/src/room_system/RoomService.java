@@ -44,6 +44,25 @@ public interface RoomService {
      */
     List<List<String>> getAllRooms();
 
+    /**
+     * Returns the rooms that can hold at least the given number of people, the best fit first
+     * @param minCapacity  int                 Contains the number of people the room must hold
+     * @return             List<List<String>>  A nested list in the format of getAllRooms, by ascending capacity
+     */
+    List<List<String>> getRoomsWithCapacity(int minCapacity);
+
+    /**
+     * Returns a nested list containing the rooms added since they were last saved
+     * @return  List<List<String>>  A nested list in the format of getAllRooms
+     */
+    List<List<String>> getChangedRooms();
+
+    /**
+     * Marks the given rooms as saved, so they are no longer reported as added
+     * @param roomIDs  List<String>  The IDs of the saved rooms
+     */
+    void markRoomsSaved(List<String> roomIDs);
+
     /**
      * Returns a list of string room IDs
      * @return List<String>  A list containing a room ID in each entry
@@ -1,10 +1,21 @@
 package room_system;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class RoomServiceEngine implements RoomService {
     private final List<Room> room_list = new ArrayList<>();
+    // the room found for each ID, which is the first one added with it, and those rooms by capacity
+    private final Map<String, Room> rooms_by_id = new HashMap<>();
+    private final TreeMap<Integer, List<Room>> rooms_by_capacity = new TreeMap<>();
+    // IDs of the rooms added since they were last saved
+    private final Set<String> changed_rooms = new LinkedHashSet<>();
 
     /**
      * Adds a room to the list of rooms
@@ -15,6 +26,10 @@ public class RoomServiceEngine implements RoomService {
     public void addRoom(String roomID,int roomCapacity){
         Room roomToAdd = new Room(roomID,roomCapacity);
         this.room_list.add(roomToAdd);
+        this.changed_rooms.add(roomID);
+        if (rooms_by_id.putIfAbsent(roomID, roomToAdd) == null){
+            rooms_by_capacity.computeIfAbsent(roomCapacity, c -> new ArrayList<>()).add(roomToAdd);
+        }
     }
 
     /**
@@ -83,6 +98,50 @@ public class RoomServiceEngine implements RoomService {
         return allRooms;
     }
 
+    /**
+     * Returns the rooms that can hold at least the given number of people, the best fit first
+     * @param minCapacity  int                 Contains the number of people the room must hold
+     * @return             List<List<String>>  A nested list in the format of getAllRooms, by ascending capacity
+     */
+    @Override
+    public List<List<String>> getRoomsWithCapacity(int minCapacity){
+        List<List<String>> rooms = new ArrayList<>();
+        for (List<Room> sameCapacity: rooms_by_capacity.tailMap(minCapacity, true).values()){
+            for (Room room: sameCapacity){
+                rooms.add(room.toList());
+            }
+        }
+        return rooms;
+    }
+
+    /**
+     * Returns a nested list containing the rooms added since they were last saved. When several rooms share an
+     * ID, the last one is returned.
+     * @return  List<List<String>>  A nested list in the format of getAllRooms
+     */
+    @Override
+    public List<List<String>> getChangedRooms(){
+        if (changed_rooms.isEmpty()) return new ArrayList<>();
+        Map<String, List<String>> changedRooms = new LinkedHashMap<>();
+        for (Room room:room_list){
+            if (changed_rooms.contains(room.getRoomId())){
+                changedRooms.put(room.getRoomId(), room.toList());
+            }
+        }
+        return new ArrayList<>(changedRooms.values());
+    }
+
+    /**
+     * Marks the given rooms as saved, so they are no longer reported as added
+     * @param roomIDs  List<String>  The IDs of the saved rooms
+     */
+    @Override
+    public void markRoomsSaved(List<String> roomIDs){
+        for (String roomID: roomIDs){
+            changed_rooms.remove(roomID);
+        }
+    }
+
     /**
      * Returns a list of string room IDs
      * @return List<String>  A list containing a room ID in each entry
@@ -101,11 +160,6 @@ public class RoomServiceEngine implements RoomService {
      * @return   Room    A room variable that has the same room ID as roomID
      */
     private Room searchRoom(String roomID){
-        for (Room room:room_list){
-            if (room.getRoomId().equals(roomID)){
-                return room;
-            }
-        }
-        return null;
+        return rooms_by_id.get(roomID);
     }
 }
@@ -1,6 +1,7 @@
 package user_system;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * Interface to model the execution of the login system
@@ -44,6 +45,13 @@ public interface IUserController {
      */
     boolean save();
 
+    /**
+     * Takes the changes made since the last save and returns the write that stores them, so the write can run
+     * while the controller is used again, see DatabaseReadWriter.takeChanges
+     * @return BooleanSupplier  Writes the changes, returning true if they were written successfully
+     */
+    BooleanSupplier takeChanges();
+
     /**
      * Calls read method in gateway, loading all local data (i.e. existing user accounts)
      * @return boolean true or false if read method executed successfully
@@ -2,6 +2,7 @@ package user_system;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * Models the execution of the login system
@@ -115,6 +116,15 @@ public class UserController implements IUserController {
         return user_accounts.write();
     }
 
+    /**
+     * Takes the changes made since the last save and returns the write that stores them
+     * @return BooleanSupplier  Writes the changes, returning true if they were written successfully
+     */
+    @Override
+    public BooleanSupplier takeChanges() {
+        return user_accounts.takeChanges();
+    }
+
     /**
      * Removes a particular user
      * @param username String username of user account being removed
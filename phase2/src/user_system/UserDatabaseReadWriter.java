@@ -2,7 +2,9 @@ package user_system;
 
 import database.DatabaseReadWriter;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * A gateway to read in and write existing user account information from an external SQL .db file
@@ -18,6 +20,15 @@ public class UserDatabaseReadWriter extends DatabaseReadWriter {
             + "	Type TEXT\n"
             + ");";
 
+    // 'Accounts' is the name of the table in db, with fields/col: Username, Password, Type
+    // Values(?,?,?) Indicates we are entering data into each field - we can also replace '?' with static string references
+    // ON CONFLICT overwrites the row with the same username in place, avoids duplicates iff field is set as unique
+    // INSERT can be used to simply insert data to table
+    private final String sql_upsert = "INSERT INTO Accounts(Username, Password, Type) VALUES(?,?,?) " +
+            "ON CONFLICT(Username) DO UPDATE SET Password=excluded.Password, Type=excluded.Type";
+    // deletions taken by a write that failed; rewriting every account would not remove them, so they are retried
+    private final List<String> failed_deletions = new ArrayList<>();
+
     /**
      * Initialize, and set the filepath and UserService Interface
      * @param user_service UserService interface for use-case to add and store users that are read in
@@ -28,18 +39,40 @@ public class UserDatabaseReadWriter extends DatabaseReadWriter {
         this.user_service=user_service;
     }
 
+    /**
+     * Creates the Accounts table if it does not exist, with an index for looking accounts up by type
+     * @return boolean true or false if the table is ready to be queried
+     */
+    boolean prepareSchema() {
+        if (!prepareTables()) return false;
+        return updateRows("CREATE INDEX IF NOT EXISTS idx_Accounts_type ON " + table_name + "(Type)") >= 0;
+    }
+
+    /**
+     * Creates the Accounts table through the schema manager, which only checks the database once per run
+     * @return boolean true or false if the table is ready to be queried
+     */
+    private boolean prepareTables() {
+        return ensureSchema(table_name, connection -> {
+            try (Statement action = connection.createStatement()) {
+                action.execute(sql_table);
+            }
+        });
+    }
+
     /**
      * Reads from SQL database and stores info locally in program.
      * @return boolean true or false if all entries read in correct
      */
     public boolean read() {
+        if (!prepareTables()) return false;
+
         Connection connection = makeConnection();   //establish connection to DB
         PreparedStatement entry = null;     //preparedStatement object initialized - stores sql query executed
         ResultSet resultEntry = null;   //ResultSet used to execute prepared statement for SQL
 
-        if (!tableExists(table_name)) createNewTable(sql_table);
-
         String sql = "SELECT * FROM " + table_name;  //Selects all rows from the table named 'Accounts'. this is our sql query
+        List<String> readUsernames = new ArrayList<>();
 
         try {
             entry = connection.prepareStatement(sql);   //DB connection to be queried
@@ -53,14 +86,18 @@ public class UserDatabaseReadWriter extends DatabaseReadWriter {
                 try {
 
                     //Verifies the inputted values from the DB are valid, before calling use case to store locally
-                    if (un.matches("[A-Za-z0-9]+") && pw.matches("[A-Za-z0-9]+"))
+                    if (un.matches("[A-Za-z0-9]+") && pw.matches("[A-Za-z0-9]+")) {
                         user_service.addUser(un, pw, UserType.valueOf(ut));
-
+                        readUsernames.add(un);
+                    }
                     else throw new Exception("Incorrect format of row");
                 } catch (Exception e) {
                     System.out.println("Incorrect format of row " + resultEntry.getRow());
                 }
             }
+            // accounts loaded from the table are already saved
+            user_service.markUsersSaved(readUsernames);
+            setSynced(true);
             return true;
         } catch (SQLException e) {
             System.out.println(e.toString());
@@ -78,42 +115,65 @@ public class UserDatabaseReadWriter extends DatabaseReadWriter {
     }
 
     /**
-     * Writes updated data to database - overwrites existing rows with users that have the same username
+     * Writes updated data to database - overwrites existing rows with users that have the same username. Once
+     * the table matches the user service, only the accounts added or removed since the last save are written.
      * @return boolean true or false if writing to db successful
      */
-    public boolean write() {
-        if (!tableExists(table_name)) createNewTable(sql_table);
+    @Override
+    public synchronized boolean write() {
+        return takeChanges().getAsBoolean();
+    }
 
-        // 'Accounts' is the name of the table in db, with fields/col: Username, Password, Type
-        // Values(?,?,?) Indicates we are entering data into each field - we can also replace '?' with static string references
-        // REPLACE keyword overwrites all data in table, avoids duplicates iff field is set as unique
-        // INSERT can be used to simply insert data to table
-        String sql = "REPLACE INTO Accounts(Username, Password, Type) VALUES(?,?,?) ";
-        Connection connection = makeConnection();
+    /**
+     * Takes the accounts added or removed since the last save, or every account if the table does not match the
+     * user service, and marks them saved, returning the write that stores them, see DatabaseReadWriter.takeChanges
+     * @return BooleanSupplier the write, returning true or false if writing to db successful
+     */
+    @Override
+    public BooleanSupplier takeChanges() {
+        List<String> deletedUsernames = new ArrayList<>(failed_deletions);
+        failed_deletions.clear();
+        deletedUsernames.addAll(user_service.getDeletedUserIDs());
+        List<List<String>> users = isSynced() ? user_service.getChangedUsers() : user_service.getUserInfo();
+
+        List<String> savedUsernames = new ArrayList<>(deletedUsernames);
+        for (List<String> user : users) {
+            savedUsernames.add(user.get(0));
+        }
+        user_service.markUsersSaved(savedUsernames);
+
+        return () -> {
+            boolean written = prepareTables() &&
+                    writeChanges(table_name, "Username", sql_upsert, users, this::bindUser, deletedUsernames);
+            if (!written) failed_deletions.addAll(deletedUsernames);
+            setSynced(written);
+            return written;
+        };
+    }
 
-        try {
-            for (List<String> user : user_service.getUserInfo()) {
-                PreparedStatement entry;    //Prepared Statement object for non static entries
-
-                //store the data we are entering into a preparedStatement
-                entry = connection.prepareStatement(sql);   //creates the preparedStatement Object
-                entry.setString(1, user.get(0));   //stores username to be entered for col 1
-                entry.setString(2, user.get(1));   //stores password to be entered for col 2
-                entry.setString(3, user.get(2));    //stores user type for col 3
-                entry.execute();    //preparedStatement is entered into table, executes the query
-                //System.out.println("Data has been inserted to Database!");
-            }
-            return true;
-        } catch (SQLException e) {
-            System.out.println(e.toString());
-            return false;
-        } finally {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                System.out.println(e.toString());
-            }
+    /**
+     * Writes accounts inside a transaction run by another gateway, so they are committed or rolled back together
+     * with its rows. Creates the Accounts table if it does not exist, and overwrites rows with the same username.
+     * @param connection Connection the connection of the current transaction
+     * @param users List of user accounts, each entry is a list with user account info
+     * @throws SQLException if an account cannot be written
+     */
+    public void writeAccounts(Connection connection, List<List<String>> users) throws SQLException {
+        try (Statement action = connection.createStatement()) {
+            action.execute(sql_table);
         }
+        try (PreparedStatement entry = connection.prepareStatement(sql_upsert)) {
+            executeBatches(entry, users, this::bindUser);
+        }
+    }
+
+    /*
+     * Binds one user account to the parameters of sql_upsert
+     */
+    private void bindUser(PreparedStatement entry, List<String> user) throws SQLException {
+        entry.setString(1, user.get(0));   //stores username to be entered for col 1
+        entry.setString(2, user.get(1));   //stores password to be entered for col 2
+        entry.setString(3, user.get(2));    //stores user type for col 3
     }
 
 }
@@ -0,0 +1,81 @@
+package user_system;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps usernames to dense ints and back. A username gets the next free number the first time it is seen and keeps
+ * it for the rest of the program run, so the numbers of n users are 0 to n - 1 and collections of users can be
+ * stored as sets of small ints instead of sets of strings.
+ */
+public class UserIDDictionary {
+
+    private static final UserIDDictionary shared = new UserIDDictionary();
+
+    private final Map<String, Integer> numbers = new ConcurrentHashMap<>();
+    // usernames by number; replaced by a larger copy when it is full, and only ever written under the lock
+    private volatile String[] names = new String[64];
+    private int count = 0;
+
+    /**
+     * Returns the dictionary shared by the whole program
+     * @return UserIDDictionary the shared dictionary
+     */
+    public static UserIDDictionary shared() {
+        return shared;
+    }
+
+    /**
+     * Gets the number of a username, giving it the next free number if it has none yet
+     * @param userID String the username
+     * @return int the number of the username
+     */
+    public int idOf(String userID) {
+        Integer number = numbers.get(userID);
+        return number != null ? number : assign(userID);
+    }
+
+    /**
+     * Gets the number of a username without giving it one
+     * @param userID String the username, which may be null
+     * @return int the number of the username, or -1 if it has never been seen
+     */
+    public int find(String userID) {
+        return userID == null ? -1 : numbers.getOrDefault(userID, -1);
+    }
+
+    /**
+     * Gets the username with the given number
+     * @param id int a number returned by idOf
+     * @return String the username
+     */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * Gets how many usernames have a number
+     * @return int number of usernames seen
+     */
+    public int size() {
+        return numbers.size();
+    }
+
+    /*
+     * Gives a username the next free number; the name is stored before the number is published in the map, so
+     * any thread that can see the number can also read the name
+     */
+    private synchronized int assign(String userID) {
+        Integer number = numbers.get(userID);
+        if (number != null) return number;
+        String[] current = names;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, count * 2);
+        }
+        current[count] = userID.intern();
+        names = current;
+        numbers.put(userID, count);
+        return count++;
+    }
+}
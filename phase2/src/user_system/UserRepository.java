@@ -0,0 +1,208 @@
+package user_system;
+
+import database.BoundedCache;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A UserService that looks accounts up in the Accounts table when asked, instead of loading every account at
+ * startup. Changes are written to the database immediately, and recently used accounts are kept in a bounded cache.
+ */
+public class UserRepository implements UserService {
+
+    /**
+     * Number of accounts kept in the cache by default
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private final UserDatabaseReadWriter database;
+    private final BoundedCache<String, User> user_cache;
+    private User currentUser = null;
+
+    /**
+     * Creates a repository over the Accounts table of a database, with a cache of DEFAULT_CACHE_SIZE accounts
+     * @param address String representation of filepath of .db file containing user accounts
+     */
+    public UserRepository(String address) {
+        this(address, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a repository over the Accounts table of a database
+     * @param address String representation of filepath of .db file containing user accounts
+     * @param cacheSize int number of accounts kept in the cache
+     */
+    public UserRepository(String address, int cacheSize) {
+        database = new UserDatabaseReadWriter(this, address);
+        user_cache = new BoundedCache<>(cacheSize);
+    }
+
+    /**
+     * Creates and indexes the Accounts table; call once before using the repository
+     * @return boolean true or false if the table is ready to be queried
+     */
+    public boolean prepare() {
+        return database.prepareSchema();
+    }
+
+    /**
+     * Sets the current user logged in
+     * @param userID String of current user ID
+     */
+    public void setCurrentUser(String userID){
+        currentUser = getUserByID(userID);
+    }
+
+    /**
+     * Gets the current user's ID, that is logged in
+     * @return String User ID for user currently logged in
+     */
+    public String getCurrentUserID(){
+        if (currentUser != null){
+            return currentUser.getUserID();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the current user's type, that is logged in
+     * @return UserType enum for current user's type
+     */
+    public UserType getCurrentUserType(){
+        if (currentUser != null){
+            return currentUser.getUserType();
+        }
+        return null;
+    }
+
+    /**
+     * Create user account, overwriting an account with the same username
+     * @param name String username of user account
+     * @param password String password of user account
+     * @param type UserType enum of user type
+     */
+    public void addUser(String name, String password, UserType type){
+        if (database.updateRows("INSERT INTO Accounts(Username, Password, Type) VALUES(?,?,?) " +
+                "ON CONFLICT(Username) DO UPDATE SET Password=excluded.Password, Type=excluded.Type",
+                name, password, type.toString()) == 1) {
+            user_cache.put(name, new User(name, password, type));
+        }
+    }
+
+    /**
+     * Remove the user if it exists
+     * @param username String username of user account being removed
+     * @return boolean true or false if user removed
+     */
+    public boolean removeUser(String username) {
+        user_cache.remove(username);
+        return database.updateRows("DELETE FROM Accounts WHERE Username = ?", username) > 0;
+    }
+
+    /**
+     * Checks if User with the given username exists
+     * @param username the username of user account that is being checked
+     * @return true or false whether User with the given username exists
+     */
+    public boolean userExists(String username) {
+        return getUserByID(username) != null;
+    }
+
+    /**
+     * Gets the user type for a given username for user account
+     * @param username String username of the user
+     * @return UserType enum user type
+     */
+    public UserType userTypeFromUsers(String username) {
+        User u = getUserByID(username);
+        if (u != null){
+            return u.getUserType();
+        }
+        return null;
+    }
+
+    /**
+     * Verifies if username and password matches the credentials stored for that user account (if it exists)
+     * @param username String username input for user account
+     * @param password String password input for user account
+     * @return True or False whether the username and the password matches an account
+     */
+    public boolean validateCredentials(String username, String password) {
+        User u = getUserByID(username);
+        return u != null && password.equals(u.getUserPassword());
+    }
+
+    /**
+     * Generates list of all user accounts with each users list of info
+     * @return 2d array with list of user accounts - each entry is a list with user account info
+     */
+    public List<List<String>> getUserInfo(){
+        return database.queryRows("SELECT * FROM Accounts", row -> toUser(row).toStrings());
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved accounts
+     * @return an empty list
+     */
+    public List<List<String>> getChangedUsers(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Changes are written immediately, so there are never unsaved removals
+     * @return an empty list
+     */
+    public List<String> getDeletedUserIDs(){
+        return new ArrayList<>();
+    }
+
+    /**
+     * Does nothing, since changes are written immediately
+     * @param usernames List of String usernames of the saved accounts
+     */
+    public void markUsersSaved(List<String> usernames){
+    }
+
+    /**
+     * Generates a list of all User IDs with given user type
+     * @param userType UserType enum for user type
+     * @return List of String representation of all User IDs with given Type
+     */
+    public List<String> getListOfIDsByType(UserType userType){
+        return database.queryRows("SELECT Username FROM Accounts WHERE Type = ?", row -> row.getString("Username"),
+                userType.toString());
+    }
+
+    /**
+     * Checks if there is a user account with the given username and user type
+     * @param username String username of the user
+     * @param userType UserType enum for user type
+     * @return true or false whether the username belongs to an account of the given type
+     */
+    public boolean isUserOfType(String username, UserType userType){
+        return userTypeFromUsers(username) == userType;
+    }
+
+    /*
+     * Returns user object from the cache, or from the database on a cache miss, if it exists
+     */
+    private User getUserByID(String userID){
+        User user = user_cache.get(userID);
+        if (user != null) return user;
+        List<User> users = database.queryRows("SELECT * FROM Accounts WHERE Username = ?", this::toUser, userID);
+        if (users.isEmpty()) return null;
+        user_cache.put(userID, users.get(0));
+        return users.get(0);
+    }
+
+    /*
+     * Converts a row of the Accounts table to a user
+     */
+    private User toUser(ResultSet row) throws SQLException {
+        return new User(row.getString("Username"), row.getString("Password"),
+                UserType.valueOf(row.getString("Type")));
+    }
+}
@@ -69,10 +69,36 @@ public interface UserService {
      */
     List<List<String>> getUserInfo();
 
+    /**
+     * Generates list of the user accounts added since they were last saved
+     * @return 2d array with list of changed user accounts - each entry is a list with user account info
+     */
+    List<List<String>> getChangedUsers();
+
+    /**
+     * Generates list of the usernames of user accounts removed since they were last saved
+     * @return List of String usernames of the removed accounts
+     */
+    List<String> getDeletedUserIDs();
+
+    /**
+     * Marks the given user accounts as saved, so they are no longer reported as added or removed
+     * @param usernames List of String usernames of the saved accounts
+     */
+    void markUsersSaved(List<String> usernames);
+
     /**
      * Generates a list of all User IDs with given user type
      * @param userType UserType enum for user type
      * @return List of String representation of all User IDs with given Type
      */
     List<String> getListOfIDsByType(UserType userType);
+
+    /**
+     * Checks if there is a user account with the given username and user type
+     * @param username String username of the user
+     * @param userType UserType enum for user type
+     * @return true or false whether the username belongs to an account of the given type
+     */
+    boolean isUserOfType(String username, UserType userType);
 }
@@ -1,7 +1,14 @@
 package user_system;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A Use-Case class pertaining to User account management, creating and generating user accounts
@@ -9,7 +16,22 @@ import java.util.List;
  */
 public class UserServiceEngine implements UserService {
     private final List<User> list_of_users = new ArrayList<>();
+    // accounts by username, oldest first, and the usernames of each user type in the order they were added
+    private final Map<String, List<User>> users_by_name = new HashMap<>();
+    private final Map<UserType, Set<String>> ids_by_type = new EnumMap<>(UserType.class);
     private User currentUser = null;
+    // usernames of the accounts added, and of the accounts removed, since they were last saved
+    private final Set<String> changed_users = new LinkedHashSet<>();
+    private final Set<String> deleted_users = new LinkedHashSet<>();
+
+    /**
+     * Creates an empty user service
+     */
+    public UserServiceEngine(){
+        for (UserType type: UserType.values()){
+            ids_by_type.put(type, new LinkedHashSet<>());
+        }
+    }
 
     /**
      * Sets the current user logged in
@@ -50,6 +72,10 @@ public class UserServiceEngine implements UserService {
     public void addUser(String name, String password, UserType type){
         User newUser = new User(name, password, type);
         list_of_users.add(newUser);
+        users_by_name.computeIfAbsent(name, k -> new ArrayList<>(1)).add(newUser);
+        ids_by_type.get(type).add(name);
+        deleted_users.remove(name);
+        changed_users.add(name);
     }
 
     /**
@@ -60,7 +86,22 @@ public class UserServiceEngine implements UserService {
     public boolean removeUser(String username) {
         User u = getUserByID(username);
         if (u != null){
-            list_of_users.remove(getUserByID(username));
+            list_of_users.remove(u);
+            List<User> accounts = users_by_name.get(username);
+            accounts.remove(0);
+            if (accounts.isEmpty()){
+                users_by_name.remove(username);
+            }
+            if (!isUserOfType(username, u.getUserType())){
+                ids_by_type.get(u.getUserType()).remove(username);
+            }
+            // another account with the same username may remain, in which case it is written instead
+            if (userExists(username)){
+                changed_users.add(username);
+            } else {
+                changed_users.remove(username);
+                deleted_users.add(username);
+            }
             return true;
         }
         return false;
@@ -95,8 +136,8 @@ public class UserServiceEngine implements UserService {
      * @return True or False whether the username and the password matches an account in the list of user accounts
      */
     public boolean validateCredentials(String username, String password) {
-        for (User listOfUser : list_of_users) {
-            if ((username.equals(listOfUser.getUserID())) && (password.equals(listOfUser.getUserPassword()))) {
+        for (User account : users_by_name.getOrDefault(username, Collections.emptyList())) {
+            if (password.equals(account.getUserPassword())) {
                 return true;
             }
         }
@@ -115,31 +156,74 @@ public class UserServiceEngine implements UserService {
         return res;
     }
 
+    /**
+     * Generates list of the user accounts added since they were last saved. When several accounts share a
+     * username, the last one is returned, matching the row a full write would leave in the database.
+     * @return 2d array with list of changed user accounts - each entry is a list with user account info
+     */
+    public List<List<String>> getChangedUsers(){
+        if (changed_users.isEmpty()) return new ArrayList<>();
+        Map<String, List<String>> res = new LinkedHashMap<>();
+        for (User u: list_of_users){
+            if (changed_users.contains(u.getUserID())){
+                res.put(u.getUserID(), u.toStrings());
+            }
+        }
+        return new ArrayList<>(res.values());
+    }
+
+    /**
+     * Generates list of the usernames of user accounts removed since they were last saved
+     * @return List of String usernames of the removed accounts
+     */
+    public List<String> getDeletedUserIDs(){
+        return new ArrayList<>(deleted_users);
+    }
+
+    /**
+     * Marks the given user accounts as saved, so they are no longer reported as added or removed
+     * @param usernames List of String usernames of the saved accounts
+     */
+    public void markUsersSaved(List<String> usernames){
+        for (String username: usernames){
+            changed_users.remove(username);
+            deleted_users.remove(username);
+        }
+    }
+
     /**
      * Generates a list of all User IDs with given user type
      * @param userType UserType enum for user type
      * @return List of String representation of all User IDs with given Type
      */
     public List<String> getListOfIDsByType(UserType userType){
-        List<String> res = new ArrayList<>();
-        for (User user : list_of_users) {
-            if (user.getUserType().equals(userType)) {
-                res.add(user.getUserID());
+        return new ArrayList<>(ids_by_type.get(userType));
+    }
+
+    /**
+     * Checks if there is a user account with the given username and user type
+     * @param username String username of the user
+     * @param userType UserType enum for user type
+     * @return true or false whether the username belongs to an account of the given type
+     */
+    public boolean isUserOfType(String username, UserType userType){
+        for (User account : users_by_name.getOrDefault(username, Collections.emptyList())) {
+            if (account.getUserType() == userType) {
+                return true;
             }
         }
-        return res;
+        return false;
     }
 
     /*
-     * Returns user object if it exists
+     * Returns the oldest user object with the given username, if it exists
      */
     private User getUserByID(String userID){
-        for (User user: list_of_users){
-            if (user.getUserID().equals(userID)){
-                return user;
-            }
+        List<User> accounts = users_by_name.get(userID);
+        if (accounts == null){
+            return null;
         }
-        return null;
+        return accounts.get(0);
     }
 
 }
@@ -0,0 +1,270 @@
+package event_system_test;
+
+import event_system.ConcurrentEventServiceEngine;
+import event_system.EventController;
+import event_system.EventDatabaseReadWriter;
+import event_system.EventPrompt;
+import event_system.EventType;
+import org.junit.Test;
+import room_system.RoomServiceEngine;
+import user_system.UserService;
+import user_system.UserServiceEngine;
+import user_system.UserType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentEventServiceTest {
+
+    private static final int THREADS = 16;
+    private final ConcurrentEventServiceEngine es = new ConcurrentEventServiceEngine();
+    private final LocalDateTime start = LocalDateTime.of(2021, 3, 30, 10, 0);
+
+    private void addEvent(String eventID, int capacity, List<String> speakers, int hour){
+        EventType type = speakers.isEmpty() ? EventType.NO_SPEAKER_EVENT : EventType.SINGLE_SPEAKER_EVENT;
+        es.addEvent(type, capacity, eventID, start.plusHours(hour), start.plusHours(hour + 1), "R" + hour, speakers,
+                new ArrayList<>());
+    }
+
+    /*
+     * Runs each task on its own pool thread, releasing them all at once so they contend for the same events
+     */
+    private void runTogether(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (Callable<Void> task: tasks){
+                results.add(pool.submit(() -> {
+                    ready.await();
+                    return task.call();
+                }));
+            }
+            ready.countDown();
+            for (Future<Void> result: results){
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void addUserToFullEvent() {
+        addEvent("E1", 2, Collections.singletonList("sNancy"), 0);
+        assertTrue(es.addUserToEvent("aHelen", "E1"));
+        assertFalse(es.addUserToEvent("aLeo", "E1"));
+        assertFalse(es.addUserToEvent("aHelen", "E1"));
+        assertFalse(es.addUserToEvent("aLeo", "E2"));
+        assertEquals(2, es.getNumAttendance("E1"));
+        assertEquals(Collections.singletonList("aHelen"), es.getUsersForEvent("E1"));
+        assertEquals(Collections.singletonList("E1"), es.getEventsForAttendee("aHelen"));
+    }
+
+    @Test
+    public void signUpNeverOverbooks() throws Exception {
+        for (int round = 0; round < 20; round++){
+            String eventID = "E" + round;
+            addEvent(eventID, 50, Collections.singletonList("sNancy" + round), round);
+            AtomicInteger signedUp = new AtomicInteger();
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++){
+                int thread = t;
+                tasks.add(() -> {
+                    for (int x = 0; x < 25; x++){
+                        if (es.addUserToEvent("a" + thread + "_" + x, eventID)) signedUp.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            runTogether(tasks);
+
+            assertEquals(49, signedUp.get());
+            assertEquals(50, es.getNumAttendance(eventID));
+            assertTrue(es.isEventFull(eventID));
+            assertEquals(49, es.getUsersForEvent(eventID).size());
+        }
+        assertEquals(20 * 49, es.getAddedAttendees().size());
+    }
+
+    @Test
+    public void signUpAndCancelKeepIndexesConsistent() throws Exception {
+        List<String> eventIDs = Arrays.asList("E0", "E1", "E2", "E3");
+        for (int x = 0; x < eventIDs.size(); x++){
+            addEvent(eventIDs.get(x), 10, new ArrayList<>(), x);
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++){
+            String userID = "a" + (t % 8);
+            tasks.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int x = 0; x < 2_000; x++){
+                    String eventID = eventIDs.get(random.nextInt(eventIDs.size()));
+                    if (random.nextBoolean()){
+                        es.addUserToEvent(userID, eventID);
+                    } else {
+                        es.removeUserFromEvent(userID, eventID);
+                    }
+                    assertTrue(es.getNumAttendance(eventID) <= 10);
+                }
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            for (int x = 0; x < 200; x++){
+                es.getEventViews();
+                es.getListEvents();
+            }
+            return null;
+        });
+        runTogether(tasks);
+
+        for (int u = 0; u < 8; u++){
+            String userID = "a" + u;
+            List<String> joined = es.getEventsForAttendee(userID);
+            for (String eventID: eventIDs){
+                assertEquals(es.isSignUpBefore(eventID, userID), joined.contains(eventID));
+            }
+        }
+        for (String eventID: eventIDs){
+            assertEquals(es.getUsersForEvent(eventID).size(),
+                    es.getEventViews().get(eventIDs.indexOf(eventID)).getAttendeeIDs().size());
+        }
+    }
+
+    @Test
+    public void cancelEventsWhileSigningUp() throws Exception {
+        for (int x = 0; x < 100; x++){
+            addEvent("E" + x, 5, new ArrayList<>(), x);
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS - 1; t++){
+            String userID = "a" + t;
+            tasks.add(() -> {
+                for (int x = 0; x < 100; x++){
+                    es.addUserToEvent(userID, "E" + x);
+                }
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            for (int x = 0; x < 100; x += 2){
+                es.cancelEventByID("E" + x);
+            }
+            return null;
+        });
+        runTogether(tasks);
+
+        assertEquals(50, es.getListEvents().size());
+        assertEquals(50, es.getDeletedEventIDs().size());
+        for (int t = 0; t < THREADS - 1; t++){
+            for (String eventID: es.getEventsForAttendee("a" + t)){
+                assertTrue(es.isEventExist(eventID));
+            }
+        }
+    }
+
+    @Test
+    public void concurrentCancellationsPromoteEachWaitingUserOnce() throws Exception {
+        addEvent("E1", 10, new ArrayList<>(), 0);
+        for (int u = 0; u < 10; u++){
+            assertTrue(es.addUserToEvent("a" + u, "E1"));
+        }
+        for (int w = 0; w < 20; w++){
+            assertTrue(es.addUserToWaitlist("w" + w, "E1"));
+        }
+        List<String> promoted = Collections.synchronizedList(new ArrayList<>());
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int u = 0; u < 10; u++){
+            String userID = "a" + u;
+            tasks.add(() -> {
+                es.removeUserFromEvent(userID, "E1");
+                promoted.addAll(es.promoteFromWaitlist("E1"));
+                return null;
+            });
+        }
+        runTogether(tasks);
+
+        List<String> expected = new ArrayList<>();
+        for (int w = 0; w < 10; w++){
+            expected.add("w" + w);
+        }
+        Collections.sort(promoted);
+        List<String> attendees = new ArrayList<>(es.getUsersForEvent("E1"));
+        Collections.sort(attendees);
+        Collections.sort(expected);
+        assertEquals(expected, promoted);
+        assertEquals(expected, attendees);
+        assertEquals(10, es.getWaitlistSize("E1"));
+        assertEquals("w10", es.getWaitlist("E1").get(0));
+        assertEquals(1, es.getWaitlistPosition("w10", "E1"));
+    }
+
+    @Test
+    public void controllerSignUpReportsFullEvent() throws Exception {
+        UserService userService = new UserServiceEngine();
+        for (int u = 0; u < 64; u++){
+            userService.addUser("a" + u, "pass", UserType.ATTENDEE);
+        }
+        EventController controller = new EventController("jdbc:sqlite:assets/UserDataTest.db", userService, es,
+                new RoomServiceEngine());
+        addEvent("E1", 10, new ArrayList<>(), 0);
+        List<EventPrompt> prompts = Collections.synchronizedList(new ArrayList<>());
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int u = 0; u < 64; u++){
+            String userID = "a" + u;
+            tasks.add(() -> {
+                prompts.add(controller.signUp(userID, "E1"));
+                return null;
+            });
+        }
+        runTogether(tasks);
+
+        assertEquals(10, Collections.frequency(prompts, EventPrompt.SIGNUP_SUCCESS));
+        assertEquals(54, Collections.frequency(prompts, EventPrompt.EVENT_FULL));
+        assertEquals(10, es.getNumAttendance("E1"));
+    }
+
+    @Test
+    public void signUpsDuringSavesAreSaved() throws Exception {
+        EventDatabaseReadWriter dp = new EventDatabaseReadWriter(es, "jdbc:sqlite:assets/UserDataTest.db");
+        if (dp.tableExists("Events")) dp.deleteTable("Events");
+        addEvent("E1", 1_000, new ArrayList<>(), 0);
+        assertTrue(dp.write());
+
+        AtomicInteger finished = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS - 1; t++){
+            int first = t * 40;
+            tasks.add(() -> {
+                for (int u = first; u < first + 40; u++){
+                    assertTrue(es.addUserToEvent("a" + u, "E1"));
+                }
+                finished.incrementAndGet();
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            // saves over and over while the others sign up, so sign-ups land between reading and marking saved
+            while (finished.get() < THREADS - 1){
+                assertTrue(dp.write());
+            }
+            return null;
+        });
+        runTogether(tasks);
+        assertTrue(dp.write());
+
+        ConcurrentEventServiceEngine readService = new ConcurrentEventServiceEngine();
+        assertTrue(new EventDatabaseReadWriter(readService, "jdbc:sqlite:assets/UserDataTest.db").read());
+        assertEquals(new HashSet<>(es.getUsersForEvent("E1")), new HashSet<>(readService.getUsersForEvent("E1")));
+        assertEquals((THREADS - 1) * 40, readService.getUsersForEvent("E1").size());
+    }
+}
@@ -1,18 +1,27 @@
 package event_system_test;
 
 import event_system.*;
+import message_system.MessageIndex;
+import message_system.MessageService;
+import message_system.MessageServiceEngine;
 import room_system.RoomController;
 import room_system.RoomService;
 import room_system.RoomServiceEngine;
+import user_system.UserController;
 import user_system.UserService;
 import user_system.UserServiceEngine;
 import org.junit.Before;
 import org.junit.Test;
 import user_system.UserType;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
@@ -521,4 +530,247 @@ public class EventControllerTest {
         assertFalse(this.testEventController.modifyEventCapacity("Hack The Valley",
                 "Somewhere", 3));
     }
+
+    @Test
+    public void importAttendees() {
+        List<String> speakerIds = new ArrayList<>();
+        speakerIds.add("sNancy");
+        assertEquals(EventPrompt.EVENT_ADDED, this.testEventController.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3,
+                "CSC207", t1, t2, "BA1007", speakerIds, new ArrayList<>()));
+        String csv = "user,aImport1,pass1,attendee\n" +
+                "user, aImport2 ,pass2,ATTENDEE\n" +
+                "user,aHelen,pass3,ATTENDEE\n" +
+                "user,bad_name,pass4,ATTENDEE\n" +
+                "\n" +
+                "signup,aImport1,CSC207\n" +
+                "signup,aImport1,CSC207\n" +
+                "signup,aImport2,CSC208\n" +
+                "signup,sLily,CSC207\n" +
+                "signup,aImport2,CSC207\n" +
+                "signup,aHelen,CSC207\n" +
+                "register,aLeo\n";
+
+        ImportReport report = this.testEventController.importAttendees(new StringReader(csv));
+        assertTrue(report.isCommitted());
+        assertEquals(2, report.getUsersAdded());
+        assertEquals(2, report.getSignUpsAdded());
+        List<Integer> lines = new ArrayList<>(report.getRejections().keySet());
+        assertEquals(List.of(3, 4, 7, 8, 9, 11, 12), lines);
+        assertEquals(EventPrompt.USER_ALREADY_EXISTS, report.getRejections().get(3));
+        assertEquals(EventPrompt.INVALID_IMPORT_ROW, report.getRejections().get(4));
+        assertEquals(EventPrompt.USER_DOUBLE_SIGNUP, report.getRejections().get(7));
+        assertEquals(EventPrompt.EVENT_DNE, report.getRejections().get(8));
+        assertEquals(EventPrompt.ATTENDEE_DNE, report.getRejections().get(9));
+        assertEquals(EventPrompt.EVENT_FULL, report.getRejections().get(11));
+        assertEquals(EventPrompt.INVALID_IMPORT_ROW, report.getRejections().get(12));
+
+        assertTrue(userService.validateCredentials("aImport2", "pass2"));
+        assertEquals(List.of("aImport1", "aImport2"), testEventService.getUsersForEvent("CSC207"));
+        assertTrue(userService.getChangedUsers().stream().noneMatch(user -> user.get(0).startsWith("aImport")));
+
+        // the accepted rows were committed
+        UserService storedUsers = new UserServiceEngine();
+        assertTrue(new UserController(eventListFileName, storedUsers).load());
+        assertTrue(storedUsers.validateCredentials("aImport1", "pass1"));
+        assertEquals(UserType.ATTENDEE, storedUsers.userTypeFromUsers("aImport2"));
+        EventDatabaseReadWriter provider = new EventDatabaseReadWriter(testEventService, eventListFileName);
+        List<String> stored = provider.queryRows("SELECT userID FROM EventAttendees WHERE eventID = ? ORDER BY id",
+                row -> row.getString("userID"), "CSC207");
+        assertEquals(List.of("aImport1", "aImport2"), stored);
+
+        provider.updateRows("DELETE FROM EventAttendees WHERE eventID = ?", "CSC207");
+        provider.updateRows("DELETE FROM Accounts WHERE Username IN (?,?)", "aImport1", "aImport2");
+    }
+
+    @Test
+    public void importAttendeesRollsBackOnReadFailure() {
+        List<String> speakerIds = new ArrayList<>();
+        speakerIds.add("sNancy");
+        assertEquals(EventPrompt.EVENT_ADDED, this.testEventController.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3,
+                "CSC207", t1, t2, "BA1007", speakerIds, new ArrayList<>()));
+        // fails once the rows have been read
+        StringReader csv = new StringReader("user,aImport1,pass1,ATTENDEE\nsignup,aImport1,CSC207\n") {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read < 0) throw new IOException("Connection reset");
+                return read;
+            }
+        };
+
+        ImportReport report = this.testEventController.importAttendees(csv);
+        assertFalse(report.isCommitted());
+        assertFalse(userService.userExists("aImport1"));
+        assertEquals(new ArrayList<>(), testEventService.getUsersForEvent("CSC207"));
+    }
+
+    @Test
+    public void findAvailableSlots() {
+        List<String> speakerIds = new ArrayList<>();
+        speakerIds.add("sNancy");
+        assertEquals(EventPrompt.EVENT_ADDED, testEventController.addEvent(EventType.SINGLE_SPEAKER_EVENT, 40,
+                "CSC207", t1, t2, "HL205", speakerIds, new ArrayList<>()));
+
+        // rooms holding 40 by capacity, each free once sNancy's talk ends
+        List<List<String>> slots = testEventController.findAvailableSlots(40, speakerIds, t1, t7,
+                Duration.ofHours(1), 10);
+        assertEquals(Arrays.asList("HL205", "50", "2001-03-30 11:10", "2001-03-30 14:00"), slots.get(0));
+        assertEquals(Arrays.asList("BA1007", "100", "2001-03-30 11:10", "2001-03-30 14:00"), slots.get(1));
+        assertEquals(Arrays.asList("Online", "200", "2001-03-30 11:10", "2001-03-30 14:00"), slots.get(2));
+        assertEquals(3, slots.size());
+        assertEquals(2, testEventController.findAvailableSlots(40, speakerIds, t1, t7, Duration.ofHours(1), 2)
+                .size());
+        assertEquals(EventPrompt.EVENT_ADDED, testEventController.addEvent(EventType.SINGLE_SPEAKER_EVENT, 40,
+                "CSC263", t2, t2.plusHours(1), slots.get(0).get(0), speakerIds, new ArrayList<>()));
+
+        List<String> notSpeakers = new ArrayList<>();
+        notSpeakers.add("sJan");
+        assertTrue(testEventController.findAvailableSlots(10, notSpeakers, t1, t7, Duration.ofHours(1), 10)
+                .isEmpty());
+        assertTrue(testEventController.findAvailableSlots(10, new ArrayList<>(), t1, t2, Duration.ofHours(2), 10)
+                .isEmpty());
+        assertTrue(testEventController.findAvailableSlots(500, new ArrayList<>(), t1, t7, Duration.ofHours(1), 10)
+                .isEmpty());
+    }
+
+    @Test
+    public void scheduleSessions() {
+        List<String> nancy = new ArrayList<>();
+        nancy.add("sNancy");
+        List<String> both = new ArrayList<>();
+        both.add("sNancy");
+        both.add("sLily");
+        List<Session> sessions = new ArrayList<>();
+        sessions.add(new Session("Talk1", EventType.SINGLE_SPEAKER_EVENT, 40, nancy, Duration.ofHours(1)));
+        sessions.add(new Session(" Talk2 ", EventType.SINGLE_SPEAKER_EVENT, 40, nancy, Duration.ofHours(1)));
+        sessions.add(new Session("Panel", EventType.MULTI_SPEAKER_EVENT, 150, both, Duration.ofHours(2)));
+        sessions.add(new Session("Party", EventType.NO_SPEAKER_EVENT, 1000, new ArrayList<>(), Duration.ofHours(1)));
+        sessions.add(new Session("Wrong", EventType.SINGLE_SPEAKER_EVENT, 40, both, Duration.ofHours(1)));
+        sessions.add(new Session("Fake", EventType.SINGLE_SPEAKER_EVENT, 40, Collections.singletonList("aLeo"),
+                Duration.ofHours(1)));
+        sessions.add(new Session("Talk1", EventType.NO_SPEAKER_EVENT, 10, new ArrayList<>(), Duration.ofHours(1)));
+        List<List<LocalDateTime>> horizon = Collections.singletonList(Arrays.asList(t1, t1.plusHours(5)));
+
+        assertEquals(Arrays.asList(EventPrompt.EVENT_ADDED, EventPrompt.EVENT_ADDED, EventPrompt.EVENT_ADDED,
+                EventPrompt.NO_AVAILABLE_SLOT, EventPrompt.NUM_SPEAKERS_MISMATCH, EventPrompt.SPEAKER_DNE,
+                EventPrompt.EVENT_ALREADY_EXIST), testEventController.scheduleSessions(sessions, horizon));
+        assertTrue(testEventService.isEventExist("Talk2"));
+        // the panel needs both speakers and the only room large enough, so it goes first
+        assertTrue(testEventService.isDoubleBookingRoom("Online", t1, t1.plusHours(2)));
+        assertEquals(Collections.singletonList("Panel"), testEventService.getEventsBySpeaker("sLily"));
+        assertFalse(testEventService.isDoubleBookingSpeaker(Collections.singletonList("sNancy"), t1.plusHours(4),
+                t1.plusHours(5)));
+
+        // a later batch is placed around the events added by the first one
+        assertEquals(Collections.singletonList(EventPrompt.EVENT_ADDED), testEventController.scheduleSessions(
+                Collections.singletonList(new Session("Talk3", EventType.SINGLE_SPEAKER_EVENT, 40, nancy,
+                        Duration.ofHours(1))), horizon));
+        assertEquals(EventPrompt.NO_AVAILABLE_SLOT, testEventController.scheduleSessions(
+                Collections.singletonList(new Session("Talk4", EventType.SINGLE_SPEAKER_EVENT, 40, nancy,
+                        Duration.ofHours(1))), horizon).get(0));
+    }
+
+    @Test
+    public void waitlistGetsFreedSeats() {
+        MessageService messageService = new MessageServiceEngine();
+        IEventController controller = new EventController(eventListFileName, userService, testEventService,
+                testRoomService, messageService);
+        testEventService.addEvent(EventType.NO_SPEAKER_EVENT, 1, "CSC207", t1, t2, "PG101", new ArrayList<>(),
+                new ArrayList<>());
+        assertEquals(EventPrompt.SIGNUP_SUCCESS, controller.signUp("aHelen", "CSC207"));
+        assertEquals(EventPrompt.EVENT_FULL, controller.signUp("aLeo", "CSC207"));
+        assertEquals(EventPrompt.ADDED_TO_WAITLIST, controller.joinWaitlist("aLeo", "CSC207"));
+        assertEquals(EventPrompt.ADDED_TO_WAITLIST, controller.joinWaitlist("aJan", "CSC207"));
+        assertEquals(EventPrompt.ADDED_TO_WAITLIST, controller.joinWaitlist("sJan", "CSC207"));
+        assertEquals(EventPrompt.ALREADY_ON_WAITLIST, controller.joinWaitlist("aLeo", "CSC207"));
+        assertEquals(EventPrompt.USER_DOUBLE_SIGNUP, controller.joinWaitlist("aHelen", "CSC207"));
+        assertEquals(EventPrompt.ATTENDEE_DNE, controller.joinWaitlist("sNancy", "CSC207"));
+        assertEquals(EventPrompt.EVENT_DNE, controller.joinWaitlist("aLeo", "CSC263"));
+        assertEquals(Arrays.asList("aLeo", "aJan", "sJan"), controller.getWaitlist("CSC207"));
+
+        // the freed seat goes to the front of the waitlist, not to whoever signs up next
+        assertEquals(EventPrompt.CANCEL_SUCCESS, controller.cancelSignUp("aHelen", "CSC207"));
+        assertEquals(Collections.singletonList("aLeo"), testEventService.getUsersForEvent("CSC207"));
+        assertEquals(EventPrompt.EVENT_FULL, controller.signUp("aHelen", "CSC207"));
+        assertEquals(1, messageService.showMessage("aLeo").size());
+        assertEquals(EventController.WAITLIST_SENDER,
+                messageService.showMessage("aLeo").get(0).get(MessageIndex.SENDER.getValue()));
+
+        assertEquals(EventPrompt.CANCEL_SUCCESS, controller.leaveWaitlist("aJan", "CSC207"));
+        assertEquals(EventPrompt.ATTENDEE_NOT_IN_EVENT, controller.leaveWaitlist("aJan", "CSC207"));
+        assertEquals(EventPrompt.ADDED_TO_WAITLIST, controller.joinWaitlist("aHelen", "CSC207"));
+
+        // raising the capacity promotes the rest in order, and they are told in one broadcast
+        assertTrue(controller.modifyEventCapacity("CSC207", "PG101", 3));
+        assertEquals(Arrays.asList("aLeo", "sJan", "aHelen"), testEventService.getUsersForEvent("CSC207"));
+        assertTrue(controller.getWaitlist("CSC207").isEmpty());
+        List<String> broadcasts = new ArrayList<>();
+        for (List<String> record : messageService.getMessageRecords()) {
+            if (!record.get(MessageIndex.RECEIVER.getValue()).equals("aLeo")) {
+                broadcasts.add(record.get(MessageIndex.BROADCAST_ID.getValue()));
+            }
+        }
+        assertEquals(2, broadcasts.size());
+        assertEquals(broadcasts.get(0), broadcasts.get(1));
+
+        // with a free seat and nobody waiting, joining the waitlist signs the user up
+        assertEquals(EventPrompt.CANCEL_SUCCESS, controller.cancelSignUp("aLeo", "CSC207"));
+        assertEquals(EventPrompt.SIGNUP_SUCCESS, controller.joinWaitlist("aJan", "CSC207"));
+        assertEquals(3, messageService.getMessageRecords().size());
+    }
+
+    @Test
+    public void importRollbackPromotesTheWaitlist() {
+        MessageService messageService = new MessageServiceEngine();
+        IEventController controller = new EventController(eventListFileName, userService, testEventService,
+                testRoomService, messageService);
+        testEventService.addEvent(EventType.NO_SPEAKER_EVENT, 1, "CSC207", t1, t2, "PG101", new ArrayList<>(),
+                new ArrayList<>());
+        // aLeo joins the waitlist once the import has taken the last seat, then reading the import fails
+        StringReader csv = new StringReader("signup,aJan,CSC207\n") {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read < 0) {
+                    assertEquals(EventPrompt.ADDED_TO_WAITLIST, controller.joinWaitlist("aLeo", "CSC207"));
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+        };
+
+        assertFalse(controller.importAttendees(csv).isCommitted());
+        assertEquals(Collections.singletonList("aLeo"), testEventService.getUsersForEvent("CSC207"));
+        assertEquals(0, controller.getWaitlistSize("CSC207"));
+        assertEquals(1, messageService.showMessage("aLeo").size());
+    }
+
+    @Test
+    public void signUpsLeaveTheWaitlistAlone() {
+        MessageService messageService = new MessageServiceEngine();
+        IEventController controller = new EventController(eventListFileName, userService, testEventService,
+                testRoomService, messageService);
+        testEventService.addEvent(EventType.NO_SPEAKER_EVENT, 1, "CSC207", t1, t2, "PG101", new ArrayList<>(),
+                new ArrayList<>());
+        assertEquals(EventPrompt.SIGNUP_SUCCESS, controller.signUp("aHelen", "CSC207"));
+        assertEquals(EventPrompt.ADDED_TO_WAITLIST, controller.joinWaitlist("aLeo", "CSC207"));
+        assertEquals(1, controller.getWaitlistPosition("aLeo", "CSC207"));
+        assertEquals(0, controller.getWaitlistPosition("aJan", "CSC207"));
+        assertEquals(1, controller.getWaitlistSize("CSC207"));
+
+        // a seat freed without going through the controller stays held for aLeo
+        assertTrue(testEventService.removeUserFromEvent("aHelen", "CSC207"));
+        ImportReport report = controller.importAttendees(new StringReader("signup,aJan,CSC207\n"));
+        assertEquals(EventPrompt.EVENT_FULL, report.getRejections().get(1));
+        assertEquals(EventPrompt.EVENT_FULL, controller.signUp("aHelen", "CSC207"));
+        assertEquals(Collections.singletonList("aLeo"), controller.getWaitlist("CSC207"));
+        assertTrue(testEventService.getUsersForEvent("CSC207").isEmpty());
+        assertTrue(messageService.showMessage("aLeo").isEmpty());
+
+        // the next waitlist action gives it out
+        assertEquals(EventPrompt.ADDED_TO_WAITLIST, controller.joinWaitlist("aJan", "CSC207"));
+        assertEquals(Collections.singletonList("aLeo"), testEventService.getUsersForEvent("CSC207"));
+        assertEquals(1, controller.getWaitlistPosition("aJan", "CSC207"));
+        assertEquals(1, messageService.showMessage("aLeo").size());
+    }
 }
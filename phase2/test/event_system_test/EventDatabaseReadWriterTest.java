@@ -7,8 +7,10 @@ import org.junit.Test;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertTrue;
@@ -241,9 +243,194 @@ public class EventDatabaseReadWriterTest {
         dp.displayAllRows("Events",8);
     }
 
+    @Test
+    public void readWriteWaitlists(){
+        testEventService.addEvent(EventType.NO_SPEAKER_EVENT, 1, "CSC207", t1, t2, "Somewhere in Bahen",
+                new ArrayList<>(), new ArrayList<>(Arrays.asList("Hassan")));
+        testEventService.addEvent(EventType.NO_SPEAKER_EVENT, 1, "CSCB07", t5, t6, "Somewhere in IC",
+                new ArrayList<>(), new ArrayList<>());
+        for (String userID: Arrays.asList("Helen", "Leo", "Jan")){
+            assertTrue(testEventService.addUserToWaitlist(userID, "CSC207"));
+        }
+        assertTrue(testEventService.addUserToWaitlist("Leo", "CSCB07"));
+        assertTrue(dp.write());
+        assertTrue(testEventService.getAddedToWaitlists().isEmpty());
+
+        // only the changes are written; a user who leaves and joins again goes to the back
+        assertTrue(testEventService.removeUserFromWaitlist("Helen", "CSC207"));
+        assertTrue(testEventService.addUserToWaitlist("Helen", "CSC207"));
+        assertTrue(testEventService.removeUserFromWaitlist("Leo", "CSC207"));
+        assertTrue(testEventService.addUserToWaitlist("Mia", "CSC207"));
+        assertTrue(testEventService.cancelEventByID("CSCB07"));
+        assertEquals(2, testEventService.getAddedToWaitlists().size());
+        assertEquals(2, testEventService.getRemovedFromWaitlists().size());
+        assertTrue(dp.write());
+        assertTrue(testEventService.getAddedToWaitlists().isEmpty());
+        assertTrue(testEventService.getRemovedFromWaitlists().isEmpty());
+
+        EventService readService = new EventServiceEngine();
+        EventDatabaseReadWriter reader = new EventDatabaseReadWriter(readService, filename);
+        assertTrue(reader.read());
+        assertEquals(Arrays.asList("Jan", "Helen", "Mia"), readService.getWaitlist("CSC207"));
+        assertEquals(testEventService.getWaitlists(), readService.getWaitlists());
+        assertTrue(readService.getAddedToWaitlists().isEmpty());
+    }
+
+    @Test
+    public void writeOnlyChangedEvents(){
+        List<String> a0 = new ArrayList<>();
+        a0.add("Hassan");
+        testEventService.addEvent(EventType.NO_SPEAKER_EVENT, 2, "CSC207", t1, t2, "Somewhere in Bahen",
+                new ArrayList<>(), a0);
+        testEventService.addEvent(EventType.NO_SPEAKER_EVENT, 2, "CSCB07", t5, t6, "Somewhere in IC",
+                new ArrayList<>(), new ArrayList<>());
+        assertEquals(2, testEventService.getChangedEvents().size());
+        assertTrue(dp.write());
+        assertTrue(testEventService.getChangedEvents().isEmpty());
+
+        testEventService.addUserToEvent("Helen", "CSC207");
+        testEventService.cancelEventByID("CSCB07");
+        assertEquals(1, testEventService.getChangedEvents().size());
+        assertEquals("CSC207", testEventService.getChangedEvents().get(0).get(2).get(0));
+        assertEquals(1, testEventService.getDeletedEventIDs().size());
+        assertEquals("CSCB07", testEventService.getDeletedEventIDs().get(0));
+        assertTrue(dp.write());
+        assertTrue(testEventService.getChangedEvents().isEmpty());
+        assertTrue(testEventService.getDeletedEventIDs().isEmpty());
+
+        EventService readService = new EventServiceEngine();
+        EventDatabaseReadWriter reader = new EventDatabaseReadWriter(readService, filename);
+        assertTrue(reader.read());
+        assertTrue(readService.getChangedEvents().isEmpty());
+        assertEquals(1, readService.getListEvents().size());
+        a0.add("Helen");
+        HashMap<String,String> expected = toMap(EventType.NO_SPEAKER_EVENT, 2, "CSC207", t1, t2,
+                "Somewhere in Bahen", new ArrayList<>(), a0);
+        assertEquals(expected, listToMap(readService.getListEvents().get(0)));
+    }
+
+    @Test
+    public void changesMadeWhileWritingAreSavedNextTime(){
+        testEventService.addEvent(EventType.NO_SPEAKER_EVENT, 3, "CSC207", t1, t2, "Somewhere in Bahen",
+                new ArrayList<>(), Arrays.asList("Hassan"));
+        assertTrue(dp.write());
+
+        testEventService.addUserToEvent("Helen", "CSC207");
+        BooleanSupplier write = dp.takeChanges();
+        assertTrue(testEventService.getAddedAttendees().isEmpty());
+        // the service is used again before the taken changes are written
+        testEventService.addUserToEvent("Mia", "CSC207");
+        assertTrue(write.getAsBoolean());
+        assertEquals(1, testEventService.getAddedAttendees().size());
+        assertTrue(dp.write());
+
+        EventService readService = new EventServiceEngine();
+        assertTrue(new EventDatabaseReadWriter(readService, filename).read());
+        assertEquals(Arrays.asList("Hassan", "Helen", "Mia"), readService.getUsersForEvent("CSC207"));
+    }
+
+    @Test
+    public void writeEventAddedAgain(){
+        for (EventService service: Arrays.asList(new EventServiceEngine(), new ConcurrentEventServiceEngine())){
+            EventDatabaseReadWriter writer = new EventDatabaseReadWriter(service, filename);
+            service.addEvent(EventType.SINGLE_SPEAKER_EVENT, 1, "CSC207", t1, t2, "Somewhere in Bahen",
+                    Arrays.asList("sOld"), Arrays.asList("aOld"));
+            assertTrue(service.addUserToWaitlist("wOld", "CSC207"));
+            assertTrue(writer.write());
+
+            // the old event's speakers, attendees and waitlist must not come back with the new one
+            assertTrue(service.cancelEventByID("CSC207"));
+            service.addEvent(EventType.SINGLE_SPEAKER_EVENT, 1, "CSC207", t5, t6, "Somewhere in IC",
+                    Arrays.asList("sNew"), new ArrayList<>());
+            assertTrue(writer.write());
+
+            EventService readService = new EventServiceEngine();
+            assertTrue(new EventDatabaseReadWriter(readService, filename).read());
+            assertEquals(1, readService.getListEvents().size());
+            HashMap<String,String> expected = toMap(EventType.SINGLE_SPEAKER_EVENT, 1, "CSC207", t5, t6,
+                    "Somewhere in IC", Arrays.asList("sNew"), new ArrayList<>());
+            assertEquals(expected, listToMap(readService.getListEvents().get(0)));
+            assertTrue(readService.getWaitlist("CSC207").isEmpty());
+            dp.deleteTable("Events");
+        }
+    }
+
+    @Test
+    public void migrateListColumns(){
+        String sqlCreate = "CREATE TABLE IF NOT EXISTS Events (\n"
+                + "    eventID TEXT UNIQUE,\n"
+                + "    eventType TEXT,\n"
+                + "    eventCapacity TEXT,\n"
+                + "    startTime TEXT,\n"
+                + "    endTime TEXT,\n"
+                + "    roomID TEXT,\n"
+                + "    speakerIDs TEXT,\n"
+                + "    attendeeIDs TEXT\n"
+                + ");";
+        dp.createNewTable(sqlCreate);
+        List<String> row = new ArrayList<>();
+        row.add("CSC207");
+        row.add(EventType.MULTI_SPEAKER_EVENT.toString());
+        row.add("3");
+        row.add("2001-03-30 10:10");
+        row.add("2001-03-30 11:10");
+        row.add("BA1007");
+        row.add("[Nancy,Lily]");
+        row.add("[Helen,Seyon]");
+        assertTrue(dp.insertIntoDB(row, "Events(eventID,eventType,eventCapacity,startTime,endTime,roomID," +
+                "speakerIDs,attendeeIDs)", "VALUES(?,?,?,?,?,?,?,?)"));
+
+        assertTrue(dp.read());
+        assertTrue(dp.tableExists("EventSpeakers"));
+        assertTrue(dp.tableExists("EventAttendees"));
+        List<String> s0 = new ArrayList<>();
+        s0.add("Nancy");
+        s0.add("Lily");
+        List<String> a0 = new ArrayList<>();
+        a0.add("Helen");
+        a0.add("Seyon");
+        HashMap<String,String> expected = toMap(EventType.MULTI_SPEAKER_EVENT, 3, "CSC207", t1, t2, "BA1007",
+                s0, a0);
+        assertEquals(expected, listToMap(testEventService.getListEvents().get(0)));
+
+        // the migrated rosters are read back from the join tables
+        testEventService.addUserToEvent("Lucia", "CSC207");
+        testEventService.removeUserFromEvent("Helen", "CSC207");
+        assertTrue(dp.write());
+        EventService readService = new EventServiceEngine();
+        assertTrue(new EventDatabaseReadWriter(readService, filename).read());
+        a0.remove("Helen");
+        a0.add("Lucia");
+        expected = toMap(EventType.MULTI_SPEAKER_EVENT, 3, "CSC207", t1, t2, "BA1007", s0, a0);
+        assertEquals(expected, listToMap(readService.getListEvents().get(0)));
+        assertEquals(a0, readService.getUsersForEvent("CSC207"));
+    }
+
+    @Test
+    public void readInParallelChunks(){
+        for (int x = 0; x < 25; x++){
+            testEventService.addEvent(EventType.SINGLE_SPEAKER_EVENT, 5, "E" + x, t1.plusDays(x), t2.plusDays(x),
+                    "R" + x % 3, Arrays.asList("s" + x), Arrays.asList("a" + x, "b" + x));
+        }
+        assertTrue(dp.write());
+        dp.updateRows("INSERT INTO Events(eventID,eventType,eventCapacity,startTime,endTime,roomID) " +
+                "VALUES('Bad','NO_SPEAKER_EVENT','3','not a time','2001-03-30 11:10','R0')");
+
+        EventService readService = new EventServiceEngine();
+        EventDatabaseReadWriter reader = new EventDatabaseReadWriter(readService, filename);
+        reader.setReadChunkSize(4);
+        assertTrue(reader.read());
+        assertEquals(testEventService.getListEvents(), readService.getListEvents());
+        assertFalse(readService.isEventExist("Bad"));
+        assertEquals(Arrays.asList("a24", "b24"), readService.getUsersForEvent("E24"));
+        assertTrue(readService.getChangedEvents().isEmpty());
+    }
+
     @After
     public void deleteTemp(){
         dp.deleteAllData("Events");
         dp.deleteTable("Events");
+        if (dp.tableExists("EventSpeakers")) dp.deleteTable("EventSpeakers");
+        if (dp.tableExists("EventAttendees")) dp.deleteTable("EventAttendees");
     }
 }
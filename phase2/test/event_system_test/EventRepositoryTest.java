@@ -0,0 +1,132 @@
+package event_system_test;
+
+import event_system.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class EventRepositoryTest {
+
+    private final String filename = "jdbc:sqlite:assets/UserDataTest.db";
+    private final DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private final LocalDateTime t1 = LocalDateTime.parse("2001-03-30 10:10", format);
+    private final LocalDateTime t2 = LocalDateTime.parse("2001-03-30 11:10", format);
+    private final LocalDateTime t3 = LocalDateTime.parse("2001-03-30 10:30", format);
+    private final LocalDateTime t4 = LocalDateTime.parse("2001-03-30 12:00", format);
+    private final EventDatabaseReadWriter dp = new EventDatabaseReadWriter(new EventServiceEngine(), filename);
+    private EventRepository repository;
+
+    @Before
+    public void Setup() {
+        dropTables();
+        repository = new EventRepository(filename, 1);
+        assertTrue(repository.prepare());
+    }
+
+    @After
+    public void tearDown() {
+        dropTables();
+    }
+
+    private void dropTables() {
+        for (String table : Arrays.asList("Events", "EventSpeakers", "EventAttendees", "EventWaitlist")) {
+            if (dp.tableExists(table)) dp.deleteTable(table);
+        }
+    }
+
+    @Test
+    public void changesAreStoredImmediately() {
+        repository.addEvent(EventType.SINGLE_SPEAKER_EVENT, 2, "e1", t1, t2, "r1", Arrays.asList("s1"),
+                new ArrayList<>());
+        repository.addEvent(EventType.NO_SPEAKER_EVENT, 5, "e2", t2, t4, "r2", new ArrayList<>(), new ArrayList<>());
+        assertTrue(repository.addUserToEvent("u1", "e1"));
+        assertFalse(repository.addUserToEvent("u1", "e1"));
+        assertTrue(repository.addUserToEvent("u1", "e2"));
+
+        // a second repository starts with an empty cache and reads everything from the database
+        EventRepository reopened = new EventRepository(filename);
+        assertTrue(reopened.isEventExist("e1"));
+        assertEquals(Arrays.asList("u1"), reopened.getUsersForEvent("e1"));
+        assertEquals(Arrays.asList("e1", "e2"), reopened.getEventsForAttendee("u1"));
+        assertEquals(Arrays.asList("e1"), reopened.getEventsBySpeaker("s1"));
+        assertEquals(2, reopened.getListEvents().size());
+    }
+
+    @Test
+    public void queriesSeeChangesAfterEviction() {
+        repository.addEvent(EventType.SINGLE_SPEAKER_EVENT, 1, "e1", t1, t2, "r1", Arrays.asList("s1"),
+                new ArrayList<>());
+        assertTrue(repository.addUserToEvent("u1", "e1"));
+        // the cache holds one event, so this evicts e1
+        repository.addEvent(EventType.NO_SPEAKER_EVENT, 5, "e2", t2, t4, "r2", new ArrayList<>(), new ArrayList<>());
+
+        assertTrue(repository.isEventFull("e1"));
+        assertTrue(repository.isSignUpBefore("e1", "u1"));
+        assertTrue(repository.isDoubleBookingRoom("r1", t3, t4));
+        assertFalse(repository.isDoubleBookingRoom("r1", t2, t4));
+        assertTrue(repository.isDoubleBookingSpeaker(Arrays.asList("s1"), t3, t4));
+
+        assertTrue(repository.cancelEventByID("e1"));
+        assertFalse(repository.isEventExist("e1"));
+        assertTrue(repository.getEventsForAttendee("u1").isEmpty());
+        assertFalse(repository.isDoubleBookingRoom("r1", t3, t4));
+    }
+
+    @Test
+    public void freeTimesFromDatabase() {
+        repository.addEvent(EventType.SINGLE_SPEAKER_EVENT, 2, "e1", t1, t2, "r1", Arrays.asList("s1"),
+                new ArrayList<>());
+        repository.addEvent(EventType.SINGLE_SPEAKER_EVENT, 2, "e2", t2, t4, "r2", Arrays.asList("s2"),
+                new ArrayList<>());
+        LocalDateTime from = LocalDateTime.parse("2001-03-30 10:00", format);
+        LocalDateTime to = LocalDateTime.parse("2001-03-30 13:00", format);
+
+        Map<String, List<List<LocalDateTime>>> free = new EventRepository(filename).getFreeTimes(
+                Arrays.asList("r1", "r2"), Arrays.asList("s2"), from, to, Duration.ofMinutes(30));
+        assertEquals(Arrays.asList(Arrays.asList(t4, to)), free.get("r1"));
+        // s2 speaks in r2, so r2 is free whenever s2 is
+        assertEquals(Arrays.asList(Arrays.asList(from, t2), Arrays.asList(t4, to)), free.get("r2"));
+        free = repository.getFreeTimes(Arrays.asList("r1"), new ArrayList<>(), from, to, Duration.ofMinutes(5));
+        assertEquals(Arrays.asList(Arrays.asList(from, t1), Arrays.asList(t2, to)), free.get("r1"));
+    }
+
+    @Test
+    public void waitlistIsStoredImmediately() {
+        repository.addEvent(EventType.NO_SPEAKER_EVENT, 1, "e1", t1, t2, "r1", new ArrayList<>(),
+                Arrays.asList("u1"));
+        assertFalse(repository.addUserToWaitlist("u1", "e1"));
+        assertFalse(repository.addUserToWaitlist("u2", "e2"));
+        for (String userID : Arrays.asList("u2", "u3", "u4")) {
+            assertTrue(repository.addUserToWaitlist(userID, "e1"));
+        }
+        assertFalse(repository.addUserToWaitlist("u2", "e1"));
+        assertEquals(3, repository.getWaitlistSize("e1"));
+        assertEquals(3, repository.getWaitlistPosition("u4", "e1"));
+        assertTrue(repository.removeUserFromWaitlist("u3", "e1"));
+        assertEquals(2, repository.getWaitlistPosition("u4", "e1"));
+        assertEquals(0, repository.getWaitlistPosition("u3", "e1"));
+        assertTrue(repository.hasWaitlist("e1"));
+        assertFalse(repository.hasWaitlist("e2"));
+        assertTrue(repository.promoteFromWaitlist("e1").isEmpty());
+
+        assertTrue(repository.removeUserFromEvent("u1", "e1"));
+        assertEquals(Arrays.asList("u2"), repository.promoteFromWaitlist("e1"));
+        assertEquals(Arrays.asList("u4"), repository.getWaitlist("e1"));
+
+        EventRepository reopened = new EventRepository(filename);
+        assertEquals(Arrays.asList("u2"), reopened.getUsersForEvent("e1"));
+        assertEquals(Arrays.asList(Arrays.asList("e1", "u4")), reopened.getWaitlists());
+        assertTrue(reopened.cancelEventByID("e1"));
+        assertTrue(repository.getWaitlists().isEmpty());
+        assertEquals(0, repository.getWaitlistSize("e1"));
+    }
+}
@@ -1,17 +1,23 @@
 package event_system_test;
 
+import event_system.EventIndex;
 import event_system.EventService;
 import event_system.EventServiceEngine;
 import event_system.EventType;
+import event_system.EventView;
 import org.junit.Before;
 import org.junit.Test;
 import user_system.UserService;
 import user_system.UserServiceEngine;
 import user_system.UserType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.List;
 import java.util.HashMap;
 
@@ -139,6 +145,22 @@ public class EventServiceTest {
         assertFalse(es.addUserToEvent("aJan","CSCB07"));
     }
 
+    @Test
+    public void addUserToEventTwice() {
+        List<String> s1 = new ArrayList<>();
+        s1.add("sNancy");
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3,"CSC207",t1,t2,"HL205",s1,
+                new ArrayList<>());
+        assertTrue(es.addUserToEvent("aHelen","CSC207"));
+        assertFalse(es.addUserToEvent("aHelen","CSC207"));
+        assertEquals(2, es.getNumAttendance("CSC207"));
+        assertTrue(es.isSignUpBefore("CSC207","aHelen"));
+
+        assertTrue(es.removeUserFromEvent("aHelen","CSC207"));
+        assertFalse(es.isSignUpBefore("CSC207","aHelen"));
+        assertEquals(1, es.getNumAttendance("CSC207"));
+    }
+
     @Test
     public void addUserToFullEvent() {
         List<String> speakers = new ArrayList<>();
@@ -188,6 +210,73 @@ public class EventServiceTest {
         assertEquals(es.getUsersForEvent("CSC263"),new ArrayList<>());
     }
 
+    @Test
+    public void getUsersForEvents() {
+        List<String> s1 = new ArrayList<>();
+        s1.add("sNancy");
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3, "CSC207",t1,t2,"HL205",s1,Arrays.asList("aSeyon", "aJan"));
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3,"CSC263",t4,t5,"SS206",s1,Arrays.asList("aJan", "aLi"));
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 3,"MAT137",t4,t5,"SS207",new ArrayList<>(),new ArrayList<>());
+
+        List<String> users = es.getUsersForEvents(Arrays.asList("CSC207", "CSC263", "MAT137", "NONE"));
+        assertEquals(3, users.size());
+        assertEquals(new HashSet<>(Arrays.asList("aSeyon", "aJan", "aLi")), new HashSet<>(users));
+        assertEquals(new ArrayList<>(), es.getUsersForEvents(Arrays.asList("MAT137", "NONE")));
+    }
+
+    @Test
+    public void largeRosters() {
+        // past 4096 members a roster switches from sorted arrays to bitmaps, and back once it is below 2048
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 20_000, "BIG1",t1,t2,"HL205",new ArrayList<>(),new ArrayList<>());
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 20_000, "BIG2",t4,t5,"SS206",new ArrayList<>(),new ArrayList<>());
+        for (int x = 0; x < 10_000; x++){
+            assertTrue(es.addUserToEvent("aBig" + x, "BIG1"));
+            if (x % 2 == 0) assertTrue(es.addUserToEvent("aBig" + (x + 5_000), "BIG2"));
+        }
+        assertFalse(es.addUserToEvent("aBig5", "BIG1"));
+        assertEquals(10_000, es.getNumAttendance("BIG1"));
+        assertEquals(5_000, es.getUsersForEvent("BIG2").size());
+        assertEquals(12_500, es.getUsersForEvents(Arrays.asList("BIG1", "BIG2")).size());
+
+        for (int x = 0; x < 9_000; x++){
+            assertTrue(es.removeUserFromEvent("aBig" + x, "BIG1"));
+        }
+        assertEquals(1_000, es.getNumAttendance("BIG1"));
+        assertFalse(es.isSignUpBefore("BIG1", "aBig8999"));
+        assertTrue(es.isSignUpBefore("BIG1", "aBig9000"));
+        assertEquals("aBig9000", es.getUsersForEvent("BIG1").get(0));
+        assertEquals(1_000 + 5_000 - 500, es.getUsersForEvents(Arrays.asList("BIG2", "BIG1")).size());
+    }
+
+    @Test
+    public void rosterOrderSurvivesRemovals() {
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 100, "CSC207", t1, t2, "HL205", new ArrayList<>(),
+                new ArrayList<>());
+        List<String> expected = new ArrayList<>();
+        for (int x = 0; x < 40; x++){
+            assertTrue(es.addUserToEvent("a" + x, "CSC207"));
+            expected.add("a" + x);
+        }
+        // removed users leave gaps that are reused once the roster is read or runs out of room
+        for (int x = 0; x < 40; x += 3){
+            assertTrue(es.removeUserFromEvent("a" + x, "CSC207"));
+            assertFalse(es.isSignUpBefore("CSC207", "a" + x));
+            expected.remove("a" + x);
+        }
+        assertEquals(expected, es.getUsersForEvent("CSC207"));
+        for (int x = 0; x < 40; x += 2){
+            assertTrue(es.removeUserFromEvent("a" + x, "CSC207"));
+            expected.remove("a" + x);
+        }
+        assertTrue(es.addUserToEvent("a0", "CSC207"));
+        assertTrue(es.addUserToEvent("b0", "CSC207"));
+        expected.add("a0");
+        expected.add("b0");
+        assertEquals(expected, es.getUsersForEvent("CSC207"));
+        assertEquals(expected.size(), es.getNumAttendance("CSC207"));
+        assertTrue(es.isSignUpBefore("CSC207", "a0"));
+    }
+
     @Test
     public void getEventsForUser() {
         List<String> a1=new ArrayList<>();
@@ -206,6 +295,31 @@ public class EventServiceTest {
         assertEquals(es.getEventsForAttendee("aLily"),new ArrayList<>());
     }
 
+    @Test
+    public void getEventsForUserAfterChanges() {
+        List<String> s1 = new ArrayList<>();
+        s1.add("sNancy");
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3,"CSC207",t1,t2,"HL205",s1,new ArrayList<>());
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3,"CSC263",t4,t5,"SS206",s1,new ArrayList<>());
+        assertTrue(es.addUserToEvent("aSeyon","CSC207"));
+        assertTrue(es.addUserToEvent("aSeyon","CSC263"));
+
+        List<String> expected=new ArrayList<>();
+        expected.add("CSC207");
+        expected.add("CSC263");
+        assertEquals(expected, es.getEventsForAttendee("aSeyon"));
+
+        assertTrue(es.removeUserFromEvent("aSeyon","CSC207"));
+        expected.remove("CSC207");
+        assertEquals(expected, es.getEventsForAttendee("aSeyon"));
+
+        assertTrue(es.cancelEventByID("CSC263"));
+        assertEquals(new ArrayList<>(), es.getEventsForAttendee("aSeyon"));
+        expected.clear();
+        expected.add("CSC207");
+        assertEquals(expected, es.getEventsBySpeaker("sNancy"));
+    }
+
     @Test
     public void getEventsBySpeaker() {
         List<String> s1=new ArrayList<>();
@@ -257,6 +371,29 @@ public class EventServiceTest {
 
     }
 
+    @Test
+    public void isDoubleBookingAfterCancel(){
+        List<String> s1=new ArrayList<>();
+        s1.add("sSeyon");
+
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3, "CSC207",t1,t2,"HL205",
+                s1,new ArrayList<>());
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3, "CSC236",t4,t5,"HL205",
+                new ArrayList<>(),new ArrayList<>());
+        assertTrue(es.isDoubleBookingRoom("HL205", t7, t3));
+        assertTrue(es.isDoubleBookingSpeaker(s1, t7, t3));
+        // an event ending exactly when another starts is not a conflict
+        assertFalse(es.isDoubleBookingRoom("HL205", t2, t4));
+
+        assertTrue(es.cancelEventByID("CSC207"));
+        assertFalse(es.isDoubleBookingRoom("HL205", t7, t3));
+        assertFalse(es.isDoubleBookingSpeaker(s1, t7, t3));
+        assertTrue(es.isDoubleBookingRoom("HL205", t8, t6));
+
+        assertTrue(es.cancelEventsByType(EventType.SINGLE_SPEAKER_EVENT));
+        assertFalse(es.isDoubleBookingRoom("HL205", t8, t6));
+    }
+
     /**
      * Cancel all events.
      */
@@ -329,4 +466,97 @@ public class EventServiceTest {
         assertEquals(expected3,actual3);
     }
 
+    @Test
+    public void testEventViews(){
+        List<String> speakers = new ArrayList<>();
+        speakers.add("sAmy");
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 3, "CSC207", t1, t2, "HL205", speakers, new ArrayList<>());
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 6, "Party", t5, t6, "Party Room", new ArrayList<>(),
+                new ArrayList<>());
+        assertTrue(es.addUserToEvent("aHelen", "CSC207"));
+
+        List<EventView> views = es.getEventViews();
+        assertEquals(2, views.size());
+        EventView talk = views.get(0);
+        assertEquals("CSC207", talk.getEventID());
+        assertEquals("2001-03-30 10:10", talk.getFormattedStartTime());
+        assertEquals("2001-03-30 11:10", talk.getFormattedEndTime());
+        assertEquals(1, talk.getRemainingSeats());
+        assertEquals(es.getListEvents().get(0).get(EventIndex.ATTENDEE_IDS.getValue()), talk.getAttendeeIDs());
+
+        // nothing changed, so the same snapshots are returned
+        assertSame(views, es.getEventViews());
+
+        // a snapshot keeps the state it was taken in; only the changed event gets a new one
+        assertTrue(es.addUserToEvent("aLeo", "CSC207"));
+        List<EventView> changed = es.getEventViews();
+        assertEquals(1, talk.getAttendeeIDs().size());
+        assertEquals(2, changed.get(0).getAttendeeIDs().size());
+        assertSame(views.get(1), changed.get(1));
+
+        assertTrue(es.cancelEventByID("Party"));
+        assertEquals(1, es.getEventViews().size());
+    }
+
+    @Test
+    public void getFreeTimes() {
+        List<String> s1 = new ArrayList<>();
+        s1.add("sNancy");
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 2, "CSC207",t1,t2,"HL205",new ArrayList<>(),new ArrayList<>());
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 2, "CSC263",t4,t5,"HL205",new ArrayList<>(),new ArrayList<>());
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 2, "MAT137",t5,t6,"SS206",s1,new ArrayList<>());
+        LocalDateTime from = LocalDateTime.parse("2001-03-30 10:00", format);
+        LocalDateTime to = LocalDateTime.parse("2001-03-30 14:00", format);
+
+        Map<String, List<List<LocalDateTime>>> free = es.getFreeTimes(Arrays.asList("HL205", "BA1007", "SS206"),
+                s1, from, to, Duration.ofMinutes(30));
+        assertEquals(Arrays.asList("HL205", "BA1007", "SS206"), new ArrayList<>(free.keySet()));
+        // the ten minutes before CSC207 are too short, and sNancy is busy in another room until 13:30
+        assertEquals(Arrays.asList(Arrays.asList(t2, t4), Arrays.asList(t6, to)), free.get("HL205"));
+        assertEquals(Arrays.asList(Arrays.asList(from, t5), Arrays.asList(t6, to)), free.get("BA1007"));
+        assertEquals(free.get("BA1007"), free.get("SS206"));
+
+        free = es.getFreeTimes(Arrays.asList("HL205"), new ArrayList<>(), from, to, Duration.ofMinutes(10));
+        assertEquals(Arrays.asList(Arrays.asList(from, t1), Arrays.asList(t2, t4), Arrays.asList(t5, to)),
+                free.get("HL205"));
+        assertTrue(es.getFreeTimes(Arrays.asList("HL205"), s1, t1, t2, Duration.ofMinutes(10)).isEmpty());
+    }
+
+    @Test
+    public void waitlistIsFirstComeFirstServed() {
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 2, "CSC207", t1, t2, "HL205", new ArrayList<>(),
+                new ArrayList<>(Arrays.asList("aHelen")));
+        assertFalse(es.addUserToWaitlist("aHelen", "CSC207"));
+        assertFalse(es.addUserToWaitlist("aLeo", "CSC263"));
+        assertTrue(es.addUserToWaitlist("aLeo", "CSC207"));
+        assertTrue(es.addUserToWaitlist("aJan", "CSC207"));
+        assertTrue(es.addUserToWaitlist("aMia", "CSC207"));
+        assertFalse(es.addUserToWaitlist("aJan", "CSC207"));
+        assertEquals(Arrays.asList("aLeo", "aJan", "aMia"), es.getWaitlist("CSC207"));
+        assertTrue(es.getWaitlist("CSC263").isEmpty());
+        assertTrue(es.hasWaitlist("CSC207"));
+        assertFalse(es.hasWaitlist("CSC263"));
+        assertEquals(3, es.getWaitlistSize("CSC207"));
+        assertEquals(2, es.getWaitlistPosition("aJan", "CSC207"));
+        assertEquals(0, es.getWaitlistPosition("aHelen", "CSC207"));
+
+        // one seat is free, and it goes to the front of the waitlist
+        assertEquals(Arrays.asList("aLeo"), es.promoteFromWaitlist("CSC207"));
+        assertEquals(Arrays.asList("aJan", "aMia"), es.getWaitlist("CSC207"));
+        assertTrue(es.isSignUpBefore("CSC207", "aLeo"));
+        assertTrue(es.promoteFromWaitlist("CSC207").isEmpty());
+
+        // a waiting user who gets a seat some other way leaves the waitlist
+        assertTrue(es.changeEventCapacity("CSC207", 4));
+        assertTrue(es.addUserToEvent("aMia", "CSC207"));
+        assertEquals(Arrays.asList("aJan"), es.getWaitlist("CSC207"));
+        assertTrue(es.removeUserFromWaitlist("aJan", "CSC207"));
+        assertFalse(es.removeUserFromWaitlist("aJan", "CSC207"));
+        assertTrue(es.addUserToWaitlist("aBob", "CSC207"));
+        assertTrue(es.addUserToWaitlist("aJan", "CSC207"));
+        assertEquals(Arrays.asList("aBob"), es.promoteFromWaitlist("CSC207"));
+        assertEquals(Arrays.asList("aHelen", "aLeo", "aMia", "aBob"), es.getUsersForEvent("CSC207"));
+        assertEquals(Arrays.asList("CSC207"), es.getEventsForAttendee("aBob"));
+        assertEquals(Arrays.asList(Arrays.asList("CSC207", "aJan")), es.getWaitlists());
+    }
 }
@@ -0,0 +1,150 @@
+package event_system_test;
+
+import event_system.*;
+import org.junit.Before;
+import org.junit.Test;
+import room_system.RoomService;
+import room_system.RoomServiceEngine;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ScheduleSolverTest {
+
+    private final EventService es = new EventServiceEngine();
+    private final RoomService rs = new RoomServiceEngine();
+    private final ScheduleSolver solver = new ScheduleSolver(es, rs);
+    private final LocalDateTime day1 = LocalDateTime.of(2021, 3, 30, 9, 0);
+    private final LocalDateTime day2 = LocalDateTime.of(2021, 3, 31, 9, 0);
+    private final List<List<LocalDateTime>> horizon = Arrays.asList(Arrays.asList(day1, day1.plusHours(8)),
+            Arrays.asList(day2, day2.plusHours(8)));
+    private final Map<String, Session> sessions = new LinkedHashMap<>();
+
+    @Before
+    public void setUp() {
+        rs.addRoom("Small", 20);
+        rs.addRoom("Medium", 60);
+        rs.addRoom("Large", 200);
+        rs.addRoom("Hall", 100);
+        solver.setThreads(4);
+        Random random = new Random(207);
+        for (int x = 0; x < 60; x++){
+            int speakers = x % 5 == 0 ? 0 : x % 5 == 1 ? 2 : 1;
+            List<String> speakerIDs = new ArrayList<>();
+            while (speakerIDs.size() < speakers){
+                String speakerID = "s" + random.nextInt(8);
+                if (!speakerIDs.contains(speakerID)) speakerIDs.add(speakerID);
+            }
+            EventType type = speakers == 0 ? EventType.NO_SPEAKER_EVENT
+                    : speakers == 1 ? EventType.SINGLE_SPEAKER_EVENT : EventType.MULTI_SPEAKER_EVENT;
+            int capacity = x % 6 == 0 ? 150 : x % 3 == 0 ? 50 : 15;
+            addSession(new Session("E" + x, type, capacity, speakerIDs,
+                    Duration.ofMinutes(30 * (1 + random.nextInt(2)))));
+        }
+    }
+
+    private void addSession(Session session){
+        sessions.put(session.getEventID(), session);
+    }
+
+    /*
+     * Checks every placement against the rooms, the horizon, the existing events and the other placements
+     */
+    private void assertConflictFree(Map<String, ScheduleSolver.Placement> placements){
+        Map<String, Integer> capacities = new HashMap<>();
+        for (List<String> room: rs.getAllRooms()){
+            capacities.put(room.get(0), Integer.parseInt(room.get(1)));
+        }
+        List<ScheduleSolver.Placement> placed = new ArrayList<>(placements.values());
+        for (int x = 0; x < placed.size(); x++){
+            ScheduleSolver.Placement a = placed.get(x);
+            Session session = sessions.get(a.getEventID());
+            assertTrue(capacities.get(a.getRoomID()) >= session.getEventCapacity());
+            assertEquals(a.getStartTime().plus(session.getLength()), a.getEndTime());
+            assertTrue(horizon.stream().anyMatch(window -> !a.getStartTime().isBefore(window.get(0))
+                    && !a.getEndTime().isAfter(window.get(1))));
+            assertFalse(es.isDoubleBookingRoom(a.getRoomID(), a.getStartTime(), a.getEndTime()));
+            assertFalse(es.isDoubleBookingSpeaker(session.getSpeakerIDs(), a.getStartTime(), a.getEndTime()));
+            for (int y = x + 1; y < placed.size(); y++){
+                ScheduleSolver.Placement b = placed.get(y);
+                boolean overlap = a.getStartTime().isBefore(b.getEndTime())
+                        && b.getStartTime().isBefore(a.getEndTime());
+                if (!overlap) continue;
+                assertNotEquals(a.getRoomID(), b.getRoomID());
+                assertTrue(Collections.disjoint(session.getSpeakerIDs(),
+                        sessions.get(b.getEventID()).getSpeakerIDs()));
+            }
+        }
+    }
+
+    @Test
+    public void placesSessionsWithoutConflicts() {
+        es.addEvent(EventType.SINGLE_SPEAKER_EVENT, 100, "Keynote", day1, day1.plusHours(2), "Large",
+                Collections.singletonList("s1"), new ArrayList<>());
+        addSession(new Session("Huge", EventType.NO_SPEAKER_EVENT, 500, new ArrayList<>(), Duration.ofHours(1)));
+
+        Map<String, ScheduleSolver.Placement> placements = solver.solve(new ArrayList<>(sessions.values()),
+                horizon);
+        assertEquals(60, placements.size());
+        assertFalse(placements.containsKey("Huge"));
+        assertEquals(new ArrayList<>(sessions.keySet()).subList(0, 60), new ArrayList<>(placements.keySet()));
+        assertConflictFree(placements);
+        // the small sessions that start first are given the smallest room
+        for (ScheduleSolver.Placement placement: placements.values()){
+            Session session = sessions.get(placement.getEventID());
+            if (placement.getStartTime().equals(day1) && session.getEventCapacity() <= 20){
+                assertNotEquals("Large", placement.getRoomID());
+            }
+        }
+    }
+
+    @Test
+    public void reusesPreviousPlacements() {
+        Map<String, ScheduleSolver.Placement> first = solver.solve(new ArrayList<>(sessions.values()), horizon);
+        assertEquals(0, solver.getReusedCount());
+
+        addSession(new Session("Late", EventType.SINGLE_SPEAKER_EVENT, 30, Collections.singletonList("s3"),
+                Duration.ofHours(1)));
+        addSession(new Session("E0", EventType.NO_SPEAKER_EVENT, 15, new ArrayList<>(), Duration.ofHours(2)));
+        Map<String, ScheduleSolver.Placement> second = solver.solve(new ArrayList<>(sessions.values()), horizon);
+        assertEquals(59, solver.getReusedCount());
+        for (String eventID: first.keySet()){
+            if (!eventID.equals("E0")) assertSame(first.get(eventID), second.get(eventID));
+        }
+        assertTrue(second.containsKey("Late"));
+        assertEquals(Duration.ofHours(2), Duration.between(second.get("E0").getStartTime(),
+                second.get("E0").getEndTime()));
+        assertConflictFree(second);
+
+        // a placement that is no longer free is made again
+        ScheduleSolver.Placement late = second.get("Late");
+        es.addEvent(EventType.NO_SPEAKER_EVENT, 10, "Blocker", late.getStartTime(), late.getEndTime(),
+                late.getRoomID(), new ArrayList<>(), new ArrayList<>());
+        Map<String, ScheduleSolver.Placement> third = solver.solve(new ArrayList<>(sessions.values()), horizon);
+        assertEquals(60, solver.getReusedCount());
+        assertConflictFree(third);
+    }
+
+    @Test
+    public void stopsAtTheDeadline() {
+        solver.setDeadline(Duration.ZERO);
+        solver.setMaxAttempts(100);
+        Map<String, ScheduleSolver.Placement> placements = solver.solve(new ArrayList<>(sessions.values()),
+                horizon);
+        assertEquals(1, solver.getAttemptCount());
+        assertTrue(placements.isEmpty());
+    }
+
+    @Test
+    public void keepsTheInterrupt() {
+        Thread.currentThread().interrupt();
+        Map<String, ScheduleSolver.Placement> placements = solver.solve(new ArrayList<>(sessions.values()),
+                horizon);
+        // Thread.interrupted also clears the flag for the next test
+        assertTrue(Thread.interrupted());
+        assertConflictFree(placements);
+    }
+}
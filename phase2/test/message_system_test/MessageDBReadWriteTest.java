@@ -9,6 +9,8 @@ import org.junit.Before;
 import org.junit.Test;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
@@ -129,9 +131,98 @@ public class MessageDBReadWriteTest {
         assertEquals(4, messageService.getMessageInfo().size());
     }
 
+    @Test
+    public void testStatusChangeKeepsOrder() {
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        LocalDateTime time1 = LocalDateTime.parse("2020-11-12 09:21:59", format);
+        messageService.addMessage(id1, "first", "user1", "user2", time1, MessageStatus.UNREAD);
+        messageService.addMessage(id2, "second", "user2", "user1", time1, MessageStatus.UNREAD);
+        assertTrue(messageDatabaseReadWriter.read());
+        assertTrue(messageDatabaseReadWriter.write());
+
+        messageService.changeMessageStatus(id1, MessageStatus.READ);
+        assertTrue(messageDatabaseReadWriter.write());
+
+        MessageService readService = new MessageServiceEngine();
+        assertTrue(new MessageDatabaseReadWriter(readService, "jdbc:sqlite:assets/UserDataTest.db").read());
+        assertEquals(id1.toString(), readService.getMessageInfo().get(0).get(0));
+        assertEquals(MessageStatus.READ.toString(), readService.getMessageInfo().get(0).get(5));
+        assertEquals(id2.toString(), readService.getMessageInfo().get(1).get(0));
+    }
+
+    @Test
+    public void testBroadcastStoredOnce() {
+        messageService.multiMessage("to everyone", "org1", Arrays.asList("user1", "user2", "user3"));
+        assertTrue(messageDatabaseReadWriter.write());
+        assertEquals(1, count("SELECT COUNT(*) FROM Broadcasts"));
+        assertEquals(3, count("SELECT COUNT(*) FROM Messages WHERE message IS NULL"));
+
+        MessageService readService = new MessageServiceEngine();
+        MessageDatabaseReadWriter readWriter = new MessageDatabaseReadWriter(readService,
+                "jdbc:sqlite:assets/UserDataTest.db");
+        assertTrue(readWriter.read());
+        List<List<String>> messages = readService.getMessageInfo();
+        assertEquals(3, messages.size());
+        assertEquals("to everyone", messages.get(2).get(3));
+        assertEquals(messages.get(0).get(4), messages.get(2).get(4));
+
+        // each receiver's message is still saved, and deleted, on its own
+        readService.changeMessageStatus(UUID.fromString(messages.get(0).get(0)), MessageStatus.READ);
+        readService.deleteMessage(UUID.fromString(messages.get(1).get(0)));
+        assertTrue(readWriter.write());
+        assertEquals(1, count("SELECT COUNT(*) FROM Messages WHERE status = 'READ'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM Broadcasts"));
+
+        readService.deleteMessage(UUID.fromString(messages.get(0).get(0)));
+        readService.deleteMessage(UUID.fromString(messages.get(2).get(0)));
+        assertTrue(readWriter.write());
+        assertEquals(0, count("SELECT COUNT(*) FROM Broadcasts"));
+    }
+
+    @Test
+    public void testReadMessagesTableWithoutBroadcasts() {
+        messageDatabaseReadWriter.deleteTable("Messages");
+        messageDatabaseReadWriter.createNewTable("CREATE TABLE Messages (messageID TEXT UNIQUE, sender TEXT, " +
+                "receiver TEXT, message TEXT, time TEXT, status TEXT)");
+        UUID id1 = UUID.randomUUID();
+        messageDatabaseReadWriter.updateRows("INSERT INTO Messages VALUES(?,?,?,?,?,?)", id1.toString(), "user1",
+                "user2", "from before broadcasts", "2020-11-12 09:21:59", "UNREAD");
+
+        assertTrue(messageDatabaseReadWriter.read());
+        assertEquals("from before broadcasts", messageService.showMessage("user2").get(0).get(3));
+        messageService.multiMessage("new", "user1", Arrays.asList("user2", "user3"));
+        assertTrue(messageDatabaseReadWriter.write());
+        assertEquals(2, count("SELECT COUNT(*) FROM Messages WHERE broadcastID IS NOT NULL"));
+    }
+
+    @Test
+    public void testReadInParallelChunks() {
+        for (int x = 0; x < 30; x++) {
+            messageService.addMessage("message " + x, "user" + x % 4, "user" + x % 5);
+        }
+        messageService.multiMessage("to everyone", "org1", Arrays.asList("user1", "user2", "user3"));
+        assertTrue(messageDatabaseReadWriter.write());
+        messageDatabaseReadWriter.updateRows("INSERT INTO Messages(messageID,sender,receiver,message,time,status) " +
+                "VALUES('not an id','user1','user2','bad','2020-11-12 09:21:59','UNREAD')");
+
+        MessageService readService = new MessageServiceEngine();
+        MessageDatabaseReadWriter readWriter = new MessageDatabaseReadWriter(readService,
+                "jdbc:sqlite:assets/UserDataTest.db");
+        readWriter.setReadChunkSize(7);
+        assertTrue(readWriter.read());
+        assertEquals(messageService.getMessageRecords(), readService.getMessageRecords());
+        assertTrue(readService.getChangedMessages().isEmpty());
+    }
+
+    private int count(String sql) {
+        return messageDatabaseReadWriter.queryRows(sql, row -> row.getInt(1)).get(0);
+    }
+
     @After
     public void tearDown() {
         messageDatabaseReadWriter.deleteAllData("Messages");
         messageDatabaseReadWriter.deleteTable("Messages");
+        messageDatabaseReadWriter.deleteTable("Broadcasts");
     }
 }
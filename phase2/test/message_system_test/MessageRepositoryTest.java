@@ -0,0 +1,122 @@
+package message_system_test;
+
+import message_system.MessageDatabaseReadWriter;
+import message_system.MessagePage;
+import message_system.MessageRepository;
+import message_system.MessageServiceEngine;
+import message_system.MessageStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class MessageRepositoryTest {
+
+    private final String address = "jdbc:sqlite:assets/UserDataTest.db";
+    private final DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final MessageDatabaseReadWriter db = new MessageDatabaseReadWriter(new MessageServiceEngine(), address);
+    private MessageRepository repository;
+
+    @Before
+    public void Setup() {
+        if (db.tableExists("Messages")) db.deleteTable("Messages");
+        if (db.tableExists("Broadcasts")) db.deleteTable("Broadcasts");
+        repository = new MessageRepository(address, 1);
+        assertTrue(repository.prepare());
+    }
+
+    @After
+    public void tearDown() {
+        if (db.tableExists("Messages")) db.deleteTable("Messages");
+        if (db.tableExists("Broadcasts")) db.deleteTable("Broadcasts");
+    }
+
+    @Test
+    public void testConversationKeepsOrder() {
+        UUID id1 = UUID.randomUUID();
+        LocalDateTime time1 = LocalDateTime.parse("2020-11-12 09:21:59", format);
+        repository.addMessage(id1, "hi", "user1", "user2", time1, MessageStatus.UNREAD);
+        repository.addMessage("hello", "user2", "user1");
+        repository.multiMessage("everyone", "user1", Arrays.asList("user2", "user3"));
+
+        List<List<String>> conversation = new MessageRepository(address).showConversation("user1", "user2");
+        assertEquals(3, conversation.size());
+        assertEquals(Arrays.asList(id1.toString(), "user1", "user2", "hi", "2020-11-12 09:21:59", "UNREAD"),
+                conversation.get(0));
+        assertEquals("hello", conversation.get(1).get(3));
+        assertEquals("everyone", conversation.get(2).get(3));
+        assertEquals(4, repository.showMessage("user1").size());
+        assertEquals(1, repository.showMessage("user3").size());
+    }
+
+    @Test
+    public void testStatusAndDelete() {
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        LocalDateTime time = LocalDateTime.parse("2020-11-12 09:21:59", format);
+        repository.addMessage(id1, "first", "user1", "user2", time, MessageStatus.UNREAD);
+        repository.addMessage(id2, "second", "user1", "user2", time, MessageStatus.UNREAD);
+
+        repository.changeMessageStatus(id1, MessageStatus.ARCHIVE);
+        assertEquals(1, repository.getGivenStatusMessages(MessageStatus.ARCHIVE, "user2").size());
+        assertEquals(id2.toString(), repository.getGivenStatusMessages(MessageStatus.UNREAD).get(0).get(0));
+
+        repository.deleteMessage(id2);
+        assertTrue(repository.messageIdExists(id1));
+        assertFalse(repository.messageIdExists(id2));
+        assertEquals(1, new MessageRepository(address).getMessageInfo().size());
+    }
+
+    @Test
+    public void testMessagePages() {
+        for (int i = 0; i < 5; i++) {
+            repository.addMessage("m" + i, "user1", "user2");
+            repository.addMessage("other" + i, "user3", "user4");
+        }
+        repository.changeMessageStatus(UUID.fromString(repository.showMessage("user1").get(3).get(0)),
+                MessageStatus.ARCHIVE);
+
+        MessagePage first = repository.showMessagePage("user2", null, 2);
+        assertEquals(Arrays.asList("m0", "m1"), Arrays.asList(first.getMessages().get(0).get(3),
+                first.getMessages().get(1).get(3)));
+        repository.addMessage("m5", "user2", "user1");
+        MessagePage second = repository.showMessagePage("user2", first.getNextCursor(), 2);
+        assertEquals("m2", second.getMessages().get(0).get(3));
+        MessagePage last = repository.showMessagePage("user2", second.getNextCursor(), 2);
+        assertEquals("m4", last.getMessages().get(0).get(3));
+        assertEquals("m5", last.getMessages().get(1).get(3));
+        assertFalse(last.hasNextPage());
+
+        MessagePage archived = repository.getGivenStatusMessagesPage(MessageStatus.ARCHIVE, "user1", null, 1);
+        assertEquals("m3", archived.getMessages().get(0).get(3));
+        assertFalse(archived.hasNextPage());
+        assertEquals(repository.getMessageInfo().subList(4, 8),
+                repository.getMessageInfoPage(repository.getMessageInfoPage(null, 4).getNextCursor(), 4).getMessages());
+    }
+
+    @Test
+    public void testBroadcastStoredOnce() {
+        repository.multiMessage("to everyone", "org1", Arrays.asList("user1", "user2", "user3"));
+        List<List<String>> sent = repository.showMessage("org1");
+        assertEquals(3, sent.size());
+        assertEquals("to everyone", sent.get(1).get(3));
+        assertEquals(Integer.valueOf(1), db.queryRows("SELECT COUNT(*) FROM Broadcasts", row -> row.getInt(1)).get(0));
+
+        UUID first = UUID.fromString(sent.get(0).get(0));
+        repository.changeMessageStatus(first, MessageStatus.READ);
+        assertEquals(1, repository.getGivenStatusMessages(MessageStatus.READ, "user1").size());
+        assertEquals(0, repository.getGivenStatusMessages(MessageStatus.READ, "user2").size());
+
+        repository.deleteMessage(first);
+        assertEquals("to everyone", new MessageRepository(address).showMessage("user2").get(0).get(3));
+        repository.deleteMessage(UUID.fromString(sent.get(1).get(0)));
+        repository.deleteMessage(UUID.fromString(sent.get(2).get(0)));
+        assertEquals(Integer.valueOf(0), db.queryRows("SELECT COUNT(*) FROM Broadcasts", row -> row.getInt(1)).get(0));
+    }
+}
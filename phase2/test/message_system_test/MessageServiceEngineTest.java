@@ -7,11 +7,14 @@ import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class MessageServiceEngineTest {
 
@@ -138,10 +141,122 @@ public class MessageServiceEngineTest {
         assertEquals(0, testMessageService.getGivenStatusMessages(MessageStatus.ARCHIVE).size());
     }
 
+    @Test
+    public void indexesAfterStatusChangeAndDelete() {
+        testMessageService.addMessage("hi user2", "user1", "user2");
+        testMessageService.addMessage("hi user3", "user1", "user3");
+        testMessageService.addMessage("hi user1", "user2", "user1");
+        UUID first = UUID.fromString(testMessageService.getMessageInfo().get(0).get(0));
+        UUID reply = UUID.fromString(testMessageService.getMessageInfo().get(2).get(0));
+
+        assertEquals(2, testMessageService.showConversation("user2", "user1").size());
+        assertEquals(1, testMessageService.showMessage("user3").size());
+
+        testMessageService.changeMessageStatus(reply, MessageStatus.READ);
+        testMessageService.changeMessageStatus(first, MessageStatus.READ);
+        List<List<String>> read = testMessageService.getGivenStatusMessages(MessageStatus.READ);
+        // messages stay in the order they were sent, not the order they were read
+        assertEquals(first.toString(), read.get(0).get(0));
+        assertEquals(reply.toString(), read.get(1).get(0));
+        assertEquals(0, testMessageService.getGivenStatusMessages(MessageStatus.READ, "user3").size());
+        assertEquals(1, testMessageService.getGivenStatusMessages(MessageStatus.UNREAD, "user3").size());
+
+        testMessageService.deleteMessage(first);
+        assertEquals(1, testMessageService.showConversation("user1", "user2").size());
+        assertEquals(1, testMessageService.getGivenStatusMessages(MessageStatus.READ).size());
+        assertEquals(2, testMessageService.showMessage("user1").size());
+    }
+
     @After
     public void tearDown(){
         File file = new File(this.test_file_name);
         file.delete();
     }
 
+    @Test
+    public void testMessagePages() {
+        for (int i = 0; i < 5; i++) {
+            testMessageService.addMessage("m" + i, "user1", "user2");
+            testMessageService.addMessage("other" + i, "user3", "user4");
+        }
+        testMessageService.changeMessageStatus(UUID.fromString(testMessageService.showMessage("user1").get(3).get(0)),
+                MessageStatus.ARCHIVE);
+
+        MessagePage first = testMessageService.showMessagePage("user2", null, 2);
+        assertEquals("m0", first.getMessages().get(0).get(3));
+        assertEquals("m1", first.getMessages().get(1).get(3));
+        assertTrue(first.hasNextPage());
+        // messages sent after a page was read are included in later pages
+        testMessageService.addMessage("m5", "user2", "user1");
+        MessagePage second = testMessageService.showMessagePage("user2", first.getNextCursor(), 2);
+        assertEquals("m2", second.getMessages().get(0).get(3));
+        MessagePage last = testMessageService.showMessagePage("user2", second.getNextCursor(), 2);
+        assertEquals("m4", last.getMessages().get(0).get(3));
+        assertEquals("m5", last.getMessages().get(1).get(3));
+        assertFalse(last.hasNextPage());
+
+        MessagePage archived = testMessageService.getGivenStatusMessagesPage(MessageStatus.ARCHIVE, "user1", null, 1);
+        assertEquals("m3", archived.getMessages().get(0).get(3));
+        assertFalse(archived.hasNextPage());
+        assertEquals(11, testMessageService.getMessageInfoPage(null, 20).getMessages().size());
+        assertEquals(testMessageService.getMessageInfo().subList(4, 8),
+                testMessageService.getMessageInfoPage(testMessageService.getMessageInfoPage(null, 4).getNextCursor(),
+                        4).getMessages());
+    }
+
+    @Test
+    public void testMultiMessageSharesBody() {
+        testMessageService.multiMessage("to everyone", "org1", Arrays.asList("user1", "user2", "user3"));
+        List<List<String>> records = testMessageService.getChangedMessages();
+        assertEquals(3, records.size());
+        String broadcastId = records.get(0).get(MessageIndex.BROADCAST_ID.getValue());
+        assertFalse(broadcastId.isEmpty());
+        for (List<String> record : records) {
+            assertEquals(broadcastId, record.get(MessageIndex.BROADCAST_ID.getValue()));
+            assertEquals("to everyone", record.get(MessageIndex.MESSAGE_INFO.getValue()));
+        }
+
+        // every receiver keeps their own status
+        UUID first = UUID.fromString(testMessageService.showMessage("user1").get(0).get(0));
+        testMessageService.changeMessageStatus(first, MessageStatus.READ);
+        assertEquals(1, testMessageService.getGivenStatusMessages(MessageStatus.READ).size());
+        assertEquals(1, testMessageService.getGivenStatusMessages(MessageStatus.UNREAD, "user2").size());
+        assertEquals(3, testMessageService.showMessage("org1").size());
+
+        testMessageService.deleteMessage(first);
+        assertEquals(0, testMessageService.showMessage("user1").size());
+        assertEquals("to everyone", testMessageService.showMessage("user3").get(0).get(3));
+        assertEquals(2, testMessageService.getMessageRecords().size());
+    }
+
+    @Test
+    public void testAddMessagesSharesBroadcastBody() {
+        UUID broadcastId = UUID.randomUUID();
+        LocalDateTime time = LocalDateTime.parse("2020-11-12 09:21:59", formatter);
+        List<Message> messages = new ArrayList<>();
+        messages.add(new Message(UUID.randomUUID(), new MessageBody(broadcastId, "to everyone", "org1", time),
+                "user1", MessageStatus.UNREAD));
+        messages.add(new Message(UUID.randomUUID(), new MessageBody(broadcastId, "changed", "org1", time),
+                "user2", MessageStatus.READ));
+        messages.add(new Message(UUID.randomUUID(), "direct", "user1", "user2", time, MessageStatus.UNREAD));
+        testMessageService.addMessages(messages);
+
+        assertEquals(3, testMessageService.getMessageRecords().size());
+        assertEquals("to everyone", testMessageService.getGivenStatusMessages(MessageStatus.READ).get(0).get(3));
+        assertEquals(2, testMessageService.showMessage("user2").size());
+        assertEquals(3, testMessageService.getChangedMessages().size());
+    }
+
+    @Test
+    public void testCompactMessageFields() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime time = LocalDateTime.of(2020, 11, 12, 9, 21, 59, 123_456_789);
+        Message message = new Message(id, "hello", new String("user1"), new String("user2"), time,
+                MessageStatus.UNREAD);
+        assertEquals(id, message.getMessageID());
+        assertTrue(message.getSenderID() == "user1");
+        assertTrue(message.getReceiverID() == "user2");
+        assertEquals(time.withNano(0), message.getTime());
+        assertEquals("2020-11-12 09:21:59", message.getTimeString());
+    }
 }
@@ -7,6 +7,7 @@ import org.junit.Test;
 
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -37,4 +38,21 @@ public class RoomServiceTest {
         assertTrue(testRoomService.isExceedingRoomCapacity(5,"BA1007"));
         assertFalse(testRoomService.isExceedingRoomCapacity(2,"BA1007"));
     }
+
+    @Test
+    public void getRoomsWithCapacity(){
+        testRoomService.addRoom("BA1007",40);
+        testRoomService.addRoom("HL205",10);
+        testRoomService.addRoom("PG101",25);
+        testRoomService.addRoom("SS206",25);
+        testRoomService.addRoom("HL205",90);
+
+        List<List<String>> rooms = testRoomService.getRoomsWithCapacity(20);
+        assertEquals(3, rooms.size());
+        assertEquals(Arrays.asList("PG101", "25"), rooms.get(0));
+        assertEquals(Arrays.asList("SS206", "25"), rooms.get(1));
+        assertEquals(Arrays.asList("BA1007", "40"), rooms.get(2));
+        assertEquals(4, testRoomService.getRoomsWithCapacity(0).size());
+        assertTrue(testRoomService.getRoomsWithCapacity(41).isEmpty());
+    }
 }
@@ -0,0 +1,224 @@
+package user_system_test;
+
+import database.ConnectionPool;
+import database.DatabaseReadWriter;
+import org.junit.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConnectionPoolTest extends DatabaseReadWriter {
+
+    private ConnectionPool pool;
+
+    public ConnectionPoolTest() {
+        super("jdbc:sqlite:assets/UserDataTest.db");
+    }
+
+    @Before
+    public void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:assets/UserDataTest.db");
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void reusesReturnedConnections() throws SQLException {
+        Connection first = pool.borrow();
+        assertEquals(1, pool.getActiveCount());
+        first.close();
+        assertTrue(first.isClosed());
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        Connection second = pool.borrow();
+        assertFalse(second.isClosed());
+        second.close();
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(2, pool.getBorrowCount());
+        assertEquals(1, pool.getPeakActiveCount());
+    }
+
+    @Test
+    public void keepsAtMostMaxIdleConnections() throws SQLException {
+        pool.setMaxIdle(2);
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            connections.add(pool.borrow());
+        }
+        assertEquals(3, pool.getPeakActiveCount());
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    public void rollsBackUncommittedWorkOnReturn() throws SQLException {
+        Connection connection = pool.borrow();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        Connection reused = pool.borrow();
+        assertTrue(reused.getAutoCommit());
+        reused.close();
+    }
+
+    @Test
+    public void reportsConnectionsHeldPastThreshold() throws Exception {
+        pool.setLeakThresholdMillis(1);
+        Connection held = pool.borrow();
+        Thread.sleep(5);
+        assertEquals(1, pool.reportLeaks());
+        assertEquals(1, pool.reportLeaks());
+        assertEquals(1, pool.getLeakCount());
+        held.close();
+        assertEquals(0, pool.reportLeaks());
+    }
+
+    @Test
+    public void reportsBorrowSitesOnlyWhenAsked() throws Exception {
+        pool.setLeakThresholdMillis(1);
+        PrintStream out = System.out;
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(report, true));
+        try {
+            Connection held = pool.borrow();
+            Thread.sleep(5);
+            assertEquals(1, pool.reportLeaks());
+            held.close();
+            assertFalse(report.toString().contains("Connection borrowed here"));
+
+            pool.setRecordBorrowSites(true);
+            held = pool.borrow();
+            Thread.sleep(5);
+            assertEquals(1, pool.reportLeaks());
+            held.close();
+            assertTrue(report.toString().contains("Connection borrowed here"));
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void returnedHandleCannotBeUsed() throws SQLException {
+        Connection connection = pool.borrow();
+        connection.close();
+        connection.createStatement();
+    }
+
+    @Test
+    public void closedPoolRefusesBorrows() {
+        pool.close();
+        try {
+            pool.borrow();
+            fail();
+        } catch (SQLException e) {
+            assertTrue(pool.isClosed());
+        }
+    }
+
+    @Test
+    public void reusesPreparedStatementsOnSameConnection() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = pool.borrow();
+                 PreparedStatement query = connection.prepareStatement("SELECT ? + 1")) {
+                query.setInt(1, i);
+                try (ResultSet result = query.executeQuery()) {
+                    assertTrue(result.next());
+                    assertEquals(i + 1, result.getInt(1));
+                }
+                assertSame(connection, query.getConnection());
+            }
+        }
+        assertEquals(1, pool.getStatementCacheMisses());
+        assertEquals(2, pool.getStatementCacheHits());
+    }
+
+    @Test
+    public void closingConnectionReturnsOpenStatements() throws SQLException {
+        Connection connection = pool.borrow();
+        PreparedStatement query = connection.prepareStatement("SELECT 1");
+        ResultSet result = query.executeQuery();
+        connection.close();
+        assertTrue(query.isClosed());
+        assertTrue(result.isClosed());
+
+        try (Connection reused = pool.borrow();
+             PreparedStatement again = reused.prepareStatement("SELECT 1")) {
+            assertFalse(again.isClosed());
+        }
+        assertEquals(1, pool.getStatementCacheHits());
+    }
+
+    @Test
+    public void cachedStatementsSeeSchemaChanges() throws SQLException {
+        try (Connection connection = pool.borrow(); Statement action = connection.createStatement()) {
+            action.execute("CREATE TABLE IF NOT EXISTS CacheTest (name TEXT)");
+            action.execute("INSERT INTO CacheTest(name) VALUES('cached')");
+        }
+        for (int columns = 1; columns <= 2; columns++) {
+            try (Connection connection = pool.borrow();
+                 PreparedStatement query = connection.prepareStatement("SELECT * FROM CacheTest");
+                 ResultSet result = query.executeQuery()) {
+                assertTrue(result.next());
+                assertEquals(columns, result.getMetaData().getColumnCount());
+            }
+            try (Connection connection = pool.borrow(); Statement action = connection.createStatement()) {
+                action.execute(columns == 1 ? "ALTER TABLE CacheTest ADD COLUMN size INTEGER"
+                        : "DROP TABLE CacheTest");
+            }
+        }
+        assertEquals(1, pool.getStatementCacheHits());
+    }
+
+    @Test
+    public void statementCacheCanBeTurnedOff() throws SQLException {
+        pool.setStatementCacheSize(0);
+        for (int i = 0; i < 2; i++) {
+            try (Connection connection = pool.borrow();
+                 PreparedStatement query = connection.prepareStatement("SELECT 1")) {
+                assertTrue(query.execute());
+            }
+        }
+        assertEquals(0, pool.getStatementCacheHits());
+        assertEquals(0, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    public void gatewayOperationsReturnTheirConnections() {
+        ConnectionPool shared = getConnectionPool();
+        createNewTable("CREATE TABLE IF NOT EXISTS PoolTest (name TEXT UNIQUE);");
+        List<String> row = new ArrayList<>();
+        row.add("pooled");
+        assertTrue(insertIntoDB(row, "PoolTest(name)", "VALUES(?)"));
+        assertTrue(deleteRowFromDB("PoolTest", "name", "pooled"));
+        assertTrue(tableExists("PoolTest"));
+        assertTrue(deleteTable("PoolTest"));
+        assertEquals(0, shared.getActiveCount());
+        assertSame(shared, getConnectionPool());
+    }
+
+    @Override
+    public boolean read() {
+        return false;
+    }
+
+    @Override
+    public boolean write() {
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package user_system_test;
+
+import database.DatabaseReadWriter;
+import database.SchemaManager;
+import org.junit.*;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SchemaManagerTest extends DatabaseReadWriter {
+
+    private final SchemaManager schemas = getSchemaManager();
+    private final List<String> steps = new ArrayList<>();
+
+    public SchemaManagerTest() {
+        super("jdbc:sqlite:assets/UserDataTest.db");
+    }
+
+    private Transaction step(String name, String sql) {
+        return connection -> {
+            steps.add(name);
+            try (Statement action = connection.createStatement()) {
+                action.execute(sql);
+            }
+        };
+    }
+
+    @Before
+    public void setUp() {
+        if (tableExists("SchemaTest")) deleteTable("SchemaTest");
+        schemas.reset();
+    }
+
+    @After
+    public void tearDown() {
+        if (tableExists("SchemaTest")) deleteTable("SchemaTest");
+    }
+
+    @Test
+    public void runsMissingMigrationsOnce() {
+        Transaction create = step("create", "CREATE TABLE IF NOT EXISTS SchemaTest (name TEXT)");
+        assertTrue(ensureSchema("SchemaTest", create));
+        assertTrue(ensureSchema("SchemaTest", create));
+        assertEquals(Collections.singletonList("create"), steps);
+        assertEquals(1, schemas.getVersion("SchemaTest"));
+
+        long migrations = schemas.getMigrationCount();
+        assertTrue(ensureSchema("SchemaTest", create,
+                step("alter", "ALTER TABLE SchemaTest ADD COLUMN size INTEGER")));
+        assertEquals(Arrays.asList("create", "alter"), steps);
+        assertEquals(migrations + 1, schemas.getMigrationCount());
+        assertEquals(2, schemas.getVersion("SchemaTest"));
+    }
+
+    @Test
+    public void failedMigrationLeavesVersionUnchanged() {
+        Transaction create = step("create", "CREATE TABLE IF NOT EXISTS SchemaTest (name TEXT)");
+        assertTrue(ensureSchema("SchemaTest", create));
+        assertFalse(ensureSchema("SchemaTest", create, step("bad", "ALTER TABLE Missing ADD COLUMN size")));
+        assertEquals(1, schemas.getVersion("SchemaTest"));
+        assertFalse(ensureSchema("SchemaTest"));
+    }
+
+    @Test
+    public void droppingTableRunsMigrationsAgain() {
+        Transaction create = step("create", "CREATE TABLE IF NOT EXISTS SchemaTest (name TEXT)");
+        assertTrue(ensureSchema("SchemaTest", create));
+        assertTrue(deleteTable("SchemaTest"));
+        assertFalse(tableExists("SchemaTest"));
+        assertEquals(0, schemas.getVersion("SchemaTest"));
+
+        assertTrue(ensureSchema("SchemaTest", create));
+        assertTrue(tableExists("SchemaTest"));
+        assertEquals(Arrays.asList("create", "create"), steps);
+    }
+
+    @Override
+    public boolean read() {
+        return false;
+    }
+
+    @Override
+    public boolean write() {
+        return false;
+    }
+}
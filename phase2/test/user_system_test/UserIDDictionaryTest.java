@@ -0,0 +1,56 @@
+package user_system_test;
+
+import org.junit.Test;
+import user_system.UserIDDictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class UserIDDictionaryTest {
+
+    @Test
+    public void numbersAreDenseAndStable() {
+        UserIDDictionary dictionary = new UserIDDictionary();
+        assertEquals(-1, dictionary.find("aHelen"));
+        for (int x = 0; x < 200; x++){
+            assertEquals(x, dictionary.idOf("user" + x));
+        }
+        assertEquals(7, dictionary.idOf("user7"));
+        assertEquals(7, dictionary.find("user7"));
+        assertEquals("user199", dictionary.nameOf(199));
+        assertEquals(200, dictionary.size());
+    }
+
+    @Test
+    public void threadsAgreeOnNumbers() throws Exception {
+        UserIDDictionary dictionary = new UserIDDictionary();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++){
+                results.add(pool.submit(() -> {
+                    int[] ids = new int[1_000];
+                    for (int x = 0; x < ids.length; x++){
+                        ids[x] = dictionary.idOf("user" + x);
+                        assertEquals("user" + x, dictionary.nameOf(ids[x]));
+                    }
+                    return ids;
+                }));
+            }
+            int[] first = results.get(0).get(30, TimeUnit.SECONDS);
+            for (Future<int[]> result: results){
+                assertArrayEquals(first, result.get(30, TimeUnit.SECONDS));
+            }
+            Set<Integer> distinct = ConcurrentHashMap.newKeySet();
+            for (int id: first) distinct.add(id);
+            assertEquals(1_000, distinct.size());
+            assertEquals(1_000, dictionary.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
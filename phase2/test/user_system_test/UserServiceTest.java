@@ -320,4 +320,36 @@ public class UserServiceTest {
         assertNull(service.userTypeFromUsers("$invalidInput"));
     }
 
+    @Test
+    public void isUserOfTypeTest() {
+        String[][] info = {{"att1","pass1", "ATTENDEE"}, {"att2", "pass2", "ATTENDEE"},{"org1","pass3", "ORGANIZER"},{"spk1", "pass4", "SPEAKER"},{"testUser","pass5", "ADMIN"}};
+        for(String[] a:info){
+            service.addUser(a[0],a[1], UserType.valueOf(a[2]));
+        }
+        for(String[] a:info){
+            for(UserType type: UserType.values()){
+                assertEquals(type == UserType.valueOf(a[2]), service.isUserOfType(a[0], type));
+            }
+        }
+        assertFalse(service.isUserOfType("att12", UserType.ATTENDEE));
+
+        assertTrue(service.removeUser("att1"));
+        assertFalse(service.isUserOfType("att1", UserType.ATTENDEE));
+        assertFalse(service.getListOfIDsByType(UserType.ATTENDEE).contains("att1"));
+    }
+
+    @Test
+    public void readdedUserTest() {
+        service.addUser("att1","pass1", UserType.ATTENDEE);
+        service.addUser("att2","pass2", UserType.ATTENDEE);
+        assertTrue(service.removeUser("att1"));
+        service.addUser("att1","newPass", UserType.SPEAKER);
+
+        assertFalse(service.validateCredentials("att1","pass1"));
+        assertTrue(service.validateCredentials("att1","newPass"));
+        assertEquals(UserType.SPEAKER, service.userTypeFromUsers("att1"));
+        assertEquals(1, service.getListOfIDsByType(UserType.ATTENDEE).size());
+        assertEquals("att1", service.getListOfIDsByType(UserType.SPEAKER).get(0));
+    }
+
 }
@@ -0,0 +1,96 @@
+package user_system_test;
+
+import database.WriteBehindQueue;
+import org.junit.*;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindQueueTest {
+
+    private final AtomicInteger saves = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean(false);
+    private final Semaphore saved = new Semaphore(0);
+    private volatile Thread save_thread;
+    private WriteBehindQueue queue;
+
+    private boolean save() {
+        save_thread = Thread.currentThread();
+        saves.incrementAndGet();
+        saved.release();
+        return !failing.get();
+    }
+
+    @After
+    public void tearDown() {
+        if (queue != null) queue.close();
+    }
+
+    @Test
+    public void savesOnceThresholdIsReached() throws InterruptedException {
+        queue = new WriteBehindQueue(this::save, 60_000, 3);
+        queue.changed();
+        queue.changed();
+        assertEquals(2, queue.getPendingChanges());
+        assertEquals(0, saves.get());
+
+        queue.changed();
+        assertTrue(saved.tryAcquire(5, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread(), save_thread);
+        assertEquals(1, saves.get());
+        assertEquals(0, queue.getPendingChanges());
+        assertEquals(3, queue.getMaxPendingChanges());
+    }
+
+    @Test
+    public void coalescesChangesWithinInterval() throws InterruptedException {
+        queue = new WriteBehindQueue(this::save, 100, 1_000);
+        for (int x = 0; x < 50; x++) {
+            queue.changed();
+        }
+        assertTrue(saved.tryAcquire(5, TimeUnit.SECONDS));
+        assertEquals(1, saves.get());
+        assertFalse(saved.tryAcquire(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, queue.getSaveCount());
+        assertEquals(50, queue.getSavedChangeCount());
+    }
+
+    @Test
+    public void flushSavesImmediately() {
+        queue = new WriteBehindQueue(this::save, 60_000, 1_000);
+        queue.changed();
+        queue.changed();
+        assertTrue(queue.flush());
+        assertEquals(1, saves.get());
+        assertEquals(0, queue.getPendingChanges());
+        assertEquals(2, queue.getSavedChangeCount());
+    }
+
+    @Test
+    public void failedSaveKeepsChanges() {
+        queue = new WriteBehindQueue(this::save, 60_000, 1_000);
+        failing.set(true);
+        queue.changed();
+        assertFalse(queue.flush());
+        assertEquals(1, queue.getPendingChanges());
+        assertEquals(1, queue.getFailedSaveCount());
+
+        failing.set(false);
+        assertTrue(queue.flush());
+        assertEquals(0, queue.getPendingChanges());
+        assertEquals(1, queue.getSavedChangeCount());
+    }
+
+    @Test
+    public void closeSavesAndRefusesChanges() {
+        queue = new WriteBehindQueue(this::save, 60_000, 1_000);
+        queue.changed();
+        assertTrue(queue.close());
+        assertEquals(1, saves.get());
+        assertThrows(IllegalStateException.class, () -> queue.changed());
+    }
+}